@@ -39,6 +39,9 @@ public class SnowflakeSinkConnectorConfig {
   // Connector config
   public static final String TOPICS_TABLES_MAP = "snowflake.topic2table.map";
 
+  // Maximum number of tasks, defined by Kafka Connect
+  public static final String TASKS_MAX = "tasks.max";
+
   // For tombstone records
   public static final String BEHAVIOR_ON_NULL_VALUES_CONFIG = "behavior.on.null.values";
 
@@ -54,6 +57,20 @@ public class SnowflakeSinkConnectorConfig {
   public static final String BUFFER_COUNT_RECORDS = "buffer.count.records";
   public static final long BUFFER_COUNT_RECORDS_DEFAULT = 10000;
 
+  // Bytes of all buffers in the worker JVM, 0 disables the budget
+  public static final String BUFFER_MEMORY_BUDGET_BYTES = "snowflake.buffer.memory.budget.bytes";
+  public static final long BUFFER_MEMORY_BUDGET_BYTES_DEFAULT = 0;
+
+  // Share of the budget at which the largest buffers are flushed
+  public static final String BUFFER_MEMORY_HIGH_WATERMARK_PERCENT =
+      "snowflake.buffer.memory.highWatermark.percent";
+  public static final int BUFFER_MEMORY_HIGH_WATERMARK_PERCENT_DEFAULT = 80;
+
+  // Share of the budget below which paused partitions are resumed
+  public static final String BUFFER_MEMORY_LOW_WATERMARK_PERCENT =
+      "snowflake.buffer.memory.lowWatermark.percent";
+  public static final int BUFFER_MEMORY_LOW_WATERMARK_PERCENT_DEFAULT = 50;
+
   // Snowflake connection and database config
   public static final String SNOWFLAKE_URL = Utils.SF_URL;
   public static final String SNOWFLAKE_USER = Utils.SF_USER;
@@ -88,6 +105,9 @@ public class SnowflakeSinkConnectorConfig {
   // JDBC properties map
   public static final String SNOWFLAKE_JDBC_MAP = "snowflake.jdbc.map";
 
+  // Codecs of custom Connect logical types, comma separated class names of LogicalTypeCodec
+  public static final String LOGICAL_TYPE_CODECS = "snowflake.logical.type.codecs";
+
   // Snowflake Metadata Flags
   public static final String SNOWFLAKE_METADATA_CREATETIME = "snowflake.metadata.createtime";
   public static final String SNOWFLAKE_METADATA_TOPIC = "snowflake.metadata.topic";
@@ -95,6 +115,14 @@ public class SnowflakeSinkConnectorConfig {
       "snowflake.metadata.offset.and.partition";
   public static final String SNOWFLAKE_METADATA_ALL = "snowflake.metadata.all";
   public static final String SNOWFLAKE_METADATA_DEFAULT = "true";
+  // Glob patterns of the Kafka header keys written into the metadata
+  public static final String SNOWFLAKE_METADATA_HEADERS_INCLUDE =
+      "snowflake.metadata.headers.include";
+  public static final String SNOWFLAKE_METADATA_HEADERS_EXCLUDE =
+      "snowflake.metadata.headers.exclude";
+  // Write topic, partition, offset, timestamp, key and push time into separate typed columns
+  public static final String SNOWFLAKE_METADATA_TYPED_COLUMNS = "snowflake.metadata.typed.columns";
+  public static final boolean SNOWFLAKE_METADATA_TYPED_COLUMNS_DEFAULT = false;
 
   public static final String SNOWFLAKE_STREAMING_METADATA_CONNECTOR_PUSH_TIME =
       "snowflake.streaming.metadata.connectorPushTime";
@@ -142,11 +170,75 @@ public class SnowflakeSinkConnectorConfig {
       "snowflake.streaming.closeChannelsInParallel.enabled";
   public static final boolean SNOWPIPE_STREAMING_CLOSE_CHANNELS_IN_PARALLEL_DEFAULT = true;
 
+  // Maximum number of streaming channels opened in parallel when partitions are assigned, 1 opens
+  // them one at a time
+  public static final String SNOWPIPE_STREAMING_OPEN_CHANNELS_MAX_PARALLELISM =
+      "snowflake.streaming.openChannels.maxParallelism";
+  public static final int SNOWPIPE_STREAMING_OPEN_CHANNELS_MAX_PARALLELISM_DEFAULT = 8;
+
+  // Maximum number of channels of revoked partitions kept open to be reused if the partitions are
+  // assigned back to the task, 0 closes them when the partitions are revoked
+  public static final String SNOWPIPE_STREAMING_WARM_CHANNEL_CACHE_MAX_SIZE =
+      "snowflake.streaming.warmChannelCache.maxSize";
+  public static final int SNOWPIPE_STREAMING_WARM_CHANNEL_CACHE_MAX_SIZE_DEFAULT = 0;
+
+  public static final String SNOWPIPE_STREAMING_WARM_CHANNEL_CACHE_GRACE_PERIOD_MS =
+      "snowflake.streaming.warmChannelCache.gracePeriod.ms";
+  public static final long SNOWPIPE_STREAMING_WARM_CHANNEL_CACHE_GRACE_PERIOD_MS_DEFAULT = 60_000L;
+
+  // Number of partitions of a topic sharing a streaming channel, whose offset token holds the
+  // offsets of all of them, 1 opens a channel per partition
+  public static final String SNOWPIPE_STREAMING_MULTIPLEXED_CHANNEL_PARTITIONS_PER_CHANNEL =
+      "snowflake.streaming.multiplexedChannel.partitionsPerChannel";
+  public static final int SNOWPIPE_STREAMING_MULTIPLEXED_CHANNEL_PARTITIONS_PER_CHANNEL_DEFAULT = 1;
+
+  // Maximum number of inserted rows per channel kept until they are committed, to insert them again
+  // when the channel is reopened instead of rewinding the Kafka consumer, 0 always rewinds it
+  public static final String SNOWPIPE_STREAMING_REPLAY_LOG_MAX_RECORDS =
+      "snowflake.streaming.replayLog.maxRecords";
+  public static final int SNOWPIPE_STREAMING_REPLAY_LOG_MAX_RECORDS_DEFAULT = 0;
+
+  // Time the records of a partition should wait in its buffer, the count and bytes thresholds of
+  // the buffer are chosen from the throughput of the partition to meet it, 0 uses fixed thresholds
+  public static final String SNOWPIPE_STREAMING_ADAPTIVE_BUFFER_TARGET_LATENCY_MS =
+      "snowflake.streaming.adaptiveBuffer.targetLatencyMs";
+  public static final long SNOWPIPE_STREAMING_ADAPTIVE_BUFFER_TARGET_LATENCY_MS_DEFAULT = 0;
+
+  // Lower bounds of the adaptive thresholds, the upper bounds are buffer.count.records and
+  // buffer.size.bytes
+  public static final String SNOWPIPE_STREAMING_ADAPTIVE_BUFFER_MIN_RECORDS =
+      "snowflake.streaming.adaptiveBuffer.minRecords";
+  public static final long SNOWPIPE_STREAMING_ADAPTIVE_BUFFER_MIN_RECORDS_DEFAULT = 1;
+  public static final String SNOWPIPE_STREAMING_ADAPTIVE_BUFFER_MIN_BYTES =
+      "snowflake.streaming.adaptiveBuffer.minBytes";
+  public static final long SNOWPIPE_STREAMING_ADAPTIVE_BUFFER_MIN_BYTES_DEFAULT = 1;
+
   // This is the streaming max client lag which can be defined in config
   public static final String SNOWPIPE_STREAMING_ENABLE_SINGLE_BUFFER =
       "snowflake.streaming.enable.single.buffer";
 
   public static final boolean SNOWPIPE_STREAMING_ENABLE_SINGLE_BUFFER_DEFAULT = true;
+
+  // Whether the double buffer converts records once on insert and keeps the converted rows
+  public static final String SNOWPIPE_STREAMING_BUFFER_CONVERT_ON_INSERT =
+      "snowflake.streaming.buffer.convertOnInsert.enabled";
+  public static final boolean SNOWPIPE_STREAMING_BUFFER_CONVERT_ON_INSERT_DEFAULT = false;
+
+  // Whether full buffers of the double buffer are inserted in the background
+  public static final String SNOWPIPE_STREAMING_BUFFER_ASYNC_FLUSH =
+      "snowflake.streaming.buffer.asyncFlush.enabled";
+  public static final boolean SNOWPIPE_STREAMING_BUFFER_ASYNC_FLUSH_DEFAULT = false;
+
+  public static final String SNOWPIPE_STREAMING_BUFFER_ASYNC_FLUSH_MAX_IN_FLIGHT =
+      "snowflake.streaming.buffer.asyncFlush.maxInFlight";
+  public static final int SNOWPIPE_STREAMING_BUFFER_ASYNC_FLUSH_MAX_IN_FLIGHT_DEFAULT = 1;
+
+  // Interval of refreshing the committed offsets of the streaming channels in the background, 0
+  // fetches them when offsets are committed to Kafka
+  public static final String SNOWPIPE_STREAMING_OFFSET_REFRESH_INTERVAL_MS =
+      "snowflake.streaming.offsetRefresh.interval.ms";
+  public static final long SNOWPIPE_STREAMING_OFFSET_REFRESH_INTERVAL_MS_DEFAULT = 0L;
+
   public static final String SNOWPIPE_STREAMING_MAX_CLIENT_LAG =
       "snowflake.streaming.max.client.lag";
   public static final int SNOWPIPE_STREAMING_MAX_CLIENT_LAG_SECONDS_DEFAULT = 30;
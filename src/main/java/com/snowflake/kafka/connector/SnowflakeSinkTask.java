@@ -27,6 +27,7 @@ import com.snowflake.kafka.connector.internal.SnowflakeErrors;
 import com.snowflake.kafka.connector.internal.SnowflakeSinkService;
 import com.snowflake.kafka.connector.internal.SnowflakeSinkServiceFactory;
 import com.snowflake.kafka.connector.internal.streaming.IngestionMethodConfig;
+import com.snowflake.kafka.connector.records.LogicalTypeCodecs;
 import com.snowflake.kafka.connector.records.SnowflakeMetadataConfig;
 import java.util.Arrays;
 import java.util.Collection;
@@ -165,6 +166,11 @@ public class SnowflakeSinkTask extends SinkTask {
     // generate metadataConfig table
     SnowflakeMetadataConfig metadataConfig = new SnowflakeMetadataConfig(parsedConfig);
 
+    // codecs of custom logical types of this connector
+    LogicalTypeCodecs logicalTypeCodecs =
+        LogicalTypeCodecs.fromClassNames(
+            parsedConfig.get(SnowflakeSinkConnectorConfig.LOGICAL_TYPE_CODECS));
+
     // enable jvm proxy
     Utils.enableJVMProxy(parsedConfig);
 
@@ -227,6 +233,7 @@ public class SnowflakeSinkTask extends SinkTask {
             .setFlushTime(bufferFlushTime)
             .setTopic2TableMap(topic2table)
             .setMetadataConfig(metadataConfig)
+            .setLogicalTypeCodecs(logicalTypeCodecs)
             .setBehaviorOnNullValuesConfig(behavior)
             .setCustomJMXMetrics(enableCustomJMXMonitoring)
             .setErrorReporter(kafkaRecordErrorReporter)
@@ -351,15 +358,15 @@ public class SnowflakeSinkTask extends SinkTask {
     Map<TopicPartition, OffsetAndMetadata> committedOffsets = new HashMap<>();
     // it's ok to just log the error since commit can retry
     try {
-      offsets.forEach(
-          (topicPartition, offsetAndMetadata) -> {
-            long offset = sink.getOffset(topicPartition);
-            if ((ingestionMethodConfig == IngestionMethodConfig.SNOWPIPE && offset != 0)
-                || (ingestionMethodConfig == IngestionMethodConfig.SNOWPIPE_STREAMING
-                    && offset != NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE)) {
-              committedOffsets.put(topicPartition, new OffsetAndMetadata(offset));
-            }
-          });
+      sink.getOffsets(offsets.keySet())
+          .forEach(
+              (topicPartition, offset) -> {
+                if ((ingestionMethodConfig == IngestionMethodConfig.SNOWPIPE && offset != 0)
+                    || (ingestionMethodConfig == IngestionMethodConfig.SNOWPIPE_STREAMING
+                        && offset != NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE)) {
+                  committedOffsets.put(topicPartition, new OffsetAndMetadata(offset));
+                }
+              });
     } catch (Exception e) {
       this.authorizationExceptionTracker.reportPrecommitException(e);
       this.DYNAMIC_LOGGER.error("PreCommit error: {} ", e.getMessage());
@@ -126,6 +126,17 @@ public class Utils {
   public static final String TABLE_COLUMN_CONTENT = "RECORD_CONTENT";
   public static final String TABLE_COLUMN_METADATA = "RECORD_METADATA";
 
+  // Typed metadata columns, see SnowflakeSinkConnectorConfig.SNOWFLAKE_METADATA_TYPED_COLUMNS
+  public static final String TABLE_COLUMN_METADATA_TOPIC = "RECORD_METADATA_TOPIC";
+  public static final String TABLE_COLUMN_METADATA_PARTITION = "RECORD_METADATA_PARTITION";
+  public static final String TABLE_COLUMN_METADATA_OFFSET = "RECORD_METADATA_OFFSET";
+  public static final String TABLE_COLUMN_METADATA_CREATETIME = "RECORD_METADATA_CREATETIME";
+  public static final String TABLE_COLUMN_METADATA_LOGAPPENDTIME =
+      "RECORD_METADATA_LOGAPPENDTIME";
+  public static final String TABLE_COLUMN_METADATA_KEY = "RECORD_METADATA_KEY";
+  public static final String TABLE_COLUMN_METADATA_CONNECTOR_PUSH_TIME =
+      "RECORD_METADATA_CONNECTOR_PUSH_TIME";
+
   public static final String GET_EXCEPTION_FORMAT = "{}, Exception message: {}, cause: {}";
   public static final String GET_EXCEPTION_MISSING_MESSAGE = "missing exception message";
   public static final String GET_EXCEPTION_MISSING_CAUSE = "missing exception cause";
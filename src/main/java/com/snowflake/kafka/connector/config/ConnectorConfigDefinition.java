@@ -250,6 +250,42 @@ public class ConnectorConfigDefinition {
             3,
             ConfigDef.Width.NONE,
             BUFFER_FLUSH_TIME_SEC)
+        .define(
+            BUFFER_MEMORY_BUDGET_BYTES,
+            ConfigDef.Type.LONG,
+            BUFFER_MEMORY_BUDGET_BYTES_DEFAULT,
+            ConfigDef.Range.atLeast(0),
+            ConfigDef.Importance.LOW,
+            "Bytes the buffers of all partitions of the worker may hold together. Above the high"
+                + " watermark the largest buffers are flushed, when the budget is exhausted the"
+                + " partitions are paused until the buffers drop below the low watermark. The"
+                + " budget is shared by all connectors of the worker, 0 disables it.",
+            CONNECTOR_CONFIG_DOC,
+            12,
+            ConfigDef.Width.NONE,
+            BUFFER_MEMORY_BUDGET_BYTES)
+        .define(
+            BUFFER_MEMORY_HIGH_WATERMARK_PERCENT,
+            ConfigDef.Type.INT,
+            BUFFER_MEMORY_HIGH_WATERMARK_PERCENT_DEFAULT,
+            ConfigDef.Range.between(1, 100),
+            ConfigDef.Importance.LOW,
+            "Percentage of the buffer memory budget at which the largest buffers are flushed",
+            CONNECTOR_CONFIG_DOC,
+            13,
+            ConfigDef.Width.NONE,
+            BUFFER_MEMORY_HIGH_WATERMARK_PERCENT)
+        .define(
+            BUFFER_MEMORY_LOW_WATERMARK_PERCENT,
+            ConfigDef.Type.INT,
+            BUFFER_MEMORY_LOW_WATERMARK_PERCENT_DEFAULT,
+            ConfigDef.Range.between(0, 100),
+            ConfigDef.Importance.LOW,
+            "Percentage of the buffer memory budget below which paused partitions are resumed",
+            CONNECTOR_CONFIG_DOC,
+            14,
+            ConfigDef.Width.NONE,
+            BUFFER_MEMORY_LOW_WATERMARK_PERCENT)
         .define(
             SNOWFLAKE_METADATA_ALL,
             ConfigDef.Type.BOOLEAN,
@@ -303,6 +339,43 @@ public class ConnectorConfigDefinition {
             4,
             ConfigDef.Width.NONE,
             SNOWFLAKE_STREAMING_METADATA_CONNECTOR_PUSH_TIME)
+        .define(
+            SNOWFLAKE_METADATA_HEADERS_INCLUDE,
+            ConfigDef.Type.LIST,
+            "",
+            ConfigDef.Importance.LOW,
+            "Comma separated glob patterns of the Kafka header keys collected in snowflake"
+                + " metadata, '*' matches any sequence of characters and '?' a single character."
+                + " All headers are collected if empty",
+            SNOWFLAKE_METADATA_FLAGS_DOC,
+            5,
+            ConfigDef.Width.NONE,
+            SNOWFLAKE_METADATA_HEADERS_INCLUDE)
+        .define(
+            SNOWFLAKE_METADATA_HEADERS_EXCLUDE,
+            ConfigDef.Type.LIST,
+            "",
+            ConfigDef.Importance.LOW,
+            "Comma separated glob patterns of the Kafka header keys which are not collected in"
+                + " snowflake metadata, takes precedence over "
+                + SNOWFLAKE_METADATA_HEADERS_INCLUDE,
+            SNOWFLAKE_METADATA_FLAGS_DOC,
+            6,
+            ConfigDef.Width.NONE,
+            SNOWFLAKE_METADATA_HEADERS_EXCLUDE)
+        .define(
+            SNOWFLAKE_METADATA_TYPED_COLUMNS,
+            ConfigDef.Type.BOOLEAN,
+            SNOWFLAKE_METADATA_TYPED_COLUMNS_DEFAULT,
+            ConfigDef.Importance.LOW,
+            "Flag to control whether topic, partition, offset, record timestamp, key and"
+                + " ConnectorPushTime are written into separate typed columns instead of the"
+                + " RECORD_METADATA variant, which then only keeps schema ids and headers. Only"
+                + " applies to Snowpipe Streaming into Snowflake tables",
+            SNOWFLAKE_METADATA_FLAGS_DOC,
+            7,
+            ConfigDef.Width.NONE,
+            SNOWFLAKE_METADATA_TYPED_COLUMNS)
         .define(
             PROVIDER_CONFIG,
             ConfigDef.Type.STRING,
@@ -376,6 +449,84 @@ public class ConnectorConfigDefinition {
             ConfigDef.Importance.MEDIUM,
             "Whether to close Snowpipe Streaming channels in parallel during task shutdown or"
                 + " rebalancing")
+        .define(
+            SNOWPIPE_STREAMING_OPEN_CHANNELS_MAX_PARALLELISM,
+            ConfigDef.Type.INT,
+            SNOWPIPE_STREAMING_OPEN_CHANNELS_MAX_PARALLELISM_DEFAULT,
+            ConfigDef.Range.atLeast(1),
+            ConfigDef.Importance.LOW,
+            "Maximum number of Snowpipe Streaming channels a task opens in parallel when partitions"
+                + " are assigned to it. Tables are created once before the channels are opened and"
+                + " the Kafka offsets of all the opened channels are reset together.")
+        .define(
+            SNOWPIPE_STREAMING_WARM_CHANNEL_CACHE_MAX_SIZE,
+            ConfigDef.Type.INT,
+            SNOWPIPE_STREAMING_WARM_CHANNEL_CACHE_MAX_SIZE_DEFAULT,
+            ConfigDef.Range.atLeast(0),
+            ConfigDef.Importance.LOW,
+            "Maximum number of Snowpipe Streaming channels of revoked partitions a task keeps open."
+                + " Their buffers are inserted when the partitions are revoked, and a channel is"
+                + " reused instead of opened again if its partition is assigned back to the task"
+                + " within the grace period. 0 closes the channels of revoked partitions.")
+        .define(
+            SNOWPIPE_STREAMING_WARM_CHANNEL_CACHE_GRACE_PERIOD_MS,
+            ConfigDef.Type.LONG,
+            SNOWPIPE_STREAMING_WARM_CHANNEL_CACHE_GRACE_PERIOD_MS_DEFAULT,
+            ConfigDef.Range.atLeast(0),
+            ConfigDef.Importance.LOW,
+            "Time in milliseconds after which a kept open channel of a revoked partition is closed")
+        .define(
+            SNOWPIPE_STREAMING_MULTIPLEXED_CHANNEL_PARTITIONS_PER_CHANNEL,
+            ConfigDef.Type.INT,
+            SNOWPIPE_STREAMING_MULTIPLEXED_CHANNEL_PARTITIONS_PER_CHANNEL_DEFAULT,
+            ConfigDef.Range.atLeast(1),
+            ConfigDef.Importance.LOW,
+            "Number of consecutive partitions of a topic inserting through a single Snowpipe"
+                + " Streaming channel, whose offset token holds the offset of each of them. Meant"
+                + " for many low volume partitions. Requires tasks.max of 1,"
+                + " snowflake.streaming.enable.single.buffer and disabled schematization. 1 opens"
+                + " a channel per partition.")
+        .define(
+            SNOWPIPE_STREAMING_REPLAY_LOG_MAX_RECORDS,
+            ConfigDef.Type.INT,
+            SNOWPIPE_STREAMING_REPLAY_LOG_MAX_RECORDS_DEFAULT,
+            ConfigDef.Range.atLeast(0),
+            ConfigDef.Importance.LOW,
+            "Maximum number of converted rows per partition kept in memory after they are inserted,"
+                + " until they are committed in Snowflake. When a channel is invalidated, its rows"
+                + " which are not committed are inserted again from memory instead of rewinding the"
+                + " Kafka consumer, unless some of them were dropped. Only used when"
+                + " snowflake.streaming.enable.single.buffer is true. 0 always rewinds the"
+                + " consumer.")
+        .define(
+            SNOWPIPE_STREAMING_ADAPTIVE_BUFFER_TARGET_LATENCY_MS,
+            ConfigDef.Type.LONG,
+            SNOWPIPE_STREAMING_ADAPTIVE_BUFFER_TARGET_LATENCY_MS_DEFAULT,
+            ConfigDef.Range.atLeast(0),
+            ConfigDef.Importance.LOW,
+            "Time in milliseconds the records of a partition should wait in its buffer. The record"
+                + " count and size thresholds of each buffer are chosen from the arrival rate of"
+                + " its partition and the latency of its inserts, between"
+                + " snowflake.streaming.adaptiveBuffer.minRecords and buffer.count.records and"
+                + " between snowflake.streaming.adaptiveBuffer.minBytes and buffer.size.bytes."
+                + " Only used when snowflake.streaming.enable.single.buffer is false. 0 uses the"
+                + " fixed thresholds.")
+        .define(
+            SNOWPIPE_STREAMING_ADAPTIVE_BUFFER_MIN_RECORDS,
+            ConfigDef.Type.LONG,
+            SNOWPIPE_STREAMING_ADAPTIVE_BUFFER_MIN_RECORDS_DEFAULT,
+            ConfigDef.Range.atLeast(1),
+            ConfigDef.Importance.LOW,
+            "Lower bound of the adaptive record count threshold of a buffer, see"
+                + " snowflake.streaming.adaptiveBuffer.targetLatencyMs")
+        .define(
+            SNOWPIPE_STREAMING_ADAPTIVE_BUFFER_MIN_BYTES,
+            ConfigDef.Type.LONG,
+            SNOWPIPE_STREAMING_ADAPTIVE_BUFFER_MIN_BYTES_DEFAULT,
+            ConfigDef.Range.atLeast(1),
+            ConfigDef.Importance.LOW,
+            "Lower bound of the adaptive size threshold of a buffer in bytes, see"
+                + " snowflake.streaming.adaptiveBuffer.targetLatencyMs")
         .define(
             SNOWPIPE_STREAMING_MAX_CLIENT_LAG,
             ConfigDef.Type.LONG,
@@ -400,6 +551,51 @@ public class ConnectorConfigDefinition {
             ConfigDef.Importance.LOW,
             "When enabled, it will disable kafka connector buffer and only use ingest sdk buffer"
                 + " instead of both.")
+        .define(
+            SNOWPIPE_STREAMING_BUFFER_CONVERT_ON_INSERT,
+            ConfigDef.Type.BOOLEAN,
+            SNOWPIPE_STREAMING_BUFFER_CONVERT_ON_INSERT_DEFAULT,
+            ConfigDef.Importance.LOW,
+            "When enabled together with the kafka connector buffer, records are converted into"
+                + " rows once when they are buffered instead of a second time before insertRows is"
+                + " called. SnowflakeConnectorPushTime then reflects the time a record was"
+                + " buffered.")
+        .define(
+            SNOWPIPE_STREAMING_BUFFER_ASYNC_FLUSH,
+            ConfigDef.Type.BOOLEAN,
+            SNOWPIPE_STREAMING_BUFFER_ASYNC_FLUSH_DEFAULT,
+            ConfigDef.Importance.LOW,
+            "When enabled together with the kafka connector buffer, a full buffer is inserted into"
+                + " Snowflake by a background thread of the task while new records are buffered,"
+                + " instead of blocking the put call.")
+        .define(
+            SNOWPIPE_STREAMING_BUFFER_ASYNC_FLUSH_MAX_IN_FLIGHT,
+            ConfigDef.Type.INT,
+            SNOWPIPE_STREAMING_BUFFER_ASYNC_FLUSH_MAX_IN_FLIGHT_DEFAULT,
+            ConfigDef.Range.atLeast(1),
+            ConfigDef.Importance.LOW,
+            "Maximum number of full buffers of a partition waiting to be inserted in the"
+                + " background. Buffering more records blocks the put call until the oldest one is"
+                + " inserted.")
+        .define(
+            SNOWPIPE_STREAMING_OFFSET_REFRESH_INTERVAL_MS,
+            ConfigDef.Type.LONG,
+            SNOWPIPE_STREAMING_OFFSET_REFRESH_INTERVAL_MS_DEFAULT,
+            ConfigDef.Range.atLeast(0),
+            ConfigDef.Importance.LOW,
+            "Interval in milliseconds at which a background thread of the task refreshes the"
+                + " offsets committed in Snowflake for all its channels. Offsets committed to Kafka"
+                + " are taken from the last refresh if it is not older than two intervals, instead"
+                + " of being fetched from Snowflake. 0 disables the refresh.")
+        .define(
+            LOGICAL_TYPE_CODECS,
+            ConfigDef.Type.LIST,
+            "",
+            ConfigDef.Importance.LOW,
+            "Comma separated class names of"
+                + " com.snowflake.kafka.connector.records.LogicalTypeCodec implementations. Values"
+                + " of community converters whose schema name matches the logical type of a codec"
+                + " are converted by the codec, e.g. io.debezium.time.MicroTimestamp.")
         .define(
             SNOWPIPE_STREAMING_CLIENT_PROVIDER_OVERRIDE_MAP,
             ConfigDef.Type.STRING,
@@ -0,0 +1,356 @@
+package com.snowflake.kafka.connector.internal;
+
+import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.BUFFER_MEMORY_BUDGET_BYTES;
+import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.BUFFER_MEMORY_BUDGET_BYTES_DEFAULT;
+import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.BUFFER_MEMORY_HIGH_WATERMARK_PERCENT;
+import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.BUFFER_MEMORY_HIGH_WATERMARK_PERCENT_DEFAULT;
+import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.BUFFER_MEMORY_LOW_WATERMARK_PERCENT;
+import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.BUFFER_MEMORY_LOW_WATERMARK_PERCENT_DEFAULT;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.annotations.VisibleForTesting;
+import com.snowflake.kafka.connector.internal.metrics.MetricsJmxReporter;
+import com.snowflake.kafka.connector.internal.metrics.MetricsUtil;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.connect.sink.SinkTaskContext;
+
+/**
+ * Memory budget shared by the partition buffers of all tasks in the worker JVM. Buffer limits are
+ * per partition, so without it a worker with thousands of partitions may buffer thousands times
+ * the limit.
+ *
+ * <p>Buffers reserve the bytes of the records they hold and release them once the records are
+ * flushed or dropped. Above the high watermark the largest buffers of the worker are marked to be
+ * flushed until the reserved bytes would drop to the low watermark. Buffers belong to the task
+ * which created them and are only flushed on its thread, each task flushes its marked buffers on
+ * its next {@link TaskMemory#relieve(SinkTaskContext)}. If the budget is exhausted anyway, the task
+ * pauses its partitions until the reserved bytes drop below the low watermark.
+ *
+ * <p>All connectors of the worker have to configure the same budget, its gauges are reported once
+ * per worker by {@link #enableJmxMetrics()}.
+ */
+public class BufferMemoryManager {
+  private static final KCLogger LOGGER = new KCLogger(BufferMemoryManager.class.getName());
+
+  // budget shared by all connectors in the JVM, created by the first task with a budget
+  private static BufferMemoryManager instance;
+
+  // reports the gauges of the budget, created once JMX is enabled by a task, guarded by this
+  private MetricsJmxReporter metricsJmxReporter;
+
+  private final long budgetBytes;
+  private final long highWatermarkBytes;
+  private final long lowWatermarkBytes;
+
+  // bytes of the records which are buffered or being flushed
+  private final AtomicLong reservedBytes = new AtomicLong();
+
+  private final Set<PartitionMemory> partitions = ConcurrentHashMap.newKeySet();
+
+  private final AtomicLong forcedFlushCount = new AtomicLong();
+  private final AtomicInteger pausedPartitionCount = new AtomicInteger();
+
+  @VisibleForTesting
+  BufferMemoryManager(long budgetBytes, int highWatermarkPercent, int lowWatermarkPercent) {
+    this.budgetBytes = budgetBytes;
+    this.highWatermarkBytes = (long) (budgetBytes * (highWatermarkPercent / 100.0));
+    this.lowWatermarkBytes =
+        Math.min((long) (budgetBytes * (lowWatermarkPercent / 100.0)), this.highWatermarkBytes);
+  }
+
+  /**
+   * @param connectorConfig connector config
+   * @return memory budget of the worker, null if the connector has no budget. The first connector
+   *     with a budget sets it for the whole worker.
+   * @throws SnowflakeKafkaConnectorException if the worker already uses a different budget
+   */
+  @Nullable
+  public static synchronized BufferMemoryManager getInstance(Map<String, String> connectorConfig) {
+    long budgetBytes =
+        Optional.ofNullable(connectorConfig.get(BUFFER_MEMORY_BUDGET_BYTES))
+            .map(Long::parseLong)
+            .orElse(BUFFER_MEMORY_BUDGET_BYTES_DEFAULT);
+    if (budgetBytes <= 0) {
+      return null;
+    }
+    if (instance == null) {
+      int highWatermarkPercent =
+          Optional.ofNullable(connectorConfig.get(BUFFER_MEMORY_HIGH_WATERMARK_PERCENT))
+              .map(Integer::parseInt)
+              .orElse(BUFFER_MEMORY_HIGH_WATERMARK_PERCENT_DEFAULT);
+      int lowWatermarkPercent =
+          Optional.ofNullable(connectorConfig.get(BUFFER_MEMORY_LOW_WATERMARK_PERCENT))
+              .map(Integer::parseInt)
+              .orElse(BUFFER_MEMORY_LOW_WATERMARK_PERCENT_DEFAULT);
+      instance = new BufferMemoryManager(budgetBytes, highWatermarkPercent, lowWatermarkPercent);
+      LOGGER.info("Created buffer memory budget:{}", instance);
+    } else if (instance.budgetBytes != budgetBytes) {
+      throw SnowflakeErrors.ERROR_0034.getException(
+          String.format(
+              "Buffer memory budget of %d bytes, the worker already uses %d bytes",
+              budgetBytes, instance.budgetBytes));
+    }
+    return instance;
+  }
+
+  /** @return budget of a new task, used by the thread of the task */
+  public TaskMemory newTask() {
+    return new TaskMemory();
+  }
+
+  /**
+   * Reports gauges of the budget over JMX. The budget is shared by all tasks in the worker so it is
+   * reported once, under a fixed name instead of a partition name. Later calls do nothing, the
+   * reporter lives as long as the budget.
+   */
+  public synchronized void enableJmxMetrics() {
+    if (metricsJmxReporter == null) {
+      metricsJmxReporter =
+          new MetricsJmxReporter(new MetricRegistry(), MetricsUtil.WORKER_CONNECTOR_NAME);
+      registerMetrics(metricsJmxReporter.getMetricRegistry());
+      metricsJmxReporter.start();
+    }
+  }
+
+  @VisibleForTesting
+  void registerMetrics(MetricRegistry metricRegistry) {
+    metricRegistry.register(
+        metricName(MetricsUtil.BUFFER_MEMORY_BUDGET_BYTES), (Gauge<Long>) () -> budgetBytes);
+    metricRegistry.register(
+        metricName(MetricsUtil.BUFFER_MEMORY_RESERVED_BYTES), (Gauge<Long>) reservedBytes::get);
+    metricRegistry.register(
+        metricName(MetricsUtil.BUFFER_MEMORY_PAUSED_PARTITIONS),
+        (Gauge<Integer>) pausedPartitionCount::get);
+    metricRegistry.register(
+        metricName(MetricsUtil.BUFFER_MEMORY_FORCED_FLUSH_COUNT),
+        (Gauge<Long>) forcedFlushCount::get);
+  }
+
+  private static String metricName(String name) {
+    return MetricsUtil.constructMetricName(
+        MetricsUtil.BUFFER_MEMORY_METRICS_NAME, MetricsUtil.BUFFER_MEMORY_SUB_DOMAIN, name);
+  }
+
+  @VisibleForTesting
+  long getReservedBytes() {
+    return reservedBytes.get();
+  }
+
+  @VisibleForTesting
+  int getPausedPartitionCount() {
+    return pausedPartitionCount.get();
+  }
+
+  /**
+   * Marks the largest buffers of the worker to be flushed, until the bytes they hold bring the
+   * reserved bytes down to the low watermark.
+   */
+  private void requestLargestFlushes(long reserved) {
+    // sizes are taken once, other tasks keep changing them while sorting
+    List<Pair<Long, PartitionMemory>> largestFirst = new ArrayList<>();
+    for (PartitionMemory partition : partitions) {
+      largestFirst.add(Pair.of(partition.bufferedBytes.get(), partition));
+    }
+    largestFirst.sort(Comparator.comparing(Pair<Long, PartitionMemory>::getLeft).reversed());
+    long bytesToFree = reserved - lowWatermarkBytes;
+    for (Pair<Long, PartitionMemory> entry : largestFirst) {
+      long bufferedBytes = entry.getLeft();
+      if (bytesToFree <= 0 || bufferedBytes == 0) {
+        break;
+      }
+      bytesToFree -= bufferedBytes;
+      PartitionMemory partition = entry.getRight();
+      if (!partition.flushRequested) {
+        partition.flushRequested = true;
+        forcedFlushCount.incrementAndGet();
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "BufferMemoryManager{budgetBytes="
+        + budgetBytes
+        + ", highWatermarkBytes="
+        + highWatermarkBytes
+        + ", lowWatermarkBytes="
+        + lowWatermarkBytes
+        + ", reservedBytes="
+        + reservedBytes
+        + "}";
+  }
+
+  /**
+   * Buffers of the partitions of a single task. Not thread safe, used by the task thread, except
+   * for {@link #register} which is also called by the threads opening the channels of the task.
+   */
+  public final class TaskMemory {
+    private final Map<TopicPartition, PartitionMemory> taskPartitions = new HashMap<>();
+
+    // partitions paused because the budget was exhausted, guarded by this
+    private final Set<TopicPartition> pausedPartitions = new HashSet<>();
+
+    // partitions registered while the task is paused, paused on the task thread by the next
+    // relieve, guarded by this
+    private final Set<TopicPartition> partitionsToPause = new HashSet<>();
+
+    private TaskMemory() {}
+
+    /**
+     * Partitions registered while the task is paused for memory are paused as well, on the next
+     * {@link #relieve}.
+     *
+     * @param topicPartition partition of the buffer
+     * @param flush flushes the buffer of the partition on the task thread
+     * @return reservations of the buffer, replaces the previous buffer of the partition
+     */
+    public synchronized PartitionMemory register(
+        TopicPartition topicPartition, Runnable flush) {
+      PartitionMemory partition = new PartitionMemory(this, topicPartition, flush);
+      PartitionMemory previous = taskPartitions.put(topicPartition, partition);
+      if (previous != null) {
+        previous.discard();
+      }
+      partitions.add(partition);
+      if (!pausedPartitions.isEmpty() && !pausedPartitions.contains(topicPartition)) {
+        partitionsToPause.add(topicPartition);
+      }
+      return partition;
+    }
+
+    /**
+     * Called by the task after every put. Flushes the buffers of the task which were marked as the
+     * largest ones of the worker, and pauses or resumes the partitions of the task.
+     *
+     * @param sinkTaskContext context of the task, partitions are not paused if null
+     */
+    public void relieve(@Nullable SinkTaskContext sinkTaskContext) {
+      long reserved = reservedBytes.get();
+      if (reserved >= highWatermarkBytes) {
+        requestLargestFlushes(reserved);
+      }
+      for (PartitionMemory partition : new ArrayList<>(taskPartitions.values())) {
+        if (partition.flushRequested) {
+          LOGGER.info(
+              "Flushing buffer of partition:{} with {} bytes, buffer memory:{}",
+              partition.topicPartition,
+              partition.bufferedBytes.get(),
+              BufferMemoryManager.this);
+          partition.flushRequested = false;
+          partition.flush.run();
+        }
+      }
+      if (sinkTaskContext != null) {
+        pauseOrResume(sinkTaskContext, reservedBytes.get());
+      }
+    }
+
+    private synchronized void pauseOrResume(SinkTaskContext sinkTaskContext, long reserved) {
+      if (pausedPartitions.isEmpty() && reserved >= budgetBytes) {
+        pause(sinkTaskContext, taskPartitions.keySet());
+      } else if (!pausedPartitions.isEmpty() && reserved <= lowWatermarkBytes) {
+        LOGGER.info(
+            "Buffer memory is below the low watermark, resuming partitions:{}, buffer memory:{}",
+            pausedPartitions,
+            BufferMemoryManager.this);
+        sinkTaskContext.resume(pausedPartitions.toArray(new TopicPartition[0]));
+        pausedPartitionCount.addAndGet(-pausedPartitions.size());
+        pausedPartitions.clear();
+        partitionsToPause.clear();
+      } else if (!partitionsToPause.isEmpty()) {
+        // assigned while the task was paused
+        pause(sinkTaskContext, partitionsToPause);
+        partitionsToPause.clear();
+      }
+    }
+
+    private void pause(SinkTaskContext sinkTaskContext, Collection<TopicPartition> toPause) {
+      if (toPause.isEmpty()) {
+        return;
+      }
+      LOGGER.warn(
+          "Buffer memory is exhausted, pausing partitions:{}, buffer memory:{}",
+          toPause,
+          BufferMemoryManager.this);
+      sinkTaskContext.pause(toPause.toArray(new TopicPartition[0]));
+      pausedPartitions.addAll(toPause);
+      pausedPartitionCount.addAndGet(toPause.size());
+    }
+  }
+
+  /**
+   * Reservations of the buffer of a single partition. Records are reserved when they are buffered,
+   * handed over when the buffer is cut for flushing, and released once they are flushed or dropped.
+   * The bytes of buffers in flight stay reserved until they are released.
+   */
+  public final class PartitionMemory {
+    private final TaskMemory task;
+    private final TopicPartition topicPartition;
+    private final Runnable flush;
+
+    // bytes of the buffer which is not handed over for flushing yet
+    private final AtomicLong bufferedBytes = new AtomicLong();
+
+    private volatile boolean flushRequested;
+
+    private PartitionMemory(TaskMemory task, TopicPartition topicPartition, Runnable flush) {
+      this.task = task;
+      this.topicPartition = topicPartition;
+      this.flush = flush;
+    }
+
+    /** @param bytes size of the records added to the buffer */
+    public void reserve(long bytes) {
+      bufferedBytes.addAndGet(bytes);
+      reservedBytes.addAndGet(bytes);
+    }
+
+    /** @param bytes size of the buffer cut for flushing, the bytes stay reserved */
+    public void handOver(long bytes) {
+      bufferedBytes.addAndGet(-bytes);
+      flushRequested = false;
+    }
+
+    /** @param bytes size of a handed over buffer which was flushed or dropped */
+    public void release(long bytes) {
+      reservedBytes.addAndGet(-bytes);
+    }
+
+    /**
+     * Releases the buffered bytes of a closed partition. Buffers in flight release their bytes once
+     * they are flushed.
+     */
+    public void unregister() {
+      discard();
+      task.taskPartitions.remove(topicPartition, this);
+      // kafka connect forgets the pause of partitions which are no longer assigned
+      synchronized (task) {
+        task.partitionsToPause.remove(topicPartition);
+        if (task.pausedPartitions.remove(topicPartition)) {
+          pausedPartitionCount.decrementAndGet();
+        }
+      }
+    }
+
+    private void discard() {
+      if (partitions.remove(this)) {
+        release(bufferedBytes.getAndSet(0));
+      }
+    }
+  }
+}
@@ -106,6 +106,16 @@ public abstract class BufferThreshold {
         >= (this.bufferFlushTimeThreshold * SECOND_TO_MILLIS);
   }
 
+  /**
+   * Returns the time at which the buffer should flush based on the last flush time
+   *
+   * @param previousFlushTimeStampMs when the previous buffered records flushed
+   * @return previousTime + configTimeThreshold, in ms
+   */
+  public long getNextFlushTimeMs(final long previousFlushTimeStampMs) {
+    return previousFlushTimeStampMs + this.bufferFlushTimeThreshold * SECOND_TO_MILLIS;
+  }
+
   /** @return Get flush time threshold in seconds */
   public long getFlushTimeThresholdSeconds() {
     return this.bufferFlushTimeThreshold;
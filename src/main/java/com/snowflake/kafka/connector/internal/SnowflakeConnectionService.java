@@ -18,6 +18,18 @@ public interface SnowflakeConnectionService {
    */
   void createTable(String tableName, boolean overwrite);
 
+  /**
+   * Create a table with two variant columns: RECORD_METADATA and RECORD_CONTENT, and the typed
+   * metadata columns if requested
+   *
+   * @param tableName a string represents table name
+   * @param overwrite if true, execute "create or replace table" query; otherwise, run "create table
+   *     if not exists"
+   * @param withTypedMetadataColumns if true, the typed metadata columns, e.g.
+   *     RECORD_METADATA_OFFSET, are created too
+   */
+  void createTable(String tableName, boolean overwrite, boolean withTypedMetadataColumns);
+
   /**
    * create table is not exists
    *
@@ -302,6 +314,29 @@ public interface SnowflakeConnectionService {
    */
   void createTableWithOnlyMetadataColumn(String tableName);
 
+  /**
+   * Create a table with only the RECORD_METADATA column, and the typed metadata columns if
+   * requested. The rest of the columns might be added through schema evolution
+   *
+   * @param tableName table name
+   * @param withTypedMetadataColumns if true, the typed metadata columns, e.g.
+   *     RECORD_METADATA_OFFSET, are created too
+   */
+  void createTableWithOnlyMetadataColumn(String tableName, boolean withTypedMetadataColumns);
+
+  /**
+   * Append the typed metadata columns, e.g. RECORD_METADATA_OFFSET, to an existing table if they
+   * are not present. The columns of the table are checked first, the table is only altered when
+   * some of them are missing.
+   *
+   * <p>This method is only called when {@link
+   * com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig#SNOWFLAKE_METADATA_TYPED_COLUMNS} is
+   * enabled
+   *
+   * @param tableName table name
+   */
+  void appendTypedMetadataColumnsIfNotExist(String tableName);
+
   /**
    * Migrate Streaming Channel offsetToken from a source Channel to a destination channel.
    *
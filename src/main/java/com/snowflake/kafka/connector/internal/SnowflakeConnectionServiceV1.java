@@ -2,11 +2,19 @@ package com.snowflake.kafka.connector.internal;
 
 import static com.snowflake.kafka.connector.Utils.TABLE_COLUMN_CONTENT;
 import static com.snowflake.kafka.connector.Utils.TABLE_COLUMN_METADATA;
+import static com.snowflake.kafka.connector.Utils.TABLE_COLUMN_METADATA_CONNECTOR_PUSH_TIME;
+import static com.snowflake.kafka.connector.Utils.TABLE_COLUMN_METADATA_CREATETIME;
+import static com.snowflake.kafka.connector.Utils.TABLE_COLUMN_METADATA_KEY;
+import static com.snowflake.kafka.connector.Utils.TABLE_COLUMN_METADATA_LOGAPPENDTIME;
+import static com.snowflake.kafka.connector.Utils.TABLE_COLUMN_METADATA_OFFSET;
+import static com.snowflake.kafka.connector.Utils.TABLE_COLUMN_METADATA_PARTITION;
+import static com.snowflake.kafka.connector.Utils.TABLE_COLUMN_METADATA_TOPIC;
 import static com.snowflake.kafka.connector.streaming.iceberg.IcebergDDLTypes.ICEBERG_METADATA_OBJECT_SCHEMA;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
 import com.snowflake.kafka.connector.Utils;
 import com.snowflake.kafka.connector.internal.streaming.ChannelMigrateOffsetTokenResponseDTO;
 import com.snowflake.kafka.connector.internal.streaming.ChannelMigrationResponseCode;
@@ -24,6 +32,8 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -65,6 +75,18 @@ public class SnowflakeConnectionServiceV1 implements SnowflakeConnectionService
 
   private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
+  // typed metadata columns and their types, see appendTypedMetadataColumnsIfNotExist
+  private static final Map<String, String> TYPED_METADATA_COLUMNS =
+      ImmutableMap.<String, String>builder()
+          .put(TABLE_COLUMN_METADATA_TOPIC, "varchar")
+          .put(TABLE_COLUMN_METADATA_PARTITION, "number(10, 0)")
+          .put(TABLE_COLUMN_METADATA_OFFSET, "number(19, 0)")
+          .put(TABLE_COLUMN_METADATA_CREATETIME, "timestamp_ntz(3)")
+          .put(TABLE_COLUMN_METADATA_LOGAPPENDTIME, "timestamp_ntz(3)")
+          .put(TABLE_COLUMN_METADATA_KEY, "varchar")
+          .put(TABLE_COLUMN_METADATA_CONNECTOR_PUSH_TIME, "timestamp_ntz(3)")
+          .build();
+
   public static class OffsetTokenMigrationRetryableException extends RuntimeException {
     public OffsetTokenMigrationRetryableException(String message) {
       super(message);
@@ -110,17 +132,23 @@ public class SnowflakeConnectionServiceV1 implements SnowflakeConnectionService
 
   @Override
   public void createTable(final String tableName, final boolean overwrite) {
+    createTable(tableName, overwrite, false);
+  }
+
+  @Override
+  public void createTable(
+      final String tableName, final boolean overwrite, final boolean withTypedMetadataColumns) {
     checkConnection();
     InternalUtils.assertNotEmpty("tableName", tableName);
+    String columns =
+        "(record_metadata variant, record_content variant"
+            + typedMetadataColumnsClause(withTypedMetadataColumns)
+            + ")";
     String query;
     if (overwrite) {
-      query =
-          "create or replace table identifier(?) (record_metadata "
-              + "variant, record_content variant)";
+      query = "create or replace table identifier(?) " + columns;
     } else {
-      query =
-          "create table if not exists identifier(?) (record_metadata "
-              + "variant, record_content variant)";
+      query = "create table if not exists identifier(?) " + columns;
     }
     try {
       PreparedStatement stmt = conn.prepareStatement(query);
@@ -141,11 +169,19 @@ public class SnowflakeConnectionServiceV1 implements SnowflakeConnectionService
 
   @Override
   public void createTableWithOnlyMetadataColumn(final String tableName) {
+    createTableWithOnlyMetadataColumn(tableName, false);
+  }
+
+  @Override
+  public void createTableWithOnlyMetadataColumn(
+      final String tableName, final boolean withTypedMetadataColumns) {
     checkConnection();
     InternalUtils.assertNotEmpty("tableName", tableName);
     String createTableQuery =
         "create table if not exists identifier(?) (record_metadata variant comment 'created by"
-            + " automatic table creation from Snowflake Kafka Connector')";
+            + " automatic table creation from Snowflake Kafka Connector'"
+            + typedMetadataColumnsClause(withTypedMetadataColumns)
+            + ")";
 
     try {
       PreparedStatement stmt = conn.prepareStatement(createTableQuery);
@@ -172,6 +208,53 @@ public class SnowflakeConnectionServiceV1 implements SnowflakeConnectionService
     LOGGER.info("Created table {} with only RECORD_METADATA column", tableName);
   }
 
+  @Override
+  public void appendTypedMetadataColumnsIfNotExist(final String tableName) {
+    checkConnection();
+    InternalUtils.assertNotEmpty("tableName", tableName);
+    List<String> existingColumns =
+        describeTable(tableName)
+            .map(
+                rows ->
+                    rows.stream().map(DescribeTableRow::getColumn).collect(Collectors.toList()))
+            .orElseThrow(() -> SnowflakeErrors.ERROR_2020.getException("table: " + tableName));
+    String missingColumns = typedMetadataColumnDefinitions(existingColumns);
+    if (missingColumns.isEmpty()) {
+      LOGGER.debug("Table {} already has the typed metadata columns", tableName);
+      return;
+    }
+
+    String query = "alter table identifier(?) add column if not exists " + missingColumns;
+    try {
+      PreparedStatement stmt = conn.prepareStatement(query);
+      stmt.setString(1, tableName);
+      stmt.execute();
+      stmt.close();
+    } catch (SQLException e) {
+      throw SnowflakeErrors.ERROR_2020.getException(e);
+    }
+    LOGGER.info("Appended typed metadata columns {} to table {}", missingColumns, tableName);
+  }
+
+  private static String typedMetadataColumnsClause(boolean withTypedMetadataColumns) {
+    return withTypedMetadataColumns
+        ? ", " + typedMetadataColumnDefinitions(Collections.emptyList())
+        : "";
+  }
+
+  /**
+   * @param existingColumns names of the columns of the table
+   * @return comma separated definitions of the typed metadata columns missing from the table, empty
+   *     if the table has all of them
+   */
+  @VisibleForTesting
+  static String typedMetadataColumnDefinitions(Collection<String> existingColumns) {
+    return TYPED_METADATA_COLUMNS.entrySet().stream()
+        .filter(column -> !existingColumns.contains(column.getKey()))
+        .map(column -> column.getKey() + " " + column.getValue())
+        .collect(Collectors.joining(", "));
+  }
+
   @Override
   public void addMetadataColumnForIcebergIfNotExists(String tableName) {
     checkConnection();
@@ -144,6 +144,18 @@ public enum SnowflakeErrors {
       "0032",
       "Iceberg table does not exist or is in invalid format",
       "Check Snowflake Kafka Connector docs for details"),
+  ERROR_0033(
+      "0033",
+      "Invalid logical type codec",
+      "Failed to instantiate a class of "
+          + SnowflakeSinkConnectorConfig.LOGICAL_TYPE_CODECS
+          + ", it has to implement LogicalTypeCodec and have a public no-arg constructor"),
+  ERROR_0034(
+      "0034",
+      "Conflicting buffer memory budget",
+      "The buffer memory budget is shared by all connectors of the worker, "
+          + SnowflakeSinkConnectorConfig.BUFFER_MEMORY_BUDGET_BYTES
+          + " has to be the same for all of them. Restart the worker to change it"),
   // Snowflake connection issues 1---
   ERROR_1001(
       "1001",
@@ -225,6 +237,10 @@ public enum SnowflakeErrors {
       "2019",
       "Failed to add RECORD_METADATA column for iceberg",
       "Failed to add RECORD_METADATA column with required format for iceberg."),
+  ERROR_2020(
+      "2020",
+      "Failed to append typed metadata columns",
+      "Failed to append typed metadata columns, please check that you have permission to do so."),
 
   // Snowpipe related issues 3---
   ERROR_3001("3001", "Failed to ingest file", "Exception reported by Ingest SDK"),
@@ -344,7 +360,13 @@ public enum SnowflakeErrors {
   ERROR_5026(
       "5026",
       "Invalid SinkRecord received",
-      "Cannot infer type from null or empty object/list during schema evolution.");
+      "Cannot infer type from null or empty object/list during schema evolution."),
+  ERROR_5027(
+      "5027",
+      "Multiplexed channel shared by several tasks",
+      "Partitions sharing a multiplexed channel are assigned to several tasks, which invalidate"
+          + " each other's channel. Set snowflake.streaming.multiplexedChannel.partitionsPerChannel"
+          + " to 1 or run the connector with a single task.");
 
   // properties
 
@@ -4,8 +4,10 @@ import com.codahale.metrics.MetricRegistry;
 import com.google.common.annotations.VisibleForTesting;
 import com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig;
 import com.snowflake.kafka.connector.dlq.KafkaRecordErrorReporter;
+import com.snowflake.kafka.connector.records.LogicalTypeCodecs;
 import com.snowflake.kafka.connector.records.SnowflakeMetadataConfig;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import org.apache.kafka.common.TopicPartition;
@@ -53,6 +55,21 @@ public interface SnowflakeSinkService {
    */
   long getOffset(TopicPartition topicPartition);
 
+  /**
+   * retrieve offsets of last loaded records for given partitions, same as calling {@link
+   * #getOffset(TopicPartition)} for each of them
+   *
+   * @param topicPartitions topics and partitions
+   * @return offset of every given partition, or -1 for empty
+   */
+  default Map<TopicPartition, Long> getOffsets(Collection<TopicPartition> topicPartitions) {
+    Map<TopicPartition, Long> offsets = new HashMap<>();
+    for (TopicPartition topicPartition : topicPartitions) {
+      offsets.put(topicPartition, getOffset(topicPartition));
+    }
+    return offsets;
+  }
+
   /**
    * get the number of partitions assigned to this sink service
    *
@@ -130,6 +147,13 @@ public interface SnowflakeSinkService {
    */
   void setMetadataConfig(SnowflakeMetadataConfig configMap);
 
+  /**
+   * set the codecs of the logical types in records of native converters
+   *
+   * @param logicalTypeCodecs codecs configured for the connector
+   */
+  void setLogicalTypeCodecs(LogicalTypeCodecs logicalTypeCodecs);
+
   /** @return current number of record limitation */
   long getRecordNumber();
 
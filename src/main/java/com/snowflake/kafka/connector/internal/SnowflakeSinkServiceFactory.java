@@ -4,6 +4,7 @@ import com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig;
 import com.snowflake.kafka.connector.dlq.KafkaRecordErrorReporter;
 import com.snowflake.kafka.connector.internal.streaming.IngestionMethodConfig;
 import com.snowflake.kafka.connector.internal.streaming.SnowflakeSinkServiceV2;
+import com.snowflake.kafka.connector.records.LogicalTypeCodecs;
 import com.snowflake.kafka.connector.records.SnowflakeMetadataConfig;
 import java.util.Map;
 import org.apache.kafka.common.TopicPartition;
@@ -108,6 +109,10 @@ public class SnowflakeSinkServiceFactory {
                       SnowflakeSinkConnectorConfig.SNOWPIPE_ENABLE_REPROCESS_FILES_CLEANUP));
         }
         svc.configureEnableReprocessFilesCleanup(enableReprocessFilesCleanup);
+
+        if (connectorConfig != null) {
+          svc.configureBufferMemory(BufferMemoryManager.getInstance(connectorConfig));
+        }
       } else {
         this.service = new SnowflakeSinkServiceV2(conn, connectorConfig);
       }
@@ -171,6 +176,11 @@ public class SnowflakeSinkServiceFactory {
       return this;
     }
 
+    public SnowflakeSinkServiceBuilder setLogicalTypeCodecs(LogicalTypeCodecs logicalTypeCodecs) {
+      this.service.setLogicalTypeCodecs(logicalTypeCodecs);
+      return this;
+    }
+
     public SnowflakeSinkServiceBuilder setBehaviorOnNullValuesConfig(
         SnowflakeSinkConnectorConfig.BehaviorOnNullValues behavior) {
       this.service.setBehaviorOnNullValuesConfig(behavior);
@@ -20,13 +20,12 @@ import com.snowflake.kafka.connector.internal.metrics.MetricsUtil;
 import com.snowflake.kafka.connector.internal.telemetry.SnowflakeTelemetryPipeCreation;
 import com.snowflake.kafka.connector.internal.telemetry.SnowflakeTelemetryPipeStatus;
 import com.snowflake.kafka.connector.internal.telemetry.SnowflakeTelemetryService;
+import com.snowflake.kafka.connector.records.LogicalTypeCodecs;
 import com.snowflake.kafka.connector.records.RecordService;
 import com.snowflake.kafka.connector.records.RecordServiceFactory;
-import com.snowflake.kafka.connector.records.SnowflakeJsonSchema;
+import com.snowflake.kafka.connector.records.SnowflakeAvroConverterWithoutSchemaRegistry;
 import com.snowflake.kafka.connector.records.SnowflakeMetadataConfig;
 import com.snowflake.kafka.connector.records.SnowflakeRecordContent;
-import java.io.ByteArrayOutputStream;
-import java.io.ObjectOutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -49,8 +48,8 @@ import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.kafka.common.TopicPartition;
-import org.apache.kafka.connect.data.Schema;
 import org.apache.kafka.connect.sink.SinkRecord;
+import org.apache.kafka.connect.sink.SinkTaskContext;
 
 /**
  * This is per task configuration. A task can be assigned multiple partitions. Major methods are
@@ -108,6 +107,13 @@ class SnowflakeSinkServiceV1 implements SnowflakeSinkService {
 
   private final long v2CleanerIntervalSeconds;
 
+  // Memory budget shared by the buffers of all tasks in the worker, null without a budget
+  @Nullable private BufferMemoryManager bufferMemoryManager;
+  @Nullable private BufferMemoryManager.TaskMemory taskMemory;
+
+  // Used to pause the partitions when the buffer memory of the worker is exhausted
+  @Nullable private SinkTaskContext sinkTaskContext;
+
   SnowflakeSinkServiceV1(SnowflakeConnectionService conn, long v2CleanerIntervalSeconds) {
     if (conn == null || conn.isClosed()) {
       throw SnowflakeErrors.ERROR_5010.getException();
@@ -232,6 +238,11 @@ class SnowflakeSinkServiceV1 implements SnowflakeSinkService {
         pipe.flushBuffer();
       }
     }
+
+    // flush the largest buffers or pause the partitions if the worker runs out of buffer memory
+    if (taskMemory != null) {
+      taskMemory.relieve(sinkTaskContext);
+    }
   }
 
   private Pair<String, String> getOffsets(Collection<SinkRecord> records) {
@@ -404,6 +415,11 @@ class SnowflakeSinkServiceV1 implements SnowflakeSinkService {
     this.recordService.setMetadataConfig(configMap);
   }
 
+  @Override
+  public void setLogicalTypeCodecs(LogicalTypeCodecs logicalTypeCodecs) {
+    this.recordService.setLogicalTypeCodecs(logicalTypeCodecs);
+  }
+
   @Override
   public long getRecordNumber() {
     return this.recordNum;
@@ -437,6 +453,28 @@ class SnowflakeSinkServiceV1 implements SnowflakeSinkService {
   @Override
   public void setCustomJMXMetrics(boolean enableJMX) {
     this.enableCustomJMXMonitoring = enableJMX;
+    if (enableJMX) {
+      // shared by all tasks of the worker, reported once
+      SnowflakeAvroConverterWithoutSchemaRegistry.enableJmxMetrics();
+      if (bufferMemoryManager != null) {
+        bufferMemoryManager.enableJmxMetrics();
+      }
+    }
+  }
+
+  @Override
+  public void setSinkTaskContext(SinkTaskContext sinkTaskContext) {
+    this.sinkTaskContext = sinkTaskContext;
+  }
+
+  /**
+   * Reserves the buffers of the pipes in the memory budget of the worker.
+   *
+   * @param bufferMemoryManager memory budget of the worker, null without a budget
+   */
+  void configureBufferMemory(@Nullable BufferMemoryManager bufferMemoryManager) {
+    this.bufferMemoryManager = bufferMemoryManager;
+    this.taskMemory = bufferMemoryManager == null ? null : bufferMemoryManager.newTask();
   }
 
   @Override
@@ -546,6 +584,9 @@ class SnowflakeSinkServiceV1 implements SnowflakeSinkService {
     private boolean hasInitialized = false;
     private boolean forceCleanerFileReset = false;
 
+    // Reservations of the buffers in the memory budget of the worker, null without a budget
+    @Nullable private final BufferMemoryManager.PartitionMemory partitionMemory;
+
     private ServiceContext(
         Utils.GeneratedName generatedTableName,
         String stageName,
@@ -562,6 +603,10 @@ class SnowflakeSinkServiceV1 implements SnowflakeSinkService {
       this.fileNames = new LinkedList<>();
       this.cleanerFileNames = new LinkedList<>();
       this.buffer = new SnowpipeBuffer();
+      this.partitionMemory =
+          taskMemory == null
+              ? null
+              : taskMemory.register(new TopicPartition(topicName, partition), this::flushBuffer);
       this.ingestionService = conn.buildIngestService(stageName, pipeName);
       // SNOW-1642799 = if multiple topics load data into single table, we need to ensure the file
       // prefix is unique per topic - otherwise, file cleaners for different topics will try to
@@ -828,15 +873,7 @@ class SnowflakeSinkServiceV1 implements SnowflakeSinkService {
       // only get offset token once when service context is initialized
       // ignore ingested filesg
       if (record.kafkaOffset() > processedOffset.get()) {
-        SinkRecord snowflakeRecord = record;
-        if (shouldConvertContent(snowflakeRecord.value())) {
-          LOGGER.trace("Converting native record value, offset: {}", snowflakeRecord.kafkaOffset());
-          snowflakeRecord = handleNativeRecord(snowflakeRecord, false);
-        }
-        if (shouldConvertContent(snowflakeRecord.key())) {
-          LOGGER.trace("Converting native record key, offset: {}", snowflakeRecord.kafkaOffset());
-          snowflakeRecord = handleNativeRecord(snowflakeRecord, true);
-        }
+        SinkRecord snowflakeRecord = recordService.convertNativeRecord(record, false);
 
         // broken record
         if (isRecordBroken(snowflakeRecord)) {
@@ -857,7 +894,11 @@ class SnowflakeSinkServiceV1 implements SnowflakeSinkService {
           try {
             processedOffset.set(snowflakeRecord.kafkaOffset());
             pipeStatus.setProcessedOffset(snowflakeRecord.kafkaOffset());
+            final long bufferSizeBytesBefore = buffer.getBufferSizeBytes();
             buffer.insert(snowflakeRecord);
+            if (partitionMemory != null) {
+              partitionMemory.reserve(buffer.getBufferSizeBytes() - bufferSizeBytesBefore);
+            }
             if (buffer.getBufferSizeBytes() >= getFileSize()
                 || (getRecordNumber() != 0 && buffer.getNumOfRecords() >= getRecordNumber())) {
               LOGGER.info(
@@ -865,6 +906,7 @@ class SnowflakeSinkServiceV1 implements SnowflakeSinkService {
                   buffer);
               tmpBuff = buffer;
               this.buffer = new SnowpipeBuffer();
+              handOverMemory(tmpBuff);
             }
           } finally {
             bufferLock.unlock();
@@ -876,16 +918,12 @@ class SnowflakeSinkServiceV1 implements SnowflakeSinkService {
           }
 
           if (tmpBuff != null) {
-            flush(tmpBuff);
+            flushAndReleaseMemory(tmpBuff);
           }
         }
       }
     }
 
-    private boolean shouldConvertContent(final Object content) {
-      return content != null && !(content instanceof SnowflakeRecordContent);
-    }
-
     private boolean isRecordBroken(final SinkRecord record) {
       return isContentBroken(record.value()) || isContentBroken(record.key());
     }
@@ -894,45 +932,6 @@ class SnowflakeSinkServiceV1 implements SnowflakeSinkService {
       return content != null && ((SnowflakeRecordContent) content).isBroken();
     }
 
-    private SinkRecord handleNativeRecord(SinkRecord record, boolean isKey) {
-      SnowflakeRecordContent newSFContent;
-      Schema schema = isKey ? record.keySchema() : record.valueSchema();
-      Object content = isKey ? record.key() : record.value();
-      try {
-        newSFContent = new SnowflakeRecordContent(schema, content, false);
-      } catch (Exception e) {
-        LOGGER.error("Native content parser error:\n{}", e.getMessage());
-        try {
-          // try to serialize this object and send that as broken record
-          ByteArrayOutputStream out = new ByteArrayOutputStream();
-          ObjectOutputStream os = new ObjectOutputStream(out);
-          os.writeObject(content);
-          newSFContent = new SnowflakeRecordContent(out.toByteArray());
-        } catch (Exception serializeError) {
-          LOGGER.error(
-              "Failed to convert broken native record to byte data:\n{}",
-              serializeError.getMessage());
-          throw e;
-        }
-      }
-      // create new sinkRecord
-      Schema keySchema = isKey ? new SnowflakeJsonSchema() : record.keySchema();
-      Object keyContent = isKey ? newSFContent : record.key();
-      Schema valueSchema = isKey ? record.valueSchema() : new SnowflakeJsonSchema();
-      Object valueContent = isKey ? record.value() : newSFContent;
-      return new SinkRecord(
-          record.topic(),
-          record.kafkaPartition(),
-          keySchema,
-          keyContent,
-          valueSchema,
-          valueContent,
-          record.kafkaOffset(),
-          record.timestamp(),
-          record.timestampType(),
-          record.headers());
-    }
-
     private boolean shouldFlush() {
       return (System.currentTimeMillis() - this.previousFlushTimeStamp) >= (getFlushTime() * 1000);
     }
@@ -959,10 +958,11 @@ class SnowflakeSinkServiceV1 implements SnowflakeSinkService {
       try {
         tmpBuff = buffer;
         this.buffer = new SnowpipeBuffer();
+        handOverMemory(tmpBuff);
       } finally {
         bufferLock.unlock();
       }
-      flush(tmpBuff);
+      flushAndReleaseMemory(tmpBuff);
 
       LOGGER.info(
           "Buffer flushed for pipe: {}, tableName: {}, stageName: {}",
@@ -1036,6 +1036,22 @@ class SnowflakeSinkServiceV1 implements SnowflakeSinkService {
       return committedOffset.get();
     }
 
+    private void handOverMemory(final SnowpipeBuffer buff) {
+      if (partitionMemory != null) {
+        partitionMemory.handOver(buff.getBufferSizeBytes());
+      }
+    }
+
+    private void flushAndReleaseMemory(final SnowpipeBuffer buff) {
+      try {
+        flush(buff);
+      } finally {
+        if (partitionMemory != null) {
+          partitionMemory.release(buff.getBufferSizeBytes());
+        }
+      }
+    }
+
     private void flush(final SnowpipeBuffer buff) {
       if (buff == null || buff.isEmpty()) {
         LOGGER.info("Buffer empty, nothing to be flushed");
@@ -1240,6 +1256,9 @@ class SnowflakeSinkServiceV1 implements SnowflakeSinkService {
     }
 
     private void close() {
+      if (partitionMemory != null) {
+        partitionMemory.unregister();
+      }
       if (stageFileProcessorClient != null) {
         stageFileProcessorClient.close();
       } else {
@@ -89,8 +89,47 @@ public class MetricsUtil {
   public static final String OFFSET_PERSISTED_IN_SNOWFLAKE = "persisted-in-snowflake-offset";
 
   public static final String LATEST_CONSUMER_OFFSET = "latest-consumer-offset";
+
+  // record count and size thresholds chosen for an adaptive buffer
+  public static final String BUFFER_RECORD_COUNT_THRESHOLD = "buffer-record-count-threshold";
+
+  public static final String BUFFER_SIZE_BYTES_THRESHOLD = "buffer-size-bytes-threshold";
   // ********** ^ Streaming Constants ^ **********//
 
+  // connector name of the metrics shared by all connectors of the worker
+  public static final String WORKER_CONNECTOR_NAME = "snowflake-worker";
+
+  // Converter related constants, converters are shared by all partitions so they are reported
+  // under a fixed name instead of a partition name
+  public static final String CONVERTERS_METRICS_NAME = "snowflake-converters";
+
+  /**
+   * Cache of container headers of {@link
+   * com.snowflake.kafka.connector.records.SnowflakeAvroConverterWithoutSchemaRegistry}
+   */
+  public static final String AVRO_HEADER_CACHE_SUB_DOMAIN = "avro-header-cache";
+
+  public static final String CACHE_HIT_COUNT = "hit-count";
+  public static final String CACHE_MISS_COUNT = "miss-count";
+
+  // Buffer memory budget constants, the budget is shared by all tasks of the worker so it is
+  // reported under a fixed name instead of a partition name
+  public static final String BUFFER_MEMORY_METRICS_NAME = "snowflake-buffer-memory";
+
+  public static final String BUFFER_MEMORY_SUB_DOMAIN = "buffer-memory";
+
+  // bytes all buffers of the worker may hold together
+  public static final String BUFFER_MEMORY_BUDGET_BYTES = "budget-bytes";
+
+  // bytes of the records buffered or being flushed by all tasks of the worker
+  public static final String BUFFER_MEMORY_RESERVED_BYTES = "reserved-bytes";
+
+  // partitions paused because the budget was exhausted
+  public static final String BUFFER_MEMORY_PAUSED_PARTITIONS = "paused-partitions";
+
+  // buffers flushed before reaching their thresholds because they were the largest ones
+  public static final String BUFFER_MEMORY_FORCED_FLUSH_COUNT = "forced-flush-count";
+
   public enum EventType {
     /**
      * Time difference between the record put into kafka to record fetched into Kafka Connector Can
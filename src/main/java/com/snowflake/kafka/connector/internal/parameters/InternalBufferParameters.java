@@ -1,5 +1,11 @@
 package com.snowflake.kafka.connector.internal.parameters;
 
+import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.SNOWPIPE_STREAMING_BUFFER_ASYNC_FLUSH;
+import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.SNOWPIPE_STREAMING_BUFFER_ASYNC_FLUSH_DEFAULT;
+import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.SNOWPIPE_STREAMING_BUFFER_ASYNC_FLUSH_MAX_IN_FLIGHT;
+import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.SNOWPIPE_STREAMING_BUFFER_ASYNC_FLUSH_MAX_IN_FLIGHT_DEFAULT;
+import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.SNOWPIPE_STREAMING_BUFFER_CONVERT_ON_INSERT;
+import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.SNOWPIPE_STREAMING_BUFFER_CONVERT_ON_INSERT_DEFAULT;
 import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.SNOWPIPE_STREAMING_ENABLE_SINGLE_BUFFER;
 import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.SNOWPIPE_STREAMING_ENABLE_SINGLE_BUFFER_DEFAULT;
 
@@ -15,4 +21,23 @@ public class InternalBufferParameters {
         .map(Boolean::parseBoolean)
         .orElse(SNOWPIPE_STREAMING_ENABLE_SINGLE_BUFFER_DEFAULT);
   }
+
+  public static Boolean isConvertOnInsertEnabled(Map<String, String> connectorConfig) {
+    return Optional.ofNullable(connectorConfig.get(SNOWPIPE_STREAMING_BUFFER_CONVERT_ON_INSERT))
+        .map(Boolean::parseBoolean)
+        .orElse(SNOWPIPE_STREAMING_BUFFER_CONVERT_ON_INSERT_DEFAULT);
+  }
+
+  public static Boolean isAsyncFlushEnabled(Map<String, String> connectorConfig) {
+    return Optional.ofNullable(connectorConfig.get(SNOWPIPE_STREAMING_BUFFER_ASYNC_FLUSH))
+        .map(Boolean::parseBoolean)
+        .orElse(SNOWPIPE_STREAMING_BUFFER_ASYNC_FLUSH_DEFAULT);
+  }
+
+  public static int getAsyncFlushMaxInFlight(Map<String, String> connectorConfig) {
+    return Optional.ofNullable(
+            connectorConfig.get(SNOWPIPE_STREAMING_BUFFER_ASYNC_FLUSH_MAX_IN_FLIGHT))
+        .map(Integer::parseInt)
+        .orElse(SNOWPIPE_STREAMING_BUFFER_ASYNC_FLUSH_MAX_IN_FLIGHT_DEFAULT);
+  }
 }
@@ -0,0 +1,166 @@
+package com.snowflake.kafka.connector.internal.streaming;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+import com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig;
+
+/**
+ * Record count and size thresholds of the buffer of a channel, chosen from the throughput of its
+ * partition instead of being fixed. A buffer is flushed once it holds the records arriving within
+ * the target latency, or within an insert if inserts take longer, so that the flushes of a busy
+ * partition don't queue up behind each other.
+ *
+ * <p>The thresholds stay between the configured lower bounds and the thresholds given in connector
+ * config, see {@link
+ * SnowflakeSinkConnectorConfig#SNOWPIPE_STREAMING_ADAPTIVE_BUFFER_TARGET_LATENCY_MS}. The flush
+ * time threshold is not adapted, it still flushes the buffers of idle partitions.
+ *
+ * <p>Buffers are cut on the task thread, inserts may complete on the buffer flusher. The thresholds
+ * are read on the task thread for every record.
+ */
+public class AdaptiveBufferThreshold extends StreamingBufferThreshold {
+
+  // weight of the latest observation in the moving averages
+  private static final double SMOOTHING = 0.3;
+
+  private final long targetLatencyMs;
+
+  private final long minRecordCount;
+  private final long maxRecordCount;
+  private final long minByteSize;
+  private final long maxByteSize;
+
+  // thresholds chosen from the moving averages, the configured ones until the first buffer is cut
+  private volatile long recordCountThreshold;
+  private volatile long byteSizeThreshold;
+
+  // moving averages, guarded by this
+  private boolean hasArrivalRate = false;
+  private double recordsPerSecond;
+  private double bytesPerSecond;
+  private double insertLatencyMs;
+  private long previousCutTimeMs;
+
+  /**
+   * @param flushTimeThresholdSeconds flush time threshold in seconds given in connector config
+   * @param bufferSizeThresholdBytes upper bound of the size threshold in bytes
+   * @param bufferKafkaRecordCountThreshold upper bound of the record count threshold
+   * @param minByteSize lower bound of the size threshold in bytes
+   * @param minRecordCount lower bound of the record count threshold
+   * @param targetLatencyMs time the records should wait in the buffer
+   */
+  public AdaptiveBufferThreshold(
+      long flushTimeThresholdSeconds,
+      long bufferSizeThresholdBytes,
+      long bufferKafkaRecordCountThreshold,
+      long minByteSize,
+      long minRecordCount,
+      long targetLatencyMs) {
+    this(
+        flushTimeThresholdSeconds,
+        bufferSizeThresholdBytes,
+        bufferKafkaRecordCountThreshold,
+        minByteSize,
+        minRecordCount,
+        targetLatencyMs,
+        System.currentTimeMillis());
+  }
+
+  @VisibleForTesting
+  AdaptiveBufferThreshold(
+      long flushTimeThresholdSeconds,
+      long bufferSizeThresholdBytes,
+      long bufferKafkaRecordCountThreshold,
+      long minByteSize,
+      long minRecordCount,
+      long targetLatencyMs,
+      long startTimeMs) {
+    super(flushTimeThresholdSeconds, bufferSizeThresholdBytes, bufferKafkaRecordCountThreshold);
+    this.targetLatencyMs = targetLatencyMs;
+    this.minRecordCount = minRecordCount;
+    this.maxRecordCount = bufferKafkaRecordCountThreshold;
+    this.minByteSize = minByteSize;
+    this.maxByteSize = bufferSizeThresholdBytes;
+    this.recordCountThreshold = bufferKafkaRecordCountThreshold;
+    this.byteSizeThreshold = bufferSizeThresholdBytes;
+    this.previousCutTimeMs = startTimeMs;
+  }
+
+  @Override
+  public boolean shouldFlushOnBufferByteSize(final long currBufferByteSize) {
+    return currBufferByteSize >= byteSizeThreshold;
+  }
+
+  @Override
+  public boolean shouldFlushOnBufferRecordCount(final long currentBufferedRecordCount) {
+    return currentBufferedRecordCount != 0 && currentBufferedRecordCount >= recordCountThreshold;
+  }
+
+  /**
+   * Records the arrival rate of the partition since the previous buffer was cut, and chooses the
+   * thresholds of the next buffer.
+   *
+   * @param numOfRecords records in the buffer which was cut
+   * @param bufferSizeBytes size of the buffer which was cut
+   * @param nowMs current time in ms
+   */
+  public synchronized void onBufferCut(long numOfRecords, long bufferSizeBytes, long nowMs) {
+    final double elapsedSeconds = Math.max(1, nowMs - previousCutTimeMs) / 1000.0;
+    this.previousCutTimeMs = nowMs;
+    final double recordsPerSecondSample = numOfRecords / elapsedSeconds;
+    final double bytesPerSecondSample = bufferSizeBytes / elapsedSeconds;
+    if (hasArrivalRate) {
+      this.recordsPerSecond = average(this.recordsPerSecond, recordsPerSecondSample);
+      this.bytesPerSecond = average(this.bytesPerSecond, bytesPerSecondSample);
+    } else {
+      this.recordsPerSecond = recordsPerSecondSample;
+      this.bytesPerSecond = bytesPerSecondSample;
+      this.hasArrivalRate = true;
+    }
+
+    final double windowSeconds = Math.max(targetLatencyMs, insertLatencyMs) / 1000.0;
+    this.recordCountThreshold =
+        clamp(Math.round(recordsPerSecond * windowSeconds), minRecordCount, maxRecordCount);
+    this.byteSizeThreshold =
+        clamp(Math.round(bytesPerSecond * windowSeconds), minByteSize, maxByteSize);
+  }
+
+  /**
+   * Records the latency of an insertRows call, used for the thresholds of the next buffer.
+   *
+   * @param latencyMs time the buffer took to be inserted, in ms
+   */
+  public synchronized void onInsert(long latencyMs) {
+    this.insertLatencyMs =
+        this.insertLatencyMs == 0 ? latencyMs : average(this.insertLatencyMs, latencyMs);
+  }
+
+  /** @return record count threshold of the current buffer */
+  public long getRecordCountThreshold() {
+    return recordCountThreshold;
+  }
+
+  /** @return size threshold of the current buffer in bytes */
+  public long getByteSizeThreshold() {
+    return byteSizeThreshold;
+  }
+
+  private static double average(double average, double sample) {
+    return average + SMOOTHING * (sample - average);
+  }
+
+  // the upper bound wins if the bounds are inverted in config
+  private static long clamp(long value, long min, long max) {
+    return Math.min(max, Math.max(min, value));
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("bufferFlushTimeThreshold", this.getFlushTimeThresholdSeconds())
+        .add("bufferByteSizeThreshold", this.byteSizeThreshold)
+        .add("bufferRecordCountThreshold", this.recordCountThreshold)
+        .add("targetLatencyMs", this.targetLatencyMs)
+        .toString();
+  }
+}
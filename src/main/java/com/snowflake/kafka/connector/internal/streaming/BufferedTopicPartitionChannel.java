@@ -7,7 +7,6 @@ import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.ERRORS_
 import static com.snowflake.kafka.connector.internal.streaming.StreamingUtils.DURATION_BETWEEN_GET_OFFSET_TOKEN_RETRY;
 import static com.snowflake.kafka.connector.internal.streaming.StreamingUtils.MAX_GET_OFFSET_TOKEN_RETRIES;
 import static java.time.temporal.ChronoUnit.SECONDS;
-import static org.apache.kafka.common.record.TimestampType.NO_TIMESTAMP_TYPE;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.google.common.annotations.VisibleForTesting;
@@ -17,6 +16,7 @@ import com.google.common.base.Strings;
 import com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig;
 import com.snowflake.kafka.connector.Utils;
 import com.snowflake.kafka.connector.dlq.KafkaRecordErrorReporter;
+import com.snowflake.kafka.connector.internal.BufferMemoryManager;
 import com.snowflake.kafka.connector.internal.BufferThreshold;
 import com.snowflake.kafka.connector.internal.KCLogger;
 import com.snowflake.kafka.connector.internal.PartitionBuffer;
@@ -24,6 +24,7 @@ import com.snowflake.kafka.connector.internal.SnowflakeConnectionService;
 import com.snowflake.kafka.connector.internal.SnowflakeErrors;
 import com.snowflake.kafka.connector.internal.SnowflakeKafkaConnectorException;
 import com.snowflake.kafka.connector.internal.metrics.MetricsJmxReporter;
+import com.snowflake.kafka.connector.internal.parameters.InternalBufferParameters;
 import com.snowflake.kafka.connector.internal.streaming.channel.TopicPartitionChannel;
 import com.snowflake.kafka.connector.internal.streaming.schemaevolution.InsertErrorMapper;
 import com.snowflake.kafka.connector.internal.streaming.schemaevolution.SchemaEvolutionService;
@@ -33,24 +34,26 @@ import com.snowflake.kafka.connector.internal.streaming.telemetry.SnowflakeTelem
 import com.snowflake.kafka.connector.internal.telemetry.SnowflakeTelemetryService;
 import com.snowflake.kafka.connector.records.RecordService;
 import com.snowflake.kafka.connector.records.RecordServiceFactory;
-import com.snowflake.kafka.connector.records.SnowflakeJsonSchema;
 import com.snowflake.kafka.connector.records.SnowflakeRecordContent;
+import com.snowflake.kafka.connector.records.StreamingRowSize;
 import dev.failsafe.Failsafe;
 import dev.failsafe.Fallback;
 import dev.failsafe.RetryPolicy;
 import dev.failsafe.function.CheckedSupplier;
-import java.io.ByteArrayOutputStream;
-import java.io.ObjectOutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.OptionalLong;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import javax.annotation.Nullable;
 import net.snowflake.ingest.streaming.InsertValidationResponse;
 import net.snowflake.ingest.streaming.OpenChannelRequest;
 import net.snowflake.ingest.streaming.SnowflakeStreamingIngestChannel;
@@ -58,7 +61,6 @@ import net.snowflake.ingest.streaming.SnowflakeStreamingIngestClient;
 import net.snowflake.ingest.utils.Pair;
 import net.snowflake.ingest.utils.SFException;
 import org.apache.kafka.common.TopicPartition;
-import org.apache.kafka.connect.data.Schema;
 import org.apache.kafka.connect.errors.ConnectException;
 import org.apache.kafka.connect.errors.DataException;
 import org.apache.kafka.connect.sink.SinkRecord;
@@ -84,7 +86,7 @@ public class BufferedTopicPartitionChannel implements TopicPartitionChannel {
       new KCLogger(BufferedTopicPartitionChannel.class.getName());
 
   // last time we invoked insertRows API
-  private long previousFlushTimeStampMs;
+  private volatile long previousFlushTimeStampMs;
 
   /* Buffer to hold JSON converted incoming SinkRecords */
   private StreamingBuffer streamingBuffer;
@@ -93,7 +95,10 @@ public class BufferedTopicPartitionChannel implements TopicPartitionChannel {
 
   // used to communicate to the streaming ingest's insertRows API
   // This is non final because we might decide to get the new instance of Channel
-  private SnowflakeStreamingIngestChannel channel;
+  private volatile SnowflakeStreamingIngestChannel channel;
+
+  // serializes the reopens of the channel by the buffer flusher and by the task thread
+  private final Object reopenLock = new Object();
 
   // -------- private final fields -------- //
 
@@ -103,6 +108,13 @@ public class BufferedTopicPartitionChannel implements TopicPartitionChannel {
   private final AtomicLong offsetPersistedInSnowflake =
       new AtomicLong(NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE);
 
+  // System.nanoTime() when the offset in offsetPersistedInSnowflake was requested by the background
+  // refresh, null if it was never refreshed
+  @Nullable private volatile Long offsetRefreshedAtNanos;
+
+  // Offset committed in Snowflake when the channel was opened or reused after being parked
+  private long offsetPersistedInSnowflakeOnOpen;
+
   // This offset represents the data buffered in KC. More specifically it is the KC offset to ensure
   // exactly once functionality. On the creation it is set to the latest committed token in
   // Snowflake (see offsetPersistedInSnowflake) and updated on each new row from KC.
@@ -119,7 +131,15 @@ public class BufferedTopicPartitionChannel implements TopicPartitionChannel {
   // Indicates whether we need to skip and discard any leftover rows in the current batch, this
   // could happen when the channel gets invalidated and reset, then anything left in the buffer
   // should be skipped
-  private boolean needToSkipCurrentBatch = false;
+  private volatile boolean needToSkipCurrentBatch = false;
+
+  // Incremented whenever the channel is reopened and the offset in kafka is reset. Buffers cut
+  // before that are not inserted by the buffer flusher, kafka sends their records again.
+  private final AtomicInteger channelGeneration = new AtomicInteger();
+
+  // Offset to reset in kafka on the task thread, set when a background flush reopened the channel
+  private final AtomicLong pendingOffsetResetInKafka =
+      new AtomicLong(NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE);
 
   private final SnowflakeStreamingIngestClient streamingIngestClient;
 
@@ -167,6 +187,9 @@ public class BufferedTopicPartitionChannel implements TopicPartitionChannel {
   // Whether schema evolution could be done on this channel
   private final boolean enableSchemaEvolution;
 
+  // Whether records are converted once on insert into the buffer and the rows are kept until flush
+  private final boolean convertOnInsert;
+
   // Reference to the Snowflake connection service
   private final SnowflakeConnectionService conn;
 
@@ -184,6 +207,19 @@ public class BufferedTopicPartitionChannel implements TopicPartitionChannel {
 
   private final ChannelOffsetTokenMigrator channelOffsetTokenMigrator;
 
+  // Inserts full buffers in the background, null if buffers are inserted on the put thread
+  @Nullable private final StreamingBufferFlusher.ChannelFlushQueue flushQueue;
+
+  // Memory budget of the task, null without a budget
+  @Nullable private final BufferMemoryManager.TaskMemory taskMemory;
+
+  // Reservations of the buffers in the memory budget of the worker, registered again when a parked
+  // channel is reused, null without a budget
+  @Nullable private volatile BufferMemoryManager.PartitionMemory partitionMemory;
+
+  // Thresholds adapted to the throughput of the partition, null if they are fixed
+  @Nullable private final AdaptiveBufferThreshold adaptiveBufferThreshold;
+
   /** Testing only, initialize TopicPartitionChannel without the connection service */
   @VisibleForTesting
   public BufferedTopicPartitionChannel(
@@ -255,6 +291,53 @@ public class BufferedTopicPartitionChannel implements TopicPartitionChannel {
       MetricsJmxReporter metricsJmxReporter,
       SchemaEvolutionService schemaEvolutionService,
       InsertErrorMapper insertErrorMapper) {
+    this(
+        streamingIngestClient,
+        topicPartition,
+        channelNameFormatV1,
+        tableName,
+        hasSchemaEvolutionPermission,
+        streamingBufferThreshold,
+        sfConnectorConfig,
+        kafkaRecordErrorReporter,
+        sinkTaskContext,
+        conn,
+        recordService,
+        telemetryService,
+        enableCustomJMXMonitoring,
+        metricsJmxReporter,
+        schemaEvolutionService,
+        insertErrorMapper,
+        null,
+        null);
+  }
+
+  /**
+   * Same as the constructor above, with the buffer flusher and the buffer memory of the task.
+   *
+   * @param bufferFlusher inserts full buffers in the background while the put thread fills a new
+   *     one, null to insert them on the put thread
+   * @param taskMemory memory budget of the task the buffers are reserved in, null without a budget
+   */
+  public BufferedTopicPartitionChannel(
+      SnowflakeStreamingIngestClient streamingIngestClient,
+      TopicPartition topicPartition,
+      final String channelNameFormatV1,
+      final String tableName,
+      boolean hasSchemaEvolutionPermission,
+      final BufferThreshold streamingBufferThreshold,
+      final Map<String, String> sfConnectorConfig,
+      KafkaRecordErrorReporter kafkaRecordErrorReporter,
+      SinkTaskContext sinkTaskContext,
+      SnowflakeConnectionService conn,
+      RecordService recordService,
+      SnowflakeTelemetryService telemetryService,
+      boolean enableCustomJMXMonitoring,
+      MetricsJmxReporter metricsJmxReporter,
+      SchemaEvolutionService schemaEvolutionService,
+      InsertErrorMapper insertErrorMapper,
+      @Nullable StreamingBufferFlusher bufferFlusher,
+      @Nullable BufferMemoryManager.TaskMemory taskMemory) {
     final long startTime = System.currentTimeMillis();
 
     this.streamingIngestClient = Preconditions.checkNotNull(streamingIngestClient);
@@ -263,6 +346,10 @@ public class BufferedTopicPartitionChannel implements TopicPartitionChannel {
     this.channelNameFormatV1 = Preconditions.checkNotNull(channelNameFormatV1);
     this.tableName = Preconditions.checkNotNull(tableName);
     this.streamingBufferThreshold = Preconditions.checkNotNull(streamingBufferThreshold);
+    this.adaptiveBufferThreshold =
+        streamingBufferThreshold instanceof AdaptiveBufferThreshold
+            ? (AdaptiveBufferThreshold) streamingBufferThreshold
+            : null;
     this.sfConnectorConfig = Preconditions.checkNotNull(sfConnectorConfig);
     this.kafkaRecordErrorReporter = Preconditions.checkNotNull(kafkaRecordErrorReporter);
     this.sinkTaskContext = Preconditions.checkNotNull(sinkTaskContext);
@@ -273,7 +360,13 @@ public class BufferedTopicPartitionChannel implements TopicPartitionChannel {
 
     this.previousFlushTimeStampMs = System.currentTimeMillis();
 
+    this.convertOnInsert = InternalBufferParameters.isConvertOnInsertEnabled(sfConnectorConfig);
     this.streamingBuffer = new StreamingBuffer();
+    this.flushQueue =
+        bufferFlusher == null ? null : bufferFlusher.newChannelQueue(channelNameFormatV1);
+    this.taskMemory = taskMemory;
+    this.partitionMemory =
+        taskMemory == null ? null : taskMemory.register(topicPartition, this::flushBuffer);
 
     /* Error properties */
     this.errorTolerance = StreamingUtils.tolerateErrors(this.sfConnectorConfig);
@@ -298,11 +391,12 @@ public class BufferedTopicPartitionChannel implements TopicPartitionChannel {
           this.tableName, channelNameFormatV2, this.channelNameFormatV1);
     }
 
-    // Open channel and reset the offset in kafka
+    // Open channel, the offset in kafka is reset by the caller
     this.channel = Preconditions.checkNotNull(openChannelForTable());
     final long lastCommittedOffsetToken = fetchOffsetTokenWithRetry();
     this.offsetPersistedInSnowflake.set(lastCommittedOffsetToken);
     this.processedOffset.set(lastCommittedOffsetToken);
+    this.offsetPersistedInSnowflakeOnOpen = lastCommittedOffsetToken;
 
     // setup telemetry and metrics
     String connectorName =
@@ -320,14 +414,17 @@ public class BufferedTopicPartitionChannel implements TopicPartitionChannel {
             this.offsetPersistedInSnowflake,
             this.processedOffset,
             this.latestConsumerOffset);
+    if (this.adaptiveBufferThreshold != null) {
+      this.snowflakeTelemetryChannelStatus.registerBufferThresholdMetrics(
+          this.adaptiveBufferThreshold::getRecordCountThreshold,
+          this.adaptiveBufferThreshold::getByteSizeThreshold);
+    }
     this.telemetryServiceV2.reportKafkaPartitionStart(
         new SnowflakeTelemetryChannelCreation(this.tableName, this.channelNameFormatV1, startTime));
 
     this.insertErrorMapper = insertErrorMapper;
 
-    if (lastCommittedOffsetToken != NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE) {
-      this.sinkTaskContext.offset(this.topicPartition, lastCommittedOffsetToken + 1L);
-    } else {
+    if (lastCommittedOffsetToken == NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE) {
       LOGGER.info(
           "TopicPartitionChannel:{}, offset token is NULL, will rely on Kafka to send us the"
               + " correct offset instead",
@@ -363,9 +460,6 @@ public class BufferedTopicPartitionChannel implements TopicPartitionChannel {
 
   @Override
   public void insertRecord(SinkRecord kafkaSinkRecord, boolean isFirstRowPerPartitionInBatch) {
-    final long currentOffsetPersistedInSnowflake = this.offsetPersistedInSnowflake.get();
-    final long currentProcessedOffset = this.processedOffset.get();
-
     // Set the consumer offset to be the first record that Kafka sends us
     if (latestConsumerOffset.get() == NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE) {
       this.latestConsumerOffset.set(kafkaSinkRecord.kafkaOffset());
@@ -375,26 +469,33 @@ public class BufferedTopicPartitionChannel implements TopicPartitionChannel {
     if (isFirstRowPerPartitionInBatch) {
       needToSkipCurrentBatch = false;
     }
+    checkBufferFlushes();
 
-    // Simply skip inserting into the buffer if the row should be ignored after channel reset
-    if (needToSkipCurrentBatch) {
-      LOGGER.info(
-          "Ignore adding offset:{} to buffer for channel:{} because we recently reset offset in"
-              + " Kafka. currentProcessedOffset:{}",
-          kafkaSinkRecord.kafkaOffset(),
-          this.getChannelNameFormatV1(),
-          currentProcessedOffset);
-      return;
-    }
+    StreamingBuffer copiedStreamingBuffer = null;
+    bufferLock.lock();
+    try {
+      // Offsets are read under the lock, a flush in the background may reset them
+      final long currentOffsetPersistedInSnowflake = this.offsetPersistedInSnowflake.get();
+      final long currentProcessedOffset = this.processedOffset.get();
+
+      // Simply skip inserting into the buffer if the row should be ignored after channel reset
+      if (needToSkipCurrentBatch) {
+        LOGGER.info(
+            "Ignore adding offset:{} to buffer for channel:{} because we recently reset offset in"
+                + " Kafka. currentProcessedOffset:{}",
+            kafkaSinkRecord.kafkaOffset(),
+            this.getChannelNameFormatV1(),
+            currentProcessedOffset);
+        return;
+      }
 
-    // Accept the incoming record only if we don't have a valid offset token at server side, or the
-    // incoming record offset is 1 + the processed offset
-    if (currentProcessedOffset == NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE
-        || kafkaSinkRecord.kafkaOffset() >= currentProcessedOffset + 1) {
-      StreamingBuffer copiedStreamingBuffer = null;
-      bufferLock.lock();
-      try {
+      // Accept the incoming record only if we don't have a valid offset token at server side, or
+      // the incoming record offset is 1 + the processed offset
+      if (currentProcessedOffset == NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE
+          || kafkaSinkRecord.kafkaOffset() >= currentProcessedOffset + 1) {
+        final long bufferSizeBytesBefore = this.streamingBuffer.getBufferSizeBytes();
         this.streamingBuffer.insert(kafkaSinkRecord);
+        reserveMemory(this.streamingBuffer.getBufferSizeBytes() - bufferSizeBytesBefore);
         this.processedOffset.set(kafkaSinkRecord.kafkaOffset());
         // # of records or size based flushing
         if (this.streamingBufferThreshold.shouldFlushOnBufferByteSize(
@@ -403,6 +504,7 @@ public class BufferedTopicPartitionChannel implements TopicPartitionChannel {
                 streamingBuffer.getNumOfRecords())) {
           copiedStreamingBuffer = streamingBuffer;
           this.streamingBuffer = new StreamingBuffer();
+          handOverMemory(copiedStreamingBuffer);
           LOGGER.debug(
               "Flush based on buffered bytes or buffered number of records for"
                   + " channel:{},currentBufferSizeInBytes:{}, currentBufferedRecordCount:{},"
@@ -412,28 +514,105 @@ public class BufferedTopicPartitionChannel implements TopicPartitionChannel {
               copiedStreamingBuffer.getSinkRecords().size(),
               this.streamingBufferThreshold);
         }
-      } finally {
-        bufferLock.unlock();
+      } else {
+        LOGGER.warn(
+            "Channel {} - skipping current record - expected offset {} but received {}. The"
+                + " current offset stored in Snowflake: {}",
+            this.getChannelNameFormatV1(),
+            currentProcessedOffset,
+            kafkaSinkRecord.kafkaOffset(),
+            currentOffsetPersistedInSnowflake);
       }
+    } finally {
+      bufferLock.unlock();
+    }
 
-      // If we found reaching buffer size threshold or count based threshold, we will immediately
-      // flush (Insert them)
-      if (copiedStreamingBuffer != null) {
-        insertRecords(copiedStreamingBuffer);
+    // If we found reaching buffer size threshold or count based threshold, we will immediately
+    // flush (Insert them)
+    if (copiedStreamingBuffer != null) {
+      flush(copiedStreamingBuffer);
+    }
+  }
+
+  /**
+   * Inserts the buffer into Snowflake, on the buffer flusher if there is one. Otherwise on the
+   * calling thread.
+   */
+  private void flush(StreamingBuffer bufferToInsert) {
+    if (adaptiveBufferThreshold != null) {
+      adaptiveBufferThreshold.onBufferCut(
+          bufferToInsert.getNumOfRecords(),
+          bufferToInsert.getBufferSizeBytes(),
+          System.currentTimeMillis());
+    }
+    if (flushQueue == null || bufferToInsert.isEmpty()) {
+      try {
+        insertRecords(bufferToInsert);
+      } finally {
+        releaseMemory(bufferToInsert);
       }
-    } else {
-      LOGGER.warn(
-          "Channel {} - skipping current record - expected offset {} but received {}. The current"
-              + " offset stored in Snowflake: {}",
-          this.getChannelNameFormatV1(),
-          currentProcessedOffset,
-          kafkaSinkRecord.kafkaOffset(),
-          currentOffsetPersistedInSnowflake);
+      return;
+    }
+    // the next time based flush is counted from the hand over, not from the end of the insert
+    this.previousFlushTimeStampMs = System.currentTimeMillis();
+    try {
+      flushQueue.submit(
+          () -> {
+            try {
+              if (bufferToInsert.generation != channelGeneration.get()) {
+                LOGGER.info(
+                    "Skipping buffer:{} for channel:{}, the channel was reopened and kafka sends"
+                        + " the records again",
+                    bufferToInsert,
+                    this.getChannelNameFormatV1());
+                return;
+              }
+              insertRecords(bufferToInsert);
+            } finally {
+              releaseMemory(bufferToInsert);
+            }
+          });
+    } catch (RuntimeException e) {
+      // the buffer is dropped, its bytes must not stay reserved in the budget of the worker
+      releaseMemory(bufferToInsert);
+      throw e;
+    }
+  }
+
+  private void reserveMemory(long bytes) {
+    if (partitionMemory != null) {
+      partitionMemory.reserve(bytes);
     }
   }
 
-  private boolean shouldConvertContent(final Object content) {
-    return content != null && !(content instanceof SnowflakeRecordContent);
+  private void handOverMemory(StreamingBuffer buffer) {
+    if (partitionMemory != null) {
+      partitionMemory.handOver(buffer.getBufferSizeBytes());
+    }
+  }
+
+  private void releaseMemory(StreamingBuffer buffer) {
+    if (partitionMemory != null) {
+      partitionMemory.release(buffer.getBufferSizeBytes());
+    }
+  }
+
+  /**
+   * Runs on the task thread. Rethrows failures of flushes in the background and resets the offset
+   * in kafka if one of them reopened the channel.
+   */
+  private void checkBufferFlushes() {
+    if (flushQueue == null) {
+      return;
+    }
+    flushQueue.throwIfFailed();
+    final long offsetToResetInKafka =
+        pendingOffsetResetInKafka.getAndSet(NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE);
+    if (offsetToResetInKafka != NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE) {
+      this.sinkTaskContext.offset(this.topicPartition, offsetToResetInKafka);
+      // records until kafka sends the reset offset are sent again
+      needToSkipCurrentBatch = true;
+    }
   }
 
   /**
@@ -452,49 +631,11 @@ public class BufferedTopicPartitionChannel implements TopicPartitionChannel {
     return content != null && ((SnowflakeRecordContent) content).isBroken();
   }
 
-  private SinkRecord handleNativeRecord(SinkRecord record, boolean isKey) {
-    SnowflakeRecordContent newSFContent;
-    Schema schema = isKey ? record.keySchema() : record.valueSchema();
-    Object content = isKey ? record.key() : record.value();
-    try {
-      newSFContent = new SnowflakeRecordContent(schema, content, true);
-    } catch (Exception e) {
-      LOGGER.error("Native content parser error:\n{}", e.getMessage());
-      try {
-        // try to serialize this object and send that as broken record
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-        ObjectOutputStream os = new ObjectOutputStream(out);
-        os.writeObject(content);
-        newSFContent = new SnowflakeRecordContent(out.toByteArray());
-      } catch (Exception serializeError) {
-        LOGGER.error(
-            "Failed to convert broken native record to byte data:\n{}",
-            serializeError.getMessage());
-        throw e;
-      }
-    }
-    // create new sinkRecord
-    Schema keySchema = isKey ? new SnowflakeJsonSchema() : record.keySchema();
-    Object keyContent = isKey ? newSFContent : record.key();
-    Schema valueSchema = isKey ? record.valueSchema() : new SnowflakeJsonSchema();
-    Object valueContent = isKey ? record.value() : newSFContent;
-    return new SinkRecord(
-        record.topic(),
-        record.kafkaPartition(),
-        keySchema,
-        keyContent,
-        valueSchema,
-        valueContent,
-        record.kafkaOffset(),
-        record.timestamp(),
-        record.timestampType(),
-        record.headers());
-  }
-
   // --------------- BUFFER FLUSHING LOGIC --------------- //
 
   @Override
   public void insertBufferedRecordsIfFlushTimeThresholdReached() {
+    checkBufferFlushes();
     if (this.streamingBufferThreshold.shouldFlushOnBufferTime(this.previousFlushTimeStampMs)) {
       LOGGER.debug(
           "Time based flush for channel:{}, CurrentTimeMs:{}, previousFlushTimeMs:{},"
@@ -503,17 +644,31 @@ public class BufferedTopicPartitionChannel implements TopicPartitionChannel {
           System.currentTimeMillis(),
           this.previousFlushTimeStampMs,
           this.streamingBufferThreshold.getFlushTimeThresholdSeconds());
-      StreamingBuffer copiedStreamingBuffer;
-      bufferLock.lock();
-      try {
-        copiedStreamingBuffer = this.streamingBuffer;
-        this.streamingBuffer = new StreamingBuffer();
-      } finally {
-        bufferLock.unlock();
-      }
-      if (copiedStreamingBuffer != null) {
-        insertRecords(copiedStreamingBuffer);
-      }
+      flushBuffer();
+    }
+  }
+
+  @Override
+  public long getNextTimeBasedFlushMs() {
+    return this.streamingBufferThreshold.getNextFlushTimeMs(this.previousFlushTimeStampMs);
+  }
+
+  /**
+   * Cuts the current buffer and inserts it. Also called by the buffer memory of the task when this
+   * buffer is one of the largest ones of the worker.
+   */
+  private void flushBuffer() {
+    StreamingBuffer copiedStreamingBuffer;
+    bufferLock.lock();
+    try {
+      copiedStreamingBuffer = this.streamingBuffer;
+      this.streamingBuffer = new StreamingBuffer();
+      handOverMemory(copiedStreamingBuffer);
+    } finally {
+      bufferLock.unlock();
+    }
+    if (copiedStreamingBuffer != null) {
+      flush(copiedStreamingBuffer);
     }
   }
 
@@ -525,8 +680,14 @@ public class BufferedTopicPartitionChannel implements TopicPartitionChannel {
       return null;
     }
     InsertRowsResponse response = null;
+    final SnowflakeStreamingIngestChannel channelForInsertRows = this.channel;
     try {
-      response = insertRowsWithFallback(streamingBufferToInsert);
+      final long insertStartNanos = System.nanoTime();
+      response = insertRowsWithFallback(streamingBufferToInsert, channelForInsertRows);
+      if (adaptiveBufferThreshold != null) {
+        adaptiveBufferThreshold.onInsert(
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - insertStartNanos));
+      }
       // Updates the flush time (last time we called insertRows API)
       this.previousFlushTimeStampMs = System.currentTimeMillis();
 
@@ -546,7 +707,8 @@ public class BufferedTopicPartitionChannel implements TopicPartitionChannel {
       // since it's possible that not all rows are ingested
       if (response.needToResetOffset()) {
         streamingApiFallbackSupplier(
-            StreamingApiFallbackInvoker.INSERT_ROWS_SCHEMA_EVOLUTION_FALLBACK);
+            StreamingApiFallbackInvoker.INSERT_ROWS_SCHEMA_EVOLUTION_FALLBACK,
+            channelForInsertRows);
       }
       return response;
     } catch (TopicPartitionChannelInsertionException ex) {
@@ -574,13 +736,16 @@ public class BufferedTopicPartitionChannel implements TopicPartitionChannel {
    * {@link InsertValidationResponse}
    *
    * @param buffer buffer to insert into snowflake
+   * @param channelForInsertRows channel the buffer is inserted into
    * @return InsertRowsResponse a response that wraps around InsertValidationResponse
    */
-  private InsertRowsResponse insertRowsWithFallback(StreamingBuffer buffer) {
+  private InsertRowsResponse insertRowsWithFallback(
+      StreamingBuffer buffer, SnowflakeStreamingIngestChannel channelForInsertRows) {
     Fallback<Object> reopenChannelFallbackExecutorForInsertRows =
         Fallback.builder(
                 executionAttemptedEvent -> {
-                  insertRowsFallbackSupplier(executionAttemptedEvent.getLastException());
+                  insertRowsFallbackSupplier(
+                      executionAttemptedEvent.getLastException(), channelForInsertRows);
                 })
             .handle(SFException.class)
             .onFailedAttempt(
@@ -602,7 +767,7 @@ public class BufferedTopicPartitionChannel implements TopicPartitionChannel {
     return Failsafe.with(reopenChannelFallbackExecutorForInsertRows)
         .get(
             new InsertRowsApiResponseSupplier(
-                this.channel,
+                channelForInsertRows,
                 buffer,
                 this.enableSchemaEvolution,
                 this.schemaEvolutionService,
@@ -733,10 +898,12 @@ public class BufferedTopicPartitionChannel implements TopicPartitionChannel {
    * @throws TopicPartitionChannelInsertionException exception is thrown after channel reopen has
    *     been successful and offsetToken was fetched from Snowflake
    */
-  private void insertRowsFallbackSupplier(Throwable ex)
+  private void insertRowsFallbackSupplier(
+      Throwable ex, SnowflakeStreamingIngestChannel failedChannel)
       throws TopicPartitionChannelInsertionException {
     final long offsetRecoveredFromSnowflake =
-        streamingApiFallbackSupplier(StreamingApiFallbackInvoker.INSERT_ROWS_FALLBACK);
+        streamingApiFallbackSupplier(
+            StreamingApiFallbackInvoker.INSERT_ROWS_FALLBACK, failedChannel);
     throw new TopicPartitionChannelInsertionException(
         String.format(
             "%s Failed to insert rows for channel:%s. Recovered offset from Snowflake is:%s",
@@ -792,7 +959,39 @@ public class BufferedTopicPartitionChannel implements TopicPartitionChannel {
 
   @Override
   public long getOffsetSafeToCommitToKafka() {
-    final long committedOffsetInSnowflake = fetchOffsetTokenWithRetry();
+    checkBufferFlushes();
+    return getOffsetSafeToCommitToKafka(fetchOffsetTokenWithRetry());
+  }
+
+  @Override
+  public long getOffsetSafeToCommitToKafka(@Nullable String committedOffsetToken) {
+    checkBufferFlushes();
+    return getOffsetSafeToCommitToKafka(parseOffsetToken(committedOffsetToken));
+  }
+
+  @Override
+  public void refreshOffsetPersistedInSnowflake(
+      @Nullable String committedOffsetToken, long fetchedAtNanos) {
+    this.offsetPersistedInSnowflake.set(parseOffsetToken(committedOffsetToken));
+    this.offsetRefreshedAtNanos = fetchedAtNanos;
+  }
+
+  @Override
+  public OptionalLong getRefreshedOffsetSafeToCommitToKafka(long maxAgeNanos) {
+    checkBufferFlushes();
+    Long refreshedAtNanos = this.offsetRefreshedAtNanos;
+    if (refreshedAtNanos == null || System.nanoTime() - refreshedAtNanos > maxAgeNanos) {
+      return OptionalLong.empty();
+    }
+    return OptionalLong.of(getOffsetSafeToCommitToKafka(this.offsetPersistedInSnowflake.get()));
+  }
+
+  @Override
+  public long getOffsetToResetInKafkaOnOpen() {
+    return getOffsetSafeToCommitToKafka(this.offsetPersistedInSnowflakeOnOpen);
+  }
+
+  private long getOffsetSafeToCommitToKafka(long committedOffsetInSnowflake) {
     if (committedOffsetInSnowflake == NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE) {
       return NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE;
     } else {
@@ -806,6 +1005,7 @@ public class BufferedTopicPartitionChannel implements TopicPartitionChannel {
   @Override
   @VisibleForTesting
   public long fetchOffsetTokenWithRetry() {
+    final SnowflakeStreamingIngestChannel channelToGetOffset = this.channel;
     final RetryPolicy<Long> offsetTokenRetryPolicy =
         RetryPolicy.<Long>builder()
             .handle(SFException.class)
@@ -828,7 +1028,7 @@ public class BufferedTopicPartitionChannel implements TopicPartitionChannel {
         Fallback.builder(
                 () ->
                     streamingApiFallbackSupplier(
-                        StreamingApiFallbackInvoker.GET_OFFSET_TOKEN_FALLBACK))
+                        StreamingApiFallbackInvoker.GET_OFFSET_TOKEN_FALLBACK, channelToGetOffset))
             .handle(SFException.class)
             .onFailure(
                 event ->
@@ -850,7 +1050,7 @@ public class BufferedTopicPartitionChannel implements TopicPartitionChannel {
                     event.getElapsedTime().get(SECONDS),
                     event.getException()))
         .compose(offsetTokenRetryPolicy)
-        .get(this::fetchLatestCommittedOffsetFromSnowflake);
+        .get(() -> fetchLatestOffsetFromChannel(channelToGetOffset));
   }
 
   /**
@@ -863,24 +1063,41 @@ public class BufferedTopicPartitionChannel implements TopicPartitionChannel {
    * <p>If a valid offset is found from snowflake, we will reset the topicPartition with
    * (offsetReturnedFromSnowflake + 1).
    *
+   * <p>The buffer flusher and the task thread may both find the channel invalidated. The channel
+   * is reopened once, if it was already reopened by the other thread the offset is fetched from
+   * the reopened channel, the kafka offset was already reset by that reopen.
+   *
    * @param streamingApiFallbackInvoker Streaming API which is using this fallback function. Used
    *     for logging mainly.
+   * @param failedChannel channel on which the streaming API failed
    * @return offset which was last present in Snowflake
    */
   private long streamingApiFallbackSupplier(
-      final StreamingApiFallbackInvoker streamingApiFallbackInvoker) {
-    SnowflakeStreamingIngestChannel newChannel = reopenChannel(streamingApiFallbackInvoker);
+      final StreamingApiFallbackInvoker streamingApiFallbackInvoker,
+      final SnowflakeStreamingIngestChannel failedChannel) {
+    synchronized (reopenLock) {
+      final SnowflakeStreamingIngestChannel currentChannel = this.channel;
+      if (currentChannel != failedChannel) {
+        LOGGER.warn(
+            "{} Channel:{} was already re-opened, fetching offsetToken from the re-opened channel",
+            streamingApiFallbackInvoker,
+            this.getChannelNameFormatV1());
+        return fetchLatestOffsetFromChannel(currentChannel);
+      }
 
-    LOGGER.warn(
-        "{} Fetching offsetToken after re-opening the channel:{}",
-        streamingApiFallbackInvoker,
-        this.getChannelNameFormatV1());
-    long offsetRecoveredFromSnowflake = fetchLatestOffsetFromChannel(newChannel);
+      SnowflakeStreamingIngestChannel newChannel = reopenChannel(streamingApiFallbackInvoker);
+
+      LOGGER.warn(
+          "{} Fetching offsetToken after re-opening the channel:{}",
+          streamingApiFallbackInvoker,
+          this.getChannelNameFormatV1());
+      long offsetRecoveredFromSnowflake = fetchLatestOffsetFromChannel(newChannel);
 
-    resetChannelMetadataAfterRecovery(
-        streamingApiFallbackInvoker, offsetRecoveredFromSnowflake, newChannel);
+      resetChannelMetadataAfterRecovery(
+          streamingApiFallbackInvoker, offsetRecoveredFromSnowflake, newChannel);
 
-    return offsetRecoveredFromSnowflake;
+      return offsetRecoveredFromSnowflake;
+    }
   }
 
   /**
@@ -929,10 +1146,18 @@ public class BufferedTopicPartitionChannel implements TopicPartitionChannel {
               + " kafka",
           this.streamingBuffer,
           this.getChannelNameFormatV1());
+      this.channelGeneration.incrementAndGet();
+      handOverMemory(this.streamingBuffer);
+      releaseMemory(this.streamingBuffer);
       this.streamingBuffer = new StreamingBuffer();
 
-      // Reset Offset in kafka for this topic partition.
-      this.sinkTaskContext.offset(this.topicPartition, offsetToResetInKafka);
+      // Reset Offset in kafka for this topic partition. The task context may only be used by the
+      // task thread, resets of the buffer flusher are applied on the next call from the task.
+      if (flushQueue == null) {
+        this.sinkTaskContext.offset(this.topicPartition, offsetToResetInKafka);
+      } else {
+        this.pendingOffsetResetInKafka.set(offsetToResetInKafka);
+      }
 
       // Need to update the in memory processed offset otherwise if same offset is send again, it
       // might get rejected.
@@ -977,24 +1202,27 @@ public class BufferedTopicPartitionChannel implements TopicPartitionChannel {
    *
    * <p>If it is not long parsable, we will throw {@link ConnectException}
    *
+   * @param channel channel to fetch the offset token from
    * @return -1 if no offset is found in snowflake, else the long value of committedOffset in
    *     snowflake.
    */
-  private long fetchLatestCommittedOffsetFromSnowflake() {
-    SnowflakeStreamingIngestChannel channelToGetOffset = this.channel;
-    return fetchLatestOffsetFromChannel(channelToGetOffset);
-  }
-
   private long fetchLatestOffsetFromChannel(SnowflakeStreamingIngestChannel channel) {
     LOGGER.debug(
         "Fetching last committed offset for partition channel:{}", this.getChannelNameFormatV1());
-    String offsetToken = null;
+    String offsetToken = channel.getLatestCommittedOffsetToken();
+    LOGGER.info(
+        "Fetched offsetToken for channelName:{}, offset:{}",
+        this.getChannelNameFormatV1(),
+        offsetToken);
+    return parseOffsetToken(offsetToken);
+  }
+
+  /**
+   * @param offsetToken offset token fetched from Snowflake
+   * @return -1 if no offset is found in snowflake, else the long value of the offset token
+   */
+  private long parseOffsetToken(@Nullable String offsetToken) {
     try {
-      offsetToken = channel.getLatestCommittedOffsetToken();
-      LOGGER.info(
-          "Fetched offsetToken for channelName:{}, offset:{}",
-          this.getChannelNameFormatV1(),
-          offsetToken);
       return offsetToken == null
           ? NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE
           : Long.parseLong(offsetToken);
@@ -1038,7 +1266,11 @@ public class BufferedTopicPartitionChannel implements TopicPartitionChannel {
 
   @Override
   public void closeChannel() {
+    unregisterMemory();
     try {
+      if (flushQueue != null) {
+        flushQueue.flushesDone().get();
+      }
       this.channel.close().get();
 
       // telemetry and metrics
@@ -1061,11 +1293,63 @@ public class BufferedTopicPartitionChannel implements TopicPartitionChannel {
 
   @Override
   public CompletableFuture<Void> closeChannelAsync() {
-    return closeChannelWrapped()
+    unregisterMemory();
+    // buffers already handed over to the buffer flusher are inserted before the channel is closed
+    CompletableFuture<Void> flushesDone =
+        flushQueue == null ? CompletableFuture.completedFuture(null) : flushQueue.flushesDone();
+    return flushesDone
+        .thenCompose(__ -> closeChannelWrapped())
         .thenAccept(__ -> onCloseChannelSuccess())
         .exceptionally(this::tryRecoverFromCloseChannelError);
   }
 
+  @Override
+  public CompletableFuture<Void> park() {
+    try {
+      flushBuffer();
+    } catch (RuntimeException e) {
+      CompletableFuture<Void> future = new CompletableFuture<>();
+      future.completeExceptionally(e);
+      return future;
+    } finally {
+      // the partition is no longer assigned, it must not be paused by the memory budget
+      unregisterMemory();
+    }
+    if (flushQueue == null) {
+      return CompletableFuture.completedFuture(null);
+    }
+    return flushQueue.flushesDone().thenRun(flushQueue::throwIfFailed);
+  }
+
+  @Override
+  public boolean tryReuse(@Nullable String committedOffsetToken) {
+    if (this.channel.isClosed() || !this.channel.isValid()) {
+      return false;
+    }
+    final long committedOffset = parseOffsetToken(committedOffsetToken);
+    if (committedOffset != this.processedOffset.get()) {
+      LOGGER.info(
+          "Not reusing channel:{}, offset committed in Snowflake:{} differs from processed"
+              + " offset:{}",
+          this.getChannelNameFormatV1(),
+          committedOffset,
+          this.processedOffset.get());
+      return false;
+    }
+    this.offsetPersistedInSnowflake.set(committedOffset);
+    this.offsetPersistedInSnowflakeOnOpen = committedOffset;
+    if (taskMemory != null) {
+      this.partitionMemory = taskMemory.register(topicPartition, this::flushBuffer);
+    }
+    return true;
+  }
+
+  private void unregisterMemory() {
+    if (partitionMemory != null) {
+      partitionMemory.unregister();
+    }
+  }
+
   private CompletableFuture<Void> closeChannelWrapped() {
     try {
       return this.channel.close();
@@ -1193,37 +1477,24 @@ public class BufferedTopicPartitionChannel implements TopicPartitionChannel {
    * the SinkRecord instead of first turning it into json
    */
   private SinkRecord getSnowflakeSinkRecordFromKafkaRecord(final SinkRecord kafkaSinkRecord) {
-    SinkRecord snowflakeRecord = kafkaSinkRecord;
-    if (shouldConvertContent(kafkaSinkRecord.value())) {
-      snowflakeRecord = handleNativeRecord(kafkaSinkRecord, false);
-    }
-    if (shouldConvertContent(kafkaSinkRecord.key())) {
-      snowflakeRecord = handleNativeRecord(snowflakeRecord, true);
-    }
-
-    return snowflakeRecord;
+    return recordService.convertNativeRecord(kafkaSinkRecord, true);
   }
 
   /**
-   * Get Approximate size of Sink Record which we get from Kafka. This is useful to find out how
-   * much data(records) we have buffered per channel/partition.
-   *
-   * <p>This is an approximate size since there is no API available to find out size of record.
-   *
-   * <p>We first serialize the incoming kafka record into a Json format and find estimate size.
-   *
-   * <p>Please note, the size we calculate here is not accurate and doesnt match with actual size of
-   * Kafka record which we buffer in memory. (Kafka Sink Record has lot of other metadata
-   * information which is discarded when we calculate the size of Json Record)
+   * Get size of Sink Record which we get from Kafka. This is useful to find out how much
+   * data(records) we have buffered per channel/partition.
    *
-   * <p>We also do the same processing just before calling insertRows API for the buffered rows.
+   * <p>We first convert the incoming kafka record into the row for insertRows API and count the
+   * bytes of its column names and values with {@link StreamingRowSize}, i.e. text is counted by
+   * its UTF-8 encoding. The kafka record retained by the buffer until its row is inserted is added
+   * with {@link StreamingRowSize#ofRecord(SinkRecord)}.
    *
    * <p>Downside of this calculation is we might try to buffer more records but we could be close to
    * JVM memory getting full
    *
    * @param kafkaSinkRecord sink record received as is from Kafka (With connector specific converter
    *     being invoked)
-   * @return Approximate long size of record in bytes. 0 if record is broken
+   * @return size of record in bytes. 0 if record is broken
    */
   protected long getApproxSizeOfRecordInBytes(SinkRecord kafkaSinkRecord) {
     long sinkRecordBufferSizeInBytes = 0L;
@@ -1241,22 +1512,7 @@ public class BufferedTopicPartitionChannel implements TopicPartitionChannel {
       // get the row that we want to insert into Snowflake.
       Map<String, Object> tableRow =
           recordService.getProcessedRecordForStreamingIngest(snowflakeRecord);
-      // need to loop through the map and get the object node
-      for (Map.Entry<String, Object> entry : tableRow.entrySet()) {
-        sinkRecordBufferSizeInBytes += entry.getKey().length() * 2L;
-        // Can Typecast into string because value is JSON
-        Object value = entry.getValue();
-        if (value != null) {
-          if (value instanceof String) {
-            sinkRecordBufferSizeInBytes += ((String) value).length() * 2L; // 1 char = 2 bytes
-          } else {
-            // for now it could only be a list of string
-            for (String s : (List<String>) value) {
-              sinkRecordBufferSizeInBytes += s.length() * 2L;
-            }
-          }
-        }
-      }
+      sinkRecordBufferSizeInBytes += StreamingRowSize.of(tableRow);
     } catch (Exception e) {
       boolean isJsonProcessingEx = e instanceof JsonProcessingException;
       boolean isSnowflakeParsingEx =
@@ -1269,7 +1525,7 @@ public class BufferedTopicPartitionChannel implements TopicPartitionChannel {
       }
     }
 
-    sinkRecordBufferSizeInBytes += StreamingUtils.MAX_RECORD_OVERHEAD_BYTES;
+    sinkRecordBufferSizeInBytes += StreamingRowSize.ofRecord(kafkaSinkRecord);
     return sinkRecordBufferSizeInBytes;
   }
 
@@ -1284,16 +1540,33 @@ public class BufferedTopicPartitionChannel implements TopicPartitionChannel {
    * Snowflake.
    *
    * <p>We would transform kafka records to Snowflake understood records (In JSON format) just
-   * before calling insertRows API.
+   * before calling insertRows API, unless {@link
+   * SnowflakeSinkConnectorConfig#SNOWPIPE_STREAMING_BUFFER_CONVERT_ON_INSERT} is enabled. In that
+   * case every record is transformed exactly once when it is inserted, the row and its size are
+   * kept, and records which cannot be converted are remembered to be reported to DLQ on flush.
    */
   @VisibleForTesting
   class StreamingBuffer extends PartitionBuffer<Pair<List<Map<String, Object>>, List<SinkRecord>>> {
     // Records coming from Kafka
     private final List<SinkRecord> sinkRecords;
 
+    // Rows converted on insert and their corresponding original sink records, only used if
+    // convertOnInsert is enabled
+    private final List<Map<String, Object>> convertedRows;
+    private final List<SinkRecord> convertedSinkRecords;
+
+    // Records which failed the conversion on insert, reported to DLQ when the buffer is flushed
+    private final List<Pair<SinkRecord, Exception>> failedSinkRecords;
+
+    // Generation of the channel the records were accepted for
+    private final int generation = channelGeneration.get();
+
     StreamingBuffer() {
       super();
       sinkRecords = new ArrayList<>();
+      convertedRows = new ArrayList<>();
+      convertedSinkRecords = new ArrayList<>();
+      failedSinkRecords = new ArrayList<>();
     }
 
     @Override
@@ -1306,66 +1579,89 @@ public class BufferedTopicPartitionChannel implements TopicPartitionChannel {
       setNumOfRecords(getNumOfRecords() + 1);
       setLastOffset(kafkaSinkRecord.kafkaOffset());
 
-      final long currentKafkaRecordSizeInBytes = getApproxSizeOfRecordInBytes(kafkaSinkRecord);
+      final long currentKafkaRecordSizeInBytes =
+          convertOnInsert
+              ? convertAndGetSizeInBytes(kafkaSinkRecord)
+              : getApproxSizeOfRecordInBytes(kafkaSinkRecord);
       // update size of buffer
       setBufferSizeBytes(getBufferSizeBytes() + currentKafkaRecordSizeInBytes);
     }
 
+    /**
+     * Converts the record into a row for insertRows API and keeps it in this buffer, so that it
+     * doesn't have to be converted again on flush.
+     *
+     * @param kafkaSinkRecord sink record received as is from Kafka
+     * @return size of the converted row in bytes, see {@link
+     *     #getApproxSizeOfRecordInBytes(SinkRecord)}. 0 if record is broken
+     */
+    private long convertAndGetSizeInBytes(SinkRecord kafkaSinkRecord) {
+      SinkRecord snowflakeRecord = getSnowflakeSinkRecordFromKafkaRecord(kafkaSinkRecord);
+      if (isRecordBroken(snowflakeRecord)) {
+        LOGGER.debug(
+            "Broken record offset:{}, topic:{}",
+            kafkaSinkRecord.kafkaOffset(),
+            kafkaSinkRecord.topic());
+        failedSinkRecords.add(new Pair<>(kafkaSinkRecord, new DataException("Broken Record")));
+        return 0L;
+      }
+
+      long rowSizeInBytes = 0L;
+      try {
+        Map<String, Object> tableRow =
+            recordService.getProcessedRecordForStreamingIngest(snowflakeRecord);
+        convertedRows.add(tableRow);
+        convertedSinkRecords.add(kafkaSinkRecord);
+        rowSizeInBytes = StreamingRowSize.of(tableRow);
+      } catch (JsonProcessingException e) {
+        LOGGER.warn(
+            "Record has JsonProcessingException offset:{}, topic:{}",
+            kafkaSinkRecord.kafkaOffset(),
+            kafkaSinkRecord.topic());
+        failedSinkRecords.add(new Pair<>(kafkaSinkRecord, e));
+      } catch (SnowflakeKafkaConnectorException e) {
+        if (e.checkErrorCode(SnowflakeErrors.ERROR_0010)) {
+          LOGGER.warn(
+              "Cannot parse record offset:{}, topic:{}. Sending to DLQ.",
+              kafkaSinkRecord.kafkaOffset(),
+              kafkaSinkRecord.topic());
+          failedSinkRecords.add(new Pair<>(kafkaSinkRecord, e));
+        } else {
+          throw e;
+        }
+      }
+      return rowSizeInBytes + StreamingRowSize.ofRecord(kafkaSinkRecord);
+    }
+
     /**
      * Get all rows and corresponding SinkRecords. Each map corresponds to one row whose keys are
      * column names and values are corresponding data in that column.
      *
      * <p>This goes over through all buffered kafka records and transforms into JsonSchema and
-     * JsonNode Check {@link #handleNativeRecord(SinkRecord, boolean)}
+     * JsonNode Check {@link RecordService#convertNativeRecord(SinkRecord, boolean)}
      *
      * @return A pair that contains the records and their corresponding original sinkRecords
      */
     @Override
     public Pair<List<Map<String, Object>>, List<SinkRecord>> getData() {
-      final List<Map<String, Object>> records = new ArrayList<>();
-      final List<SinkRecord> filteredOriginalSinkRecords = new ArrayList<>();
-
-      for (SinkRecord kafkaSinkRecord : sinkRecords) {
-        SinkRecord snowflakeRecord = getSnowflakeSinkRecordFromKafkaRecord(kafkaSinkRecord);
-        // broken record
-        if (isRecordBroken(snowflakeRecord)) {
+      if (convertOnInsert) {
+        return getConvertedData();
+      }
+      // Convert the records into rows which have content and metadata, broken records and records
+      // which can't be converted are sent to DLQ
+      RecordService.ConvertedBatch batch = recordService.convertBatch(sinkRecords);
+      final List<Map<String, Object>> records = new ArrayList<>(batch.size());
+      final List<SinkRecord> filteredOriginalSinkRecords = new ArrayList<>(batch.size());
+
+      for (int i = 0; i < batch.size(); i++) {
+        Exception failure = batch.getFailure(i);
+        if (failure != null) {
           // check for error tolerance and log tolerance values
           // errors.log.enable and errors.tolerance
-          LOGGER.debug(
-              "Broken record offset:{}, topic:{}",
-              kafkaSinkRecord.kafkaOffset(),
-              kafkaSinkRecord.topic());
-          kafkaRecordErrorReporter.reportError(kafkaSinkRecord, new DataException("Broken Record"));
+          kafkaRecordErrorReporter.reportError(batch.getRecord(i), failure);
         } else {
-          // lag telemetry, note that sink record timestamp might be null
-          if (snowflakeRecord.timestamp() != null
-              && snowflakeRecord.timestampType() != NO_TIMESTAMP_TYPE) {
-            // TODO:SNOW-529751 telemetry
-          }
-          // Convert this records into Json Schema which has content and metadata, add it to DLQ if
-          // there is an exception
-          try {
-            Map<String, Object> tableRow =
-                recordService.getProcessedRecordForStreamingIngest(snowflakeRecord);
-            records.add(tableRow);
-            filteredOriginalSinkRecords.add(kafkaSinkRecord);
-          } catch (JsonProcessingException e) {
-            LOGGER.warn(
-                "Record has JsonProcessingException offset:{}, topic:{}",
-                kafkaSinkRecord.kafkaOffset(),
-                kafkaSinkRecord.topic());
-            kafkaRecordErrorReporter.reportError(kafkaSinkRecord, e);
-          } catch (SnowflakeKafkaConnectorException e) {
-            if (e.checkErrorCode(SnowflakeErrors.ERROR_0010)) {
-              LOGGER.warn(
-                  "Cannot parse record offset:{}, topic:{}. Sending to DLQ.",
-                  kafkaSinkRecord.kafkaOffset(),
-                  kafkaSinkRecord.topic());
-              kafkaRecordErrorReporter.reportError(kafkaSinkRecord, e);
-            } else {
-              throw e;
-            }
-          }
+          records.add(batch.getRow(i));
+          filteredOriginalSinkRecords.add(batch.getRecord(i));
         }
       }
       LOGGER.debug(
@@ -1377,6 +1673,26 @@ public class BufferedTopicPartitionChannel implements TopicPartitionChannel {
       return new Pair<>(records, filteredOriginalSinkRecords);
     }
 
+    /**
+     * Returns the rows converted on insert and reports the records which failed the conversion to
+     * DLQ.
+     *
+     * @return A pair that contains the records and their corresponding original sinkRecords
+     */
+    private Pair<List<Map<String, Object>>, List<SinkRecord>> getConvertedData() {
+      for (Pair<SinkRecord, Exception> failedSinkRecord : failedSinkRecords) {
+        kafkaRecordErrorReporter.reportError(
+            failedSinkRecord.getKey(), failedSinkRecord.getValue());
+      }
+      LOGGER.debug(
+          "Get converted rows for streaming ingest. {} records, {} bytes, offset {} - {}",
+          getNumOfRecords(),
+          getBufferSizeBytes(),
+          getFirstOffset(),
+          getLastOffset());
+      return new Pair<>(convertedRows, convertedSinkRecords);
+    }
+
     @Override
     public List<SinkRecord> getSinkRecords() {
       return sinkRecords;
@@ -1389,7 +1705,7 @@ public class BufferedTopicPartitionChannel implements TopicPartitionChannel {
 
   /**
    * Enum representing which Streaming API is invoking the fallback supplier. ({@link
-   * #streamingApiFallbackSupplier(StreamingApiFallbackInvoker)})
+   * #streamingApiFallbackSupplier(StreamingApiFallbackInvoker, SnowflakeStreamingIngestChannel)})
    *
    * <p>Fallback supplier is essentially reopening the channel and resetting the kafka offset to
    * offset found in Snowflake.
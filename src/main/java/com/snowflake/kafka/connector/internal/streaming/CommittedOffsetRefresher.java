@@ -0,0 +1,98 @@
+package com.snowflake.kafka.connector.internal.streaming;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.snowflake.kafka.connector.internal.KCLogger;
+import com.snowflake.kafka.connector.internal.streaming.channel.TopicPartitionChannel;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Refreshes the offsets committed in Snowflake for the channels of a task on a background thread,
+ * so that committing offsets to Kafka doesn't have to wait for Snowflake.
+ *
+ * <p>The offset tokens of all channels are fetched together and stored in the channels, see {@link
+ * TopicPartitionChannel#refreshOffsetPersistedInSnowflake(String, long)}. A refreshed offset is
+ * used for {@link TopicPartitionChannel#getRefreshedOffsetSafeToCommitToKafka(long)} as long as it
+ * is not older than two intervals, so a single failed or late refresh doesn't make the task fetch
+ * the offsets again. Committed offsets only grow, an outdated offset is still safe to commit.
+ * Until the first refresh, offsets are fetched when they are committed.
+ */
+public class CommittedOffsetRefresher {
+  private static final KCLogger LOGGER = new KCLogger(CommittedOffsetRefresher.class.getName());
+
+  private static final int MAX_AGE_INTERVALS = 2;
+
+  private final ScheduledExecutorService executor;
+
+  private final Supplier<Collection<TopicPartitionChannel>> channels;
+
+  private final Function<Collection<TopicPartitionChannel>, Map<String, String>> offsetTokenFetcher;
+
+  private final long maxAgeNanos;
+
+  /**
+   * @param interval time between two refreshes
+   * @param channels supplies the channels currently opened by the task
+   * @param offsetTokenFetcher fetches the committed offset tokens of the given channels, keyed by
+   *     their fully qualified names
+   */
+  public CommittedOffsetRefresher(
+      Duration interval,
+      Supplier<Collection<TopicPartitionChannel>> channels,
+      Function<Collection<TopicPartitionChannel>, Map<String, String>> offsetTokenFetcher) {
+    this.channels = channels;
+    this.offsetTokenFetcher = offsetTokenFetcher;
+    this.maxAgeNanos = interval.toNanos() * MAX_AGE_INTERVALS;
+    this.executor =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder()
+                .setNameFormat("snowflake-committed-offset-refresher-%d")
+                .setDaemon(true)
+                .build());
+    this.executor.scheduleWithFixedDelay(
+        this::refresh, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  /** @return maximum age of a refreshed offset which is used instead of fetching the offset */
+  public long getMaxAgeNanos() {
+    return maxAgeNanos;
+  }
+
+  /** Stops refreshing, a refresh in progress is not interrupted. */
+  public void close() {
+    executor.shutdown();
+  }
+
+  @VisibleForTesting
+  void refresh() {
+    try {
+      Collection<TopicPartitionChannel> openChannels = channels.get();
+      if (openChannels.isEmpty()) {
+        return;
+      }
+      long fetchedAtNanos = System.nanoTime();
+      Map<String, String> committedOffsetTokens = offsetTokenFetcher.apply(openChannels);
+      for (TopicPartitionChannel channel : openChannels) {
+        String channelName = channel.getChannel().getFullyQualifiedName();
+        if (committedOffsetTokens.containsKey(channelName)) {
+          channel.refreshOffsetPersistedInSnowflake(
+              committedOffsetTokens.get(channelName), fetchedAtNanos);
+        }
+      }
+      LOGGER.debug(
+          "Refreshed committed offsets of {} out of {} channels",
+          committedOffsetTokens.size(),
+          openChannels.size());
+    } catch (RuntimeException e) {
+      // the offsets are fetched when they are committed until the next refresh succeeds
+      LOGGER.warn("Failed to refresh committed offsets: {}", e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package com.snowflake.kafka.connector.internal.streaming;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.annotation.Nullable;
+import org.apache.kafka.connect.errors.ConnectException;
+
+/**
+ * Offset token of a channel shared by several partitions of a topic, see {@link
+ * MultiplexedChannel}. It lists the offset of every partition, ordered by partition, e.g. {@code
+ * "0:1200,3:57"}. Partitions without an offset are left out.
+ */
+public final class CompositeOffsetToken {
+  private static final char PARTITION_SEPARATOR = ',';
+  private static final char OFFSET_SEPARATOR = ':';
+
+  private CompositeOffsetToken() {}
+
+  /**
+   * @param offsets offsets by partition, negative offsets are left out
+   * @return offset token of the offsets
+   */
+  public static String encode(Map<Integer, Long> offsets) {
+    StringBuilder token = new StringBuilder();
+    for (Map.Entry<Integer, Long> offset : new TreeMap<>(offsets).entrySet()) {
+      if (offset.getValue() < 0) {
+        continue;
+      }
+      if (token.length() > 0) {
+        token.append(PARTITION_SEPARATOR);
+      }
+      token.append(offset.getKey()).append(OFFSET_SEPARATOR).append(offset.getValue());
+    }
+    return token.toString();
+  }
+
+  /**
+   * @param offsetToken offset token fetched from Snowflake, null if there is none
+   * @return offsets by partition, empty if there is no token
+   * @throws ConnectException if the token is not a composite offset token
+   */
+  public static Map<Integer, Long> decode(@Nullable String offsetToken) {
+    if (offsetToken == null || offsetToken.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    Map<Integer, Long> offsets = new HashMap<>();
+    try {
+      int start = 0;
+      while (start < offsetToken.length()) {
+        int end = offsetToken.indexOf(PARTITION_SEPARATOR, start);
+        if (end < 0) {
+          end = offsetToken.length();
+        }
+        int separator = offsetToken.indexOf(OFFSET_SEPARATOR, start);
+        if (separator < 0 || separator > end) {
+          throw new ConnectException("Invalid composite offset token:" + offsetToken);
+        }
+        offsets.put(
+            Integer.parseInt(offsetToken.substring(start, separator)),
+            Long.parseLong(offsetToken.substring(separator + 1, end)));
+        start = end + 1;
+      }
+    } catch (NumberFormatException e) {
+      throw new ConnectException("Invalid composite offset token:" + offsetToken, e);
+    }
+    return offsets;
+  }
+}
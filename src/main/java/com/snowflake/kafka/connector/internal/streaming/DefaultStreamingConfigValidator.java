@@ -100,8 +100,19 @@ public class DefaultStreamingConfigValidator implements StreamingConfigValidator
                 inputConfig, SNOWPIPE_STREAMING_MAX_MEMORY_LIMIT_IN_BYTES, invalidParams);
           }
 
+          for (String adaptiveBufferParam :
+              Arrays.asList(
+                  SNOWPIPE_STREAMING_ADAPTIVE_BUFFER_TARGET_LATENCY_MS,
+                  SNOWPIPE_STREAMING_ADAPTIVE_BUFFER_MIN_RECORDS,
+                  SNOWPIPE_STREAMING_ADAPTIVE_BUFFER_MIN_BYTES)) {
+            if (inputConfig.containsKey(adaptiveBufferParam)) {
+              ensureValidLong(inputConfig, adaptiveBufferParam, invalidParams);
+            }
+          }
+
           // Valid schematization for Snowpipe Streaming
           invalidParams.putAll(validateSchematizationConfig(inputConfig));
+          invalidParams.putAll(validateMultiplexedChannelConfig(inputConfig));
         }
       } catch (ConfigException exception) {
         invalidParams.put(
@@ -127,6 +138,69 @@ public class DefaultStreamingConfigValidator implements StreamingConfigValidator
     }
   }
 
+  /**
+   * Validates that channels shared by several partitions are only enabled without the internal
+   * buffer and without schematization, which are not supported by {@link MultiplexedChannel}.
+   *
+   * <p>They also require a single task. Kafka Connect doesn't assign the partitions of a channel
+   * to the same task, two tasks sharing a channel invalidate each other's channel.
+   *
+   * <p>return a map of invalid params
+   */
+  private static Map<String, String> validateMultiplexedChannelConfig(
+      Map<String, String> inputConfig) {
+    Map<String, String> invalidParams = new HashMap<>();
+    String partitionsPerChannel =
+        inputConfig.get(SNOWPIPE_STREAMING_MULTIPLEXED_CHANNEL_PARTITIONS_PER_CHANNEL);
+    if (partitionsPerChannel == null) {
+      return invalidParams;
+    }
+    try {
+      if (Integer.parseInt(partitionsPerChannel) <= 1) {
+        return invalidParams;
+      }
+      if (!InternalBufferParameters.isSingleBufferEnabled(inputConfig)
+          || Utils.isSchematizationEnabled(inputConfig)) {
+        invalidParams.put(
+            SNOWPIPE_STREAMING_MULTIPLEXED_CHANNEL_PARTITIONS_PER_CHANNEL,
+            Utils.formatString(
+                "Config:{} greater than 1 requires {} to be true and {} to be false",
+                SNOWPIPE_STREAMING_MULTIPLEXED_CHANNEL_PARTITIONS_PER_CHANNEL,
+                SNOWPIPE_STREAMING_ENABLE_SINGLE_BUFFER,
+                ENABLE_SCHEMATIZATION_CONFIG));
+      } else if (getTasksMax(inputConfig) > 1) {
+        invalidParams.put(
+            SNOWPIPE_STREAMING_MULTIPLEXED_CHANNEL_PARTITIONS_PER_CHANNEL,
+            Utils.formatString(
+                "Config:{} greater than 1 requires {} to be 1, the partitions sharing a channel"
+                    + " must be assigned to the same task",
+                SNOWPIPE_STREAMING_MULTIPLEXED_CHANNEL_PARTITIONS_PER_CHANNEL,
+                TASKS_MAX));
+      }
+    } catch (NumberFormatException exception) {
+      invalidParams.put(
+          SNOWPIPE_STREAMING_MULTIPLEXED_CHANNEL_PARTITIONS_PER_CHANNEL,
+          Utils.formatString(
+              "Config:{} must be a parsable int. Given configuration was: {}",
+              SNOWPIPE_STREAMING_MULTIPLEXED_CHANNEL_PARTITIONS_PER_CHANNEL,
+              partitionsPerChannel));
+    }
+    return invalidParams;
+  }
+
+  // tasks.max is validated by Kafka Connect, which runs a single task if it is not set
+  private static int getTasksMax(Map<String, String> inputConfig) {
+    String tasksMax = inputConfig.get(TASKS_MAX);
+    if (tasksMax == null) {
+      return 1;
+    }
+    try {
+      return Integer.parseInt(tasksMax.trim());
+    } catch (NumberFormatException exception) {
+      return 1;
+    }
+  }
+
   /**
    * Validates if the configs are allowed values when schematization is enabled.
    *
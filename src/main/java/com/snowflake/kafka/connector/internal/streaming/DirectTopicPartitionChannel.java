@@ -4,17 +4,16 @@ import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.ENABLE_
 import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.ENABLE_CHANNEL_OFFSET_TOKEN_MIGRATION_DEFAULT;
 import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.ERRORS_DEAD_LETTER_QUEUE_TOPIC_NAME_CONFIG;
 import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.ERRORS_TOLERANCE_CONFIG;
+import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.SNOWPIPE_STREAMING_REPLAY_LOG_MAX_RECORDS;
+import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.SNOWPIPE_STREAMING_REPLAY_LOG_MAX_RECORDS_DEFAULT;
 import static com.snowflake.kafka.connector.internal.streaming.StreamingUtils.DURATION_BETWEEN_GET_OFFSET_TOKEN_RETRY;
 import static com.snowflake.kafka.connector.internal.streaming.StreamingUtils.MAX_GET_OFFSET_TOKEN_RETRIES;
 import static java.time.temporal.ChronoUnit.SECONDS;
-import static org.apache.kafka.common.record.TimestampType.NO_TIMESTAMP_TYPE;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
-import com.google.common.collect.ImmutableMap;
 import com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig;
 import com.snowflake.kafka.connector.Utils;
 import com.snowflake.kafka.connector.dlq.KafkaRecordErrorReporter;
@@ -33,27 +32,25 @@ import com.snowflake.kafka.connector.internal.streaming.telemetry.SnowflakeTelem
 import com.snowflake.kafka.connector.internal.telemetry.SnowflakeTelemetryService;
 import com.snowflake.kafka.connector.records.RecordService;
 import com.snowflake.kafka.connector.records.RecordServiceFactory;
-import com.snowflake.kafka.connector.records.SnowflakeJsonSchema;
-import com.snowflake.kafka.connector.records.SnowflakeRecordContent;
 import dev.failsafe.Failsafe;
 import dev.failsafe.Fallback;
 import dev.failsafe.RetryPolicy;
-import java.io.ByteArrayOutputStream;
-import java.io.ObjectOutputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 import net.snowflake.ingest.streaming.*;
 import net.snowflake.ingest.utils.SFException;
 import org.apache.kafka.common.TopicPartition;
-import org.apache.kafka.connect.data.Schema;
 import org.apache.kafka.connect.errors.ConnectException;
 import org.apache.kafka.connect.errors.DataException;
 import org.apache.kafka.connect.sink.SinkRecord;
@@ -74,6 +71,13 @@ public class DirectTopicPartitionChannel implements TopicPartitionChannel {
   private final AtomicLong offsetPersistedInSnowflake =
       new AtomicLong(NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE);
 
+  // System.nanoTime() when the offset in offsetPersistedInSnowflake was requested by the background
+  // refresh, null if it was never refreshed
+  @Nullable private volatile Long offsetRefreshedAtNanos;
+
+  // Offset committed in Snowflake when the channel was opened or reused after being parked
+  private long offsetPersistedInSnowflakeOnOpen;
+
   // This offset represents the data buffered in KC. More specifically it is the KC offset to ensure
   // exactly once functionality. On the creation it is set to the latest committed token in
   // Snowflake (see offsetPersistedInSnowflake) and updated on each new row from KC.
@@ -151,6 +155,13 @@ public class DirectTopicPartitionChannel implements TopicPartitionChannel {
    */
   private final SnowflakeTelemetryService telemetryServiceV2;
 
+  // Rows inserted but not committed yet, replayed when the channel is reopened, null if disabled
+  @Nullable private final ReplayLog replayLog;
+
+  /* Reopens the channel when insertRows throws SFException, built once per channel */
+  private final Fallback<Object> reopenChannelFallbackExecutorForInsertRows =
+      createInsertRowsFallback();
+
   /** Testing only, initialize TopicPartitionChannel without the connection service */
   @VisibleForTesting
   public DirectTopicPartitionChannel(
@@ -259,11 +270,13 @@ public class DirectTopicPartitionChannel implements TopicPartitionChannel {
           this.tableName, channelNameFormatV2, this.channelNameFormatV1);
     }
 
-    // Open channel and reset the offset in kafka
+    // Open channel, the offset in kafka is reset by the caller
     this.channel = Preconditions.checkNotNull(openChannelForTable());
     final long lastCommittedOffsetToken = fetchOffsetTokenWithRetry();
     this.offsetPersistedInSnowflake.set(lastCommittedOffsetToken);
     this.processedOffset.set(lastCommittedOffsetToken);
+    this.offsetPersistedInSnowflakeOnOpen = lastCommittedOffsetToken;
+    this.replayLog = createReplayLog(sfConnectorConfig, lastCommittedOffsetToken);
 
     // setup telemetry and metrics
     String connectorName =
@@ -286,9 +299,7 @@ public class DirectTopicPartitionChannel implements TopicPartitionChannel {
 
     this.insertErrorMapper = insertErrorMapper;
 
-    if (lastCommittedOffsetToken != NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE) {
-      this.sinkTaskContext.offset(this.topicPartition, lastCommittedOffsetToken + 1L);
-    } else {
+    if (lastCommittedOffsetToken == NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE) {
       LOGGER.info(
           "TopicPartitionChannel:{}, offset token is NULL, will rely on Kafka to send us the"
               + " correct offset instead",
@@ -322,14 +333,34 @@ public class DirectTopicPartitionChannel implements TopicPartitionChannel {
     return isEnableChannelOffsetMigration;
   }
 
+  @Nullable
+  private static ReplayLog createReplayLog(
+      Map<String, String> sfConnectorConfig, long lastCommittedOffsetToken) {
+    int maxRecords =
+        Optional.ofNullable(sfConnectorConfig.get(SNOWPIPE_STREAMING_REPLAY_LOG_MAX_RECORDS))
+            .map(Integer::parseInt)
+            .orElse(SNOWPIPE_STREAMING_REPLAY_LOG_MAX_RECORDS_DEFAULT);
+    return maxRecords > 0 ? new ReplayLog(maxRecords, lastCommittedOffsetToken) : null;
+  }
+
   @Override
   public void insertRecord(SinkRecord kafkaSinkRecord, boolean isFirstRowPerPartitionInBatch) {
+    insertRecords(Collections.singletonList(kafkaSinkRecord), isFirstRowPerPartitionInBatch);
+  }
+
+  /**
+   * Sends the accepted records with a single insertRows call carrying the offset token of the last
+   * record. A single record is sent with insertRow.
+   */
+  @Override
+  public void insertRecords(
+      List<SinkRecord> kafkaSinkRecords, boolean isFirstRowPerPartitionInBatch) {
     final long currentOffsetPersistedInSnowflake = this.offsetPersistedInSnowflake.get();
-    final long currentProcessedOffset = this.processedOffset.get();
+    long currentProcessedOffset = this.processedOffset.get();
 
     // for backwards compatibility - set the consumer offset to be the first one received from kafka
     if (currentConsumerGroupOffset.get() == NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE) {
-      this.currentConsumerGroupOffset.set(kafkaSinkRecord.kafkaOffset());
+      this.currentConsumerGroupOffset.set(kafkaSinkRecords.get(0).kafkaOffset());
     }
 
     // Reset the value if it's a new batch
@@ -337,89 +368,38 @@ public class DirectTopicPartitionChannel implements TopicPartitionChannel {
       needToSkipCurrentBatch = false;
     }
 
-    // Simply skip inserting into the buffer if the row should be ignored after channel reset
-    if (needToSkipCurrentBatch) {
-      LOGGER.info(
-          "Ignore inserting offset:{} for channel:{} because we recently reset offset in"
-              + " Kafka. currentProcessedOffset:{}",
-          kafkaSinkRecord.kafkaOffset(),
-          this.getChannelNameFormatV1(),
-          currentProcessedOffset);
-      return;
-    }
-    // Accept the incoming record only if we don't have a valid offset token at server side, or the
-    // incoming record offset is 1 + the processed offset
-    if (currentProcessedOffset == NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE
-        || kafkaSinkRecord.kafkaOffset() >= currentProcessedOffset + 1) {
-      transformAndSend(kafkaSinkRecord);
-    } else {
-      LOGGER.warn(
-          "Channel {} - skipping current record - expected offset {} but received {}. The current"
-              + " offset stored in Snowflake: {}",
-          this.getChannelNameFormatV1(),
-          currentProcessedOffset,
-          kafkaSinkRecord.kafkaOffset(),
-          currentOffsetPersistedInSnowflake);
+    List<SinkRecord> acceptedRecords = new ArrayList<>(kafkaSinkRecords.size());
+    for (SinkRecord kafkaSinkRecord : kafkaSinkRecords) {
+      // Simply skip inserting into the buffer if the row should be ignored after channel reset
+      if (needToSkipCurrentBatch) {
+        LOGGER.info(
+            "Ignore inserting offset:{} for channel:{} because we recently reset offset in"
+                + " Kafka. currentProcessedOffset:{}",
+            kafkaSinkRecord.kafkaOffset(),
+            this.getChannelNameFormatV1(),
+            currentProcessedOffset);
+        continue;
+      }
+      // Accept the incoming record only if we don't have a valid offset token at server side, or
+      // the incoming record offset is 1 + the processed offset
+      if (currentProcessedOffset == NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE
+          || kafkaSinkRecord.kafkaOffset() >= currentProcessedOffset + 1) {
+        acceptedRecords.add(kafkaSinkRecord);
+        currentProcessedOffset = kafkaSinkRecord.kafkaOffset();
+      } else {
+        LOGGER.warn(
+            "Channel {} - skipping current record - expected offset {} but received {}. The"
+                + " current offset stored in Snowflake: {}",
+            this.getChannelNameFormatV1(),
+            currentProcessedOffset,
+            kafkaSinkRecord.kafkaOffset(),
+            currentOffsetPersistedInSnowflake);
+      }
     }
-  }
-
-  private boolean shouldConvertContent(final Object content) {
-    return content != null && !(content instanceof SnowflakeRecordContent);
-  }
-
-  /**
-   * This would always return false for streaming ingest use case since isBroken field is never set.
-   * isBroken is set only when using Custom snowflake converters and the content was not json
-   * serializable.
-   *
-   * <p>For Community converters, the kafka record will not be sent to Kafka connector if the record
-   * is not serializable.
-   */
-  private boolean isRecordBroken(final SinkRecord record) {
-    return isContentBroken(record.value()) || isContentBroken(record.key());
-  }
-
-  private boolean isContentBroken(final Object content) {
-    return content != null && ((SnowflakeRecordContent) content).isBroken();
-  }
 
-  private SinkRecord handleNativeRecord(SinkRecord record, boolean isKey) {
-    SnowflakeRecordContent newSFContent;
-    Schema schema = isKey ? record.keySchema() : record.valueSchema();
-    Object content = isKey ? record.key() : record.value();
-    try {
-      newSFContent = new SnowflakeRecordContent(schema, content, true);
-    } catch (Exception e) {
-      LOGGER.error("Native content parser error:\n{}", e.getMessage());
-      try {
-        // try to serialize this object and send that as broken record
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-        ObjectOutputStream os = new ObjectOutputStream(out);
-        os.writeObject(content);
-        newSFContent = new SnowflakeRecordContent(out.toByteArray());
-      } catch (Exception serializeError) {
-        LOGGER.error(
-            "Failed to convert broken native record to byte data:\n{}",
-            serializeError.getMessage());
-        throw e;
-      }
+    if (!acceptedRecords.isEmpty()) {
+      transformAndSend(acceptedRecords);
     }
-    // create new sinkRecord
-    Schema keySchema = isKey ? new SnowflakeJsonSchema() : record.keySchema();
-    Object keyContent = isKey ? newSFContent : record.key();
-    Schema valueSchema = isKey ? record.valueSchema() : new SnowflakeJsonSchema();
-    Object valueContent = isKey ? record.value() : newSFContent;
-    return new SinkRecord(
-        record.topic(),
-        record.kafkaPartition(),
-        keySchema,
-        keyContent,
-        valueSchema,
-        valueContent,
-        record.kafkaOffset(),
-        record.timestamp(),
-        record.timestampType(),
-        record.headers());
   }
 
   // --------------- BUFFER FLUSHING LOGIC --------------- //
@@ -432,21 +412,43 @@ public class DirectTopicPartitionChannel implements TopicPartitionChannel {
     // todo remove this method in the future
   }
 
-  private void transformAndSend(SinkRecord kafkaSinkRecord) {
+  private void transformAndSend(List<SinkRecord> kafkaSinkRecords) {
     try {
-      Map<String, Object> transformedRecord = transformDataBeforeSending(kafkaSinkRecord);
-      if (!transformedRecord.isEmpty()) {
+      // Convert the records into Json Schema which has content and metadata, add them to DLQ if
+      // the record is broken or there is an exception
+      RecordService.ConvertedBatch batch = recordService.convertBatch(kafkaSinkRecords);
+      List<Map<String, Object>> transformedRecords = new ArrayList<>(batch.size());
+      List<SinkRecord> transformedSinkRecords = new ArrayList<>(batch.size());
+      for (int idx = 0; idx < batch.size(); idx++) {
+        Exception failure = batch.getFailure(idx);
+        if (failure == null) {
+          transformedRecords.add(batch.getRow(idx));
+          transformedSinkRecords.add(batch.getRecord(idx));
+        } else {
+          // check for error tolerance and log tolerance values
+          // errors.log.enable and errors.tolerance
+          kafkaRecordErrorReporter.reportError(batch.getRecord(idx), failure);
+        }
+      }
+
+      if (!transformedRecords.isEmpty()) {
+        if (replayLog != null) {
+          // appended before the insert, so that the rows are replayed if it fails
+          replayLog.append(transformedRecords, transformedSinkRecords);
+        }
         InsertValidationResponse response =
-            insertRowWithFallback(transformedRecord, kafkaSinkRecord.kafkaOffset());
-        this.processedOffset.set(kafkaSinkRecord.kafkaOffset());
+            insertRowsWithFallback(transformedRecords, transformedSinkRecords);
+        this.processedOffset.set(
+            transformedSinkRecords.get(transformedSinkRecords.size() - 1).kafkaOffset());
 
         if (response.hasErrors()) {
           LOGGER.warn(
-              "insertRow for channel:{} resulted in errors:{},",
+              "insertRows for channel:{} resulted in errors:{},",
               this.getChannelNameFormatV1(),
               response.hasErrors());
 
-          handleInsertRowFailure(response.getInsertErrors(), kafkaSinkRecord);
+          removeRejectedRowsFromReplayLog(response.getInsertErrors(), transformedSinkRecords);
+          handleInsertRowsFailure(response.getInsertErrors(), transformedSinkRecords);
         }
       }
 
@@ -471,50 +473,78 @@ public class DirectTopicPartitionChannel implements TopicPartitionChannel {
    *
    * <p>It can also send errors {@link
    * net.snowflake.ingest.streaming.InsertValidationResponse.InsertError} in form of response inside
-   * {@link InsertValidationResponse}
+   * {@link InsertValidationResponse}, their row index is the index in the given records.
    *
    * @return InsertValidationResponse a response that wraps around InsertValidationResponse
    */
-  private InsertValidationResponse insertRowWithFallback(
-      Map<String, Object> transformedRecord, long offset) {
-    Fallback<Object> reopenChannelFallbackExecutorForInsertRows =
-        Fallback.builder(
-                executionAttemptedEvent -> {
-                  insertRowFallbackSupplier(executionAttemptedEvent.getLastException());
-                })
-            .handle(SFException.class)
-            .onFailedAttempt(
-                event ->
-                    LOGGER.warn(
-                        String.format(
-                            "Failed Attempt to invoke the insertRows API for channel: %s",
-                            getChannelNameFormatV1()),
-                        event.getLastException()))
-            .onFailure(
-                event ->
-                    LOGGER.error(
-                        String.format(
-                            "%s Failed to open Channel or fetching offsetToken for channel:%s",
-                            StreamingApiFallbackInvoker.INSERT_ROWS_FALLBACK,
-                            this.getChannelNameFormatV1()),
-                        event.getException()))
-            .build();
-
+  private InsertValidationResponse insertRowsWithFallback(
+      List<Map<String, Object>> transformedRecords, List<SinkRecord> kafkaSinkRecords) {
     return Failsafe.with(reopenChannelFallbackExecutorForInsertRows)
-        .get(() -> this.channel.insertRow(transformedRecord, Long.toString(offset)));
+        .get(() -> insertRows(this.channel, transformedRecords, kafkaSinkRecords));
+  }
+
+  /**
+   * Inserts the rows with the offset token of the last record, a single row is sent with
+   * insertRow.
+   */
+  private static InsertValidationResponse insertRows(
+      SnowflakeStreamingIngestChannel channel,
+      List<Map<String, Object>> transformedRecords,
+      List<SinkRecord> kafkaSinkRecords) {
+    final String lastOffsetToken =
+        Long.toString(kafkaSinkRecords.get(kafkaSinkRecords.size() - 1).kafkaOffset());
+    if (transformedRecords.size() == 1) {
+      return channel.insertRow(transformedRecords.get(0), lastOffsetToken);
+    }
+    final String firstOffsetToken = Long.toString(kafkaSinkRecords.get(0).kafkaOffset());
+    return channel.insertRows(transformedRecords, firstOffsetToken, lastOffsetToken);
+  }
+
+  private Fallback<Object> createInsertRowsFallback() {
+    return Fallback.builder(
+            executionAttemptedEvent -> {
+              return insertRowFallbackSupplier(executionAttemptedEvent.getLastException());
+            })
+        .handle(SFException.class)
+        .onFailedAttempt(
+            event ->
+                LOGGER.warn(
+                    String.format(
+                        "Failed Attempt to invoke the insertRows API for channel: %s",
+                        getChannelNameFormatV1()),
+                    event.getLastException()))
+        .onFailure(
+            event ->
+                LOGGER.error(
+                    String.format(
+                        "%s Failed to open Channel or fetching offsetToken for channel:%s",
+                        StreamingApiFallbackInvoker.INSERT_ROWS_FALLBACK,
+                        this.getChannelNameFormatV1()),
+                    event.getException()))
+        .build();
   }
 
   /**
    * We will reopen the channel on {@link SFException} and reset offset in kafka. But, we will throw
    * a custom exception to show that the streamingBuffer was not added into Snowflake.
    *
+   * <p>If the rows which are not committed were replayed from the {@link ReplayLog}, including the
+   * rows of the failed insert, the offset in kafka is not reset and no exception is thrown.
+   *
+   * @return an empty response if the rows were replayed, errors of the replay are already handled
    * @throws TopicPartitionChannelInsertionException exception is thrown after channel reopen has
    *     been successful and offsetToken was fetched from Snowflake
    */
-  private void insertRowFallbackSupplier(Throwable ex)
+  private InsertValidationResponse insertRowFallbackSupplier(Throwable ex)
       throws TopicPartitionChannelInsertionException {
+    final StreamingApiFallbackInvoker streamingApiFallbackInvoker =
+        StreamingApiFallbackInvoker.INSERT_ROWS_FALLBACK;
+    final SnowflakeStreamingIngestChannel newChannel = reopenChannel(streamingApiFallbackInvoker);
     final long offsetRecoveredFromSnowflake =
-        streamingApiFallbackSupplier(StreamingApiFallbackInvoker.INSERT_ROWS_FALLBACK);
+        fetchLatestOffsetAfterReopen(streamingApiFallbackInvoker, newChannel);
+    if (recoverAfterReopen(streamingApiFallbackInvoker, offsetRecoveredFromSnowflake, newChannel)) {
+      return new InsertValidationResponse();
+    }
     throw new TopicPartitionChannelInsertionException(
         String.format(
             "%s Failed to insert rows for channel:%s. Recovered offset from Snowflake is:%s",
@@ -527,15 +557,33 @@ public class DirectTopicPartitionChannel implements TopicPartitionChannel {
   /**
    * Invoked only when {@link InsertValidationResponse} has errors.
    *
-   * <p>This function checks if we need to log errors, send it to DLQ or just ignore and throw
-   * exception.
+   * <p>Errors are handled in the order of the rows, the same as if the rows were inserted one by
+   * one: the first error which needs schema evolution evolves the table and reopens the channel, so
+   * the records after it are sent again by Kafka.
    *
    * @param insertErrors errors from validation response. (Only if it has errors)
+   * @param kafkaSinkRecords to map {@link SinkRecord} with insertErrors
    */
-  private void handleInsertRowFailure(
-      List<InsertValidationResponse.InsertError> insertErrors, SinkRecord kafkaSinkRecord) {
+  private void handleInsertRowsFailure(
+      List<InsertValidationResponse.InsertError> insertErrors, List<SinkRecord> kafkaSinkRecords) {
+    for (InsertValidationResponse.InsertError insertError : insertErrors) {
+      // Map error row number to index in sinkRecords list.
+      SinkRecord kafkaSinkRecord = kafkaSinkRecords.get((int) insertError.getRowIndex());
+      if (handleInsertRowFailure(insertError, kafkaSinkRecord)) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * This function checks if we need to evolve the schema, log errors, send it to DLQ or just ignore
+   * and throw exception.
+   *
+   * @return true if the schema was evolved and the channel reopened
+   */
+  private boolean handleInsertRowFailure(
+      InsertValidationResponse.InsertError insertError, SinkRecord kafkaSinkRecord) {
     if (enableSchemaEvolution) {
-      InsertValidationResponse.InsertError insertError = insertErrors.get(0);
       SchemaEvolutionTargetItems schemaEvolutionTargetItems =
           insertErrorMapper.mapToSchemaEvolutionItems(insertError, this.channel.getTableName());
       if (schemaEvolutionTargetItems.hasDataForSchemaEvolution()) {
@@ -556,15 +604,12 @@ public class DirectTopicPartitionChannel implements TopicPartitionChannel {
           }
         }
 
-        return;
+        return true;
       }
     }
 
-    handleError(
-        insertErrors.stream()
-            .map(InsertValidationResponse.InsertError::getException)
-            .collect(Collectors.toList()),
-        kafkaSinkRecord);
+    handleError(Collections.singletonList(insertError.getException()), kafkaSinkRecord);
+    return false;
   }
 
   private void handleError(List<Exception> insertErrors, SinkRecord kafkaSinkRecord) {
@@ -607,7 +652,40 @@ public class DirectTopicPartitionChannel implements TopicPartitionChannel {
 
   @Override
   public long getOffsetSafeToCommitToKafka() {
-    final long committedOffsetInSnowflake = fetchOffsetTokenWithRetry();
+    return getOffsetSafeToCommitToKafka(fetchOffsetTokenWithRetry());
+  }
+
+  @Override
+  public long getOffsetSafeToCommitToKafka(@Nullable String committedOffsetToken) {
+    return getOffsetSafeToCommitToKafka(parseOffsetToken(committedOffsetToken));
+  }
+
+  @Override
+  public void refreshOffsetPersistedInSnowflake(
+      @Nullable String committedOffsetToken, long fetchedAtNanos) {
+    this.offsetPersistedInSnowflake.set(parseOffsetToken(committedOffsetToken));
+    this.offsetRefreshedAtNanos = fetchedAtNanos;
+  }
+
+  @Override
+  public OptionalLong getRefreshedOffsetSafeToCommitToKafka(long maxAgeNanos) {
+    Long refreshedAtNanos = this.offsetRefreshedAtNanos;
+    if (refreshedAtNanos == null || System.nanoTime() - refreshedAtNanos > maxAgeNanos) {
+      return OptionalLong.empty();
+    }
+    return OptionalLong.of(getOffsetSafeToCommitToKafka(this.offsetPersistedInSnowflake.get()));
+  }
+
+  @Override
+  public long getOffsetToResetInKafkaOnOpen() {
+    return getOffsetSafeToCommitToKafka(this.offsetPersistedInSnowflakeOnOpen);
+  }
+
+  private long getOffsetSafeToCommitToKafka(long committedOffsetInSnowflake) {
+    if (replayLog != null) {
+      // rows committed in Snowflake are never replayed
+      replayLog.truncate(committedOffsetInSnowflake);
+    }
     if (committedOffsetInSnowflake == NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE) {
       return NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE;
     } else {
@@ -685,17 +763,106 @@ public class DirectTopicPartitionChannel implements TopicPartitionChannel {
   private long streamingApiFallbackSupplier(
       final StreamingApiFallbackInvoker streamingApiFallbackInvoker) {
     SnowflakeStreamingIngestChannel newChannel = reopenChannel(streamingApiFallbackInvoker);
+    long offsetRecoveredFromSnowflake =
+        fetchLatestOffsetAfterReopen(streamingApiFallbackInvoker, newChannel);
+    recoverAfterReopen(streamingApiFallbackInvoker, offsetRecoveredFromSnowflake, newChannel);
+    return offsetRecoveredFromSnowflake;
+  }
 
+  private long fetchLatestOffsetAfterReopen(
+      final StreamingApiFallbackInvoker streamingApiFallbackInvoker,
+      SnowflakeStreamingIngestChannel newChannel) {
     LOGGER.warn(
         "{} Fetching offsetToken after re-opening the channel:{}",
         streamingApiFallbackInvoker,
         this.getChannelNameFormatV1());
-    long offsetRecoveredFromSnowflake = fetchLatestOffsetFromChannel(newChannel);
+    return fetchLatestOffsetFromChannel(newChannel);
+  }
 
+  /**
+   * Replays the rows which are not committed in Snowflake into the reopened channel, or resets the
+   * offset in kafka if they can't be replayed, see {@link
+   * #resetChannelMetadataAfterRecovery(StreamingApiFallbackInvoker, long,
+   * SnowflakeStreamingIngestChannel)}.
+   *
+   * @return true if the rows were replayed, false if the offset in kafka was reset
+   */
+  private boolean recoverAfterReopen(
+      final StreamingApiFallbackInvoker streamingApiFallbackInvoker,
+      final long offsetRecoveredFromSnowflake,
+      SnowflakeStreamingIngestChannel newChannel) {
+    if (replayUncommittedRows(
+        streamingApiFallbackInvoker, offsetRecoveredFromSnowflake, newChannel)) {
+      return true;
+    }
     resetChannelMetadataAfterRecovery(
         streamingApiFallbackInvoker, offsetRecoveredFromSnowflake, newChannel);
+    return false;
+  }
 
-    return offsetRecoveredFromSnowflake;
+  /**
+   * Inserts the rows of the {@link ReplayLog} after the offset committed in Snowflake into the
+   * reopened channel, so that Kafka doesn't send them again. Not done after schema evolution, the
+   * records are converted again for the evolved table.
+   *
+   * @param streamingApiFallbackInvoker Streaming API which is using this fallback function. Used
+   *     for logging mainly.
+   * @param offsetRecoveredFromSnowflake offset number found in snowflake for this
+   *     channel(partition)
+   * @param newChannel reopened channel
+   * @return true if the rows were replayed, false if the offset in kafka has to be reset because
+   *     some of them are no longer in the log or the replay failed
+   */
+  private boolean replayUncommittedRows(
+      final StreamingApiFallbackInvoker streamingApiFallbackInvoker,
+      final long offsetRecoveredFromSnowflake,
+      SnowflakeStreamingIngestChannel newChannel) {
+    if (replayLog == null
+        || streamingApiFallbackInvoker
+            == StreamingApiFallbackInvoker.INSERT_ROWS_SCHEMA_EVOLUTION_FALLBACK
+        || !replayLog.canReplayAfter(offsetRecoveredFromSnowflake)) {
+      return false;
+    }
+    ReplayLog.Batch batch = replayLog.getBatchAfter(offsetRecoveredFromSnowflake);
+    LOGGER.warn(
+        "{} Channel:{}, replaying {} rows after offset:{} instead of resetting the offset in Kafka",
+        streamingApiFallbackInvoker,
+        this.getChannelNameFormatV1(),
+        batch.getRows().size(),
+        offsetRecoveredFromSnowflake);
+    this.channel = newChannel;
+    this.offsetPersistedInSnowflake.set(offsetRecoveredFromSnowflake);
+    if (batch.isEmpty()) {
+      return true;
+    }
+
+    final InsertValidationResponse response;
+    try {
+      response = insertRows(newChannel, batch.getRows(), batch.getRecords());
+    } catch (SFException e) {
+      LOGGER.warn(
+          "{} Channel:{}, failed to replay rows: {}",
+          streamingApiFallbackInvoker,
+          this.getChannelNameFormatV1(),
+          e.getMessage());
+      return false;
+    }
+    if (response.hasErrors()) {
+      // only the rows which were not inserted before can be rejected, the others were removed
+      removeRejectedRowsFromReplayLog(response.getInsertErrors(), batch.getRecords());
+      handleInsertRowsFailure(response.getInsertErrors(), batch.getRecords());
+    }
+    return true;
+  }
+
+  private void removeRejectedRowsFromReplayLog(
+      List<InsertValidationResponse.InsertError> insertErrors, List<SinkRecord> kafkaSinkRecords) {
+    if (replayLog == null) {
+      return;
+    }
+    for (InsertValidationResponse.InsertError insertError : insertErrors) {
+      replayLog.remove(kafkaSinkRecords.get((int) insertError.getRowIndex()));
+    }
   }
 
   /**
@@ -729,6 +896,13 @@ public class DirectTopicPartitionChannel implements TopicPartitionChannel {
         offsetRecoveredFromSnowflake == NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE
             ? currentConsumerGroupOffset.get()
             : offsetRecoveredFromSnowflake + 1L;
+    if (replayLog != null) {
+      // kafka sends the records after the reset offset again
+      replayLog.reset(
+          offsetToResetInKafka == NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE
+              ? NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE
+              : offsetToResetInKafka - 1);
+    }
     if (offsetToResetInKafka == NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE) {
       this.channel = newChannel;
       return;
@@ -791,13 +965,20 @@ public class DirectTopicPartitionChannel implements TopicPartitionChannel {
   }
 
   private long fetchLatestOffsetFromChannel(SnowflakeStreamingIngestChannel channel) {
-    String offsetToken = null;
+    String offsetToken = channel.getLatestCommittedOffsetToken();
+    LOGGER.info(
+        "Fetched offsetToken for channelName:{}, offset:{}",
+        this.getChannelNameFormatV1(),
+        offsetToken);
+    return parseOffsetToken(offsetToken);
+  }
+
+  /**
+   * @param offsetToken offset token fetched from Snowflake
+   * @return -1 if no offset is found in snowflake, else the long value of the offset token
+   */
+  private long parseOffsetToken(@Nullable String offsetToken) {
     try {
-      offsetToken = channel.getLatestCommittedOffsetToken();
-      LOGGER.info(
-          "Fetched offsetToken for channelName:{}, offset:{}",
-          this.getChannelNameFormatV1(),
-          offsetToken);
       return offsetToken == null
           ? NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE
           : Long.parseLong(offsetToken);
@@ -862,6 +1043,32 @@ public class DirectTopicPartitionChannel implements TopicPartitionChannel {
     }
   }
 
+  @Override
+  public CompletableFuture<Void> park() {
+    // rows are inserted as soon as they are received, there is nothing to flush
+    return CompletableFuture.completedFuture(null);
+  }
+
+  @Override
+  public boolean tryReuse(@Nullable String committedOffsetToken) {
+    if (this.channel.isClosed() || !this.channel.isValid()) {
+      return false;
+    }
+    final long committedOffset = parseOffsetToken(committedOffsetToken);
+    if (committedOffset != this.processedOffset.get()) {
+      LOGGER.info(
+          "Not reusing channel:{}, offset committed in Snowflake:{} differs from processed"
+              + " offset:{}",
+          this.getChannelNameFormatV1(),
+          committedOffset,
+          this.processedOffset.get());
+      return false;
+    }
+    this.offsetPersistedInSnowflake.set(committedOffset);
+    this.offsetPersistedInSnowflakeOnOpen = committedOffset;
+    return true;
+  }
+
   @Override
   public CompletableFuture<Void> closeChannelAsync() {
     return closeChannelWrapped()
@@ -984,70 +1191,6 @@ public class DirectTopicPartitionChannel implements TopicPartitionChannel {
     }
   }
 
-  /**
-   * Converts the original kafka sink record into a Json Record. i.e key and values are converted
-   * into Json so that it can be used to insert into variant column of Snowflake Table.
-   *
-   * <p>TODO: SNOW-630885 - When schematization is enabled, we should create the map directly from
-   * the SinkRecord instead of first turning it into json
-   */
-  private SinkRecord getSnowflakeSinkRecordFromKafkaRecord(final SinkRecord kafkaSinkRecord) {
-    SinkRecord snowflakeRecord = kafkaSinkRecord;
-    if (shouldConvertContent(kafkaSinkRecord.value())) {
-      snowflakeRecord = handleNativeRecord(kafkaSinkRecord, false);
-    }
-    if (shouldConvertContent(kafkaSinkRecord.key())) {
-      snowflakeRecord = handleNativeRecord(snowflakeRecord, true);
-    }
-
-    return snowflakeRecord;
-  }
-
-  private Map<String, Object> transformDataBeforeSending(SinkRecord kafkaSinkRecord) {
-    SinkRecord snowflakeSinkRecord = getSnowflakeSinkRecordFromKafkaRecord(kafkaSinkRecord);
-    // broken record
-    if (isRecordBroken(snowflakeSinkRecord)) {
-      // check for error tolerance and log tolerance values
-      // errors.log.enable and errors.tolerance
-      LOGGER.debug(
-          "Broken record offset:{}, topic:{}",
-          kafkaSinkRecord.kafkaOffset(),
-          kafkaSinkRecord.topic());
-      kafkaRecordErrorReporter.reportError(kafkaSinkRecord, new DataException("Broken Record"));
-    } else {
-      // lag telemetry, note that sink record timestamp might be null
-      if (kafkaSinkRecord.timestamp() != null
-          && kafkaSinkRecord.timestampType() != NO_TIMESTAMP_TYPE) {
-        // TODO:SNOW-529751 telemetry
-      }
-
-      // Convert this records into Json Schema which has content and metadata, add it to DLQ if
-      // there is an exception
-      try {
-        return recordService.getProcessedRecordForStreamingIngest(snowflakeSinkRecord);
-      } catch (JsonProcessingException e) {
-        LOGGER.warn(
-            "Record has JsonProcessingException offset:{}, topic:{}",
-            kafkaSinkRecord.kafkaOffset(),
-            kafkaSinkRecord.topic());
-        kafkaRecordErrorReporter.reportError(kafkaSinkRecord, e);
-      } catch (SnowflakeKafkaConnectorException e) {
-        if (e.checkErrorCode(SnowflakeErrors.ERROR_0010)) {
-          LOGGER.warn(
-              "Cannot parse record offset:{}, topic:{}. Sending to DLQ.",
-              kafkaSinkRecord.kafkaOffset(),
-              kafkaSinkRecord.topic());
-          kafkaRecordErrorReporter.reportError(kafkaSinkRecord, e);
-        } else {
-          throw e;
-        }
-      }
-    }
-
-    // return empty
-    return ImmutableMap.of();
-  }
-
   /**
    * Enum representing which Streaming API is invoking the fallback supplier. ({@link
    * #streamingApiFallbackSupplier(StreamingApiFallbackInvoker)})
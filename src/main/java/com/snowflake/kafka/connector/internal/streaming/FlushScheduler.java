@@ -0,0 +1,97 @@
+package com.snowflake.kafka.connector.internal.streaming;
+
+import com.snowflake.kafka.connector.internal.streaming.channel.TopicPartitionChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Channels with a buffer, ordered by the time their buffer is due for a time based flush, see
+ * {@link TopicPartitionChannel#getNextTimeBasedFlushMs()}. Every put only visits the channels which
+ * are due, instead of all the channels of the task.
+ *
+ * <p>The flush time of a channel only moves forward, e.g. when its buffer was flushed because it
+ * was full. The time a channel was scheduled at is then earlier than its flush time, the channel is
+ * scheduled again at its flush time when it is polled. Not thread safe, used by the task thread.
+ */
+public class FlushScheduler {
+
+  // channels by the time they were scheduled at, earliest first
+  private final PriorityQueue<Entry> queue =
+      new PriorityQueue<>(Comparator.comparingLong(entry -> entry.flushTimeMs));
+
+  // channels in the queue, a channel is scheduled once
+  private final Set<TopicPartitionChannel> scheduledChannels =
+      Collections.newSetFromMap(new IdentityHashMap<>());
+
+  /**
+   * Schedules the channel at its flush time, if it is not scheduled yet and has a buffer.
+   *
+   * @param partitionChannelKey key of the channel in partitionsToChannel
+   * @param channel channel which received records
+   */
+  public void schedule(String partitionChannelKey, TopicPartitionChannel channel) {
+    long flushTimeMs = channel.getNextTimeBasedFlushMs();
+    if (flushTimeMs == Long.MAX_VALUE || !scheduledChannels.add(channel)) {
+      return;
+    }
+    queue.add(new Entry(flushTimeMs, partitionChannelKey, channel));
+  }
+
+  /**
+   * Flushes the buffers of the channels which are due. A channel is scheduled again at its next
+   * flush time, unless it was removed or replaced in partitionsToChannel since it was scheduled.
+   *
+   * @param partitionsToChannel current channels of the task by key
+   * @param nowMs current time in ms
+   */
+  public void flushDue(Map<String, TopicPartitionChannel> partitionsToChannel, long nowMs) {
+    List<Entry> polled = new ArrayList<>();
+    try {
+      while (!queue.isEmpty() && queue.peek().flushTimeMs <= nowMs) {
+        Entry entry = queue.poll();
+        scheduledChannels.remove(entry.channel);
+        if (partitionsToChannel.get(entry.partitionChannelKey) != entry.channel) {
+          continue;
+        }
+        polled.add(entry);
+        if (entry.channel.getNextTimeBasedFlushMs() <= nowMs) {
+          entry.channel.insertBufferedRecordsIfFlushTimeThresholdReached();
+        }
+      }
+    } finally {
+      // scheduled after polling, a channel is visited at most once per call
+      for (Entry entry : polled) {
+        schedule(entry.partitionChannelKey, entry.channel);
+      }
+    }
+  }
+
+  /** Drops all the scheduled channels, e.g. when the channels of the task are closed. */
+  public void clear() {
+    queue.clear();
+    scheduledChannels.clear();
+  }
+
+  /** @return number of scheduled channels */
+  public int size() {
+    return queue.size();
+  }
+
+  private static final class Entry {
+    private final long flushTimeMs;
+    private final String partitionChannelKey;
+    private final TopicPartitionChannel channel;
+
+    private Entry(long flushTimeMs, String partitionChannelKey, TopicPartitionChannel channel) {
+      this.flushTimeMs = flushTimeMs;
+      this.partitionChannelKey = partitionChannelKey;
+      this.channel = channel;
+    }
+  }
+}
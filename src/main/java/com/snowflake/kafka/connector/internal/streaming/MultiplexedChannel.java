@@ -0,0 +1,256 @@
+package com.snowflake.kafka.connector.internal.streaming;
+
+import static com.snowflake.kafka.connector.internal.streaming.channel.TopicPartitionChannel.NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE;
+
+import com.google.common.base.Preconditions;
+import com.snowflake.kafka.connector.Utils;
+import com.snowflake.kafka.connector.internal.KCLogger;
+import com.snowflake.kafka.connector.internal.SnowflakeErrors;
+import com.snowflake.kafka.connector.internal.SnowflakeKafkaConnectorException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongConsumer;
+import net.snowflake.ingest.streaming.InsertValidationResponse;
+import net.snowflake.ingest.streaming.OpenChannelRequest;
+import net.snowflake.ingest.streaming.SnowflakeStreamingIngestChannel;
+import net.snowflake.ingest.streaming.SnowflakeStreamingIngestClient;
+import net.snowflake.ingest.utils.SFException;
+
+/**
+ * Snowpipe Streaming channel shared by a group of partitions of a topic, each of them inserting
+ * through a {@link MultiplexedTopicPartitionChannel}. The offset token of every insert is a {@link
+ * CompositeOffsetToken} of the offsets processed for all the partitions attached to the channel, so
+ * the committed token holds the committed offset of each partition.
+ *
+ * <p>All the partitions of a group must be assigned to the same task, Kafka Connect doesn't
+ * guarantee it with several tasks so the connector config requires a single task. A task which
+ * opens the channel invalidates the channel of another task owning partitions of the same group.
+ * When the channel is reopened and the committed token shows offsets written by another task, the
+ * group is split across tasks and the reopen fails instead of invalidating the other channel again.
+ *
+ * <p>Partitions are attached by the threads opening the channels of the task, everything else
+ * runs on the task thread.
+ */
+public class MultiplexedChannel {
+  private static final KCLogger LOGGER = new KCLogger(MultiplexedChannel.class.getName());
+
+  private final SnowflakeStreamingIngestClient streamingIngestClient;
+
+  private final String channelName;
+
+  private final String tableName;
+
+  private final Map<String, String> sfConnectorConfig;
+
+  // null until the first partition is attached, read by the offset refresher in the background
+  private volatile SnowflakeStreamingIngestChannel channel;
+
+  // offsets written into the token of every insert. Offsets processed for the attached partitions,
+  // the last committed or processed offset for the other partitions of the committed token, so
+  // that partitions which are not attached in this task keep their offset in the token
+  private final Map<Integer, Long> tokenOffsets = new HashMap<>();
+
+  // called with the committed offset of the partition when the channel was reopened
+  private final Map<Integer, LongConsumer> reopenListeners = new HashMap<>();
+
+  /**
+   * @param streamingIngestClient client opening the channel
+   * @param channelName name of the channel, shared by all the partitions of the group
+   * @param tableName table the partitions of the group are ingested into
+   * @param sfConnectorConfig configuration set for snowflake connector
+   */
+  public MultiplexedChannel(
+      SnowflakeStreamingIngestClient streamingIngestClient,
+      String channelName,
+      String tableName,
+      Map<String, String> sfConnectorConfig) {
+    this.streamingIngestClient = Preconditions.checkNotNull(streamingIngestClient);
+    this.channelName = Preconditions.checkNotNull(channelName);
+    this.tableName = Preconditions.checkNotNull(tableName);
+    this.sfConnectorConfig = Preconditions.checkNotNull(sfConnectorConfig);
+  }
+
+  /**
+   * Attaches a partition to the channel, the channel is opened for the first partition.
+   *
+   * @param partition partition of the topic
+   * @param onReopen called with the offset committed for the partition when the channel is
+   *     reopened after it was invalidated
+   * @return offset committed in Snowflake for the partition, -1 if there is none
+   */
+  public synchronized long attach(int partition, LongConsumer onReopen) {
+    final Map<Integer, Long> committedOffsets;
+    if (reopenListeners.isEmpty() || channel == null || channel.isClosed()) {
+      Preconditions.checkState(!streamingIngestClient.isClosed());
+      this.channel = openChannel();
+      committedOffsets = fetchCommittedOffsets();
+      tokenOffsets.clear();
+      tokenOffsets.putAll(committedOffsets);
+    } else {
+      committedOffsets = fetchCommittedOffsets();
+      checkNotWrittenByOtherTasks(committedOffsets);
+    }
+    long committedOffset =
+        committedOffsets.getOrDefault(partition, NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE);
+    // rows of the partition inserted before it was detached may not be committed yet
+    tokenOffsets.merge(partition, committedOffset, Math::max);
+    reopenListeners.put(partition, onReopen);
+    LOGGER.info(
+        "Attached partition:{} to channel:{}, committed offset:{}, attached partitions:{}",
+        partition,
+        channelName,
+        committedOffset,
+        reopenListeners.keySet());
+    return committedOffset;
+  }
+
+  /**
+   * Detaches a revoked partition. Its last processed offset stays in the offset token, so that the
+   * offset committed for the partition is kept by the inserts of the other partitions. The channel
+   * is closed when its last partition is detached.
+   *
+   * @param partition partition of the topic
+   * @param onReopen listener given when the partition was attached, nothing is detached if the
+   *     partition was attached again since
+   * @return future completed when the channel is closed, or right away if other partitions still
+   *     use it
+   */
+  public synchronized CompletableFuture<Void> detach(int partition, LongConsumer onReopen) {
+    if (!reopenListeners.remove(partition, onReopen)) {
+      return CompletableFuture.completedFuture(null);
+    }
+    if (!reopenListeners.isEmpty()) {
+      return CompletableFuture.completedFuture(null);
+    }
+    LOGGER.info("Closing channel:{}, its last partition:{} was detached", channelName, partition);
+    try {
+      return channel.close();
+    } catch (SFException e) {
+      CompletableFuture<Void> future = new CompletableFuture<>();
+      future.completeExceptionally(e);
+      return future;
+    }
+  }
+
+  /**
+   * Inserts rows of a partition. The offset token of the insert holds the last offset of the rows
+   * for the partition and the offsets of the other partitions of the group.
+   *
+   * @param partition partition of the rows
+   * @param rows rows to insert
+   * @param lastOffset kafka offset of the last row
+   * @return response of the insert
+   * @throws SFException if the channel is invalid, see {@link #reopen()}
+   */
+  public synchronized InsertValidationResponse insertRows(
+      int partition, List<Map<String, Object>> rows, long lastOffset) {
+    Map<Integer, Long> offsets = new HashMap<>(tokenOffsets);
+    offsets.put(partition, lastOffset);
+    InsertValidationResponse response =
+        channel.insertRows(rows, CompositeOffsetToken.encode(offsets));
+    tokenOffsets.put(partition, lastOffset);
+    return response;
+  }
+
+  /**
+   * Reopens the channel after it was invalidated. The offsets of the token are reset to the
+   * offsets committed in Snowflake, and the attached partitions are notified so that they reset
+   * their offsets in Kafka.
+   *
+   * @return offsets committed in Snowflake by partition
+   * @throws SnowflakeKafkaConnectorException if another task wrote offsets of the group, see {@link
+   *     SnowflakeErrors#ERROR_5027}
+   */
+  public synchronized Map<Integer, Long> reopen() {
+    LOGGER.warn("Re-opening channel:{} of partitions:{}", channelName, reopenListeners.keySet());
+    this.channel = openChannel();
+    Map<Integer, Long> committedOffsets = fetchCommittedOffsets();
+    checkNotWrittenByOtherTasks(committedOffsets);
+    tokenOffsets.clear();
+    tokenOffsets.putAll(committedOffsets);
+    reopenListeners.forEach(
+        (partition, onReopen) -> {
+          long committedOffset =
+              committedOffsets.getOrDefault(partition, NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE);
+          tokenOffsets.put(partition, committedOffset);
+          onReopen.accept(committedOffset);
+        });
+    return committedOffsets;
+  }
+
+  /**
+   * Offsets of partitions which are not attached only move forward through the inserts of this
+   * task, a committed offset past the one in the token was written by another task owning a part
+   * of the group.
+   */
+  private void checkNotWrittenByOtherTasks(Map<Integer, Long> committedOffsets) {
+    committedOffsets.forEach(
+        (partition, committedOffset) -> {
+          long tokenOffset =
+              tokenOffsets.getOrDefault(partition, NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE);
+          if (!reopenListeners.containsKey(partition) && committedOffset > tokenOffset) {
+            throw SnowflakeErrors.ERROR_5027.getException(
+                String.format(
+                    "channel:%s, partition:%d committed offset:%d, offset in token:%d, attached"
+                        + " partitions:%s",
+                    channelName,
+                    partition,
+                    committedOffset,
+                    tokenOffset,
+                    reopenListeners.keySet()));
+          }
+        });
+  }
+
+  /**
+   * @return offsets committed in Snowflake by partition
+   * @throws SFException if the channel is invalid
+   */
+  public Map<Integer, Long> fetchCommittedOffsets() {
+    String offsetToken = channel.getLatestCommittedOffsetToken();
+    LOGGER.info("Fetched offsetToken for channelName:{}, offset:{}", channelName, offsetToken);
+    return CompositeOffsetToken.decode(offsetToken);
+  }
+
+  /** @return true if the channel is open and valid */
+  public boolean isValid() {
+    SnowflakeStreamingIngestChannel currentChannel = this.channel;
+    return currentChannel != null && !currentChannel.isClosed() && currentChannel.isValid();
+  }
+
+  /** @return true if the channel was not opened yet or was closed */
+  public boolean isClosed() {
+    SnowflakeStreamingIngestChannel currentChannel = this.channel;
+    return currentChannel == null || currentChannel.isClosed();
+  }
+
+  public SnowflakeStreamingIngestChannel getChannel() {
+    return channel;
+  }
+
+  public String getChannelName() {
+    return channelName;
+  }
+
+  public String getTableName() {
+    return tableName;
+  }
+
+  private SnowflakeStreamingIngestChannel openChannel() {
+    // the tokens are not single offsets, they are not verified by the default verification function
+    OpenChannelRequest channelRequest =
+        OpenChannelRequest.builder(this.channelName)
+            .setDBName(this.sfConnectorConfig.get(Utils.SF_DATABASE))
+            .setSchemaName(this.sfConnectorConfig.get(Utils.SF_SCHEMA))
+            .setTableName(this.tableName)
+            .setOnErrorOption(OpenChannelRequest.OnErrorOption.CONTINUE)
+            .build();
+    LOGGER.info(
+        "Opening a multiplexed channel with name:{} for table name:{}",
+        this.channelName,
+        this.tableName);
+    return Preconditions.checkNotNull(streamingIngestClient.openChannel(channelRequest));
+  }
+}
@@ -0,0 +1,584 @@
+package com.snowflake.kafka.connector.internal.streaming;
+
+import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.ERRORS_DEAD_LETTER_QUEUE_TOPIC_NAME_CONFIG;
+import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.ERRORS_TOLERANCE_CONFIG;
+import static com.snowflake.kafka.connector.internal.streaming.StreamingUtils.DURATION_BETWEEN_GET_OFFSET_TOKEN_RETRY;
+import static com.snowflake.kafka.connector.internal.streaming.StreamingUtils.MAX_GET_OFFSET_TOKEN_RETRIES;
+import static java.time.temporal.ChronoUnit.SECONDS;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
+import com.snowflake.kafka.connector.dlq.KafkaRecordErrorReporter;
+import com.snowflake.kafka.connector.internal.KCLogger;
+import com.snowflake.kafka.connector.internal.SnowflakeConnectionService;
+import com.snowflake.kafka.connector.internal.metrics.MetricsJmxReporter;
+import com.snowflake.kafka.connector.internal.streaming.channel.TopicPartitionChannel;
+import com.snowflake.kafka.connector.internal.streaming.telemetry.SnowflakeTelemetryChannelCreation;
+import com.snowflake.kafka.connector.internal.streaming.telemetry.SnowflakeTelemetryChannelStatus;
+import com.snowflake.kafka.connector.internal.telemetry.SnowflakeTelemetryService;
+import com.snowflake.kafka.connector.records.RecordService;
+import dev.failsafe.Failsafe;
+import dev.failsafe.Fallback;
+import dev.failsafe.RetryPolicy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+import javax.annotation.Nullable;
+import net.snowflake.ingest.streaming.InsertValidationResponse;
+import net.snowflake.ingest.streaming.SnowflakeStreamingIngestChannel;
+import net.snowflake.ingest.utils.SFException;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.connect.errors.DataException;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.apache.kafka.connect.sink.SinkTaskContext;
+
+/**
+ * Channel of a partition inserting through a {@link MultiplexedChannel} shared with other
+ * partitions of the same topic. Records are inserted as soon as they are received, like in {@link
+ * DirectTopicPartitionChannel}, the offset of the partition is read from the {@link
+ * CompositeOffsetToken} of the shared channel.
+ *
+ * <p>Schema evolution is not supported, schematization has to be disabled.
+ */
+public class MultiplexedTopicPartitionChannel implements TopicPartitionChannel {
+  private static final KCLogger LOGGER =
+      new KCLogger(MultiplexedTopicPartitionChannel.class.getName());
+
+  private final MultiplexedChannel sharedChannel;
+
+  // Offset of this partition persisted in Snowflake, read from the composite offset token
+  private final AtomicLong offsetPersistedInSnowflake =
+      new AtomicLong(NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE);
+
+  // System.nanoTime() when the offset in offsetPersistedInSnowflake was requested by the background
+  // refresh, null if it was never refreshed
+  @Nullable private volatile Long offsetRefreshedAtNanos;
+
+  // Offset of this partition committed in Snowflake when it was attached to the shared channel
+  private final long offsetPersistedInSnowflakeOnOpen;
+
+  // Last offset of this partition inserted into the shared channel
+  private final AtomicLong processedOffset =
+      new AtomicLong(NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE);
+
+  private final AtomicLong currentConsumerGroupOffset =
+      new AtomicLong(NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE);
+
+  // Indicates whether we need to skip the leftover records in the current batch, because the shared
+  // channel was reopened and the offset of this partition reset in Kafka
+  private boolean needToSkipCurrentBatch = false;
+
+  // Set once the partition is detached from the shared channel
+  private volatile boolean detached = false;
+
+  // Registered when the partition is attached, detaching only removes this registration
+  private final LongConsumer onSharedChannelReopened = this::resetOffsetsAfterReopen;
+
+  private final TopicPartition topicPartition;
+
+  /* Name of the channel this partition would have without multiplexing, used as its key */
+  private final String channelNameFormatV1;
+
+  private final RecordService recordService;
+
+  private final KafkaRecordErrorReporter kafkaRecordErrorReporter;
+
+  private final SinkTaskContext sinkTaskContext;
+
+  private final boolean errorTolerance;
+
+  private final boolean logErrors;
+
+  private final boolean isDLQTopicSet;
+
+  private final SnowflakeTelemetryChannelStatus snowflakeTelemetryChannelStatus;
+
+  private final SnowflakeTelemetryService telemetryServiceV2;
+
+  /**
+   * @param sharedChannel channel shared with the other partitions of the group, the partition is
+   *     attached to it
+   * @param topicPartition topic partition corresponding to this channel
+   * @param channelNameFormatV1 channel name of the partition, see {@link
+   *     SnowflakeSinkServiceV2#partitionChannelKey(String, int)}
+   * @param sfConnectorConfig configuration set for snowflake connector
+   * @param kafkaRecordErrorReporter kafka error reporter for sending records to DLQ
+   * @param sinkTaskContext context on Kafka Connect's runtime
+   * @param conn the snowflake connection service
+   * @param recordService record service for processing incoming offsets from Kafka
+   * @param telemetryService Telemetry Service which includes the Telemetry Client, sends Json data
+   *     to Snowflake
+   */
+  public MultiplexedTopicPartitionChannel(
+      MultiplexedChannel sharedChannel,
+      TopicPartition topicPartition,
+      final String channelNameFormatV1,
+      final Map<String, String> sfConnectorConfig,
+      KafkaRecordErrorReporter kafkaRecordErrorReporter,
+      SinkTaskContext sinkTaskContext,
+      SnowflakeConnectionService conn,
+      RecordService recordService,
+      SnowflakeTelemetryService telemetryService,
+      boolean enableCustomJMXMonitoring,
+      MetricsJmxReporter metricsJmxReporter) {
+    final long startTime = System.currentTimeMillis();
+
+    this.sharedChannel = Preconditions.checkNotNull(sharedChannel);
+    this.topicPartition = Preconditions.checkNotNull(topicPartition);
+    this.channelNameFormatV1 = Preconditions.checkNotNull(channelNameFormatV1);
+    this.kafkaRecordErrorReporter = Preconditions.checkNotNull(kafkaRecordErrorReporter);
+    this.sinkTaskContext = Preconditions.checkNotNull(sinkTaskContext);
+    this.recordService = recordService;
+    this.telemetryServiceV2 = Preconditions.checkNotNull(telemetryService);
+
+    this.errorTolerance = StreamingUtils.tolerateErrors(sfConnectorConfig);
+    this.logErrors = StreamingUtils.logErrors(sfConnectorConfig);
+    this.isDLQTopicSet = !Strings.isNullOrEmpty(StreamingUtils.getDlqTopicName(sfConnectorConfig));
+
+    // Attach to the shared channel, the offset in kafka is reset by the caller
+    final long lastCommittedOffset =
+        sharedChannel.attach(topicPartition.partition(), onSharedChannelReopened);
+    this.offsetPersistedInSnowflake.set(lastCommittedOffset);
+    this.processedOffset.set(lastCommittedOffset);
+    this.offsetPersistedInSnowflakeOnOpen = lastCommittedOffset;
+
+    String connectorName =
+        conn == null || conn.getConnectorName() == null || conn.getConnectorName().isEmpty()
+            ? "default_connector_name"
+            : conn.getConnectorName();
+    this.snowflakeTelemetryChannelStatus =
+        new SnowflakeTelemetryChannelStatus(
+            sharedChannel.getTableName(),
+            connectorName,
+            channelNameFormatV1,
+            startTime,
+            enableCustomJMXMonitoring,
+            metricsJmxReporter,
+            this.offsetPersistedInSnowflake,
+            this.processedOffset,
+            this.currentConsumerGroupOffset);
+    this.telemetryServiceV2.reportKafkaPartitionStart(
+        new SnowflakeTelemetryChannelCreation(
+            sharedChannel.getTableName(), this.channelNameFormatV1, startTime));
+
+    if (lastCommittedOffset == NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE) {
+      LOGGER.info(
+          "TopicPartitionChannel:{}, no offset in token of channel:{}, will rely on Kafka to send"
+              + " us the correct offset instead",
+          this.channelNameFormatV1,
+          sharedChannel.getChannelName());
+    }
+  }
+
+  @Override
+  public void insertRecord(SinkRecord kafkaSinkRecord, boolean isFirstRowPerPartitionInBatch) {
+    insertRecords(Collections.singletonList(kafkaSinkRecord), isFirstRowPerPartitionInBatch);
+  }
+
+  @Override
+  public void insertRecords(
+      List<SinkRecord> kafkaSinkRecords, boolean isFirstRowPerPartitionInBatch) {
+    long currentProcessedOffset = this.processedOffset.get();
+
+    if (currentConsumerGroupOffset.get() == NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE) {
+      this.currentConsumerGroupOffset.set(kafkaSinkRecords.get(0).kafkaOffset());
+    }
+
+    if (isFirstRowPerPartitionInBatch) {
+      needToSkipCurrentBatch = false;
+    }
+
+    List<SinkRecord> acceptedRecords = new ArrayList<>(kafkaSinkRecords.size());
+    for (SinkRecord kafkaSinkRecord : kafkaSinkRecords) {
+      if (needToSkipCurrentBatch) {
+        LOGGER.info(
+            "Ignore inserting offset:{} for channel:{} because we recently reset offset in"
+                + " Kafka. currentProcessedOffset:{}",
+            kafkaSinkRecord.kafkaOffset(),
+            this.channelNameFormatV1,
+            currentProcessedOffset);
+        continue;
+      }
+      if (currentProcessedOffset == NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE
+          || kafkaSinkRecord.kafkaOffset() >= currentProcessedOffset + 1) {
+        acceptedRecords.add(kafkaSinkRecord);
+        currentProcessedOffset = kafkaSinkRecord.kafkaOffset();
+      } else {
+        LOGGER.warn(
+            "Channel {} - skipping current record - expected offset {} but received {}. The"
+                + " current offset stored in Snowflake: {}",
+            this.channelNameFormatV1,
+            currentProcessedOffset,
+            kafkaSinkRecord.kafkaOffset(),
+            this.offsetPersistedInSnowflake.get());
+      }
+    }
+
+    if (!acceptedRecords.isEmpty()) {
+      transformAndSend(acceptedRecords);
+    }
+  }
+
+  @Override
+  @Deprecated
+  public void insertBufferedRecordsIfFlushTimeThresholdReached() {
+    // records are not buffered
+  }
+
+  private void transformAndSend(List<SinkRecord> kafkaSinkRecords) {
+    RecordService.ConvertedBatch batch = recordService.convertBatch(kafkaSinkRecords);
+    List<Map<String, Object>> transformedRecords = new ArrayList<>(batch.size());
+    List<SinkRecord> transformedSinkRecords = new ArrayList<>(batch.size());
+    for (int idx = 0; idx < batch.size(); idx++) {
+      Exception failure = batch.getFailure(idx);
+      if (failure == null) {
+        transformedRecords.add(batch.getRow(idx));
+        transformedSinkRecords.add(batch.getRecord(idx));
+      } else {
+        kafkaRecordErrorReporter.reportError(batch.getRecord(idx), failure);
+      }
+    }
+    if (transformedRecords.isEmpty()) {
+      return;
+    }
+
+    final long lastOffset =
+        transformedSinkRecords.get(transformedSinkRecords.size() - 1).kafkaOffset();
+    final InsertValidationResponse response;
+    try {
+      response =
+          sharedChannel.insertRows(topicPartition.partition(), transformedRecords, lastOffset);
+    } catch (SFException e) {
+      // Reopening resets the offsets of all the partitions of the shared channel in Kafka
+      LOGGER.warn(
+          String.format(
+              "Failed to insert rows for channel:%s, re-opening shared channel:%s",
+              this.channelNameFormatV1, sharedChannel.getChannelName()),
+          e);
+      sharedChannel.reopen();
+      return;
+    }
+    this.processedOffset.set(lastOffset);
+
+    if (response.hasErrors()) {
+      LOGGER.warn(
+          "insertRows for channel:{} resulted in errors:{},",
+          this.channelNameFormatV1,
+          response.hasErrors());
+      for (InsertValidationResponse.InsertError insertError : response.getInsertErrors()) {
+        handleError(
+            insertError.getException(),
+            transformedSinkRecords.get((int) insertError.getRowIndex()));
+      }
+    }
+  }
+
+  private void handleError(Exception insertError, SinkRecord kafkaSinkRecord) {
+    if (logErrors) {
+      LOGGER.error("Insert Row Error message:{}", insertError.getMessage());
+    }
+    if (errorTolerance) {
+      if (!isDLQTopicSet) {
+        LOGGER.warn(
+            "{} is set, however {} is not. The message will not be added to the Dead Letter Queue"
+                + " topic.",
+            ERRORS_TOLERANCE_CONFIG,
+            ERRORS_DEAD_LETTER_QUEUE_TOPIC_NAME_CONFIG);
+      } else {
+        LOGGER.warn(
+            "Adding the message to Dead Letter Queue topic: {}",
+            ERRORS_DEAD_LETTER_QUEUE_TOPIC_NAME_CONFIG);
+        this.kafkaRecordErrorReporter.reportError(kafkaSinkRecord, insertError);
+      }
+    } else {
+      final String errMsg =
+          String.format(
+              "Error inserting Records using Streaming API with msg:%s", insertError.getMessage());
+      this.telemetryServiceV2.reportKafkaConnectFatalError(errMsg);
+      throw new DataException(errMsg, insertError);
+    }
+  }
+
+  /**
+   * Called by the shared channel once it was reopened, on the task thread. Resets the offset of
+   * this partition in Kafka to the offset committed in Snowflake, or to the consumer offset if
+   * there is none, and skips the leftover records of the current batch.
+   *
+   * @param offsetRecoveredFromSnowflake offset of this partition in the committed offset token
+   */
+  private void resetOffsetsAfterReopen(long offsetRecoveredFromSnowflake) {
+    final long offsetToResetInKafka =
+        offsetRecoveredFromSnowflake == NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE
+            ? currentConsumerGroupOffset.get()
+            : offsetRecoveredFromSnowflake + 1L;
+    if (offsetToResetInKafka == NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE) {
+      return;
+    }
+
+    this.sinkTaskContext.offset(this.topicPartition, offsetToResetInKafka);
+    this.offsetPersistedInSnowflake.set(offsetRecoveredFromSnowflake);
+    this.processedOffset.set(offsetRecoveredFromSnowflake);
+    needToSkipCurrentBatch = true;
+
+    LOGGER.warn(
+        "Channel:{}, shared channel:{} was re-opened, setting sinkTaskOffset to {},"
+            + " offsetPersistedInSnowflake and processedOffset to {}",
+        this.channelNameFormatV1,
+        sharedChannel.getChannelName(),
+        offsetToResetInKafka,
+        offsetRecoveredFromSnowflake);
+  }
+
+  @Override
+  public long getOffsetSafeToCommitToKafka() {
+    return getOffsetSafeToCommitToKafka(fetchOffsetTokenWithRetry());
+  }
+
+  @Override
+  public long getOffsetSafeToCommitToKafka(@Nullable String committedOffsetToken) {
+    return getOffsetSafeToCommitToKafka(parseOffsetToken(committedOffsetToken));
+  }
+
+  @Override
+  public void refreshOffsetPersistedInSnowflake(
+      @Nullable String committedOffsetToken, long fetchedAtNanos) {
+    this.offsetPersistedInSnowflake.set(parseOffsetToken(committedOffsetToken));
+    this.offsetRefreshedAtNanos = fetchedAtNanos;
+  }
+
+  @Override
+  public OptionalLong getRefreshedOffsetSafeToCommitToKafka(long maxAgeNanos) {
+    Long refreshedAtNanos = this.offsetRefreshedAtNanos;
+    if (refreshedAtNanos == null || System.nanoTime() - refreshedAtNanos > maxAgeNanos) {
+      return OptionalLong.empty();
+    }
+    return OptionalLong.of(getOffsetSafeToCommitToKafka(this.offsetPersistedInSnowflake.get()));
+  }
+
+  @Override
+  public long getOffsetToResetInKafkaOnOpen() {
+    return getOffsetSafeToCommitToKafka(this.offsetPersistedInSnowflakeOnOpen);
+  }
+
+  private long getOffsetSafeToCommitToKafka(long committedOffsetInSnowflake) {
+    return committedOffsetInSnowflake == NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE
+        ? NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE
+        : committedOffsetInSnowflake + 1;
+  }
+
+  /**
+   * @param offsetToken composite offset token of the shared channel, null if there is none
+   * @return offset of this partition in the token, -1 if there is none
+   */
+  private long parseOffsetToken(@Nullable String offsetToken) {
+    return CompositeOffsetToken.decode(offsetToken)
+        .getOrDefault(topicPartition.partition(), NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE);
+  }
+
+  @Override
+  @VisibleForTesting
+  public long fetchOffsetTokenWithRetry() {
+    final int partition = topicPartition.partition();
+    final RetryPolicy<Long> offsetTokenRetryPolicy =
+        RetryPolicy.<Long>builder()
+            .handle(SFException.class)
+            .withDelay(DURATION_BETWEEN_GET_OFFSET_TOKEN_RETRY)
+            .withMaxAttempts(MAX_GET_OFFSET_TOKEN_RETRIES)
+            .onRetry(
+                event ->
+                    LOGGER.warn(
+                        "[OFFSET_TOKEN_RETRY_POLICY] retry for getLatestCommittedOffsetToken. Retry"
+                            + " no:{}, message:{}",
+                        event.getAttemptCount(),
+                        event.getLastException().getMessage()))
+            .build();
+
+    // Reopening the shared channel resets the offsets of all its partitions
+    Fallback<Long> offsetTokenFallbackExecutor =
+        Fallback.builder(
+                () ->
+                    sharedChannel
+                        .reopen()
+                        .getOrDefault(partition, NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE))
+            .handle(SFException.class)
+            .onFailure(
+                event ->
+                    LOGGER.error(
+                        "[OFFSET_TOKEN_FALLBACK] Failed to open Channel/fetch offsetToken for"
+                            + " channel:{}, exception:{}",
+                        this.channelNameFormatV1,
+                        event.getException().toString()))
+            .build();
+
+    return Failsafe.with(offsetTokenFallbackExecutor)
+        .onFailure(
+            event ->
+                LOGGER.error(
+                    "[OFFSET_TOKEN_RETRY_FAILSAFE] Failure to fetch offsetToken even after retry"
+                        + " and fallback from snowflake for channel:{}, elapsedTimeSeconds:{}",
+                    this.channelNameFormatV1,
+                    event.getElapsedTime().get(SECONDS),
+                    event.getException()))
+        .compose(offsetTokenRetryPolicy)
+        .get(
+            () ->
+                sharedChannel
+                    .fetchCommittedOffsets()
+                    .getOrDefault(partition, NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE));
+  }
+
+  /** Detaches the partition, the shared channel stays open for the other partitions. */
+  @Override
+  public CompletableFuture<Void> park() {
+    return detach();
+  }
+
+  /** Parked partitions are detached from the shared channel, they are attached again instead. */
+  @Override
+  public boolean tryReuse(@Nullable String committedOffsetToken) {
+    return false;
+  }
+
+  @Override
+  @Deprecated
+  public void closeChannel() {
+    try {
+      detach().get();
+      onCloseChannelSuccess();
+    } catch (InterruptedException | ExecutionException e) {
+      final String errMsg =
+          String.format(
+              "Failure closing Streaming Channel name:%s msg:%s",
+              this.channelNameFormatV1, e.getMessage());
+      this.telemetryServiceV2.reportKafkaConnectFatalError(errMsg);
+      LOGGER.error(
+          "Closing Streaming Channel={} encountered an exception {}: {} {}",
+          this.channelNameFormatV1,
+          e.getClass(),
+          e.getMessage(),
+          Arrays.toString(e.getStackTrace()));
+    }
+  }
+
+  @Override
+  public CompletableFuture<Void> closeChannelAsync() {
+    return detach()
+        .thenAccept(__ -> onCloseChannelSuccess())
+        .exceptionally(this::tryRecoverFromCloseChannelError);
+  }
+
+  private CompletableFuture<Void> detach() {
+    this.detached = true;
+    return sharedChannel.detach(topicPartition.partition(), onSharedChannelReopened);
+  }
+
+  private void onCloseChannelSuccess() {
+    this.telemetryServiceV2.reportKafkaPartitionUsage(this.snowflakeTelemetryChannelStatus, true);
+    this.snowflakeTelemetryChannelStatus.tryUnregisterChannelJMXMetrics();
+  }
+
+  private Void tryRecoverFromCloseChannelError(Throwable e) {
+    Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+
+    String errMsg =
+        String.format(
+            "Failure closing Streaming Channel name:%s msg:%s",
+            this.channelNameFormatV1, cause.getMessage());
+    this.telemetryServiceV2.reportKafkaConnectFatalError(errMsg);
+
+    // Only SFExceptions are swallowed, the shared channel is opened again when a partition of the
+    // group is attached
+    if (cause instanceof SFException) {
+      LOGGER.warn(
+          "Closing Streaming Channel={} encountered an exception {}: {} {}",
+          this.channelNameFormatV1,
+          cause.getClass(),
+          cause.getMessage(),
+          Arrays.toString(cause.getStackTrace()));
+      return null;
+    } else {
+      throw new CompletionException(cause);
+    }
+  }
+
+  @Override
+  public boolean isChannelClosed() {
+    return this.detached || sharedChannel.isClosed();
+  }
+
+  // ------ GETTERS ------ //
+
+  @Override
+  public String getChannelNameFormatV1() {
+    return this.channelNameFormatV1;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("offsetPersistedInSnowflake", this.offsetPersistedInSnowflake)
+        .add("channelName", this.channelNameFormatV1)
+        .add("sharedChannelName", sharedChannel.getChannelName())
+        .toString();
+  }
+
+  @Override
+  @VisibleForTesting
+  public long getOffsetPersistedInSnowflake() {
+    return this.offsetPersistedInSnowflake.get();
+  }
+
+  @Override
+  @VisibleForTesting
+  public long getProcessedOffset() {
+    return this.processedOffset.get();
+  }
+
+  @Override
+  @VisibleForTesting
+  public long getLatestConsumerOffset() {
+    return this.currentConsumerGroupOffset.get();
+  }
+
+  @Override
+  @VisibleForTesting
+  public boolean isPartitionBufferEmpty() {
+    return true;
+  }
+
+  /** @return streaming channel shared by the partitions of the group */
+  @Override
+  @VisibleForTesting
+  public SnowflakeStreamingIngestChannel getChannel() {
+    return sharedChannel.getChannel();
+  }
+
+  @Override
+  @VisibleForTesting
+  public SnowflakeTelemetryService getTelemetryServiceV2() {
+    return this.telemetryServiceV2;
+  }
+
+  @Override
+  @VisibleForTesting
+  public SnowflakeTelemetryChannelStatus getSnowflakeTelemetryChannelStatus() {
+    return this.snowflakeTelemetryChannelStatus;
+  }
+
+  @Override
+  public void setLatestConsumerOffset(long consumerOffset) {
+    if (consumerOffset > this.currentConsumerGroupOffset.get()) {
+      this.currentConsumerGroupOffset.set(consumerOffset);
+    }
+  }
+}
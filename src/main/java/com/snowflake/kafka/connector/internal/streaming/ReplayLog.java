@@ -0,0 +1,151 @@
+package com.snowflake.kafka.connector.internal.streaming;
+
+import static com.snowflake.kafka.connector.internal.streaming.channel.TopicPartitionChannel.NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import org.apache.kafka.connect.sink.SinkRecord;
+
+/**
+ * Converted rows of a partition which were inserted into its channel but are not committed in
+ * Snowflake yet. When the channel is invalidated and reopened, the rows after the offset committed
+ * in Snowflake are inserted again from here instead of rewinding the Kafka consumer.
+ *
+ * <p>At most maxRecords rows are kept, the oldest row is dropped to make room for a new one. Rows
+ * can only be replayed after an offset if none of the rows after it was dropped, see {@link
+ * #canReplayAfter(long)}. Not thread safe, used by the task thread.
+ */
+public class ReplayLog {
+
+  private final int maxRecords;
+
+  // rows in the order of their offsets
+  private final ArrayDeque<Entry> entries = new ArrayDeque<>();
+
+  // every inserted row after this offset is in the log, until it is committed
+  private long completeAfterOffset;
+
+  /**
+   * @param maxRecords maximum number of rows kept
+   * @param completeAfterOffset offset after which the rows of the partition are appended, i.e. the
+   *     offset committed in Snowflake when the channel was opened, -1 if there is none
+   */
+  public ReplayLog(int maxRecords, long completeAfterOffset) {
+    this.maxRecords = maxRecords;
+    this.completeAfterOffset = completeAfterOffset;
+  }
+
+  /**
+   * @param rows converted rows, in the order of their offsets
+   * @param records records of the rows, at the same index
+   */
+  public void append(List<Map<String, Object>> rows, List<SinkRecord> records) {
+    for (int idx = 0; idx < rows.size(); idx++) {
+      entries.addLast(new Entry(rows.get(idx), records.get(idx)));
+    }
+    while (entries.size() > maxRecords) {
+      completeAfterOffset = entries.removeFirst().record.kafkaOffset();
+    }
+  }
+
+  /**
+   * Removes a row which will not be replayed, e.g. because it was rejected by Snowflake and already
+   * reported.
+   *
+   * @param record record of the row
+   */
+  public void remove(SinkRecord record) {
+    // rows rejected by the last insert are at the end of the log
+    Iterator<Entry> newestFirst = entries.descendingIterator();
+    while (newestFirst.hasNext()) {
+      if (newestFirst.next().record.kafkaOffset() == record.kafkaOffset()) {
+        newestFirst.remove();
+        return;
+      }
+    }
+  }
+
+  /**
+   * Drops the rows committed in Snowflake.
+   *
+   * @param committedOffset offset committed in Snowflake, -1 if there is none
+   */
+  public void truncate(long committedOffset) {
+    if (committedOffset == NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE) {
+      return;
+    }
+    while (!entries.isEmpty() && entries.peekFirst().record.kafkaOffset() <= committedOffset) {
+      entries.removeFirst();
+    }
+    completeAfterOffset = Math.max(completeAfterOffset, committedOffset);
+  }
+
+  /**
+   * @param committedOffset offset committed in Snowflake, -1 if there is none
+   * @return true if all the rows inserted after the committed offset are in the log
+   */
+  public boolean canReplayAfter(long committedOffset) {
+    return committedOffset >= completeAfterOffset;
+  }
+
+  /**
+   * @param committedOffset offset committed in Snowflake, see {@link #canReplayAfter(long)}
+   * @return rows to insert again, with their records
+   */
+  public Batch getBatchAfter(long committedOffset) {
+    Batch batch = new Batch();
+    for (Entry entry : entries) {
+      if (entry.record.kafkaOffset() > committedOffset) {
+        batch.rows.add(entry.row);
+        batch.records.add(entry.record);
+      }
+    }
+    return batch;
+  }
+
+  /**
+   * Drops all the rows, e.g. when the Kafka consumer was rewound.
+   *
+   * @param completeAfterOffset offset after which the rows of the partition are appended again
+   */
+  public void reset(long completeAfterOffset) {
+    entries.clear();
+    this.completeAfterOffset = completeAfterOffset;
+  }
+
+  /** @return number of rows kept */
+  public int size() {
+    return entries.size();
+  }
+
+  /** Rows to insert again, with the records they were converted from at the same index. */
+  public static final class Batch {
+    private final List<Map<String, Object>> rows = new ArrayList<>();
+    private final List<SinkRecord> records = new ArrayList<>();
+
+    public List<Map<String, Object>> getRows() {
+      return rows;
+    }
+
+    public List<SinkRecord> getRecords() {
+      return records;
+    }
+
+    public boolean isEmpty() {
+      return rows.isEmpty();
+    }
+  }
+
+  private static final class Entry {
+    private final Map<String, Object> row;
+    private final SinkRecord record;
+
+    private Entry(Map<String, Object> row, SinkRecord record) {
+      this.row = row;
+      this.record = record;
+    }
+  }
+}
@@ -3,8 +3,24 @@ package com.snowflake.kafka.connector.internal.streaming;
 import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.BUFFER_SIZE_BYTES_DEFAULT;
 import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.ENABLE_STREAMING_CLIENT_OPTIMIZATION_DEFAULT;
 import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.SNOWFLAKE_ROLE;
+import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.SNOWPIPE_STREAMING_ADAPTIVE_BUFFER_MIN_BYTES;
+import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.SNOWPIPE_STREAMING_ADAPTIVE_BUFFER_MIN_BYTES_DEFAULT;
+import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.SNOWPIPE_STREAMING_ADAPTIVE_BUFFER_MIN_RECORDS;
+import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.SNOWPIPE_STREAMING_ADAPTIVE_BUFFER_MIN_RECORDS_DEFAULT;
+import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.SNOWPIPE_STREAMING_ADAPTIVE_BUFFER_TARGET_LATENCY_MS;
+import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.SNOWPIPE_STREAMING_ADAPTIVE_BUFFER_TARGET_LATENCY_MS_DEFAULT;
 import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.SNOWPIPE_STREAMING_CLOSE_CHANNELS_IN_PARALLEL;
 import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.SNOWPIPE_STREAMING_CLOSE_CHANNELS_IN_PARALLEL_DEFAULT;
+import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.SNOWPIPE_STREAMING_MULTIPLEXED_CHANNEL_PARTITIONS_PER_CHANNEL;
+import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.SNOWPIPE_STREAMING_MULTIPLEXED_CHANNEL_PARTITIONS_PER_CHANNEL_DEFAULT;
+import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.SNOWPIPE_STREAMING_OFFSET_REFRESH_INTERVAL_MS;
+import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.SNOWPIPE_STREAMING_OFFSET_REFRESH_INTERVAL_MS_DEFAULT;
+import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.SNOWPIPE_STREAMING_OPEN_CHANNELS_MAX_PARALLELISM;
+import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.SNOWPIPE_STREAMING_OPEN_CHANNELS_MAX_PARALLELISM_DEFAULT;
+import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.SNOWPIPE_STREAMING_WARM_CHANNEL_CACHE_GRACE_PERIOD_MS;
+import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.SNOWPIPE_STREAMING_WARM_CHANNEL_CACHE_GRACE_PERIOD_MS_DEFAULT;
+import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.SNOWPIPE_STREAMING_WARM_CHANNEL_CACHE_MAX_SIZE;
+import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.SNOWPIPE_STREAMING_WARM_CHANNEL_CACHE_MAX_SIZE_DEFAULT;
 import static com.snowflake.kafka.connector.internal.streaming.StreamingUtils.STREAMING_BUFFER_COUNT_RECORDS_DEFAULT;
 import static com.snowflake.kafka.connector.internal.streaming.StreamingUtils.STREAMING_BUFFER_FLUSH_TIME_DEFAULT_SEC;
 import static com.snowflake.kafka.connector.internal.streaming.channel.TopicPartitionChannel.NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE;
@@ -12,9 +28,12 @@ import static com.snowflake.kafka.connector.internal.streaming.channel.TopicPart
 import com.codahale.metrics.MetricRegistry;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Strings;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig;
 import com.snowflake.kafka.connector.Utils;
 import com.snowflake.kafka.connector.dlq.KafkaRecordErrorReporter;
+import com.snowflake.kafka.connector.internal.BufferMemoryManager;
+import com.snowflake.kafka.connector.internal.BufferThreshold;
 import com.snowflake.kafka.connector.internal.KCLogger;
 import com.snowflake.kafka.connector.internal.SnowflakeConnectionService;
 import com.snowflake.kafka.connector.internal.SnowflakeErrors;
@@ -27,19 +46,36 @@ import com.snowflake.kafka.connector.internal.streaming.schemaevolution.SchemaEv
 import com.snowflake.kafka.connector.internal.streaming.schemaevolution.iceberg.IcebergSchemaEvolutionService;
 import com.snowflake.kafka.connector.internal.streaming.schemaevolution.snowflake.SnowflakeSchemaEvolutionService;
 import com.snowflake.kafka.connector.internal.telemetry.SnowflakeTelemetryService;
+import com.snowflake.kafka.connector.records.LogicalTypeCodecs;
 import com.snowflake.kafka.connector.records.RecordService;
 import com.snowflake.kafka.connector.records.RecordServiceFactory;
+import com.snowflake.kafka.connector.records.SnowflakeAvroConverterWithoutSchemaRegistry;
 import com.snowflake.kafka.connector.records.SnowflakeMetadataConfig;
 import com.snowflake.kafka.connector.streaming.iceberg.IcebergInitService;
 import com.snowflake.kafka.connector.streaming.iceberg.IcebergTableSchemaValidator;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import net.snowflake.ingest.streaming.SnowflakeStreamingIngestChannel;
 import net.snowflake.ingest.streaming.SnowflakeStreamingIngestClient;
+import net.snowflake.ingest.utils.SFException;
 import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.connect.sink.SinkRecord;
 import org.apache.kafka.connect.sink.SinkTaskContext;
@@ -114,6 +150,14 @@ public class SnowflakeSinkServiceV2 implements SnowflakeSinkService {
 
   private final boolean closeChannelsInParallel;
 
+  private final int openChannelsMaxParallelism;
+
+  // Number of partitions of a topic sharing a channel, 1 if every partition has its own channel
+  private final int partitionsPerChannel;
+
+  // Channels shared by groups of partitions, by channel name, see #multiplexedChannelName
+  private final Map<String, MultiplexedChannel> multiplexedChannels = new ConcurrentHashMap<>();
+
   /**
    * Key is formulated in {@link #partitionChannelKey(String, int)} }
    *
@@ -127,6 +171,22 @@ public class SnowflakeSinkServiceV2 implements SnowflakeSinkService {
   // Set that keeps track of the channels that have been seen per input batch
   private final Set<String> channelsVisitedPerBatch = new HashSet<>();
 
+  // Buffered channels which received records, by the time their buffer is due for a flush
+  private final FlushScheduler flushScheduler = new FlushScheduler();
+
+  // Inserts full buffers of the double buffered channels in the background, null if disabled
+  @Nullable private final StreamingBufferFlusher bufferFlusher;
+
+  // Refreshes the committed offsets of the channels in the background, null if disabled
+  @Nullable private final CommittedOffsetRefresher offsetRefresher;
+
+  // Channels of revoked partitions kept open to be reused, null if they are closed when revoked
+  @Nullable private final WarmChannelCache warmChannelCache;
+
+  // Memory budget shared by the buffers of all tasks in the worker, null without a budget
+  @Nullable private final BufferMemoryManager bufferMemoryManager;
+  @Nullable private final BufferMemoryManager.TaskMemory taskMemory;
+
   public SnowflakeSinkServiceV2(
       SnowflakeConnectionService conn, Map<String, String> connectorConfig) {
     if (conn == null || conn.isClosed()) {
@@ -163,15 +223,24 @@ public class SnowflakeSinkServiceV2 implements SnowflakeSinkService {
         Optional.ofNullable(connectorConfig.get(SNOWPIPE_STREAMING_CLOSE_CHANNELS_IN_PARALLEL))
             .map(Boolean::parseBoolean)
             .orElse(SNOWPIPE_STREAMING_CLOSE_CHANNELS_IN_PARALLEL_DEFAULT);
+    this.openChannelsMaxParallelism = getOpenChannelsMaxParallelism(connectorConfig);
+    this.partitionsPerChannel = getPartitionsPerChannel(connectorConfig);
 
     this.streamingIngestClient =
         StreamingClientProvider.getStreamingClientProviderInstance()
             .getClient(this.connectorConfig);
 
-    this.partitionsToChannel = new HashMap<>();
+    // channels are read by the offset refresher in the background
+    this.partitionsToChannel = new ConcurrentHashMap<>();
 
     this.tableName2SchemaEvolutionPermission = new HashMap<>();
 
+    this.bufferFlusher = createBufferFlusher(connectorConfig);
+    this.offsetRefresher = createOffsetRefresher(connectorConfig);
+    this.warmChannelCache = createWarmChannelCache(connectorConfig);
+    this.bufferMemoryManager = BufferMemoryManager.getInstance(connectorConfig);
+    this.taskMemory = bufferMemoryManager == null ? null : bufferMemoryManager.newTask();
+
     // jmx
     String connectorName =
         conn == null || Strings.isNullOrEmpty(this.conn.getConnectorName())
@@ -222,7 +291,14 @@ public class SnowflakeSinkServiceV2 implements SnowflakeSinkService {
     this.enableSchematization = enableSchematization;
     this.schemaEvolutionService = schemaEvolutionService;
     this.closeChannelsInParallel = closeChannelsInParallel;
+    this.openChannelsMaxParallelism = getOpenChannelsMaxParallelism(connectorConfig);
+    this.partitionsPerChannel = getPartitionsPerChannel(connectorConfig);
     this.partitionsToChannel = partitionsToChannel;
+    this.bufferFlusher = createBufferFlusher(connectorConfig);
+    this.offsetRefresher = createOffsetRefresher(connectorConfig);
+    this.warmChannelCache = createWarmChannelCache(connectorConfig);
+    this.bufferMemoryManager = BufferMemoryManager.getInstance(connectorConfig);
+    this.taskMemory = bufferMemoryManager == null ? null : bufferMemoryManager.newTask();
 
     this.tableName2SchemaEvolutionPermission = new HashMap<>();
     if (this.topicToTableMap != null) {
@@ -233,6 +309,63 @@ public class SnowflakeSinkServiceV2 implements SnowflakeSinkService {
     }
   }
 
+  @Nullable
+  private static StreamingBufferFlusher createBufferFlusher(Map<String, String> connectorConfig) {
+    if (InternalBufferParameters.isSingleBufferEnabled(connectorConfig)
+        || !InternalBufferParameters.isAsyncFlushEnabled(connectorConfig)) {
+      return null;
+    }
+    return new StreamingBufferFlusher(
+        Runtime.getRuntime().availableProcessors(),
+        InternalBufferParameters.getAsyncFlushMaxInFlight(connectorConfig));
+  }
+
+  private static int getOpenChannelsMaxParallelism(Map<String, String> connectorConfig) {
+    return Optional.ofNullable(
+            connectorConfig.get(SNOWPIPE_STREAMING_OPEN_CHANNELS_MAX_PARALLELISM))
+        .map(Integer::parseInt)
+        .orElse(SNOWPIPE_STREAMING_OPEN_CHANNELS_MAX_PARALLELISM_DEFAULT);
+  }
+
+  private static int getPartitionsPerChannel(Map<String, String> connectorConfig) {
+    return Optional.ofNullable(
+            connectorConfig.get(SNOWPIPE_STREAMING_MULTIPLEXED_CHANNEL_PARTITIONS_PER_CHANNEL))
+        .map(Integer::parseInt)
+        .orElse(SNOWPIPE_STREAMING_MULTIPLEXED_CHANNEL_PARTITIONS_PER_CHANNEL_DEFAULT);
+  }
+
+  @Nullable
+  private static WarmChannelCache createWarmChannelCache(Map<String, String> connectorConfig) {
+    int maxSize =
+        Optional.ofNullable(connectorConfig.get(SNOWPIPE_STREAMING_WARM_CHANNEL_CACHE_MAX_SIZE))
+            .map(Integer::parseInt)
+            .orElse(SNOWPIPE_STREAMING_WARM_CHANNEL_CACHE_MAX_SIZE_DEFAULT);
+    if (maxSize <= 0) {
+      return null;
+    }
+    long gracePeriodMs =
+        Optional.ofNullable(
+                connectorConfig.get(SNOWPIPE_STREAMING_WARM_CHANNEL_CACHE_GRACE_PERIOD_MS))
+            .map(Long::parseLong)
+            .orElse(SNOWPIPE_STREAMING_WARM_CHANNEL_CACHE_GRACE_PERIOD_MS_DEFAULT);
+    return new WarmChannelCache(maxSize, Duration.ofMillis(gracePeriodMs));
+  }
+
+  @Nullable
+  private CommittedOffsetRefresher createOffsetRefresher(Map<String, String> connectorConfig) {
+    long intervalMs =
+        Optional.ofNullable(connectorConfig.get(SNOWPIPE_STREAMING_OFFSET_REFRESH_INTERVAL_MS))
+            .map(Long::parseLong)
+            .orElse(SNOWPIPE_STREAMING_OFFSET_REFRESH_INTERVAL_MS_DEFAULT);
+    if (intervalMs <= 0) {
+      return null;
+    }
+    return new CommittedOffsetRefresher(
+        Duration.ofMillis(intervalMs),
+        () -> new ArrayList<>(partitionsToChannel.values()),
+        this::fetchCommittedOffsetTokens);
+  }
+
   /**
    * Creates a table if it doesnt exist in Snowflake.
    *
@@ -244,34 +377,174 @@ public class SnowflakeSinkServiceV2 implements SnowflakeSinkService {
    */
   @Override
   public void startPartition(String tableName, TopicPartition topicPartition) {
-    // the table should be present before opening a channel so let's do a table existence check here
-    tableActionsOnStartPartition(tableName);
-
-    // Create channel for the given partition
-    createStreamingChannelForTopicPartition(
-        tableName, topicPartition, tableName2SchemaEvolutionPermission.get(tableName));
+    Map<TopicPartition, TopicPartitionChannel> startedChannels =
+        reuseParkedChannels(Collections.singletonList(topicPartition));
+    if (startedChannels.isEmpty()) {
+      // the table should be present before opening a channel so let's do a table existence check
+      // here
+      tableActionsOnStartPartition(tableName);
+
+      // Create channel for the given partition
+      startedChannels.put(
+          topicPartition,
+          createStreamingChannelForTopicPartition(
+              tableName, topicPartition, tableName2SchemaEvolutionPermission.get(tableName)));
+    }
+    resetKafkaOffsets(startedChannels);
   }
 
   /**
    * Initializes multiple Channels and partitionsToChannel maps with new instances of {@link
    * TopicPartitionChannel}
    *
+   * <p>Channels of the partitions which were parked when they were revoked are reused if possible.
+   * For the other partitions, the tables are created once per topic before the channels are
+   * opened, up to {@link
+   * SnowflakeSinkConnectorConfig#SNOWPIPE_STREAMING_OPEN_CHANNELS_MAX_PARALLELISM} at a time. The
+   * offsets of all the started channels are then reset in Kafka with a single call.
+   *
    * @param partitions collection of topic partition
    * @param topic2Table map of topic to table name
    */
   @Override
   public void startPartitions(
       Collection<TopicPartition> partitions, Map<String, String> topic2Table) {
-    partitions.stream()
+    Map<TopicPartition, TopicPartitionChannel> startedChannels = reuseParkedChannels(partitions);
+    List<TopicPartition> partitionsToOpen =
+        partitions.stream()
+            .filter(tp -> !startedChannels.containsKey(tp))
+            .collect(Collectors.toList());
+    partitionsToOpen.stream()
         .map(TopicPartition::topic)
         .distinct()
         .forEach(topic -> perTopicActionsOnStartPartitions(topic, topic2Table));
-    partitions.forEach(
-        tp -> {
-          String tableName = Utils.tableName(tp.topic(), topic2Table);
-          createStreamingChannelForTopicPartition(
-              tableName, tp, tableName2SchemaEvolutionPermission.get(tableName));
+    if (openChannelsMaxParallelism > 1 && partitionsToOpen.size() > 1) {
+      startedChannels.putAll(openChannelsInParallel(partitionsToOpen, topic2Table));
+    } else {
+      partitionsToOpen.forEach(
+          tp -> {
+            String tableName = Utils.tableName(tp.topic(), topic2Table);
+            startedChannels.put(
+                tp,
+                createStreamingChannelForTopicPartition(
+                    tableName, tp, tableName2SchemaEvolutionPermission.get(tableName)));
+          });
+    }
+    resetKafkaOffsets(startedChannels);
+  }
+
+  /**
+   * Takes the channels of the partitions parked in the warm channel cache, and reuses the ones
+   * which still have the offset committed in Snowflake they last processed. The offset tokens of
+   * all of them are fetched with a single call. The channels which can't be reused are closed.
+   *
+   * @return reused channels by partition, put into partitionsToChannel
+   */
+  private Map<TopicPartition, TopicPartitionChannel> reuseParkedChannels(
+      Collection<TopicPartition> partitions) {
+    Map<TopicPartition, TopicPartitionChannel> reusedChannels = new LinkedHashMap<>();
+    if (warmChannelCache == null) {
+      return reusedChannels;
+    }
+    Map<TopicPartition, TopicPartitionChannel> parkedChannels = new LinkedHashMap<>();
+    for (TopicPartition tp : partitions) {
+      TopicPartitionChannel channel =
+          warmChannelCache.take(partitionChannelKey(tp.topic(), tp.partition()));
+      if (channel != null) {
+        parkedChannels.put(tp, channel);
+      }
+    }
+    if (parkedChannels.isEmpty()) {
+      return reusedChannels;
+    }
+
+    Map<String, String> committedOffsetTokens = fetchCommittedOffsetTokens(parkedChannels.values());
+    List<CompletableFuture<Void>> closedChannels = new ArrayList<>();
+    parkedChannels.forEach(
+        (tp, channel) -> {
+          String channelName = channel.getChannel().getFullyQualifiedName();
+          if (committedOffsetTokens.containsKey(channelName)
+              && channel.tryReuse(committedOffsetTokens.get(channelName))) {
+            LOGGER.info("Reusing parked channel:{}", channel.getChannelNameFormatV1());
+            partitionsToChannel.put(partitionChannelKey(tp.topic(), tp.partition()), channel);
+            reusedChannels.put(tp, channel);
+          } else {
+            closedChannels.add(channel.closeChannelAsync());
+          }
+        });
+    // the parked channels are closed before the channels are opened again
+    CompletableFuture.allOf(closedChannels.toArray(new CompletableFuture[0])).join();
+    return reusedChannels;
+  }
+
+  private Map<TopicPartition, TopicPartitionChannel> openChannelsInParallel(
+      Collection<TopicPartition> partitions, Map<String, String> topic2Table) {
+    ExecutorService executor =
+        Executors.newFixedThreadPool(
+            Math.min(openChannelsMaxParallelism, partitions.size()),
+            new ThreadFactoryBuilder()
+                .setNameFormat("snowflake-channel-opener-%d")
+                .setDaemon(true)
+                .build());
+    try {
+      Map<TopicPartition, CompletableFuture<TopicPartitionChannel>> futures =
+          new LinkedHashMap<>();
+      for (TopicPartition tp : partitions) {
+        String tableName = Utils.tableName(tp.topic(), topic2Table);
+        boolean hasSchemaEvolutionPermission = tableName2SchemaEvolutionPermission.get(tableName);
+        String partitionChannelKey = partitionChannelKey(tp.topic(), tp.partition());
+        futures.put(
+            tp,
+            CompletableFuture.supplyAsync(
+                () ->
+                    createTopicPartitionChannel(
+                        tableName, tp, hasSchemaEvolutionPermission, partitionChannelKey),
+                executor));
+      }
+
+      // channels which were opened are kept, so that they are closed with the task if one failed
+      Map<TopicPartition, TopicPartitionChannel> openedChannels = new LinkedHashMap<>();
+      RuntimeException failure = null;
+      for (Map.Entry<TopicPartition, CompletableFuture<TopicPartitionChannel>> future :
+          futures.entrySet()) {
+        TopicPartition tp = future.getKey();
+        try {
+          TopicPartitionChannel channel = future.getValue().join();
+          partitionsToChannel.put(partitionChannelKey(tp.topic(), tp.partition()), channel);
+          openedChannels.put(tp, channel);
+        } catch (CompletionException e) {
+          LOGGER.error("Failed to open channel for partition:{}: {}", tp, e.getMessage());
+          if (failure == null) {
+            failure =
+                e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+          }
+        }
+      }
+      if (failure != null) {
+        throw failure;
+      }
+      return openedChannels;
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Resets the offsets of the Kafka consumer to the offsets committed in Snowflake when the
+   * channels were opened, with a single call.
+   */
+  private void resetKafkaOffsets(Map<TopicPartition, TopicPartitionChannel> openedChannels) {
+    Map<TopicPartition, Long> offsets = new HashMap<>();
+    openedChannels.forEach(
+        (tp, channel) -> {
+          long offset = channel.getOffsetToResetInKafkaOnOpen();
+          if (offset != NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE) {
+            offsets.put(tp, offset);
+          }
         });
+    if (!offsets.isEmpty()) {
+      this.sinkTaskContext.offset(offsets);
+    }
   }
 
   private void perTopicActionsOnStartPartitions(String topic, Map<String, String> topic2Table) {
@@ -295,18 +568,21 @@ public class SnowflakeSinkServiceV2 implements SnowflakeSinkService {
    *
    * <p>This is essentially a blind write to partitionsToChannel. i.e. we do not check if it is
    * presented or not.
+   *
+   * @return the opened channel, the offset of its partition is not reset in Kafka yet
    */
-  private void createStreamingChannelForTopicPartition(
+  private TopicPartitionChannel createStreamingChannelForTopicPartition(
       final String tableName,
       final TopicPartition topicPartition,
       boolean hasSchemaEvolutionPermission) {
     final String partitionChannelKey =
         partitionChannelKey(topicPartition.topic(), topicPartition.partition());
     // Create new instance of TopicPartitionChannel which will always open the channel.
-    partitionsToChannel.put(
-        partitionChannelKey,
+    TopicPartitionChannel channel =
         createTopicPartitionChannel(
-            tableName, topicPartition, hasSchemaEvolutionPermission, partitionChannelKey));
+            tableName, topicPartition, hasSchemaEvolutionPermission, partitionChannelKey);
+    partitionsToChannel.put(partitionChannelKey, channel);
+    return channel;
   }
 
   private TopicPartitionChannel createTopicPartitionChannel(
@@ -314,6 +590,26 @@ public class SnowflakeSinkServiceV2 implements SnowflakeSinkService {
       TopicPartition topicPartition,
       boolean hasSchemaEvolutionPermission,
       String partitionChannelKey) {
+    if (partitionsPerChannel > 1) {
+      MultiplexedChannel sharedChannel =
+          multiplexedChannels.computeIfAbsent(
+              multiplexedChannelName(topicPartition),
+              channelName ->
+                  new MultiplexedChannel(
+                      this.streamingIngestClient, channelName, tableName, this.connectorConfig));
+      return new MultiplexedTopicPartitionChannel(
+          sharedChannel,
+          topicPartition,
+          partitionChannelKey,
+          this.connectorConfig,
+          this.kafkaRecordErrorReporter,
+          this.sinkTaskContext,
+          this.conn,
+          this.recordService,
+          this.conn.getTelemetryClient(),
+          this.enableCustomJMXMonitoring,
+          this.metricsJmxReporter);
+    }
 
     return InternalBufferParameters.isSingleBufferEnabled(connectorConfig)
         ? new DirectTopicPartitionChannel(
@@ -339,7 +635,7 @@ public class SnowflakeSinkServiceV2 implements SnowflakeSinkService {
             partitionChannelKey, // Streaming channel name
             tableName,
             hasSchemaEvolutionPermission,
-            new StreamingBufferThreshold(this.flushTimeSeconds, this.fileSizeBytes, this.recordNum),
+            createBufferThreshold(),
             this.connectorConfig,
             this.kafkaRecordErrorReporter,
             this.sinkTaskContext,
@@ -349,7 +645,50 @@ public class SnowflakeSinkServiceV2 implements SnowflakeSinkService {
             this.enableCustomJMXMonitoring,
             this.metricsJmxReporter,
             this.schemaEvolutionService,
-            new InsertErrorMapper());
+            new InsertErrorMapper(),
+            this.bufferFlusher,
+            this.taskMemory);
+  }
+
+  /**
+   * Thresholds of the buffer of a channel, adapted to the throughput of its partition if a target
+   * latency is configured. The configured thresholds are then their upper bounds.
+   */
+  private BufferThreshold createBufferThreshold() {
+    long targetLatencyMs =
+        Optional.ofNullable(
+                connectorConfig.get(SNOWPIPE_STREAMING_ADAPTIVE_BUFFER_TARGET_LATENCY_MS))
+            .map(Long::parseLong)
+            .orElse(SNOWPIPE_STREAMING_ADAPTIVE_BUFFER_TARGET_LATENCY_MS_DEFAULT);
+    if (targetLatencyMs <= 0) {
+      return new StreamingBufferThreshold(
+          this.flushTimeSeconds, this.fileSizeBytes, this.recordNum);
+    }
+    return new AdaptiveBufferThreshold(
+        this.flushTimeSeconds,
+        this.fileSizeBytes,
+        this.recordNum,
+        Optional.ofNullable(connectorConfig.get(SNOWPIPE_STREAMING_ADAPTIVE_BUFFER_MIN_BYTES))
+            .map(Long::parseLong)
+            .orElse(SNOWPIPE_STREAMING_ADAPTIVE_BUFFER_MIN_BYTES_DEFAULT),
+        Optional.ofNullable(connectorConfig.get(SNOWPIPE_STREAMING_ADAPTIVE_BUFFER_MIN_RECORDS))
+            .map(Long::parseLong)
+            .orElse(SNOWPIPE_STREAMING_ADAPTIVE_BUFFER_MIN_RECORDS_DEFAULT),
+        targetLatencyMs);
+  }
+
+  /**
+   * Name of the channel shared by a group of partitionsPerChannel consecutive partitions, e.g.
+   * partitions 4 to 7 of topic "orders" share channel "orders_4-7" with 4 partitions per channel.
+   * It differs from {@link #partitionChannelKey(String, int)} of every partition.
+   */
+  private String multiplexedChannelName(TopicPartition topicPartition) {
+    int firstPartition = topicPartition.partition() / partitionsPerChannel * partitionsPerChannel;
+    return topicPartition.topic()
+        + "_"
+        + firstPartition
+        + "-"
+        + (firstPartition + partitionsPerChannel - 1);
   }
 
   /**
@@ -366,21 +705,34 @@ public class SnowflakeSinkServiceV2 implements SnowflakeSinkService {
   public void insert(final Collection<SinkRecord> records) {
     // note that records can be empty but, we will still need to check for time based flush
     channelsVisitedPerBatch.clear();
+    // contiguous records of the same partition are handed over to the channel together
+    List<SinkRecord> partitionRecords = new ArrayList<>();
     for (SinkRecord record : records) {
       // check if it needs to handle null value records
       if (recordService.shouldSkipNullValue(record, behaviorOnNullValues)) {
         continue;
       }
 
-      // While inserting into buffer, we will check for count threshold and buffered bytes
-      // threshold.
-      insert(record);
+      if (!partitionRecords.isEmpty() && !isSamePartition(partitionRecords.get(0), record)) {
+        insertPartitionRecords(partitionRecords);
+        partitionRecords.clear();
+      }
+      partitionRecords.add(record);
+    }
+    if (!partitionRecords.isEmpty()) {
+      insertPartitionRecords(partitionRecords);
+    }
+
+    // Time based flushing, only the channels whose flush time was reached are visited
+    flushScheduler.flushDue(partitionsToChannel, System.currentTimeMillis());
+
+    // flush the largest buffers or pause the partitions if the worker runs out of buffer memory
+    if (taskMemory != null) {
+      taskMemory.relieve(sinkTaskContext);
     }
 
-    // check all partitions to see if they need to be flushed based on time
-    for (TopicPartitionChannel partitionChannel : partitionsToChannel.values()) {
-      // Time based flushing
-      partitionChannel.insertBufferedRecordsIfFlushTimeThresholdReached();
+    if (warmChannelCache != null) {
+      warmChannelCache.closeExpired();
     }
   }
 
@@ -392,6 +744,17 @@ public class SnowflakeSinkServiceV2 implements SnowflakeSinkService {
    */
   @Override
   public void insert(SinkRecord record) {
+    insertPartitionRecords(Collections.singletonList(record));
+  }
+
+  /**
+   * Inserts records of a single partition, in the order they were received from Kafka. While
+   * inserting into buffer, the channel checks for count threshold and buffered bytes threshold.
+   *
+   * @param records non empty list of records of the same topic and partition
+   */
+  private void insertPartitionRecords(List<SinkRecord> records) {
+    SinkRecord record = records.get(0);
     String partitionChannelKey = partitionChannelKey(record.topic(), record.kafkaPartition());
     // init a new topic partition if it's not presented in cache or if channel is closed
     if (!partitionsToChannel.containsKey(partitionChannelKey)
@@ -407,16 +770,27 @@ public class SnowflakeSinkServiceV2 implements SnowflakeSinkService {
 
     TopicPartitionChannel channelPartition = partitionsToChannel.get(partitionChannelKey);
     boolean isFirstRowPerPartitionInBatch = channelsVisitedPerBatch.add(partitionChannelKey);
-    channelPartition.insertRecord(record, isFirstRowPerPartitionInBatch);
+    channelPartition.insertRecords(records, isFirstRowPerPartitionInBatch);
+    flushScheduler.schedule(partitionChannelKey, channelPartition);
+  }
+
+  private static boolean isSamePartition(SinkRecord record, SinkRecord other) {
+    return record.kafkaPartition().equals(other.kafkaPartition())
+        && record.topic().equals(other.topic());
   }
 
   @Override
   public long getOffset(TopicPartition topicPartition) {
     String partitionChannelKey =
         partitionChannelKey(topicPartition.topic(), topicPartition.partition());
-    if (partitionsToChannel.containsKey(partitionChannelKey)) {
-      long offset = partitionsToChannel.get(partitionChannelKey).getOffsetSafeToCommitToKafka();
-      partitionsToChannel.get(partitionChannelKey).setLatestConsumerOffset(offset);
+    TopicPartitionChannel channel = partitionsToChannel.get(partitionChannelKey);
+    if (channel != null) {
+      OptionalLong refreshedOffset = getRefreshedOffsetSafeToCommitToKafka(channel);
+      long offset =
+          refreshedOffset.isPresent()
+              ? refreshedOffset.getAsLong()
+              : channel.getOffsetSafeToCommitToKafka();
+      channel.setLatestConsumerOffset(offset);
 
       return offset;
     } else {
@@ -428,6 +802,88 @@ public class SnowflakeSinkServiceV2 implements SnowflakeSinkService {
     }
   }
 
+  /**
+   * Fetches the committed offset tokens of the channels of all given partitions from Snowflake with
+   * a single call of the streaming client. The offset safe to commit of every channel is then
+   * computed the same way as {@link #getOffset(TopicPartition)} does. Channels whose token could
+   * not be fetched with the others fetch it on their own, with the usual retries and fallback.
+   * Channels whose offset was refreshed recently in the background are not fetched at all.
+   */
+  @Override
+  public Map<TopicPartition, Long> getOffsets(Collection<TopicPartition> topicPartitions) {
+    Map<TopicPartition, TopicPartitionChannel> channels = new HashMap<>();
+    Map<TopicPartition, Long> offsets = new HashMap<>();
+    for (TopicPartition topicPartition : topicPartitions) {
+      TopicPartitionChannel channel =
+          partitionsToChannel.get(
+              partitionChannelKey(topicPartition.topic(), topicPartition.partition()));
+      if (channel == null) {
+        LOGGER.warn(
+            "Topic: {} Partition: {} hasn't been initialized to get offset",
+            topicPartition.topic(),
+            topicPartition.partition());
+        offsets.put(topicPartition, NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE);
+        continue;
+      }
+      OptionalLong refreshedOffset = getRefreshedOffsetSafeToCommitToKafka(channel);
+      if (refreshedOffset.isPresent()) {
+        channel.setLatestConsumerOffset(refreshedOffset.getAsLong());
+        offsets.put(topicPartition, refreshedOffset.getAsLong());
+      } else {
+        channels.put(topicPartition, channel);
+      }
+    }
+
+    Map<String, String> committedOffsetTokens = fetchCommittedOffsetTokens(channels.values());
+    channels.forEach(
+        (topicPartition, channel) -> {
+          String channelName = channel.getChannel().getFullyQualifiedName();
+          long offset =
+              committedOffsetTokens.containsKey(channelName)
+                  ? channel.getOffsetSafeToCommitToKafka(committedOffsetTokens.get(channelName))
+                  : channel.getOffsetSafeToCommitToKafka();
+          channel.setLatestConsumerOffset(offset);
+          offsets.put(topicPartition, offset);
+        });
+    return offsets;
+  }
+
+  /** @return offset safe to commit refreshed in the background, empty if it is outdated */
+  private OptionalLong getRefreshedOffsetSafeToCommitToKafka(TopicPartitionChannel channel) {
+    return offsetRefresher == null
+        ? OptionalLong.empty()
+        : channel.getRefreshedOffsetSafeToCommitToKafka(offsetRefresher.getMaxAgeNanos());
+  }
+
+  /**
+   * @param channels channels opened by the streaming client of this service
+   * @return fully qualified channel names to their committed offset tokens, empty if the tokens
+   *     could not be fetched
+   */
+  private Map<String, String> fetchCommittedOffsetTokens(
+      Collection<TopicPartitionChannel> channels) {
+    if (channels.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    // channels shared by several partitions are fetched once
+    Set<SnowflakeStreamingIngestChannel> streamingChannels = new LinkedHashSet<>(channels.size());
+    for (TopicPartitionChannel channel : channels) {
+      streamingChannels.add(channel.getChannel());
+    }
+    try {
+      Map<String, String> committedOffsetTokens =
+          streamingIngestClient.getLatestCommittedOffsetTokens(new ArrayList<>(streamingChannels));
+      return committedOffsetTokens == null ? Collections.emptyMap() : committedOffsetTokens;
+    } catch (SFException e) {
+      LOGGER.warn(
+          "Failed to fetch offset tokens of {} channels with a single call, fetching them for every"
+              + " channel: {}",
+          channels.size(),
+          e.getMessage());
+      return Collections.emptyMap();
+    }
+  }
+
   @Override
   public int getPartitionCount() {
     return partitionsToChannel.size();
@@ -440,6 +896,12 @@ public class SnowflakeSinkServiceV2 implements SnowflakeSinkService {
 
   @Override
   public void closeAll() {
+    if (offsetRefresher != null) {
+      offsetRefresher.close();
+    }
+    if (warmChannelCache != null) {
+      warmChannelCache.closeAll().join();
+    }
     if (closeChannelsInParallel) {
       closeAllInParallel();
     } else {
@@ -447,6 +909,11 @@ public class SnowflakeSinkServiceV2 implements SnowflakeSinkService {
     }
 
     partitionsToChannel.clear();
+    multiplexedChannels.clear();
+    flushScheduler.clear();
+    if (bufferFlusher != null) {
+      bufferFlusher.close();
+    }
 
     StreamingClientProvider.getStreamingClientProviderInstance()
         .closeClient(this.connectorConfig, this.streamingIngestClient);
@@ -490,7 +957,9 @@ public class SnowflakeSinkServiceV2 implements SnowflakeSinkService {
    */
   @Override
   public void close(Collection<TopicPartition> partitions) {
-    if (closeChannelsInParallel) {
+    if (warmChannelCache != null) {
+      parkChannels(partitions);
+    } else if (closeChannelsInParallel) {
       closeInParallel(partitions);
     } else {
       closeSequentially(partitions);
@@ -503,6 +972,40 @@ public class SnowflakeSinkServiceV2 implements SnowflakeSinkService {
         partitionsToChannel.size());
   }
 
+  /**
+   * Inserts the buffers of the channels of the revoked partitions and parks the channels in the
+   * warm channel cache, instead of closing them. Channels whose inserts failed are closed.
+   */
+  private void parkChannels(Collection<TopicPartition> partitions) {
+    Map<String, TopicPartitionChannel> channels = new LinkedHashMap<>();
+    Map<String, CompletableFuture<Void>> parked = new HashMap<>();
+    for (TopicPartition topicPartition : partitions) {
+      String key = partitionChannelKey(topicPartition.topic(), topicPartition.partition());
+      TopicPartitionChannel topicPartitionChannel = partitionsToChannel.remove(key);
+      if (topicPartitionChannel != null) {
+        channels.put(key, topicPartitionChannel);
+        parked.put(key, topicPartitionChannel.park());
+      }
+    }
+
+    List<CompletableFuture<Void>> closedChannels = new ArrayList<>();
+    channels.forEach(
+        (key, topicPartitionChannel) -> {
+          try {
+            parked.get(key).join();
+            LOGGER.info("Parking partition channel:{}", key);
+            warmChannelCache.park(key, topicPartitionChannel);
+          } catch (CompletionException e) {
+            LOGGER.warn(
+                "Failed to insert the buffer of channel:{} before parking it, closing it: {}",
+                key,
+                e.getMessage());
+            closedChannels.add(topicPartitionChannel.closeChannelAsync());
+          }
+        });
+    CompletableFuture.allOf(closedChannels.toArray(new CompletableFuture[0])).join();
+  }
+
   private void closeSequentially(Collection<TopicPartition> partitions) {
     partitions.forEach(
         topicPartition -> {
@@ -637,6 +1140,11 @@ public class SnowflakeSinkServiceV2 implements SnowflakeSinkService {
     this.recordService.setMetadataConfig(configMap);
   }
 
+  @Override
+  public void setLogicalTypeCodecs(LogicalTypeCodecs logicalTypeCodecs) {
+    this.recordService.setLogicalTypeCodecs(logicalTypeCodecs);
+  }
+
   @Override
   public long getRecordNumber() {
     return this.recordNum;
@@ -665,6 +1173,13 @@ public class SnowflakeSinkServiceV2 implements SnowflakeSinkService {
   @Override
   public void setCustomJMXMetrics(boolean enableJMX) {
     this.enableCustomJMXMonitoring = enableJMX;
+    if (enableJMX) {
+      // shared by all tasks of the worker, reported once
+      SnowflakeAvroConverterWithoutSchemaRegistry.enableJmxMetrics();
+      if (bufferMemoryManager != null) {
+        bufferMemoryManager.enableJmxMetrics();
+      }
+    }
   }
 
   @Override
@@ -728,6 +1243,7 @@ public class SnowflakeSinkServiceV2 implements SnowflakeSinkService {
 
   // ------ Streaming Ingest Related Functions ------ //
   private void createTableIfNotExists(final String tableName) {
+    final boolean withTypedMetadataColumns = this.recordService.writesTypedMetadataColumns();
     if (this.conn.tableExist(tableName)) {
       if (!this.enableSchematization) {
         if (this.conn.isTableCompatible(tableName)) {
@@ -739,14 +1255,17 @@ public class SnowflakeSinkServiceV2 implements SnowflakeSinkService {
       } else {
         this.conn.appendMetaColIfNotExist(tableName);
       }
+      if (withTypedMetadataColumns) {
+        this.conn.appendTypedMetadataColumnsIfNotExist(tableName);
+      }
     } else {
       LOGGER.info("Creating new table {}.", tableName);
       if (this.enableSchematization) {
         // Always create the table with RECORD_METADATA only and rely on schema evolution to update
         // the schema
-        this.conn.createTableWithOnlyMetadataColumn(tableName);
+        this.conn.createTableWithOnlyMetadataColumn(tableName, withTypedMetadataColumns);
       } else {
-        this.conn.createTable(tableName);
+        this.conn.createTable(tableName, false, withTypedMetadataColumns);
       }
     }
 
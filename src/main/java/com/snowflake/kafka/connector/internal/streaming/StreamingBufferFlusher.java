@@ -0,0 +1,136 @@
+package com.snowflake.kafka.connector.internal.streaming;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.snowflake.kafka.connector.internal.KCLogger;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Inserts the full buffers of the {@link BufferedTopicPartitionChannel}s of a task on background
+ * threads, so that the put thread keeps polling from Kafka and filling a fresh buffer while the
+ * previous one is converted and inserted.
+ *
+ * <p>Every channel gets its own {@link ChannelFlushQueue}. Flushes of a channel run one after
+ * another in the order they were submitted, which keeps the offset tokens of a channel increasing.
+ * Each channel has a bounded number of flushes in flight, submitting one more blocks the put thread
+ * until the oldest flush of the channel is done.
+ */
+public class StreamingBufferFlusher {
+  private static final KCLogger LOGGER = new KCLogger(StreamingBufferFlusher.class.getName());
+
+  private final ExecutorService executor;
+
+  private final int maxInFlightFlushesPerChannel;
+
+  /**
+   * @param threads number of threads flushing the buffers of the task
+   * @param maxInFlightFlushesPerChannel number of full buffers of a channel which may wait for or
+   *     be in the middle of insertRows
+   */
+  public StreamingBufferFlusher(int threads, int maxInFlightFlushesPerChannel) {
+    this.executor =
+        Executors.newFixedThreadPool(
+            threads,
+            new ThreadFactoryBuilder()
+                .setNameFormat("snowflake-streaming-buffer-flusher-%d")
+                .setDaemon(true)
+                .build());
+    this.maxInFlightFlushesPerChannel = maxInFlightFlushesPerChannel;
+  }
+
+  /**
+   * @param channelName name of the channel, used for logging
+   * @return new queue for the flushes of a channel
+   */
+  public ChannelFlushQueue newChannelQueue(String channelName) {
+    return new ChannelFlushQueue(channelName);
+  }
+
+  /** Stops accepting flushes, flushes already running are not interrupted. */
+  public void close() {
+    executor.shutdown();
+  }
+
+  /** Flushes of a single channel, executed in submission order. */
+  public final class ChannelFlushQueue {
+    private final String channelName;
+
+    private final Semaphore inFlight;
+
+    // first failure of a flush, later flushes are skipped and the failure is rethrown to the put
+    // thread because inserting them would leave a gap in the channel
+    private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+    // completes when the last submitted flush is done
+    private CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+
+    private ChannelFlushQueue(String channelName) {
+      this.channelName = channelName;
+      this.inFlight = new Semaphore(maxInFlightFlushesPerChannel);
+    }
+
+    /**
+     * Schedules the flush after the previously submitted flushes of the channel. Blocks while the
+     * channel has the maximum number of flushes in flight.
+     *
+     * @param flush inserts a buffer into the channel
+     */
+    public void submit(Runnable flush) {
+      throwIfFailed();
+      inFlight.acquireUninterruptibly();
+      synchronized (this) {
+        tail =
+            tail.thenRunAsync(() -> run(flush), executor)
+                .exceptionally(
+                    e -> {
+                      Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                      if (cause instanceof RejectedExecutionException) {
+                        // the flush was rejected by the executor, it never ran
+                        inFlight.release();
+                        failure.compareAndSet(
+                            null, new IllegalStateException("Buffer flusher is closed", e));
+                      } else {
+                        failure.compareAndSet(
+                            null, new IllegalStateException("Failed to flush buffer", e));
+                      }
+                      return null;
+                    });
+      }
+    }
+
+    private void run(Runnable flush) {
+      try {
+        if (failure.get() == null) {
+          flush.run();
+        }
+      } catch (Throwable e) {
+        LOGGER.error("Failed to flush buffer for channel:{}", channelName, e);
+        failure.compareAndSet(
+            null,
+            e instanceof RuntimeException
+                ? (RuntimeException) e
+                : new IllegalStateException("Failed to flush buffer", e));
+      } finally {
+        inFlight.release();
+      }
+    }
+
+    /** Rethrows the failure of a previous flush on the calling thread. */
+    public void throwIfFailed() {
+      RuntimeException e = failure.get();
+      if (e != null) {
+        throw e;
+      }
+    }
+
+    /** @return future completed when all flushes submitted so far are done */
+    public synchronized CompletableFuture<Void> flushesDone() {
+      return tail;
+    }
+  }
+}
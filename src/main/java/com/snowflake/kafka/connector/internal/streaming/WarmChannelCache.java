@@ -0,0 +1,161 @@
+package com.snowflake.kafka.connector.internal.streaming;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.snowflake.kafka.connector.internal.KCLogger;
+import com.snowflake.kafka.connector.internal.streaming.channel.TopicPartitionChannel;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongSupplier;
+import javax.annotation.Nullable;
+
+/**
+ * Channels of revoked partitions which are kept open for a grace period, so that they are reused
+ * instead of opened again when incremental cooperative rebalancing assigns the partitions back to
+ * the task.
+ *
+ * <p>At most maxSize channels are parked, the channel parked first is closed to make room for a new
+ * one. Expired channels are closed by {@link #closeExpired()}. Channels are closed asynchronously,
+ * {@link #take(String)} waits for a pending close of the channel so that the caller doesn't open
+ * the channel again while it is being closed. Not thread safe, used by the task thread.
+ */
+public class WarmChannelCache {
+  private static final KCLogger LOGGER = new KCLogger(WarmChannelCache.class.getName());
+
+  private final int maxSize;
+
+  private final long gracePeriodNanos;
+
+  private final LongSupplier nanoTime;
+
+  // parked channels by partition channel key, in the order they were parked
+  private final LinkedHashMap<String, ParkedChannel> parkedChannels = new LinkedHashMap<>();
+
+  // closes of channels which left the cache by partition channel key, until they are completed
+  private final Map<String, CompletableFuture<Void>> pendingCloses = new HashMap<>();
+
+  /**
+   * @param maxSize maximum number of parked channels
+   * @param gracePeriod time after which a parked channel is closed
+   */
+  public WarmChannelCache(int maxSize, Duration gracePeriod) {
+    this(maxSize, gracePeriod, System::nanoTime);
+  }
+
+  @VisibleForTesting
+  WarmChannelCache(int maxSize, Duration gracePeriod, LongSupplier nanoTime) {
+    this.maxSize = maxSize;
+    this.gracePeriodNanos = gracePeriod.toNanos();
+    this.nanoTime = nanoTime;
+  }
+
+  /**
+   * @param partitionChannelKey key of the channel in the channels of the task
+   * @param channel channel of a revoked partition, see {@link TopicPartitionChannel#park()}
+   */
+  public void park(String partitionChannelKey, TopicPartitionChannel channel) {
+    // removed first, so that the channel is the last one parked
+    ParkedChannel previous = parkedChannels.remove(partitionChannelKey);
+    if (previous != null) {
+      close(partitionChannelKey, previous.channel, "replaced");
+    }
+    parkedChannels.put(partitionChannelKey, new ParkedChannel(channel, nanoTime.getAsLong()));
+    Iterator<Map.Entry<String, ParkedChannel>> oldest = parkedChannels.entrySet().iterator();
+    while (parkedChannels.size() > maxSize) {
+      Map.Entry<String, ParkedChannel> evicted = oldest.next();
+      oldest.remove();
+      close(evicted.getKey(), evicted.getValue().channel, "evicted");
+    }
+  }
+
+  /**
+   * Takes the parked channel of a partition. If there is none, a pending close of the channel of
+   * the partition is awaited before returning, since the caller opens the channel again. Otherwise
+   * the old close could complete after the new channel was opened, and unregister its metrics.
+   *
+   * @param partitionChannelKey key of the channel in the channels of the task
+   * @return the parked channel, removed from the cache, null if there is none or it expired
+   */
+  @Nullable
+  public TopicPartitionChannel take(String partitionChannelKey) {
+    ParkedChannel parked = parkedChannels.remove(partitionChannelKey);
+    if (parked != null && parked.isExpired()) {
+      close(partitionChannelKey, parked.channel, "expired");
+      parked = null;
+    }
+    if (parked == null) {
+      CompletableFuture<Void> pendingClose = pendingCloses.remove(partitionChannelKey);
+      if (pendingClose != null) {
+        pendingClose.join();
+      }
+      return null;
+    }
+    return parked.channel;
+  }
+
+  /** Closes the channels parked for longer than the grace period. */
+  public void closeExpired() {
+    pendingCloses.values().removeIf(CompletableFuture::isDone);
+    Iterator<Map.Entry<String, ParkedChannel>> oldest = parkedChannels.entrySet().iterator();
+    while (oldest.hasNext()) {
+      Map.Entry<String, ParkedChannel> parked = oldest.next();
+      if (!parked.getValue().isExpired()) {
+        // channels parked later expire later
+        return;
+      }
+      oldest.remove();
+      close(parked.getKey(), parked.getValue().channel, "expired");
+    }
+  }
+
+  /** @return future completed when all the parked channels and pending closes are closed */
+  public CompletableFuture<Void> closeAll() {
+    parkedChannels.forEach(
+        (partitionChannelKey, parked) ->
+            close(partitionChannelKey, parked.channel, "closed with the task"));
+    parkedChannels.clear();
+    CompletableFuture<?>[] futures = pendingCloses.values().toArray(new CompletableFuture[0]);
+    pendingCloses.clear();
+    return CompletableFuture.allOf(futures);
+  }
+
+  /** @return number of parked channels */
+  public int size() {
+    return parkedChannels.size();
+  }
+
+  private void close(String partitionChannelKey, TopicPartitionChannel channel, String reason) {
+    LOGGER.info("Closing parked channel:{}, {}", channel.getChannelNameFormatV1(), reason);
+    CompletableFuture<Void> closed =
+        channel
+            .closeChannelAsync()
+            .exceptionally(
+                e -> {
+                  LOGGER.warn(
+                      "Failed to close parked channel:{}: {}",
+                      channel.getChannelNameFormatV1(),
+                      e.getMessage());
+                  return null;
+                });
+    // a channel replaced in the cache may still be closing
+    pendingCloses.merge(
+        partitionChannelKey, closed, (previous, next) -> CompletableFuture.allOf(previous, next));
+  }
+
+  private final class ParkedChannel {
+    private final TopicPartitionChannel channel;
+    private final long parkedAtNanos;
+
+    private ParkedChannel(TopicPartitionChannel channel, long parkedAtNanos) {
+      this.channel = channel;
+      this.parkedAtNanos = parkedAtNanos;
+    }
+
+    private boolean isExpired() {
+      return nanoTime.getAsLong() - parkedAtNanos >= gracePeriodNanos;
+    }
+  }
+}
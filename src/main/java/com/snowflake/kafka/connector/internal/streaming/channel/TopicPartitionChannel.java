@@ -1,8 +1,11 @@
 package com.snowflake.kafka.connector.internal.streaming.channel;
 
 import com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig;
+import java.util.List;
 import java.util.Map;
+import java.util.OptionalLong;
 import java.util.concurrent.CompletableFuture;
+import javax.annotation.Nullable;
 import net.snowflake.ingest.utils.SFException;
 import org.apache.kafka.connect.sink.SinkRecord;
 
@@ -39,6 +42,22 @@ public interface TopicPartitionChannel extends ExposingInternalsTopicPartitionCh
    */
   void insertRecord(SinkRecord kafkaSinkRecord, boolean isFirstRowPerPartitionInBatch);
 
+  /**
+   * Inserts contiguous records of this partition received in the same batch, same as calling
+   * {@link #insertRecord(SinkRecord, boolean)} for each of them. Channels without a buffer override
+   * it to send the records with a single insertRows call.
+   *
+   * @param kafkaSinkRecords input records from Kafka, in the order of their offsets
+   * @param isFirstRowPerPartitionInBatch indicates whether the first of the given records is the
+   *     first record per partition in a batch
+   */
+  default void insertRecords(
+      List<SinkRecord> kafkaSinkRecords, boolean isFirstRowPerPartitionInBatch) {
+    for (int idx = 0; idx < kafkaSinkRecords.size(); idx++) {
+      insertRecord(kafkaSinkRecords.get(idx), isFirstRowPerPartitionInBatch && idx == 0);
+    }
+  }
+
   /**
    * Get committed offset from Snowflake. It does an HTTP call internally to find out what was the
    * last offset inserted.
@@ -61,6 +80,67 @@ public interface TopicPartitionChannel extends ExposingInternalsTopicPartitionCh
    */
   long getOffsetSafeToCommitToKafka();
 
+  /**
+   * Same as {@link #getOffsetSafeToCommitToKafka()}, with the committed offset token of this
+   * channel already fetched from Snowflake, e.g. together with the tokens of the other channels of
+   * the client in a single call.
+   *
+   * @param committedOffsetToken offset token present in Snowflake, null if there is none
+   * @return (offsetToken present in Snowflake + 1), else -1
+   */
+  long getOffsetSafeToCommitToKafka(@Nullable String committedOffsetToken);
+
+  /**
+   * Stores the committed offset token of this channel which was fetched from Snowflake in the
+   * background by the {@link
+   * com.snowflake.kafka.connector.internal.streaming.CommittedOffsetRefresher}.
+   *
+   * @param committedOffsetToken offset token present in Snowflake, null if there is none
+   * @param fetchedAtNanos {@link System#nanoTime()} when the token was requested
+   */
+  void refreshOffsetPersistedInSnowflake(
+      @Nullable String committedOffsetToken, long fetchedAtNanos);
+
+  /**
+   * Same as {@link #getOffsetSafeToCommitToKafka()}, computed from the offset refreshed in the
+   * background instead of fetching it from Snowflake.
+   *
+   * @param maxAgeNanos maximum age of the refreshed offset
+   * @return (offset present in Snowflake + 1), else -1. Empty if the offset was not refreshed
+   *     within maxAgeNanos
+   */
+  OptionalLong getRefreshedOffsetSafeToCommitToKafka(long maxAgeNanos);
+
+  /**
+   * Offset the Kafka consumer of this partition has to be reset to once the channel is opened or
+   * reused, see {@link #tryReuse(String)}. The channel doesn't reset it by itself so that the
+   * offsets of all the channels opened together can be reset with a single call to {@link
+   * org.apache.kafka.connect.sink.SinkTaskContext#offset(Map)}.
+   *
+   * @return (offset present in Snowflake when the channel was opened or reused + 1), else -1 to
+   *     rely on Kafka to send the correct offset
+   */
+  long getOffsetToResetInKafkaOnOpen();
+
+  /**
+   * Inserts the buffered records of a revoked partition, keeping the channel open so that it can
+   * be reused if the partition is assigned back to the task.
+   *
+   * @return future completed when all the inserts of the channel are done, completed exceptionally
+   *     if one of them failed
+   */
+  CompletableFuture<Void> park();
+
+  /**
+   * Reuses a parked channel for its reassigned partition instead of opening it again. The channel
+   * is only reused if it is still valid and the offset committed in Snowflake is the last offset it
+   * processed, i.e. none of its inserts is still in flight and no other channel wrote since.
+   *
+   * @param committedOffsetToken offset token present in Snowflake, null if there is none
+   * @return true if the channel can be used for the partition again, false if it has to be closed
+   */
+  boolean tryReuse(@Nullable String committedOffsetToken);
+
   /**
    * Close channel associated to this partition Not rethrowing connect exception because the
    * connector will stop. Channel will eventually be reopened.
@@ -94,6 +174,15 @@ public interface TopicPartitionChannel extends ExposingInternalsTopicPartitionCh
    */
   void insertBufferedRecordsIfFlushTimeThresholdReached();
 
+  // todo it should belong to a buffered channel
+  /**
+   * @return time in ms at which {@link #insertBufferedRecordsIfFlushTimeThresholdReached()} flushes
+   *     the buffer, {@link Long#MAX_VALUE} if the channel has no buffer
+   */
+  default long getNextTimeBasedFlushMs() {
+    return Long.MAX_VALUE;
+  }
+
   // todo it should belong to a buffered channel
   void setLatestConsumerOffset(long consumerOffset);
 }
@@ -29,6 +29,7 @@ import com.snowflake.kafka.connector.internal.telemetry.SnowflakeTelemetryBasicI
 import com.snowflake.kafka.connector.internal.telemetry.SnowflakeTelemetryService;
 import com.snowflake.kafka.connector.internal.telemetry.TelemetryConstants;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
 import net.snowflake.client.jdbc.internal.fasterxml.jackson.databind.node.ObjectNode;
 
 /**
@@ -44,6 +45,7 @@ public class SnowflakeTelemetryChannelStatus extends SnowflakeTelemetryBasicInfo
   private final String connectorName;
   private final String channelName;
   private final MetricsJmxReporter metricsJmxReporter;
+  private final boolean enableCustomJMXConfig;
   private final long channelCreationTime;
 
   // offsets
@@ -77,6 +79,7 @@ public class SnowflakeTelemetryChannelStatus extends SnowflakeTelemetryBasicInfo
     this.connectorName = connectorName;
     this.channelName = channelName;
     this.metricsJmxReporter = metricsJmxReporter;
+    this.enableCustomJMXConfig = enableCustomJMXConfig;
 
     this.offsetPersistedInSnowflake = offsetPersistedInSnowflake;
     this.processedOffset = processedOffset;
@@ -149,6 +152,38 @@ public class SnowflakeTelemetryChannelStatus extends SnowflakeTelemetryBasicInfo
     this.metricsJmxReporter.start();
   }
 
+  /**
+   * Registers the record count and size thresholds of an adaptive buffer next to the other buffer
+   * metrics, they are unregistered with them.
+   *
+   * @param recordCountThreshold current record count threshold of the buffer
+   * @param byteSizeThreshold current size threshold of the buffer in bytes
+   */
+  public void registerBufferThresholdMetrics(
+      LongSupplier recordCountThreshold, LongSupplier byteSizeThreshold) {
+    if (!this.enableCustomJMXConfig || this.metricsJmxReporter == null) {
+      return;
+    }
+    MetricRegistry currentMetricRegistry = this.metricsJmxReporter.getMetricRegistry();
+    try {
+      currentMetricRegistry.register(
+          constructMetricName(
+              this.channelName,
+              MetricsUtil.BUFFER_SUB_DOMAIN,
+              MetricsUtil.BUFFER_RECORD_COUNT_THRESHOLD),
+          (Gauge<Long>) recordCountThreshold::getAsLong);
+
+      currentMetricRegistry.register(
+          constructMetricName(
+              this.channelName,
+              MetricsUtil.BUFFER_SUB_DOMAIN,
+              MetricsUtil.BUFFER_SIZE_BYTES_THRESHOLD),
+          (Gauge<Long>) byteSizeThreshold::getAsLong);
+    } catch (IllegalArgumentException ex) {
+      LOGGER.warn("Metrics already present:{}", ex.getMessage());
+    }
+  }
+
   /** Unregisters the JMX metrics if possible */
   public void tryUnregisterChannelJMXMetrics() {
     if (this.metricsJmxReporter != null) {
@@ -0,0 +1,109 @@
+package com.snowflake.kafka.connector.records;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericEnumSymbol;
+import org.apache.avro.generic.IndexedRecord;
+
+/**
+ * Builds a json tree straight from a decoded Avro datum.
+ *
+ * <p>The tree is the same as the one returned by parsing {@code datum.toString()}, which is how
+ * Avro records used to be converted, but without printing and parsing the intermediate string. In
+ * particular bytes are ISO_8859_1 decoded strings, NaN and infinite floating point numbers are
+ * strings and numbers get the node type the json parser would pick for their textual form.
+ */
+final class AvroJsonTreeBuilder {
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final JsonNodeFactory FACTORY = JsonNodeFactory.instance;
+  private static final BigInteger MIN_LONG = BigInteger.valueOf(Long.MIN_VALUE);
+  private static final BigInteger MAX_LONG = BigInteger.valueOf(Long.MAX_VALUE);
+
+  private AvroJsonTreeBuilder() {}
+
+  /**
+   * @param datum datum produced by a generic Avro datum reader
+   * @return json tree of the datum
+   * @throws IOException if a value of an unknown type can't be represented as json
+   */
+  static JsonNode toJsonNode(Object datum) throws IOException {
+    if (datum == null) {
+      return FACTORY.nullNode();
+    } else if (datum instanceof IndexedRecord) {
+      IndexedRecord record = (IndexedRecord) datum;
+      ObjectNode node = FACTORY.objectNode();
+      for (Schema.Field field : record.getSchema().getFields()) {
+        node.set(field.name(), toJsonNode(record.get(field.pos())));
+      }
+      return node;
+    } else if (datum instanceof Collection) {
+      ArrayNode node = FACTORY.arrayNode();
+      for (Object element : (Collection<?>) datum) {
+        node.add(toJsonNode(element));
+      }
+      return node;
+    } else if (datum instanceof Map) {
+      ObjectNode node = FACTORY.objectNode();
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) datum).entrySet()) {
+        node.set(String.valueOf(entry.getKey()), toJsonNode(entry.getValue()));
+      }
+      return node;
+    } else if (datum instanceof CharSequence || datum instanceof GenericEnumSymbol) {
+      return FACTORY.textNode(datum.toString());
+    } else if (datum instanceof ByteBuffer) {
+      // Avro prints bytes without logical type as ISO_8859_1 decoded strings
+      return FACTORY.textNode(
+          StandardCharsets.ISO_8859_1.decode(((ByteBuffer) datum).duplicate()).toString());
+    } else if (datum instanceof Integer) {
+      return FACTORY.numberNode((Integer) datum);
+    } else if (datum instanceof Long) {
+      return integerNode((Long) datum);
+    } else if (datum instanceof Boolean) {
+      return FACTORY.booleanNode((Boolean) datum);
+    } else if (datum instanceof Double || datum instanceof Float) {
+      double value = ((Number) datum).doubleValue();
+      if (Double.isNaN(value) || Double.isInfinite(value)) {
+        // Avro prints them quoted, e.g. "NaN" or "-Infinity"
+        return FACTORY.textNode(datum.toString());
+      }
+      // floats are parsed back from their shortest textual form as a double
+      return FACTORY.numberNode(
+          datum instanceof Float ? Double.parseDouble(datum.toString()) : value);
+    } else if (datum instanceof BigDecimal) {
+      return numberNode(datum.toString());
+    } else {
+      // e.g. fixed, printed as an array of signed bytes
+      return MAPPER.readTree(datum.toString());
+    }
+  }
+
+  private static JsonNode integerNode(long value) {
+    if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+      return FACTORY.numberNode((int) value);
+    }
+    return FACTORY.numberNode(value);
+  }
+
+  /** @return the node the json parser creates for the given number literal */
+  private static JsonNode numberNode(String text) {
+    if (text.indexOf('.') >= 0 || text.indexOf('e') >= 0 || text.indexOf('E') >= 0) {
+      return FACTORY.numberNode(Double.parseDouble(text));
+    }
+    BigInteger value = new BigInteger(text);
+    if (value.compareTo(MIN_LONG) >= 0 && value.compareTo(MAX_LONG) <= 0) {
+      return integerNode(value.longValue());
+    }
+    return FACTORY.numberNode(value);
+  }
+}
@@ -0,0 +1,322 @@
+package com.snowflake.kafka.connector.records;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.snowflake.kafka.connector.Utils;
+import com.snowflake.kafka.connector.internal.SnowflakeErrors;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.Struct;
+
+/**
+ * Converts values of a single Connect {@link Schema} to json.
+ *
+ * <p>The schema is walked once when the converter is compiled: logical types are resolved and
+ * struct fields are looked up up front, so converting a value is a walk over precomputed
+ * converters. The output is the same as {@link RecordService#convertToJson(Schema, Object,
+ * boolean)}.
+ *
+ * <p>Compiled converters are cached by the {@link LogicalTypeCodecs} they were compiled with, see
+ * {@link LogicalTypeCodecs#converterFor(Schema, boolean)}.
+ */
+final class ConnectSchemaConverter {
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  /** Converts a value of one schema to json. */
+  private interface ValueConverter {
+    JsonNode toJson(Object value);
+  }
+
+  /** Converts a value of one schema to a Snowpipe Streaming column value. */
+  private interface ColumnConverter {
+    Object toColumn(Object value) throws JsonProcessingException;
+  }
+
+  private final LogicalTypeCodecs codecs;
+  private final Schema schema;
+  private final ValueConverter converter;
+
+  // set only for struct schemas, used to build schematized rows
+  private final Field[] fields;
+  private final String[] columnNames;
+  private final ColumnConverter[] columnConverters;
+
+  /**
+   * @param codecs codecs of the logical types of the schema
+   * @param schema non null Connect schema
+   * @param isStreaming indicates whether this is part of snowpipe streaming
+   */
+  ConnectSchemaConverter(LogicalTypeCodecs codecs, Schema schema, boolean isStreaming) {
+    this.codecs = codecs;
+    this.schema = schema;
+    this.converter = compile(schema, isStreaming);
+    if (schema.type() == Schema.Type.STRUCT) {
+      List<Field> schemaFields = schema.fields();
+      this.fields = schemaFields.toArray(new Field[0]);
+      this.columnNames = new String[fields.length];
+      this.columnConverters = new ColumnConverter[fields.length];
+      for (int i = 0; i < fields.length; i++) {
+        columnNames[i] = Utils.quoteNameIfNeeded(fields[i].name());
+        columnConverters[i] = compileColumn(fields[i].schema(), isStreaming);
+      }
+    } else {
+      this.fields = null;
+      this.columnNames = null;
+      this.columnConverters = null;
+    }
+  }
+
+  /**
+   * @param value object in the org.apache.kafka.connect.data format
+   * @return a JsonNode of the object
+   */
+  JsonNode toJson(Object value) {
+    return converter.toJson(value);
+  }
+
+  /** @return true if {@link #toStreamingRow(Struct)} can be used with values of the schema */
+  boolean supportsStreamingRow() {
+    return fields != null;
+  }
+
+  /**
+   * Builds the schematized Snowpipe Streaming row of the value without creating a json tree, same
+   * as converting the value with {@link #toJson(Object)} and mapping every field of the json
+   * object to a column.
+   *
+   * @param struct value of the struct schema
+   * @return map of quoted column names to column values
+   */
+  Map<String, Object> toStreamingRow(Struct struct) throws JsonProcessingException {
+    if (struct.schema() != schema) {
+      throw SnowflakeErrors.ERROR_5015.getException("Mismatching schema.");
+    }
+    Map<String, Object> row = new HashMap<>();
+    for (int i = 0; i < fields.length; i++) {
+      row.put(columnNames[i], columnConverters[i].toColumn(struct.get(fields[i])));
+    }
+    return row;
+  }
+
+  private ValueConverter compile(Schema schema, boolean isStreaming) {
+    if (schema == null) {
+      // Any schema is valid, the type can only be resolved from the value itself
+      return value -> RecordService.convertToJson(null, value, isStreaming, codecs);
+    }
+
+    ValueConverter nonNullConverter = compileNonNull(schema, isStreaming);
+    Object defaultValue = schema.defaultValue();
+    boolean optional = schema.isOptional();
+    return value -> {
+      if (value == null) {
+        if (defaultValue != null) {
+          return convertNonNull(schema, nonNullConverter, defaultValue);
+        }
+        if (optional) {
+          return JsonNodeFactory.instance.nullNode();
+        }
+        throw SnowflakeErrors.ERROR_5015.getException(
+            "Conversion error: null value for field that is required and has no default value");
+      }
+      return convertNonNull(schema, nonNullConverter, value);
+    };
+  }
+
+  private static JsonNode convertNonNull(Schema schema, ValueConverter converter, Object value) {
+    try {
+      return converter.toJson(value);
+    } catch (ClassCastException e) {
+      throw SnowflakeErrors.ERROR_5015.getException(
+          "Invalid type for " + schema.type() + ": " + value.getClass());
+    }
+  }
+
+  private ValueConverter compileNonNull(Schema schema, boolean isStreaming) {
+    LogicalTypeCodec codec = codecs.forSchema(schema);
+    if (codec != null) {
+      return value -> codec.toJson(schema, value, isStreaming);
+    }
+    switch (schema.type()) {
+      case INT8:
+        return value -> JsonNodeFactory.instance.numberNode((Byte) value);
+      case INT16:
+        return value -> JsonNodeFactory.instance.numberNode((Short) value);
+      case INT32:
+        return value -> JsonNodeFactory.instance.numberNode((Integer) value);
+      case INT64:
+        return value -> JsonNodeFactory.instance.numberNode((Long) value);
+      case FLOAT32:
+        return value -> JsonNodeFactory.instance.numberNode((Float) value);
+      case FLOAT64:
+        return value -> JsonNodeFactory.instance.numberNode((Double) value);
+      case BOOLEAN:
+        return value -> JsonNodeFactory.instance.booleanNode((Boolean) value);
+      case STRING:
+        return value -> JsonNodeFactory.instance.textNode(((CharSequence) value).toString());
+      case BYTES:
+        return value -> {
+          byte[] valueArr = RecordService.getBytes(value);
+          if (valueArr == null) {
+            throw SnowflakeErrors.ERROR_5015.getException(
+                "Invalid type for bytes type: " + value.getClass());
+          }
+          return JsonNodeFactory.instance.binaryNode(valueArr);
+        };
+      case ARRAY:
+        {
+          ValueConverter elementConverter = compile(schema.valueSchema(), isStreaming);
+          return value -> {
+            ArrayNode list = JsonNodeFactory.instance.arrayNode();
+            for (Object elem : (Collection<?>) value) {
+              list.add(elementConverter.toJson(elem));
+            }
+            return list;
+          };
+        }
+      case MAP:
+        {
+          // If true, using string keys and JSON object; if false, using non-string keys and
+          // Array-encoding
+          boolean objectMode =
+              schema.keySchema() != null && schema.keySchema().type() == Schema.Type.STRING;
+          ValueConverter keyConverter = compile(schema.keySchema(), isStreaming);
+          ValueConverter valueConverter = compile(schema.valueSchema(), isStreaming);
+          return value -> {
+            ObjectNode obj = objectMode ? JsonNodeFactory.instance.objectNode() : null;
+            ArrayNode list = objectMode ? null : JsonNodeFactory.instance.arrayNode();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+              JsonNode mapKey = keyConverter.toJson(entry.getKey());
+              JsonNode mapValue = valueConverter.toJson(entry.getValue());
+
+              if (objectMode) obj.set(mapKey.asText(), mapValue);
+              else list.add(JsonNodeFactory.instance.arrayNode().add(mapKey).add(mapValue));
+            }
+            return objectMode ? obj : list;
+          };
+        }
+      case STRUCT:
+        {
+          Field[] structFields = schema.fields().toArray(new Field[0]);
+          ValueConverter[] fieldConverters = new ValueConverter[structFields.length];
+          for (int i = 0; i < structFields.length; i++) {
+            fieldConverters[i] = compile(structFields[i].schema(), isStreaming);
+          }
+          return value -> {
+            Struct struct = (Struct) value;
+            if (struct.schema() != schema) {
+              throw SnowflakeErrors.ERROR_5015.getException("Mismatching schema.");
+            }
+            ObjectNode obj = JsonNodeFactory.instance.objectNode();
+            for (int i = 0; i < structFields.length; i++) {
+              Field field = structFields[i];
+              obj.set(field.name(), fieldConverters[i].toJson(struct.get(field)));
+            }
+            return obj;
+          };
+        }
+      default:
+        return value -> {
+          throw SnowflakeErrors.ERROR_5015.getException("Couldn't convert " + value + " to JSON.");
+        };
+    }
+  }
+
+  /**
+   * Compiles the converter of a single column of a schematized row. Strings, booleans, plain
+   * integers, bytes and logical types are written directly, any other value goes through its json
+   * representation.
+   */
+  private ColumnConverter compileColumn(Schema schema, boolean isStreaming) {
+    ValueConverter jsonConverter = compile(schema, isStreaming);
+    if (schema == null) {
+      return value -> StreamingRecordMapper.getTextualValue(MAPPER, jsonConverter.toJson(value));
+    }
+
+    LogicalTypeCodec codec = codecs.forSchema(schema);
+    if (codec != null) {
+      return value -> {
+        if (value == null) {
+          return StreamingRecordMapper.getTextualValue(MAPPER, jsonConverter.toJson(null));
+        }
+        try {
+          return codec.toColumn(schema, value);
+        } catch (ClassCastException e) {
+          throw SnowflakeErrors.ERROR_5015.getException(
+              "Invalid type for " + schema.type() + ": " + value.getClass());
+        }
+      };
+    }
+
+    switch (schema.type()) {
+      case STRING:
+      case INT8:
+      case INT16:
+      case INT32:
+      case INT64:
+      case BOOLEAN:
+        // null and default values keep the exact behavior of the json path
+        return value -> {
+          if (value == null) {
+            return StreamingRecordMapper.getTextualValue(MAPPER, jsonConverter.toJson(null));
+          }
+          try {
+            return schema.type() == Schema.Type.STRING
+                ? ((CharSequence) value).toString()
+                : toPrimitiveString(schema.type(), value);
+          } catch (ClassCastException e) {
+            throw SnowflakeErrors.ERROR_5015.getException(
+                "Invalid type for " + schema.type() + ": " + value.getClass());
+          }
+        };
+      case BYTES:
+        return value -> {
+          if (value == null) {
+            return StreamingRecordMapper.getTextualValue(MAPPER, jsonConverter.toJson(null));
+          }
+          if (value instanceof ByteBuffer && !((ByteBuffer) value).hasArray()) {
+            // read only buffers are encoded in place, from the start as RecordService#getBytes
+            ByteBuffer buffer = ((ByteBuffer) value).duplicate();
+            buffer.rewind();
+            return '"'
+                + new String(Base64.getEncoder().encode(buffer).array(), StandardCharsets.US_ASCII)
+                + '"';
+          }
+          byte[] bytes = RecordService.getBytes(value);
+          if (bytes == null) {
+            throw SnowflakeErrors.ERROR_5015.getException(
+                "Invalid type for bytes type: " + value.getClass());
+          }
+          // same as the serialized binary node, a json string of the base64 encoded bytes
+          return '"' + Base64.getEncoder().encodeToString(bytes) + '"';
+        };
+      default:
+        return value -> StreamingRecordMapper.getTextualValue(MAPPER, jsonConverter.toJson(value));
+    }
+  }
+
+  private static String toPrimitiveString(Schema.Type type, Object value) {
+    switch (type) {
+      case INT8:
+        return String.valueOf((byte) (Byte) value);
+      case INT16:
+        return String.valueOf((short) (Short) value);
+      case INT32:
+        return String.valueOf((int) (Integer) value);
+      case INT64:
+        return String.valueOf((long) (Long) value);
+      default:
+        return String.valueOf((boolean) (Boolean) value);
+    }
+  }
+}
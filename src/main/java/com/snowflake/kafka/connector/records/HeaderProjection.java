@@ -0,0 +1,152 @@
+package com.snowflake.kafka.connector.records;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.header.Header;
+
+/**
+ * Selects the Kafka headers which are written into RECORD_METADATA and converts them to json.
+ *
+ * <p>Headers are selected by their key with glob patterns, {@code *} matches any sequence of
+ * characters and {@code ?} matches a single character. A header is written if its key matches one
+ * of the include patterns, or there are no include patterns, and doesn't match any of the exclude
+ * patterns.
+ *
+ * <p>The patterns are compiled once, the decision and the compiled converter of the last seen
+ * header schema are cached per header key. Skipped headers are never converted. Instances are
+ * created per task, so they don't outlive the logical type codecs the converters were compiled
+ * with.
+ */
+final class HeaderProjection {
+  // header keys are usually a small fixed set, this only guards against producers using unique keys
+  static final int MAX_CACHED_KEYS = 1000;
+
+  private static final HeaderConverter SKIPPED = new HeaderConverter();
+
+  // null if every header is included
+  private final Pattern include;
+  // null if no header is excluded
+  private final Pattern exclude;
+
+  private final Map<String, HeaderConverter> converters = new ConcurrentHashMap<>();
+
+  private HeaderProjection(Pattern include, Pattern exclude) {
+    this.include = include;
+    this.exclude = exclude;
+  }
+
+  /**
+   * @param includes glob patterns of the header keys to write, all headers are written if empty
+   * @param excludes glob patterns of the header keys to skip
+   * @return projection of the headers
+   */
+  static HeaderProjection of(List<String> includes, List<String> excludes) {
+    return new HeaderProjection(compile(includes), compile(excludes));
+  }
+
+  /**
+   * @param header Kafka header
+   * @return converter of the header, null if the header is not written into RECORD_METADATA
+   */
+  HeaderConverter converterFor(Header header) {
+    String key = header.key();
+    HeaderConverter converter = converters.get(key);
+    if (converter == null) {
+      converter = includes(key) ? new HeaderConverter() : SKIPPED;
+      if (converters.size() < MAX_CACHED_KEYS) {
+        HeaderConverter previous = converters.putIfAbsent(key, converter);
+        converter = previous == null ? converter : previous;
+      }
+    }
+    return converter == SKIPPED ? null : converter;
+  }
+
+  boolean includes(String key) {
+    return (include == null || include.matcher(key).matches())
+        && (exclude == null || !exclude.matcher(key).matches());
+  }
+
+  /** @return pattern matching any of the globs, null if there are no globs */
+  private static Pattern compile(List<String> globs) {
+    List<String> regexes = new ArrayList<>();
+    if (globs != null) {
+      for (String glob : globs) {
+        if (!glob.trim().isEmpty()) {
+          regexes.add(toRegex(glob.trim()));
+        }
+      }
+    }
+    return regexes.isEmpty() ? null : Pattern.compile(String.join("|", regexes));
+  }
+
+  private static String toRegex(String glob) {
+    StringBuilder regex = new StringBuilder("(?:");
+    int literalStart = 0;
+    for (int i = 0; i < glob.length(); i++) {
+      char c = glob.charAt(i);
+      if (c == '*' || c == '?') {
+        appendLiteral(regex, glob.substring(literalStart, i));
+        regex.append(c == '*' ? ".*" : ".");
+        literalStart = i + 1;
+      }
+    }
+    appendLiteral(regex, glob.substring(literalStart));
+    return regex.append(')').toString();
+  }
+
+  private static void appendLiteral(StringBuilder regex, String literal) {
+    if (!literal.isEmpty()) {
+      regex.append(Pattern.quote(literal));
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "HeaderProjection{include=" + include + ", exclude=" + exclude + "}";
+  }
+
+  /**
+   * Converts the headers of one key. Producers attach the same header schema to every record, so
+   * the compiled converter of the last seen schema is kept.
+   */
+  static final class HeaderConverter {
+    private volatile CompiledSchema last;
+
+    /**
+     * @param header Kafka header
+     * @param codecs codecs of the logical types
+     * @return json of the header value, same as {@link RecordService#convertToJson(Schema, Object,
+     *     boolean, LogicalTypeCodecs)} for Snowpipe
+     */
+    JsonNode toJson(Header header, LogicalTypeCodecs codecs) {
+      Schema schema = header.schema();
+      if (schema == null) {
+        return RecordService.convertToJson(null, header.value(), false, codecs);
+      }
+      CompiledSchema compiled = last;
+      if (compiled == null || compiled.schema != schema || compiled.codecs != codecs) {
+        compiled = new CompiledSchema(schema, codecs, codecs.converterFor(schema, false));
+        last = compiled;
+      }
+      return compiled.converter.toJson(header.value());
+    }
+  }
+
+  private static final class CompiledSchema {
+    private final Schema schema;
+    private final LogicalTypeCodecs codecs;
+    private final ConnectSchemaConverter converter;
+
+    private CompiledSchema(
+        Schema schema, LogicalTypeCodecs codecs, ConnectSchemaConverter converter) {
+      this.schema = schema;
+      this.codecs = codecs;
+      this.converter = converter;
+    }
+  }
+}
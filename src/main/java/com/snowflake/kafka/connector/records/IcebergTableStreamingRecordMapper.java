@@ -8,12 +8,22 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.snowflake.kafka.connector.Utils;
-import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
+/**
+ * Maps records to the nested {@link Map} and {@link List} structure taken by the Iceberg tables of
+ * the Snowpipe Streaming SDK.
+ *
+ * <p>Json trees are walked once, objects become {@link LinkedHashMap}s, arrays become {@link
+ * ArrayList}s and scalars become their Java values, the same as converting the tree with {@link
+ * ObjectMapper#convertValue(Object, TypeReference)}. Less common scalar nodes, e.g. decimals or
+ * binary values, still go through {@link ObjectMapper#convertValue(Object, Class)}.
+ */
 class IcebergTableStreamingRecordMapper extends StreamingRecordMapper {
   private static final TypeReference<Map<String, Object>> OBJECTS_MAP_TYPE_REFERENCE =
       new TypeReference<Map<String, Object>>() {};
@@ -24,14 +34,15 @@ class IcebergTableStreamingRecordMapper extends StreamingRecordMapper {
   }
 
   @Override
-  public Map<String, Object> processSnowflakeRecord(SnowflakeTableRow row, boolean includeMetadata)
+  public Map<String, Object> processSnowflakeRecord(
+      SnowflakeTableRow row, boolean includeMetadata, int expectedColumns)
       throws JsonProcessingException {
-    final Map<String, Object> streamingIngestRow = new HashMap<>();
-    for (JsonNode node : row.getContent().getData()) {
+    final Map<String, Object> streamingIngestRow = newRow(expectedColumns);
+    for (JsonNode node : row.getContent().getDataNodes()) {
       if (schematizationEnabled) {
-        streamingIngestRow.putAll(getMapForSchematization(node));
+        putColumns(node, streamingIngestRow);
       } else {
-        streamingIngestRow.put(TABLE_COLUMN_CONTENT, getMapForNoSchematization(node));
+        streamingIngestRow.put(TABLE_COLUMN_CONTENT, toMap(node));
       }
     }
     if (includeMetadata) {
@@ -40,29 +51,41 @@ class IcebergTableStreamingRecordMapper extends StreamingRecordMapper {
     return streamingIngestRow;
   }
 
-  private Map<String, Object> getMapForNoSchematization(JsonNode node) {
-    return mapper.convertValue(node, OBJECTS_MAP_TYPE_REFERENCE);
-  }
-
-  private Map<String, Object> getMapForSchematization(JsonNode node) {
+  private void putColumns(JsonNode node, Map<String, Object> streamingIngestRow) {
     // we need to quote the keys on the first level of the map as they are column names in the table
     // the rest must stay as is as the nested objects are not column names but fields name with case
     // sensitivity
-    return mapper.convertValue(node, OBJECTS_MAP_TYPE_REFERENCE).entrySet().stream()
-        .map(
-            entry ->
-                new AbstractMap.SimpleEntry<>(
-                    Utils.quoteNameIfNeeded(entry.getKey()), entry.getValue()))
-        .collect(HashMap::new, (m, v) -> m.put(v.getKey(), v.getValue()), HashMap::putAll);
+    if (!node.isObject()) {
+      // keeps the conversion errors of records which are not json objects
+      mapper
+          .convertValue(node, OBJECTS_MAP_TYPE_REFERENCE)
+          .forEach((key, value) -> streamingIngestRow.put(quoteColumnName(key), value));
+      return;
+    }
+    Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+    while (fields.hasNext()) {
+      Map.Entry<String, JsonNode> field = fields.next();
+      streamingIngestRow.put(quoteColumnName(field.getKey()), toValue(field.getValue()));
+    }
   }
 
   private Map<String, Object> getMapForMetadata(JsonNode metadataNode)
       throws JsonProcessingException {
-    Map<String, Object> values = mapper.convertValue(metadataNode, OBJECTS_MAP_TYPE_REFERENCE);
-    // we don't want headers to be serialized as Map<String, Object> so we overwrite it as
-    // Map<String, String>
-    Map<String, String> headers = convertHeaders(metadataNode.findValue(HEADERS));
-    values.put(HEADERS, headers);
+    Map<String, Object> values = new LinkedHashMap<>();
+    Iterator<Map.Entry<String, JsonNode>> fields = metadataNode.fields();
+    while (fields.hasNext()) {
+      Map.Entry<String, JsonNode> field = fields.next();
+      if (HEADERS.equals(field.getKey())) {
+        // we don't want headers to be serialized as Map<String, Object> so we write them as
+        // Map<String, String>
+        values.put(HEADERS, convertHeaders(field.getValue()));
+      } else {
+        values.put(field.getKey(), toValue(field.getValue()));
+      }
+    }
+    if (!values.containsKey(HEADERS)) {
+      values.put(HEADERS, new HashMap<String, String>());
+    }
     return values;
   }
 
@@ -73,13 +96,58 @@ class IcebergTableStreamingRecordMapper extends StreamingRecordMapper {
       return headers;
     }
 
-    Iterator<String> fields = headersNode.fieldNames();
+    Iterator<Map.Entry<String, JsonNode>> fields = headersNode.fields();
     while (fields.hasNext()) {
-      String key = fields.next();
-      JsonNode valueNode = headersNode.get(key);
-      String value = getTextualValue(valueNode);
-      headers.put(key, value);
+      Map.Entry<String, JsonNode> field = fields.next();
+      headers.put(field.getKey(), getTextualValue(field.getValue()));
     }
     return headers;
   }
+
+  private Map<String, Object> toMap(JsonNode node) {
+    if (!node.isObject()) {
+      // keeps the conversion errors of records which are not json objects
+      return mapper.convertValue(node, OBJECTS_MAP_TYPE_REFERENCE);
+    }
+    Map<String, Object> map = new LinkedHashMap<>();
+    Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+    while (fields.hasNext()) {
+      Map.Entry<String, JsonNode> field = fields.next();
+      map.put(field.getKey(), toValue(field.getValue()));
+    }
+    return map;
+  }
+
+  private Object toValue(JsonNode node) {
+    switch (node.getNodeType()) {
+      case OBJECT:
+        return toMap(node);
+      case ARRAY:
+        List<Object> list = new ArrayList<>(node.size());
+        for (JsonNode element : node) {
+          list.add(toValue(element));
+        }
+        return list;
+      case STRING:
+        return node.textValue();
+      case BOOLEAN:
+        return node.booleanValue();
+      case NULL:
+        return null;
+      case NUMBER:
+        if (node.isInt()) {
+          return node.intValue();
+        } else if (node.isLong()) {
+          return node.longValue();
+        } else if (node.isDouble()) {
+          return node.doubleValue();
+        } else if (node.isBigInteger()) {
+          return node.bigIntegerValue();
+        }
+        // other number nodes keep the types chosen by the object mapper
+        return mapper.convertValue(node, Object.class);
+      default:
+        return mapper.convertValue(node, Object.class);
+    }
+  }
 }
@@ -0,0 +1,45 @@
+package com.snowflake.kafka.connector.records;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.kafka.connect.data.Schema;
+
+/**
+ * Converts values of a Connect logical type, e.g. {@code org.apache.kafka.connect.data.Date} or
+ * {@code io.debezium.time.MicroTimestamp}, produced by community converters.
+ *
+ * <p>Codecs are looked up by {@link Schema#name()} in {@link LogicalTypeCodecs}. Null and default
+ * values are resolved before a codec is called, codecs only see non null values. Implementations
+ * have to be thread safe and need a public no-arg constructor to be loaded from {@link
+ * com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig#LOGICAL_TYPE_CODECS}.
+ */
+public interface LogicalTypeCodec {
+
+  /** @return name of the logical type, see {@link Schema#name()} */
+  String logicalName();
+
+  /** @return type of the schemas the codec applies to, other types keep the generic handling */
+  Schema.Type schemaType();
+
+  /**
+   * @param schema schema of the value
+   * @param value non null value of the logical type
+   * @param isStreaming indicates whether this is part of snowpipe streaming
+   * @return json representation of the value
+   */
+  JsonNode toJson(Schema schema, Object value, boolean isStreaming);
+
+  /**
+   * Converts the value into a column value of a schematized Snowpipe Streaming row. The default
+   * implementation maps the json representation like any other column.
+   *
+   * @param schema schema of the value
+   * @param value non null value of the logical type
+   * @return column value
+   * @throws JsonProcessingException if the json representation can't be serialized
+   */
+  default Object toColumn(Schema schema, Object value) throws JsonProcessingException {
+    return StreamingRecordMapper.getTextualValue(
+        LogicalTypeCodecs.MAPPER, toJson(schema, value, true));
+  }
+}
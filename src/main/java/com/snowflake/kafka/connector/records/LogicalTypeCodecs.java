@@ -0,0 +1,367 @@
+package com.snowflake.kafka.connector.records;
+
+import static com.snowflake.kafka.connector.records.RecordService.ISO_DATE_TIME_FORMAT;
+import static com.snowflake.kafka.connector.records.RecordService.MAX_SNOWFLAKE_NUMBER_PRECISION;
+import static com.snowflake.kafka.connector.records.RecordService.TIME_FORMAT;
+import static com.snowflake.kafka.connector.records.RecordService.TIME_FORMAT_STREAMING;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.snowflake.kafka.connector.internal.KCLogger;
+import com.snowflake.kafka.connector.internal.SnowflakeErrors;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.kafka.connect.data.Date;
+import org.apache.kafka.connect.data.Decimal;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.Time;
+import org.apache.kafka.connect.data.Timestamp;
+
+/**
+ * Registry of {@link LogicalTypeCodec}s keyed by logical type name.
+ *
+ * <p>The built-in codecs handle the Connect logical types Date, Time, Timestamp and Decimal, more
+ * codecs can be configured per connector with {@link
+ * com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig#LOGICAL_TYPE_CODECS}. Each task
+ * creates its registry and hands it to its {@link RecordService}, connectors sharing a worker don't
+ * see each other's codecs. A registry doesn't change once created.
+ *
+ * <p>Compiled converters resolve the codecs of their schema up front, so they are cached per
+ * registry, by schema identity. Community converters return the same {@link Schema} instance for
+ * every record written with the same schema.
+ */
+public final class LogicalTypeCodecs {
+  private static final KCLogger LOGGER = new KCLogger(LogicalTypeCodecs.class.getName());
+
+  static final ObjectMapper MAPPER = new ObjectMapper();
+
+  static final int CONVERTER_CACHE_MAX_SIZE = 1000;
+
+  private static final long MILLIS_PER_DAY = 24 * 60 * 60 * 1000L;
+
+  /** Registry of the built-in codecs, used by connectors without codecs of their own. */
+  public static final LogicalTypeCodecs BUILT_IN = new LogicalTypeCodecs(Collections.emptyList());
+
+  private final Map<String, LogicalTypeCodec> codecs = new HashMap<>();
+
+  // weak keys are compared by identity, which avoids the deep equals and hashCode of Connect
+  // schemas
+  private final Cache<Schema, ConnectSchemaConverter> streamingConverters =
+      CacheBuilder.newBuilder().weakKeys().maximumSize(CONVERTER_CACHE_MAX_SIZE).build();
+  private final Cache<Schema, ConnectSchemaConverter> snowpipeConverters =
+      CacheBuilder.newBuilder().weakKeys().maximumSize(CONVERTER_CACHE_MAX_SIZE).build();
+
+  /**
+   * @param customCodecs codecs added to the built-in ones, replacing any codec of the same logical
+   *     type name, built-in ones included
+   */
+  private LogicalTypeCodecs(Collection<LogicalTypeCodec> customCodecs) {
+    add(new DateCodec());
+    add(new TimeCodec(ZoneId.systemDefault()));
+    add(new TimestampCodec());
+    add(new DecimalCodec());
+    for (LogicalTypeCodec codec : customCodecs) {
+      add(codec);
+      LOGGER.info(
+          "Registered codec {} for logical type {}",
+          codec.getClass().getName(),
+          codec.logicalName());
+    }
+  }
+
+  private void add(LogicalTypeCodec codec) {
+    codecs.put(codec.logicalName(), codec);
+  }
+
+  /**
+   * @param customCodecs codecs added to the built-in ones, replacing any codec of the same logical
+   *     type name, built-in ones included
+   * @return registry of the built-in and the given codecs
+   */
+  public static LogicalTypeCodecs of(Collection<LogicalTypeCodec> customCodecs) {
+    return customCodecs.isEmpty() ? BUILT_IN : new LogicalTypeCodecs(customCodecs);
+  }
+
+  /**
+   * Instantiates the codecs of the given classes.
+   *
+   * @param classNames comma separated class names of {@link LogicalTypeCodec} implementations,
+   *     null or empty if there are no codecs besides the built-in ones
+   * @return registry of the built-in and the given codecs
+   */
+  public static LogicalTypeCodecs fromClassNames(String classNames) {
+    if (classNames == null) {
+      return BUILT_IN;
+    }
+    List<LogicalTypeCodec> customCodecs = new ArrayList<>();
+    for (String className : classNames.split(",")) {
+      className = className.trim();
+      if (className.isEmpty()) {
+        continue;
+      }
+      try {
+        customCodecs.add(
+            Class.forName(className)
+                .asSubclass(LogicalTypeCodec.class)
+                .getDeclaredConstructor()
+                .newInstance());
+      } catch (Exception e) {
+        throw SnowflakeErrors.ERROR_0033.getException(e);
+      }
+    }
+    return of(customCodecs);
+  }
+
+  /**
+   * @param schema schema of a value, may be null
+   * @return codec of the logical type of the schema, null if it has no registered codec
+   */
+  LogicalTypeCodec forSchema(Schema schema) {
+    if (schema == null || schema.name() == null) {
+      return null;
+    }
+    LogicalTypeCodec codec = codecs.get(schema.name());
+    return codec != null && codec.schemaType() == schema.type() ? codec : null;
+  }
+
+  /**
+   * @param schema non null Connect schema
+   * @param isStreaming indicates whether this is part of snowpipe streaming
+   * @return cached converter of the schema, compiled with the codecs of this registry
+   */
+  ConnectSchemaConverter converterFor(Schema schema, boolean isStreaming) {
+    Cache<Schema, ConnectSchemaConverter> cache =
+        isStreaming ? streamingConverters : snowpipeConverters;
+    ConnectSchemaConverter converter = cache.getIfPresent(schema);
+    if (converter == null) {
+      // compiling twice on a race is harmless, both converters are equivalent
+      converter = new ConnectSchemaConverter(this, schema, isStreaming);
+      cache.put(schema, converter);
+    }
+    return converter;
+  }
+
+  /** Appends HH:mm:ss.SSS of the given milliseconds of a day. */
+  private static void appendTimeOfDay(StringBuilder builder, int millisOfDay) {
+    int seconds = millisOfDay / 1000;
+    appendPadded(builder, seconds / 3600, 2).append(':');
+    appendPadded(builder, seconds / 60 % 60, 2).append(':');
+    appendPadded(builder, seconds % 60, 2).append('.');
+    appendPadded(builder, millisOfDay % 1000, 3);
+  }
+
+  private static StringBuilder appendPadded(StringBuilder builder, int value, int width) {
+    for (int limit = width == 3 ? 100 : 10; limit > 1 && value < limit; limit /= 10) {
+      builder.append('0');
+    }
+    return builder.append(value);
+  }
+
+  /**
+   * Formats dates as yyyy-MM-dd'T'HH:mm:ss.SSS'Z' in UTC, same as {@link
+   * RecordService#ISO_DATE_TIME_FORMAT}.
+   */
+  private static final class DateCodec implements LogicalTypeCodec {
+    // SimpleDateFormat switches to the Julian calendar before the Gregorian cutover and prints
+    // years above 9999 differently, values outside of this range keep using it
+    private static final long FAST_PATH_START = LocalDate.of(1600, 1, 1).toEpochDay();
+    private static final long FAST_PATH_END = LocalDate.of(10000, 1, 1).toEpochDay();
+
+    private static final int DAY_CACHE_SIZE = 256;
+
+    // Formatted days indexed by epoch day modulo the size, records usually carry a few nearby days.
+    // Read and written without locking, the entries are immutable and a lost entry is formatted
+    // again.
+    private final FormattedDay[] days = new FormattedDay[DAY_CACHE_SIZE];
+
+    @Override
+    public String logicalName() {
+      return Date.LOGICAL_NAME;
+    }
+
+    @Override
+    public Schema.Type schemaType() {
+      return Schema.Type.INT32;
+    }
+
+    @Override
+    public JsonNode toJson(Schema schema, Object value, boolean isStreaming) {
+      return JsonNodeFactory.instance.textNode(format((java.util.Date) value));
+    }
+
+    @Override
+    public Object toColumn(Schema schema, Object value) {
+      return format((java.util.Date) value);
+    }
+
+    private String format(java.util.Date date) {
+      long millis = date.getTime();
+      long epochDay = Math.floorDiv(millis, MILLIS_PER_DAY);
+      if (epochDay < FAST_PATH_START || epochDay >= FAST_PATH_END) {
+        return ISO_DATE_TIME_FORMAT.get().format(date);
+      }
+      int index = (int) Math.floorMod(epochDay, DAY_CACHE_SIZE);
+      FormattedDay day = days[index];
+      if (day == null || day.epochDay != epochDay) {
+        day = new FormattedDay(epochDay);
+        days[index] = day;
+      }
+      int millisOfDay = (int) Math.floorMod(millis, MILLIS_PER_DAY);
+      if (millisOfDay == 0) {
+        return day.midnight;
+      }
+      StringBuilder builder = new StringBuilder(24).append(day.prefix);
+      appendTimeOfDay(builder, millisOfDay);
+      return builder.append('Z').toString();
+    }
+  }
+
+  private static final class FormattedDay {
+    private final long epochDay;
+    // yyyy-MM-dd'T'
+    private final String prefix;
+    private final String midnight;
+
+    private FormattedDay(long epochDay) {
+      this.epochDay = epochDay;
+      this.prefix = LocalDate.ofEpochDay(epochDay).format(DateTimeFormatter.ISO_LOCAL_DATE) + 'T';
+      this.midnight = prefix + "00:00:00.000Z";
+    }
+  }
+
+  /**
+   * Formats times as HH:mm:ss.SSSZ for Snowpipe and HH:mm:ss.SSSXXX for Snowpipe Streaming in the
+   * JVM default time zone, same as {@link RecordService#TIME_FORMAT} and {@link
+   * RecordService#TIME_FORMAT_STREAMING}.
+   */
+  private static final class TimeCodec implements LogicalTypeCodec {
+    // Time values are milliseconds of the first day of the epoch. Within that day the offset of
+    // the zone is constant unless the zone has a transition on that day.
+    private final long fastPathEnd;
+    private final int offsetMillis;
+    private final String snowpipeSuffix;
+    private final String streamingSuffix;
+
+    private TimeCodec(ZoneId zone) {
+      ZoneRules rules = zone.getRules();
+      ZoneOffset offset = rules.getOffset(Instant.EPOCH);
+      ZoneOffsetTransition transition = rules.nextTransition(Instant.EPOCH);
+      this.fastPathEnd =
+          transition == null
+              ? MILLIS_PER_DAY
+              : Math.min(MILLIS_PER_DAY, transition.getInstant().toEpochMilli());
+      this.offsetMillis = offset.getTotalSeconds() * 1000;
+
+      // SimpleDateFormat prints offsets in minutes, seconds are truncated
+      int offsetMinutes = offset.getTotalSeconds() / 60;
+      int minutes = Math.abs(offsetMinutes);
+      String sign = offsetMinutes < 0 ? "-" : "+";
+      StringBuilder hours = appendPadded(new StringBuilder(), minutes / 60, 2);
+      StringBuilder minutesOfHour = appendPadded(new StringBuilder(), minutes % 60, 2);
+      this.snowpipeSuffix = sign + hours + minutesOfHour;
+      this.streamingSuffix =
+          offset.getTotalSeconds() == 0 ? "Z" : sign + hours + ":" + minutesOfHour;
+    }
+
+    @Override
+    public String logicalName() {
+      return Time.LOGICAL_NAME;
+    }
+
+    @Override
+    public Schema.Type schemaType() {
+      return Schema.Type.INT32;
+    }
+
+    @Override
+    public JsonNode toJson(Schema schema, Object value, boolean isStreaming) {
+      return JsonNodeFactory.instance.textNode(format((java.util.Date) value, isStreaming));
+    }
+
+    @Override
+    public Object toColumn(Schema schema, Object value) {
+      return format((java.util.Date) value, true);
+    }
+
+    private String format(java.util.Date time, boolean isStreaming) {
+      long millis = time.getTime();
+      if (millis < 0 || millis >= fastPathEnd) {
+        return (isStreaming ? TIME_FORMAT_STREAMING : TIME_FORMAT).get().format(time);
+      }
+      StringBuilder builder = new StringBuilder(18);
+      appendTimeOfDay(builder, (int) Math.floorMod(millis + offsetMillis, MILLIS_PER_DAY));
+      return builder.append(isStreaming ? streamingSuffix : snowpipeSuffix).toString();
+    }
+  }
+
+  /** Writes timestamps as milliseconds since the epoch. */
+  private static final class TimestampCodec implements LogicalTypeCodec {
+    @Override
+    public String logicalName() {
+      return Timestamp.LOGICAL_NAME;
+    }
+
+    @Override
+    public Schema.Type schemaType() {
+      return Schema.Type.INT64;
+    }
+
+    @Override
+    public JsonNode toJson(Schema schema, Object value, boolean isStreaming) {
+      return JsonNodeFactory.instance.numberNode(
+          Timestamp.fromLogical(schema, (java.util.Date) value));
+    }
+
+    @Override
+    public Object toColumn(Schema schema, Object value) {
+      return Long.toString(Timestamp.fromLogical(schema, (java.util.Date) value));
+    }
+  }
+
+  /**
+   * Writes decimals as json numbers, decimals which don't fit into a Snowflake number are written
+   * as text to prevent losing precision.
+   */
+  private static final class DecimalCodec implements LogicalTypeCodec {
+    @Override
+    public String logicalName() {
+      return Decimal.LOGICAL_NAME;
+    }
+
+    @Override
+    public Schema.Type schemaType() {
+      return Schema.Type.BYTES;
+    }
+
+    @Override
+    public JsonNode toJson(Schema schema, Object value, boolean isStreaming) {
+      BigDecimal bigDecimalValue = (BigDecimal) value;
+      if (bigDecimalValue.precision() > MAX_SNOWFLAKE_NUMBER_PRECISION) {
+        // in order to prevent losing precision, convert this value to text
+        return JsonNodeFactory.instance.textNode(bigDecimalValue.toString());
+      }
+      return JsonNodeFactory.instance.numberNode(bigDecimalValue);
+    }
+
+    @Override
+    public Object toColumn(Schema schema, Object value) {
+      // the column takes the text of the json number, no need to serialize it with a generator
+      return toJson(schema, value, true).asText();
+    }
+  }
+}
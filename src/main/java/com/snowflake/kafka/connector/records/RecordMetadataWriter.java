@@ -0,0 +1,172 @@
+package com.snowflake.kafka.connector.records;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import javax.annotation.Nullable;
+import org.apache.kafka.common.record.TimestampType;
+import org.apache.kafka.connect.sink.SinkRecord;
+
+/**
+ * Writes RECORD_METADATA of a record straight to json text with a reusable {@link JsonGenerator},
+ * without building an intermediate {@link com.fasterxml.jackson.databind.node.ObjectNode}.
+ *
+ * <p>The output is the same as serializing the metadata node created by {@link RecordService} with
+ * {@link ObjectMapper#writeValueAsString(Object)}: the same fields are written in the same order.
+ *
+ * <p>Instances keep their buffer between calls and are not thread safe.
+ */
+final class RecordMetadataWriter {
+  private static final SerializedString TOPIC = new SerializedString(RecordService.TOPIC);
+  private static final SerializedString OFFSET = new SerializedString(RecordService.OFFSET);
+  private static final SerializedString PARTITION = new SerializedString(RecordService.PARTITION);
+  private static final SerializedString CREATE_TIME =
+      new SerializedString(TimestampType.CREATE_TIME.name);
+  private static final SerializedString LOG_APPEND_TIME =
+      new SerializedString(TimestampType.LOG_APPEND_TIME.name);
+  private static final SerializedString SCHEMA_ID = new SerializedString(RecordService.SCHEMA_ID);
+  private static final SerializedString CONNECTOR_PUSH_TIME =
+      new SerializedString(RecordService.CONNECTOR_PUSH_TIME);
+  private static final SerializedString KEY = new SerializedString(RecordService.KEY);
+  private static final SerializedString KEY_SCHEMA_ID =
+      new SerializedString(RecordService.KEY_SCHEMA_ID);
+  private static final SerializedString HEADERS = new SerializedString(RecordService.HEADERS);
+
+  private static final int INITIAL_BUFFER_SIZE = 256;
+
+  private final RecordService recordService;
+  private final ObjectMapper mapper;
+  private final StringWriter buffer = new StringWriter(INITIAL_BUFFER_SIZE);
+
+  // created lazily and dropped whenever a write fails, since the generator is left mid-object
+  private JsonGenerator generator;
+
+  RecordMetadataWriter(RecordService recordService, ObjectMapper mapper) {
+    this.recordService = recordService;
+    this.mapper = mapper;
+  }
+
+  /**
+   * @param record record whose metadata is written
+   * @param valueContent converted value of the record
+   * @param metadataConfig metadata fields to include
+   * @param connectorPushTime a timestamp when the record is being pushed further. If null, the
+   *     respective metadata field is ignored.
+   * @return RECORD_METADATA as json text
+   */
+  String write(
+      SinkRecord record,
+      SnowflakeRecordContent valueContent,
+      SnowflakeMetadataConfig metadataConfig,
+      @Nullable Instant connectorPushTime)
+      throws JsonProcessingException {
+    boolean success = false;
+    try {
+      JsonGenerator gen = getGenerator();
+      gen.writeStartObject();
+      if (metadataConfig.topicFlag) {
+        gen.writeFieldName(TOPIC);
+        gen.writeString(record.topic());
+      }
+      if (metadataConfig.offsetAndPartitionFlag) {
+        gen.writeFieldName(OFFSET);
+        gen.writeNumber(record.kafkaOffset());
+        gen.writeFieldName(PARTITION);
+        writeNumberOrNull(gen, record.kafkaPartition());
+      }
+
+      // ignore if no timestamp
+      if (record.timestampType() != TimestampType.NO_TIMESTAMP_TYPE
+          && metadataConfig.createtimeFlag) {
+        gen.writeFieldName(
+            record.timestampType() == TimestampType.CREATE_TIME ? CREATE_TIME : LOG_APPEND_TIME);
+        writeNumberOrNull(gen, record.timestamp());
+      }
+
+      // include schema id if using avro with schema registry
+      if (valueContent.getSchemaID() != SnowflakeRecordContent.NON_AVRO_SCHEMA) {
+        gen.writeFieldName(SCHEMA_ID);
+        gen.writeNumber(valueContent.getSchemaID());
+      }
+
+      if (connectorPushTime != null && metadataConfig.connectorPushTimeFlag) {
+        gen.writeFieldName(CONNECTOR_PUSH_TIME);
+        gen.writeNumber(connectorPushTime.toEpochMilli());
+      }
+
+      writeKey(gen, record);
+
+      if (!record.headers().isEmpty()) {
+        JsonNode headers = recordService.parseHeaders(record.headers());
+        if (!headers.isEmpty()) {
+          gen.writeFieldName(HEADERS);
+          mapper.writeTree(gen, headers);
+        }
+      }
+      gen.writeEndObject();
+      gen.flush();
+
+      String result = buffer.toString();
+      success = true;
+      return result;
+    } catch (JsonProcessingException e) {
+      throw e;
+    } catch (IOException e) {
+      // never thrown by the underlying StringWriter
+      throw new UncheckedIOException(e);
+    } finally {
+      buffer.getBuffer().setLength(0);
+      if (!success) {
+        generator = null;
+      }
+    }
+  }
+
+  private void writeKey(JsonGenerator gen, SinkRecord record) throws IOException {
+    if (record.key() == null) {
+      return;
+    }
+
+    if (RecordService.isStringKey(record)) {
+      gen.writeFieldName(KEY);
+      gen.writeString(record.key().toString());
+      return;
+    }
+
+    SnowflakeRecordContent keyContent = RecordService.getJsonKeyContent(record);
+    JsonNode keyNode = recordService.getKeyNode(keyContent.getDataNodes());
+    gen.writeFieldName(KEY);
+    mapper.writeTree(gen, keyNode);
+
+    if (keyContent.getSchemaID() != SnowflakeRecordContent.NON_AVRO_SCHEMA) {
+      gen.writeFieldName(KEY_SCHEMA_ID);
+      gen.writeNumber(keyContent.getSchemaID());
+    }
+  }
+
+  private static void writeNumberOrNull(JsonGenerator gen, @Nullable Number value)
+      throws IOException {
+    if (value == null) {
+      gen.writeNull();
+    } else if (value instanceof Integer) {
+      gen.writeNumber(value.intValue());
+    } else {
+      gen.writeNumber(value.longValue());
+    }
+  }
+
+  private JsonGenerator getGenerator() throws IOException {
+    if (generator == null) {
+      generator = mapper.writer().createGenerator(buffer);
+      // every record is written as its own root value, nothing should separate them
+      generator.setRootValueSeparator(null);
+    }
+    return generator;
+  }
+}
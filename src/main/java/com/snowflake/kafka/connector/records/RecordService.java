@@ -16,6 +16,15 @@
  */
 package com.snowflake.kafka.connector.records;
 
+import static com.snowflake.kafka.connector.Utils.TABLE_COLUMN_METADATA;
+import static com.snowflake.kafka.connector.Utils.TABLE_COLUMN_METADATA_CONNECTOR_PUSH_TIME;
+import static com.snowflake.kafka.connector.Utils.TABLE_COLUMN_METADATA_CREATETIME;
+import static com.snowflake.kafka.connector.Utils.TABLE_COLUMN_METADATA_KEY;
+import static com.snowflake.kafka.connector.Utils.TABLE_COLUMN_METADATA_LOGAPPENDTIME;
+import static com.snowflake.kafka.connector.Utils.TABLE_COLUMN_METADATA_OFFSET;
+import static com.snowflake.kafka.connector.Utils.TABLE_COLUMN_METADATA_PARTITION;
+import static com.snowflake.kafka.connector.Utils.TABLE_COLUMN_METADATA_TOPIC;
+
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -25,25 +34,29 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig;
 import com.snowflake.kafka.connector.internal.KCLogger;
 import com.snowflake.kafka.connector.internal.SnowflakeErrors;
-import java.math.BigDecimal;
+import com.snowflake.kafka.connector.internal.SnowflakeKafkaConnectorException;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
 import java.nio.ByteBuffer;
 import java.text.SimpleDateFormat;
 import java.time.Clock;
 import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.TimeZone;
 import javax.annotation.Nullable;
 import org.apache.kafka.common.record.TimestampType;
 import org.apache.kafka.connect.data.ConnectSchema;
-import org.apache.kafka.connect.data.Date;
-import org.apache.kafka.connect.data.Decimal;
 import org.apache.kafka.connect.data.Field;
 import org.apache.kafka.connect.data.Schema;
 import org.apache.kafka.connect.data.Struct;
-import org.apache.kafka.connect.data.Time;
 import org.apache.kafka.connect.data.Timestamp;
+import org.apache.kafka.connect.errors.DataException;
 import org.apache.kafka.connect.header.Header;
 import org.apache.kafka.connect.header.Headers;
 import org.apache.kafka.connect.sink.SinkRecord;
@@ -66,7 +79,7 @@ public class RecordService {
   static final String META = "meta";
   static final String SCHEMA_ID = "schema_id";
   static final String CONNECTOR_PUSH_TIME = "SnowflakeConnectorPushTime";
-  private static final String KEY_SCHEMA_ID = "key_schema_id";
+  static final String KEY_SCHEMA_ID = "key_schema_id";
   static final String HEADERS = "headers";
 
   private final StreamingRecordMapper streamingRecordMapper;
@@ -93,6 +106,13 @@ public class RecordService {
   // This class is designed to work with empty metadata config map
   private SnowflakeMetadataConfig metadataConfig = new SnowflakeMetadataConfig();
 
+  // codecs of the logical types in values and headers of native converters
+  private LogicalTypeCodecs logicalTypeCodecs = LogicalTypeCodecs.BUILT_IN;
+
+  // The writer keeps its buffer between records, so each thread needs a separate instance
+  private final ThreadLocal<RecordMetadataWriter> metadataWriter =
+      ThreadLocal.withInitial(() -> new RecordMetadataWriter(this, this.mapper));
+
   RecordService(Clock clock, StreamingRecordMapper streamingRecordMapper, ObjectMapper mapper) {
     this.clock = clock;
     this.streamingRecordMapper = streamingRecordMapper;
@@ -108,6 +128,95 @@ public class RecordService {
     metadataConfig = metadataConfigIn;
   }
 
+  /** @param logicalTypeCodecs codecs of the logical types configured for the connector */
+  public void setLogicalTypeCodecs(LogicalTypeCodecs logicalTypeCodecs) {
+    this.logicalTypeCodecs = logicalTypeCodecs;
+  }
+
+  /**
+   * @return true if metadata is written into typed columns instead of the RECORD_METADATA variant,
+   *     see {@link SnowflakeSinkConnectorConfig#SNOWFLAKE_METADATA_TYPED_COLUMNS}
+   */
+  public boolean writesTypedMetadataColumns() {
+    return metadataConfig.allFlag
+        && metadataConfig.typedColumnsFlag
+        && streamingRecordMapper.acceptsTypedMetadataColumns();
+  }
+
+  /**
+   * @return true if values of native converters can be turned straight into schematized rows with
+   *     {@link SnowflakeRecordContent#ofSchematizedNativeValue(Schema, Object, LogicalTypeCodecs)}
+   */
+  public boolean acceptsSchematizedRows() {
+    return streamingRecordMapper.acceptsSchematizedRows();
+  }
+
+  /**
+   * Converts the key and the value produced by community converters (e.g. the native avro/json
+   * converters) into {@link SnowflakeRecordContent}. The record is rebuilt at most once, even if
+   * both key and value need to be converted, and records of Snowflake converters are returned as
+   * they are.
+   *
+   * <p>Content which can't be converted is serialized and carried as broken content.
+   *
+   * @param record record as received from Kafka
+   * @param isStreaming indicates whether this is part of snowpipe streaming
+   * @return record whose key and value are either null or {@link SnowflakeRecordContent}
+   */
+  public SinkRecord convertNativeRecord(SinkRecord record, boolean isStreaming) {
+    boolean convertValue = isNativeContent(record.value());
+    boolean convertKey = isNativeContent(record.key());
+    if (!convertValue && !convertKey) {
+      return record;
+    }
+    Object value =
+        convertValue
+            ? convertNativeContent(record.valueSchema(), record.value(), false, isStreaming)
+            : record.value();
+    Object key =
+        convertKey
+            ? convertNativeContent(record.keySchema(), record.key(), true, isStreaming)
+            : record.key();
+    return new SinkRecord(
+        record.topic(),
+        record.kafkaPartition(),
+        convertKey ? SnowflakeJsonSchema.INSTANCE : record.keySchema(),
+        key,
+        convertValue ? SnowflakeJsonSchema.INSTANCE : record.valueSchema(),
+        value,
+        record.kafkaOffset(),
+        record.timestamp(),
+        record.timestampType(),
+        record.headers());
+  }
+
+  private static boolean isNativeContent(Object content) {
+    return content != null && !(content instanceof SnowflakeRecordContent);
+  }
+
+  private SnowflakeRecordContent convertNativeContent(
+      Schema schema, Object content, boolean isKey, boolean isStreaming) {
+    try {
+      return !isKey && isStreaming && acceptsSchematizedRows()
+          ? SnowflakeRecordContent.ofSchematizedNativeValue(schema, content, logicalTypeCodecs)
+          : new SnowflakeRecordContent(schema, content, isStreaming, logicalTypeCodecs);
+    } catch (Exception e) {
+      LOGGER.error("Native content parser error:\n{}", e.getMessage());
+      try {
+        // try to serialize this object and send that as broken record
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ObjectOutputStream os = new ObjectOutputStream(out);
+        os.writeObject(content);
+        return new SnowflakeRecordContent(out.toByteArray());
+      } catch (Exception serializeError) {
+        LOGGER.error(
+            "Failed to convert broken native record to byte data:\n{}",
+            serializeError.getMessage());
+        throw e;
+      }
+    }
+  }
+
   /**
    * process given SinkRecord, only support snowflake converters
    *
@@ -117,6 +226,12 @@ public class RecordService {
    * @return a Row wrapper which contains both actual content(payload) and metadata
    */
   private SnowflakeTableRow processRecord(SinkRecord record, @Nullable Instant connectorPushTime) {
+    SnowflakeRecordContent valueContent = getValueContent(record);
+    return new SnowflakeTableRow(
+        valueContent, createMetadata(record, valueContent, connectorPushTime));
+  }
+
+  private SnowflakeRecordContent getValueContent(SinkRecord record) {
     SnowflakeRecordContent valueContent;
 
     if (record.value() == null || record.valueSchema() == null) {
@@ -131,7 +246,17 @@ public class RecordService {
       }
       valueContent = (SnowflakeRecordContent) record.value();
     }
+    return valueContent;
+  }
 
+  /**
+   * Builds RECORD_METADATA of the given record as a json node. {@link RecordMetadataWriter} writes
+   * the same fields, both have to be kept in sync.
+   */
+  ObjectNode createMetadata(
+      SinkRecord record,
+      SnowflakeRecordContent valueContent,
+      @Nullable Instant connectorPushTime) {
     ObjectNode meta = mapper.createObjectNode();
     if (metadataConfig.topicFlag) {
       meta.put(TOPIC, record.topic());
@@ -159,10 +284,13 @@ public class RecordService {
     putKey(record, meta);
 
     if (!record.headers().isEmpty()) {
-      meta.set(HEADERS, parseHeaders(record.headers()));
+      JsonNode headers = parseHeaders(record.headers());
+      if (!headers.isEmpty()) {
+        meta.set(HEADERS, headers);
+      }
     }
 
-    return new SnowflakeTableRow(valueContent, meta);
+    return meta;
   }
 
   /**
@@ -179,7 +307,7 @@ public class RecordService {
         processRecord(
             record, /*connectorPushTime=*/ null); // ConnectorPushTime is not used for Snowpipe.
     StringBuilder buffer = new StringBuilder();
-    for (JsonNode node : row.content.getData()) {
+    for (JsonNode node : row.content.getDataNodes()) {
       ObjectNode data = mapper.createObjectNode();
       data.set(CONTENT, node);
       if (metadataConfig.allFlag) {
@@ -207,9 +335,244 @@ public class RecordService {
    */
   public Map<String, Object> getProcessedRecordForStreamingIngest(SinkRecord record)
       throws JsonProcessingException {
-    SnowflakeTableRow row = processRecord(record, clock.instant());
+    return getProcessedRecordForStreamingIngest(
+        record, clock.instant(), writesTypedMetadataColumns(), getSerializedMetadataWriter(), 0);
+  }
+
+  /**
+   * Converts records received from Kafka into rows for the insertRows API, same as converting every
+   * record with {@link #convertNativeRecord(SinkRecord, boolean)} and {@link
+   * #getProcessedRecordForStreamingIngest(SinkRecord)}.
+   *
+   * <p>The per record overhead is paid once per batch: all rows share the same ConnectorPushTime,
+   * the metadata config is resolved once and every row map is sized by the width of the previous
+   * row.
+   *
+   * <p>Broken records and records which can't be parsed don't fail the batch, they are returned as
+   * failures to be reported to DLQ.
+   *
+   * @param records records as received from Kafka
+   * @return rows and failures of the records, in the order of the records
+   */
+  public ConvertedBatch convertBatch(List<SinkRecord> records) {
+    Instant connectorPushTime = clock.instant();
+    boolean typedMetadataColumns = writesTypedMetadataColumns();
+    RecordMetadataWriter writer = getSerializedMetadataWriter();
+
+    ConvertedBatch batch = new ConvertedBatch(records.size());
+    int expectedColumns = 0;
+    for (SinkRecord kafkaSinkRecord : records) {
+      SinkRecord snowflakeRecord = convertNativeRecord(kafkaSinkRecord, true);
+      if (isRecordBroken(snowflakeRecord)) {
+        LOGGER.debug(
+            "Broken record offset:{}, topic:{}",
+            kafkaSinkRecord.kafkaOffset(),
+            kafkaSinkRecord.topic());
+        batch.addFailure(kafkaSinkRecord, new DataException("Broken Record"));
+        continue;
+      }
+      try {
+        Map<String, Object> row =
+            getProcessedRecordForStreamingIngest(
+                snowflakeRecord, connectorPushTime, typedMetadataColumns, writer, expectedColumns);
+        expectedColumns = row.size();
+        batch.addRow(kafkaSinkRecord, row);
+      } catch (JsonProcessingException e) {
+        LOGGER.warn(
+            "Record has JsonProcessingException offset:{}, topic:{}",
+            kafkaSinkRecord.kafkaOffset(),
+            kafkaSinkRecord.topic());
+        batch.addFailure(kafkaSinkRecord, e);
+      } catch (SnowflakeKafkaConnectorException e) {
+        if (!e.checkErrorCode(SnowflakeErrors.ERROR_0010)) {
+          throw e;
+        }
+        LOGGER.warn(
+            "Cannot parse record offset:{}, topic:{}. Sending to DLQ.",
+            kafkaSinkRecord.kafkaOffset(),
+            kafkaSinkRecord.topic());
+        batch.addFailure(kafkaSinkRecord, e);
+      }
+    }
+    return batch;
+  }
+
+  /** @return writer of RECORD_METADATA as json text, null if the metadata is not serialized */
+  @Nullable
+  private RecordMetadataWriter getSerializedMetadataWriter() {
+    return metadataConfig.allFlag && streamingRecordMapper.acceptsSerializedMetadata()
+        ? metadataWriter.get()
+        : null;
+  }
+
+  private Map<String, Object> getProcessedRecordForStreamingIngest(
+      SinkRecord record,
+      Instant connectorPushTime,
+      boolean typedMetadataColumns,
+      @Nullable RecordMetadataWriter writer,
+      int expectedColumns)
+      throws JsonProcessingException {
+    SnowflakeTableRow row;
+    if (typedMetadataColumns) {
+      SnowflakeRecordContent valueContent = getValueContent(record);
+      Map<String, Object> streamingIngestRow =
+          streamingRecordMapper.processSnowflakeRecord(
+              new SnowflakeTableRow(valueContent, (JsonNode) null), false, expectedColumns);
+      putTypedMetadataColumns(streamingIngestRow, record, valueContent, connectorPushTime);
+      return streamingIngestRow;
+    }
+    if (writer != null) {
+      SnowflakeRecordContent valueContent = getValueContent(record);
+      String metadata = writer.write(record, valueContent, metadataConfig, connectorPushTime);
+      row = new SnowflakeTableRow(valueContent, metadata);
+    } else {
+      row = processRecord(record, connectorPushTime);
+    }
+
+    return streamingRecordMapper.processSnowflakeRecord(
+        row, metadataConfig.allFlag, expectedColumns);
+  }
+
+  /**
+   * Records are broken only when using Custom snowflake converters and the content was not json
+   * serializable.
+   */
+  private static boolean isRecordBroken(SinkRecord record) {
+    return isContentBroken(record.value()) || isContentBroken(record.key());
+  }
+
+  private static boolean isContentBroken(Object content) {
+    return content instanceof SnowflakeRecordContent
+        && ((SnowflakeRecordContent) content).isBroken();
+  }
+
+  /**
+   * Rows of a batch converted by {@link #convertBatch(List)}. Every record of the batch has either
+   * a row or a failure.
+   */
+  public static final class ConvertedBatch {
+    private final List<SinkRecord> records;
+    // null for records which failed the conversion
+    private final List<Map<String, Object>> rows;
+    // null for records which were converted
+    private final List<Exception> failures;
+
+    private ConvertedBatch(int size) {
+      this.records = new ArrayList<>(size);
+      this.rows = new ArrayList<>(size);
+      this.failures = new ArrayList<>(size);
+    }
+
+    private void addRow(SinkRecord record, Map<String, Object> row) {
+      records.add(record);
+      rows.add(row);
+      failures.add(null);
+    }
+
+    private void addFailure(SinkRecord record, Exception failure) {
+      records.add(record);
+      rows.add(null);
+      failures.add(failure);
+    }
+
+    /** @return number of records in the batch */
+    public int size() {
+      return records.size();
+    }
+
+    /** @return record as received from Kafka */
+    public SinkRecord getRecord(int index) {
+      return records.get(index);
+    }
+
+    /** @return row of the record for insertRows API, null if the conversion failed */
+    @Nullable
+    public Map<String, Object> getRow(int index) {
+      return rows.get(index);
+    }
+
+    /** @return reason why the record couldn't be converted, null if it was converted */
+    @Nullable
+    public Exception getFailure(int index) {
+      return failures.get(index);
+    }
+  }
+
+  /**
+   * Writes the metadata of the record into typed columns. Schema ids and headers have no typed
+   * column, they are kept in RECORD_METADATA which is only written if the record has any of them.
+   * Timestamps are written as TIMESTAMP_NTZ values in UTC.
+   */
+  private void putTypedMetadataColumns(
+      Map<String, Object> streamingIngestRow,
+      SinkRecord record,
+      SnowflakeRecordContent valueContent,
+      Instant connectorPushTime)
+      throws JsonProcessingException {
+    if (metadataConfig.topicFlag) {
+      streamingIngestRow.put(TABLE_COLUMN_METADATA_TOPIC, record.topic());
+    }
+    if (metadataConfig.offsetAndPartitionFlag) {
+      streamingIngestRow.put(TABLE_COLUMN_METADATA_OFFSET, record.kafkaOffset());
+      streamingIngestRow.put(TABLE_COLUMN_METADATA_PARTITION, record.kafkaPartition());
+    }
+
+    // ignore if no timestamp
+    if (record.timestampType() != TimestampType.NO_TIMESTAMP_TYPE
+        && record.timestamp() != null
+        && metadataConfig.createtimeFlag) {
+      streamingIngestRow.put(
+          record.timestampType() == TimestampType.CREATE_TIME
+              ? TABLE_COLUMN_METADATA_CREATETIME
+              : TABLE_COLUMN_METADATA_LOGAPPENDTIME,
+          toTimestampNtz(record.timestamp()));
+    }
+
+    if (metadataConfig.connectorPushTimeFlag) {
+      streamingIngestRow.put(
+          TABLE_COLUMN_METADATA_CONNECTOR_PUSH_TIME,
+          toTimestampNtz(connectorPushTime.toEpochMilli()));
+    }
+
+    ObjectNode meta = null;
+    if (valueContent.getSchemaID() != SnowflakeRecordContent.NON_AVRO_SCHEMA) {
+      meta = mapper.createObjectNode();
+      meta.put(SCHEMA_ID, valueContent.getSchemaID());
+    }
+
+    if (record.key() != null) {
+      if (isStringKey(record)) {
+        streamingIngestRow.put(TABLE_COLUMN_METADATA_KEY, record.key().toString());
+      } else {
+        SnowflakeRecordContent keyContent = getJsonKeyContent(record);
+        streamingIngestRow.put(
+            TABLE_COLUMN_METADATA_KEY,
+            StreamingRecordMapper.getTextualValue(mapper, getKeyNode(keyContent.getDataNodes())));
+        if (keyContent.getSchemaID() != SnowflakeRecordContent.NON_AVRO_SCHEMA) {
+          meta = meta == null ? mapper.createObjectNode() : meta;
+          meta.put(KEY_SCHEMA_ID, keyContent.getSchemaID());
+        }
+      }
+    }
+
+    if (!record.headers().isEmpty()) {
+      JsonNode headers = parseHeaders(record.headers());
+      if (!headers.isEmpty()) {
+        meta = meta == null ? mapper.createObjectNode() : meta;
+        meta.set(HEADERS, headers);
+      }
+    }
 
-    return streamingRecordMapper.processSnowflakeRecord(row, metadataConfig.allFlag);
+    if (meta != null) {
+      streamingIngestRow.put(TABLE_COLUMN_METADATA, mapper.writeValueAsString(meta));
+    }
+  }
+
+  private static LocalDateTime toTimestampNtz(long epochMillis) {
+    return LocalDateTime.ofEpochSecond(
+        Math.floorDiv(epochMillis, 1000L),
+        (int) Math.floorMod(epochMillis, 1000L) * 1_000_000,
+        ZoneOffset.UTC);
   }
 
   /** For now there are two columns one is content and other is metadata. Both are Json */
@@ -217,19 +580,34 @@ public class RecordService {
     // This can be a JsonNode but we will keep this as is.
     private final SnowflakeRecordContent content;
     private final JsonNode metadata;
+    // metadata already written as json text, see RecordMetadataWriter
+    private final String serializedMetadata;
 
     public SnowflakeTableRow(SnowflakeRecordContent content, JsonNode metadata) {
       this.content = content;
       this.metadata = metadata;
+      this.serializedMetadata = null;
+    }
+
+    SnowflakeTableRow(SnowflakeRecordContent content, String serializedMetadata) {
+      this.content = content;
+      this.metadata = null;
+      this.serializedMetadata = serializedMetadata;
     }
 
     public SnowflakeRecordContent getContent() {
       return content;
     }
 
+    /** @return metadata node, null if the row was created with serialized metadata */
     public JsonNode getMetadata() {
       return metadata;
     }
+
+    /** @return metadata as json text, null if the row was created with a metadata node */
+    String getSerializedMetadata() {
+      return serializedMetadata;
+    }
   }
 
   void putKey(SinkRecord record, ObjectNode meta) {
@@ -237,6 +615,26 @@ public class RecordService {
       return;
     }
 
+    if (isStringKey(record)) {
+      meta.put(KEY, record.key().toString());
+      return;
+    }
+
+    SnowflakeRecordContent keyContent = getJsonKeyContent(record);
+    meta.set(KEY, getKeyNode(keyContent.getDataNodes()));
+
+    if (keyContent.getSchemaID() != SnowflakeRecordContent.NON_AVRO_SCHEMA) {
+      meta.put(KEY_SCHEMA_ID, keyContent.getSchemaID());
+    }
+  }
+
+  /**
+   * @param record record with a non null key
+   * @return true if the key is a string, false if it is a snowflake json key
+   * @throws com.snowflake.kafka.connector.internal.SnowflakeKafkaConnectorException if the key
+   *     format is not supported
+   */
+  static boolean isStringKey(SinkRecord record) {
     if (record.keySchema() == null) {
       throw SnowflakeErrors.ERROR_0010.getException(
           "Unsupported Key format, please implement either String Key Converter or Snowflake"
@@ -244,28 +642,9 @@ public class RecordService {
     }
 
     if (record.keySchema().toString().equals(Schema.STRING_SCHEMA.toString())) {
-      meta.put(KEY, record.key().toString());
+      return true;
     } else if (SnowflakeJsonSchema.NAME.equals(record.keySchema().name())) {
-      if (!(record.key() instanceof SnowflakeRecordContent)) {
-        throw SnowflakeErrors.ERROR_0010.getException(
-            "Input record key should be SnowflakeRecordContent object if key schema is"
-                + " SNOWFLAKE_JSON_SCHEMA");
-      }
-
-      SnowflakeRecordContent keyContent = (SnowflakeRecordContent) record.key();
-
-      JsonNode[] keyData = keyContent.getData();
-      if (keyData.length == 1) {
-        meta.set(KEY, keyData[0]);
-      } else {
-        ArrayNode keyNode = mapper.createArrayNode();
-        keyNode.addAll(Arrays.asList(keyData));
-        meta.set(KEY, keyNode);
-      }
-
-      if (keyContent.getSchemaID() != SnowflakeRecordContent.NON_AVRO_SCHEMA) {
-        meta.put(KEY_SCHEMA_ID, keyContent.getSchemaID());
-      }
+      return false;
     } else {
       throw SnowflakeErrors.ERROR_0010.getException(
           "Unsupported Key format, please implement either String Key Converter or Snowflake"
@@ -273,17 +652,45 @@ public class RecordService {
     }
   }
 
-  private JsonNode parseHeaders(Headers headers) {
+  static SnowflakeRecordContent getJsonKeyContent(SinkRecord record) {
+    if (!(record.key() instanceof SnowflakeRecordContent)) {
+      throw SnowflakeErrors.ERROR_0010.getException(
+          "Input record key should be SnowflakeRecordContent object if key schema is"
+              + " SNOWFLAKE_JSON_SCHEMA");
+    }
+    return (SnowflakeRecordContent) record.key();
+  }
+
+  JsonNode getKeyNode(JsonNode[] keyData) {
+    if (keyData.length == 1) {
+      return keyData[0];
+    }
+    ArrayNode keyNode = mapper.createArrayNode();
+    keyNode.addAll(Arrays.asList(keyData));
+    return keyNode;
+  }
+
+  /**
+   * Converts the headers selected by {@link SnowflakeMetadataConfig#headerProjection}.
+   *
+   * @param headers headers of a record
+   * @return json object of the selected headers, empty if no header is selected
+   */
+  JsonNode parseHeaders(Headers headers) {
+    HeaderProjection projection = metadataConfig.headerProjection;
     ObjectNode result = mapper.createObjectNode();
     for (Header header : headers) {
-      result.set(header.key(), convertToJson(header.schema(), header.value(), false));
+      HeaderProjection.HeaderConverter converter = projection.converterFor(header);
+      if (converter != null) {
+        result.set(header.key(), converter.toJson(header, logicalTypeCodecs));
+      }
     }
     return result;
   }
 
   /**
    * Convert this object, in the org.apache.kafka.connect.data format, into a JSON object, returning
-   * the converted object.
+   * the converted object. Logical types are converted with the built-in codecs.
    *
    * @param schema schema of the object
    * @param logicalValue object to be converted
@@ -291,13 +698,28 @@ public class RecordService {
    * @return a JsonNode of the object
    */
   public static JsonNode convertToJson(Schema schema, Object logicalValue, boolean isStreaming) {
+    return convertToJson(schema, logicalValue, isStreaming, LogicalTypeCodecs.BUILT_IN);
+  }
+
+  /**
+   * Convert this object, in the org.apache.kafka.connect.data format, into a JSON object, returning
+   * the converted object.
+   *
+   * @param schema schema of the object
+   * @param logicalValue object to be converted
+   * @param isStreaming indicates whether this is part of snowpipe streaming
+   * @param codecs codecs of the logical types
+   * @return a JsonNode of the object
+   */
+  static JsonNode convertToJson(
+      Schema schema, Object logicalValue, boolean isStreaming, LogicalTypeCodecs codecs) {
     if (logicalValue == null) {
       if (schema
           == null) // Any schema is valid and we don't have a default, so treat this as an optional
         // schema
         return null;
       if (schema.defaultValue() != null)
-        return convertToJson(schema, schema.defaultValue(), isStreaming);
+        return convertToJson(schema, schema.defaultValue(), isStreaming, codecs);
       if (schema.isOptional()) return JsonNodeFactory.instance.nullNode();
       throw SnowflakeErrors.ERROR_5015.getException(
           "Conversion error: null value for field that is required and has no default value");
@@ -322,27 +744,18 @@ public class RecordService {
       } else {
         schemaType = schema.type();
       }
+      LogicalTypeCodec codec = codecs.forSchema(schema);
+      if (codec != null) {
+        return codec.toJson(schema, value, isStreaming);
+      }
       switch (schemaType) {
         case INT8:
           return JsonNodeFactory.instance.numberNode((Byte) value);
         case INT16:
           return JsonNodeFactory.instance.numberNode((Short) value);
         case INT32:
-          if (schema != null && Date.LOGICAL_NAME.equals(schema.name())) {
-            return JsonNodeFactory.instance.textNode(
-                ISO_DATE_TIME_FORMAT.get().format((java.util.Date) value));
-          }
-          if (schema != null && Time.LOGICAL_NAME.equals(schema.name())) {
-            ThreadLocal<SimpleDateFormat> format =
-                isStreaming ? TIME_FORMAT_STREAMING : TIME_FORMAT;
-            return JsonNodeFactory.instance.textNode(format.get().format((java.util.Date) value));
-          }
           return JsonNodeFactory.instance.numberNode((Integer) value);
         case INT64:
-          if (schema != null && Timestamp.LOGICAL_NAME.equals(schema.name())) {
-            return JsonNodeFactory.instance.numberNode(
-                Timestamp.fromLogical(schema, (java.util.Date) value));
-          }
           return JsonNodeFactory.instance.numberNode((Long) value);
         case FLOAT32:
           return JsonNodeFactory.instance.numberNode((Float) value);
@@ -354,31 +767,7 @@ public class RecordService {
           CharSequence charSeq = (CharSequence) value;
           return JsonNodeFactory.instance.textNode(charSeq.toString());
         case BYTES:
-          if (schema != null && Decimal.LOGICAL_NAME.equals(schema.name())) {
-            BigDecimal bigDecimalValue = (BigDecimal) value;
-            if (bigDecimalValue.precision() > MAX_SNOWFLAKE_NUMBER_PRECISION) {
-              // in order to prevent losing precision, convert this value to text
-              return JsonNodeFactory.instance.textNode(bigDecimalValue.toString());
-            }
-            return JsonNodeFactory.instance.numberNode(bigDecimalValue);
-          }
-
-          byte[] valueArr = null;
-          if (value instanceof byte[]) valueArr = (byte[]) value;
-          else if (value instanceof ByteBuffer) {
-            ByteBuffer byteBufferValue = (ByteBuffer) value;
-            if (byteBufferValue.hasArray()) valueArr = ((ByteBuffer) value).array();
-            else {
-              // If the byte buffer is read only, make a copy of the buffer then access the byte
-              // array.
-              ByteBuffer clone = ByteBuffer.allocate(byteBufferValue.capacity());
-              byteBufferValue.rewind();
-              clone.put(byteBufferValue);
-              byteBufferValue.rewind();
-              clone.flip();
-              valueArr = clone.array();
-            }
-          }
+          byte[] valueArr = getBytes(value);
 
           if (valueArr == null)
             throw SnowflakeErrors.ERROR_5015.getException(
@@ -392,7 +781,7 @@ public class RecordService {
             ArrayNode list = JsonNodeFactory.instance.arrayNode();
             for (Object elem : collection) {
               Schema valueSchema = schema == null ? null : schema.valueSchema();
-              JsonNode fieldValue = convertToJson(valueSchema, elem, isStreaming);
+              JsonNode fieldValue = convertToJson(valueSchema, elem, isStreaming, codecs);
               list.add(fieldValue);
             }
             return list;
@@ -422,8 +811,8 @@ public class RecordService {
             for (Map.Entry<?, ?> entry : map.entrySet()) {
               Schema keySchema = schema == null ? null : schema.keySchema();
               Schema valueSchema = schema == null ? null : schema.valueSchema();
-              JsonNode mapKey = convertToJson(keySchema, entry.getKey(), isStreaming);
-              JsonNode mapValue = convertToJson(valueSchema, entry.getValue(), isStreaming);
+              JsonNode mapKey = convertToJson(keySchema, entry.getKey(), isStreaming, codecs);
+              JsonNode mapValue = convertToJson(valueSchema, entry.getValue(), isStreaming, codecs);
 
               if (objectMode) obj.set(mapKey.asText(), mapValue);
               else list.add(JsonNodeFactory.instance.arrayNode().add(mapKey).add(mapValue));
@@ -437,7 +826,9 @@ public class RecordService {
               throw SnowflakeErrors.ERROR_5015.getException("Mismatching schema.");
             ObjectNode obj = JsonNodeFactory.instance.objectNode();
             for (Field field : schema.fields()) {
-              obj.set(field.name(), convertToJson(field.schema(), struct.get(field), isStreaming));
+              obj.set(
+                  field.name(),
+                  convertToJson(field.schema(), struct.get(field), isStreaming, codecs));
             }
             return obj;
           }
@@ -450,6 +841,30 @@ public class RecordService {
     }
   }
 
+  /**
+   * @param value value of a BYTES schema
+   * @return bytes of the value, null if the value is neither a byte array nor a ByteBuffer
+   */
+  static byte[] getBytes(Object value) {
+    byte[] valueArr = null;
+    if (value instanceof byte[]) valueArr = (byte[]) value;
+    else if (value instanceof ByteBuffer) {
+      ByteBuffer byteBufferValue = (ByteBuffer) value;
+      if (byteBufferValue.hasArray()) valueArr = ((ByteBuffer) value).array();
+      else {
+        // If the byte buffer is read only, make a copy of the buffer then access the byte
+        // array.
+        ByteBuffer clone = ByteBuffer.allocate(byteBufferValue.capacity());
+        byteBufferValue.rewind();
+        clone.put(byteBufferValue);
+        byteBufferValue.rewind();
+        clone.flip();
+        valueArr = clone.array();
+      }
+    }
+    return valueArr;
+  }
+
   /**
    * Returns true if we want to skip this record since the value is null or it is an empty json
    * string.
@@ -20,19 +20,18 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.snowflake.kafka.connector.internal.SnowflakeErrors;
 import io.confluent.kafka.schemaregistry.client.CachedSchemaRegistryClient;
 import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.avro.Conversions;
 import org.apache.avro.Schema;
 import org.apache.avro.SchemaParseException;
 import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericDatumReader;
 import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryDecoder;
 import org.apache.avro.io.DatumReader;
-import org.apache.avro.io.Decoder;
 import org.apache.avro.io.DecoderFactory;
 import org.apache.kafka.connect.data.SchemaAndValue;
 
@@ -48,6 +47,19 @@ public class SnowflakeAvroConverter extends SnowflakeConverter {
   as the reader schema. See https://avro.apache.org/docs/1.9.2/spec.html#Schema+Resolution */
   private Schema readerSchema = null;
 
+  // magic byte and schema id which precede avro data
+  private static final int HEADER_LENGTH = 1 + 4;
+
+  // Decoders only hold a reference to the current input, so they are reused by every record read
+  // on the same thread
+  private static final ThreadLocal<BinaryDecoder> DECODER = new ThreadLocal<>();
+
+  private final GenericData genericData = createGenericData();
+
+  // Resolving readers per writer schema id, all of them use the same reader schema. Cleared
+  // whenever the reader schema or the schema registry changes.
+  private final Map<Integer, DatumReader<GenericRecord>> datumReaders = new ConcurrentHashMap<>();
+
   @Override
   public void configure(final Map<String, ?> configs, final boolean isKey) {
     readBreakOnSchemaRegistryError(configs);
@@ -81,6 +93,7 @@ public class SnowflakeAvroConverter extends SnowflakeConverter {
    * @param configs configuration for converter
    */
   void parseReaderSchema(final Map<String, ?> configs) {
+    datumReaders.clear();
     Object readerSchemaFromConfig = configs.get(READER_SCHEMA);
 
     if (readerSchemaFromConfig == null) {
@@ -113,6 +126,7 @@ public class SnowflakeAvroConverter extends SnowflakeConverter {
    */
   void setSchemaRegistry(SchemaRegistryClient schemaRegistryClient) {
     this.schemaRegistry = schemaRegistryClient;
+    datumReaders.clear();
   }
 
   /**
@@ -125,7 +139,7 @@ public class SnowflakeAvroConverter extends SnowflakeConverter {
   @Override
   public SchemaAndValue toConnectData(final String s, final byte[] bytes) {
     if (bytes == null) {
-      return new SchemaAndValue(new SnowflakeJsonSchema(), new SnowflakeRecordContent());
+      return new SchemaAndValue(SnowflakeJsonSchema.INSTANCE, new SnowflakeRecordContent());
     }
     ByteBuffer buffer;
     int id;
@@ -141,28 +155,28 @@ public class SnowflakeAvroConverter extends SnowflakeConverter {
 
     // If there is any error while getting writer schema from schema registry,
     // throw error and break the connector
-    Schema writerSchema;
-    try {
-      writerSchema = schemaRegistry.getById(id);
-    } catch (Exception e) {
-      if (breakOnSchemaRegistryError) {
-        throw SnowflakeErrors.ERROR_0011.getException(e);
-      } else {
-        return logErrorAndReturnBrokenRecord(e, bytes);
+    DatumReader<GenericRecord> datumReader = datumReaders.get(id);
+    if (datumReader == null) {
+      Schema writerSchema;
+      try {
+        writerSchema = schemaRegistry.getById(id);
+      } catch (Exception e) {
+        if (breakOnSchemaRegistryError) {
+          throw SnowflakeErrors.ERROR_0011.getException(e);
+        } else {
+          return logErrorAndReturnBrokenRecord(e, bytes);
+        }
       }
+      datumReader =
+          new GenericDatumReader<>(
+              writerSchema, readerSchema == null ? writerSchema : readerSchema, genericData);
+      datumReaders.put(id, datumReader);
     }
 
     try {
-      int length = buffer.limit() - 1 - 4;
-      byte[] data = new byte[length];
-      buffer.get(data, 0, length);
-
       return new SchemaAndValue(
-          new SnowflakeJsonSchema(),
-          new SnowflakeRecordContent(
-              parseAvroWithSchema(
-                  data, writerSchema, readerSchema == null ? writerSchema : readerSchema),
-              id));
+          SnowflakeJsonSchema.INSTANCE,
+          new SnowflakeRecordContent(parseAvroWithSchema(bytes, datumReader), id));
     } catch (Exception e) {
       if (breakOnSchemaRegistryError) {
         throw SnowflakeErrors.ERROR_0010.getException(
@@ -176,33 +190,34 @@ public class SnowflakeAvroConverter extends SnowflakeConverter {
   private SchemaAndValue logErrorAndReturnBrokenRecord(final Exception e, final byte[] bytes) {
 
     LOGGER.error("failed to parse AVRO record\n" + e.getMessage());
-    return new SchemaAndValue(new SnowflakeJsonSchema(), new SnowflakeRecordContent(bytes));
+    return new SchemaAndValue(SnowflakeJsonSchema.INSTANCE, new SnowflakeRecordContent(bytes));
+  }
+
+  private static GenericData createGenericData() {
+    final GenericData genericData = new GenericData();
+    // Conversion for logical type Decimal. There are conversions for other logical types as well.
+    genericData.addLogicalTypeConversion(new Conversions.DecimalConversion());
+    return genericData;
   }
 
   /**
-   * Parse Avro record with a writer schema and a reader schema. The writer and the reader schema
-   * have to be compatible as described in
+   * Parse Avro record with a resolving reader of a writer schema and a reader schema. The writer
+   * and the reader schema have to be compatible as described in
    * https://avro.apache.org/docs/1.9.2/spec.html#Schema+Resolution
    *
-   * @param data avro data
-   * @param writerSchema avro schema with which data got serialized
-   * @param readerSchema avro schema that describes the shape of the returned JsonNode
-   * @return JsonNode array
+   * @param bytes kafka message, avro data starts after the magic byte and the schema id
+   * @param datumReader reader of the writer schema of the message
+   * @return JsonNode
    */
-  private JsonNode parseAvroWithSchema(final byte[] data, Schema writerSchema, Schema readerSchema)
+  private JsonNode parseAvroWithSchema(final byte[] bytes, DatumReader<GenericRecord> datumReader)
       throws IOException {
-    final GenericData genericData = new GenericData();
-    // Conversion for logical type Decimal. There are conversions for other logical types as well.
-    genericData.addLogicalTypeConversion(new Conversions.DecimalConversion());
-
-    InputStream is = new ByteArrayInputStream(data);
-    Decoder decoder = DecoderFactory.get().binaryDecoder(is, null);
-    DatumReader<GenericRecord> reader =
-        new GenericDatumReader<>(writerSchema, readerSchema, genericData);
-    GenericRecord datum = reader.read(null, decoder);
-    // For byte data without logical type, this toString method handles it this way:
-    // writeEscapedString(StandardCharsets.ISO_8859_1.decode(bytes), buffer);
-    // The generated string is escaped ISO_8859_1 decoded string.
-    return mapper.readTree(datum.toString());
+    BinaryDecoder decoder =
+        DecoderFactory.get()
+            .binaryDecoder(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH, DECODER.get());
+    DECODER.set(decoder);
+    GenericRecord datum = datumReader.read(null, decoder);
+    // For byte data without logical type, the tree contains the ISO_8859_1 decoded string, same
+    // as the one printed by datum.toString()
+    return AvroJsonTreeBuilder.toJsonNode(datum);
   }
 }
@@ -16,18 +16,54 @@
  */
 package com.snowflake.kafka.connector.records;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.snowflake.kafka.connector.internal.SnowflakeErrors;
+import com.snowflake.kafka.connector.internal.metrics.MetricsJmxReporter;
+import com.snowflake.kafka.connector.internal.metrics.MetricsUtil;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterOutputStream;
+import javax.annotation.Nullable;
+import org.apache.avro.file.DataFileConstants;
 import org.apache.avro.file.DataFileReader;
 import org.apache.avro.file.SeekableByteArrayInput;
 import org.apache.avro.generic.GenericDatumReader;
 import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryDecoder;
 import org.apache.avro.io.DatumReader;
+import org.apache.avro.io.DecoderFactory;
 import org.apache.kafka.connect.data.SchemaAndValue;
 
 public class SnowflakeAvroConverterWithoutSchemaRegistry extends SnowflakeConverter {
+  static final int HEADER_CACHE_MAX_SIZE = 100;
+
+  // Parsed container headers keyed by the raw bytes of the header metadata (embedded schema, codec
+  // and user metadata). Sync markers differ between containers and are not part of the key.
+  // Producers almost always send the same few schemas, so the cache is shared by all converters.
+  // Only containers whose blocks are decoded here are cached, see ContainerHeader#isSupported.
+  private static final Cache<HeaderKey, ContainerHeader> HEADER_CACHE =
+      CacheBuilder.newBuilder().maximumSize(HEADER_CACHE_MAX_SIZE).build();
+  private static final LongAdder HEADER_CACHE_HITS = new LongAdder();
+  private static final LongAdder HEADER_CACHE_MISSES = new LongAdder();
+
+  // reports the counters of the cache, created once JMX is enabled by a task, guarded by the class
+  private static MetricsJmxReporter metricsJmxReporter;
+
+  private static final ThreadLocal<BinaryDecoder> DECODER = new ThreadLocal<>();
+
+  // decoder of the decompressed block, the decoder of the container is still in use
+  private static final ThreadLocal<BinaryDecoder> BLOCK_DECODER = new ThreadLocal<>();
+
   /**
    * Parse Avro record without schema
    *
@@ -38,52 +74,284 @@ public class SnowflakeAvroConverterWithoutSchemaRegistry extends SnowflakeConver
   @Override
   public SchemaAndValue toConnectData(final String topic, final byte[] value) {
     if (value == null) {
-      return new SchemaAndValue(new SnowflakeJsonSchema(), new SnowflakeRecordContent());
+      return new SchemaAndValue(SnowflakeJsonSchema.INSTANCE, new SnowflakeRecordContent());
     }
     try {
-      // avro input parser
-      DatumReader<GenericRecord> datumReader = new GenericDatumReader<>();
-      DataFileReader<GenericRecord> dataFileReader;
-
-      try {
-        dataFileReader = new DataFileReader<>(new SeekableByteArrayInput(value), datumReader);
-      } catch (Exception e) {
-        throw SnowflakeErrors.ERROR_0010.getException(
-            "Failed to parse AVRO " + "record\n" + e.getMessage());
+      return new SchemaAndValue(
+          SnowflakeJsonSchema.INSTANCE, new SnowflakeRecordContent(read(value)));
+    } catch (Exception e) {
+      LOGGER.error("Failed to parse AVRO record\n" + e.getMessage());
+      return new SchemaAndValue(SnowflakeJsonSchema.INSTANCE, new SnowflakeRecordContent(value));
+    }
+  }
+
+  /** @return number of messages whose container header was found in the cache */
+  public static long getHeaderCacheHitCount() {
+    return HEADER_CACHE_HITS.sum();
+  }
+
+  /** @return number of messages whose container header had to be parsed */
+  public static long getHeaderCacheMissCount() {
+    return HEADER_CACHE_MISSES.sum();
+  }
+
+  /**
+   * Reports the counters of the header cache over JMX. The cache is shared by all converters of the
+   * worker so it is reported once, under a fixed name instead of a partition name. Later calls do
+   * nothing.
+   */
+  public static synchronized void enableJmxMetrics() {
+    if (metricsJmxReporter == null) {
+      metricsJmxReporter =
+          new MetricsJmxReporter(new MetricRegistry(), MetricsUtil.WORKER_CONNECTOR_NAME);
+      registerMetrics(metricsJmxReporter.getMetricRegistry());
+      metricsJmxReporter.start();
+    }
+  }
+
+  @VisibleForTesting
+  static void registerMetrics(MetricRegistry metricRegistry) {
+    metricRegistry.register(
+        MetricsUtil.constructMetricName(
+            MetricsUtil.CONVERTERS_METRICS_NAME,
+            MetricsUtil.AVRO_HEADER_CACHE_SUB_DOMAIN,
+            MetricsUtil.CACHE_HIT_COUNT),
+        (Gauge<Long>) SnowflakeAvroConverterWithoutSchemaRegistry::getHeaderCacheHitCount);
+    metricRegistry.register(
+        MetricsUtil.constructMetricName(
+            MetricsUtil.CONVERTERS_METRICS_NAME,
+            MetricsUtil.AVRO_HEADER_CACHE_SUB_DOMAIN,
+            MetricsUtil.CACHE_MISS_COUNT),
+        (Gauge<Long>) SnowflakeAvroConverterWithoutSchemaRegistry::getHeaderCacheMissCount);
+  }
+
+  private JsonNode[] read(final byte[] value) throws IOException {
+    int headerEnd;
+    try {
+      headerEnd = findHeaderEnd(value);
+    } catch (RuntimeException e) {
+      throw SnowflakeErrors.ERROR_0010.getException(
+          "Failed to parse AVRO " + "record\n" + e.getMessage());
+    }
+
+    ContainerHeader header =
+        HEADER_CACHE.getIfPresent(new HeaderKey(value, DataFileConstants.MAGIC.length, headerEnd));
+    if (header != null) {
+      HEADER_CACHE_HITS.increment();
+      return readBlocks(value, headerEnd, header);
+    }
+    HEADER_CACHE_MISSES.increment();
+    return readWithDataFileReader(value, headerEnd);
+  }
+
+  /**
+   * Reads the data blocks of a container straight from the message, with the datum reader of the
+   * cached header. Compressed blocks are decompressed into a block of their own.
+   *
+   * @param value container bytes
+   * @param headerEnd index of the sync marker which ends the header
+   * @param header cached header of the container
+   * @return json trees of all datums in the container
+   */
+  private JsonNode[] readBlocks(final byte[] value, final int headerEnd, ContainerHeader header)
+      throws IOException {
+    int dataStart = headerEnd + DataFileConstants.SYNC_SIZE;
+    BinaryDecoder decoder =
+        DecoderFactory.get()
+            .binaryDecoder(value, dataStart, value.length - dataStart, DECODER.get());
+    DECODER.set(decoder);
+
+    List<JsonNode> buffer = new ArrayList<>();
+    byte[] sync = new byte[DataFileConstants.SYNC_SIZE];
+    while (!decoder.isEnd()) {
+      long blockCount = decoder.readLong();
+      long blockSize = decoder.readLong();
+      BinaryDecoder blockDecoder = decoder;
+      if (header.deflate) {
+        if (blockSize < 0 || blockSize > value.length) {
+          throw SnowflakeErrors.ERROR_0010.getException(
+              "Failed to parse AVRO record\nInvalid block size!");
+        }
+        byte[] block = new byte[(int) blockSize];
+        decoder.readFixed(block);
+        blockDecoder = DecoderFactory.get().binaryDecoder(inflate(block), BLOCK_DECODER.get());
+        BLOCK_DECODER.set(blockDecoder);
+      }
+      for (long i = 0; i < blockCount; i++) {
+        buffer.add(AvroJsonTreeBuilder.toJsonNode(header.datumReader.read(null, blockDecoder)));
+      }
+      decoder.readFixed(sync);
+      if (!rangeEquals(sync, 0, value, headerEnd, DataFileConstants.SYNC_SIZE)) {
+        throw SnowflakeErrors.ERROR_0010.getException("Failed to parse AVRO record\nInvalid sync!");
       }
+    }
+    return buffer.toArray(new JsonNode[0]);
+  }
 
-      ArrayList<JsonNode> buffer = new ArrayList<>();
+  /** Decompresses a block of the deflate codec, a raw deflate stream as in Avro's DeflateCodec. */
+  private static byte[] inflate(final byte[] block) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(block.length * 4);
+    Inflater inflater = new Inflater(true);
+    try (InflaterOutputStream inflaterStream = new InflaterOutputStream(out, inflater)) {
+      inflaterStream.write(block);
+    } finally {
+      inflater.end();
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * Reads a container whose header is not in the cache, the header is parsed once and cached if
+   * the blocks of the container can be read by {@link #readBlocks}.
+   */
+  private JsonNode[] readWithDataFileReader(final byte[] value, final int headerEnd)
+      throws IOException {
+    DataFileReader<GenericRecord> dataFileReader;
+    try {
+      dataFileReader =
+          new DataFileReader<>(new SeekableByteArrayInput(value), new GenericDatumReader<>());
+    } catch (Exception e) {
+      throw SnowflakeErrors.ERROR_0010.getException(
+          "Failed to parse AVRO " + "record\n" + e.getMessage());
+    }
+
+    try {
+      ContainerHeader header =
+          new ContainerHeader(
+              new GenericDatumReader<>(dataFileReader.getSchema()),
+              dataFileReader.getMetaString(DataFileConstants.CODEC));
+      if (header.isSupported()) {
+        HEADER_CACHE.put(
+            new HeaderKey(
+                Arrays.copyOfRange(value, DataFileConstants.MAGIC.length, headerEnd),
+                0,
+                headerEnd - DataFileConstants.MAGIC.length),
+            header);
+      }
+
+      List<JsonNode> buffer = new ArrayList<>();
       while (dataFileReader.hasNext()) {
-        String jsonString = dataFileReader.next().toString();
-        try {
-          buffer.add(mapper.readTree(jsonString));
-        } catch (IOException e) {
-          throw SnowflakeErrors.ERROR_0010.getException(
-              "Failed to parse JSON"
-                  + " "
-                  + "record\nInput String: "
-                  + jsonString
-                  + "\n"
-                  + e.getMessage());
+        buffer.add(AvroJsonTreeBuilder.toJsonNode(dataFileReader.next()));
+      }
+      return buffer.toArray(new JsonNode[0]);
+    } finally {
+      dataFileReader.close();
+    }
+  }
+
+  /**
+   * Walks the header metadata map without decoding it.
+   *
+   * @param value container bytes
+   * @return index of the sync marker which follows the metadata map
+   */
+  static int findHeaderEnd(final byte[] value) {
+    byte[] magic = DataFileConstants.MAGIC;
+    if (value.length < magic.length || !rangeEquals(value, 0, magic, 0, magic.length)) {
+      throw new IllegalArgumentException("Not an Avro data file.");
+    }
+    int[] position = {magic.length};
+    long count;
+    while ((count = readLong(value, position)) != 0) {
+      if (count < 0) {
+        count = -count;
+        // block size in bytes
+        readLong(value, position);
+      }
+      for (long i = 0; i < count * 2; i++) {
+        // key and value are both length prefixed bytes
+        long length = readLong(value, position);
+        if (length < 0 || length > value.length - position[0]) {
+          throw new IllegalArgumentException("Malformed Avro data file header.");
         }
+        position[0] += (int) length;
       }
+    }
+    if (value.length - position[0] < DataFileConstants.SYNC_SIZE) {
+      throw new IllegalArgumentException("Malformed Avro data file header.");
+    }
+    return position[0];
+  }
 
-      JsonNode[] result = new JsonNode[buffer.size()];
-      for (int i = 0; i < buffer.size(); i++) {
-        result[i] = buffer.get(i);
+  /** Reads a zig-zag encoded variable length long as in {@link BinaryDecoder#readLong()}. */
+  private static long readLong(final byte[] value, final int[] position) {
+    long raw = 0;
+    int shift = 0;
+    while (true) {
+      if (position[0] >= value.length || shift > 63) {
+        throw new IllegalArgumentException("Malformed Avro data file header.");
+      }
+      byte b = value[position[0]++];
+      raw |= (long) (b & 0x7f) << shift;
+      if ((b & 0x80) == 0) {
+        return (raw >>> 1) ^ -(raw & 1);
       }
+      shift += 7;
+    }
+  }
 
-      try {
-        dataFileReader.close();
-      } catch (IOException e) {
-        throw SnowflakeErrors.ERROR_0010.getException(
-            "Failed to parse AVRO " + "record\n" + e.getMessage());
+  private static boolean rangeEquals(byte[] a, int aFrom, byte[] b, int bFrom, int length) {
+    for (int i = 0; i < length; i++) {
+      if (a[aFrom + i] != b[bFrom + i]) {
+        return false;
       }
+    }
+    return true;
+  }
 
-      return new SchemaAndValue(new SnowflakeJsonSchema(), new SnowflakeRecordContent(result));
-    } catch (Exception e) {
-      LOGGER.error("Failed to parse AVRO record\n" + e.getMessage());
-      return new SchemaAndValue(new SnowflakeJsonSchema(), new SnowflakeRecordContent(value));
+  /** Datum reader of an embedded schema and the codec of the blocks. */
+  private static final class ContainerHeader {
+    private final DatumReader<GenericRecord> datumReader;
+    private final boolean uncompressed;
+    private final boolean deflate;
+
+    private ContainerHeader(DatumReader<GenericRecord> datumReader, @Nullable String codec) {
+      this.datumReader = datumReader;
+      this.uncompressed = codec == null || DataFileConstants.NULL_CODEC.equals(codec);
+      this.deflate = DataFileConstants.DEFLATE_CODEC.equals(codec);
+    }
+
+    // blocks of other codecs are read by DataFileReader, which parses the header again
+    private boolean isSupported() {
+      return uncompressed || deflate;
+    }
+  }
+
+  /** Content based key over a range of a byte array, lookups don't copy the message. */
+  private static final class HeaderKey {
+    private final byte[] bytes;
+    private final int from;
+    private final int to;
+    private final int hash;
+
+    private HeaderKey(byte[] bytes, int from, int to) {
+      this.bytes = bytes;
+      this.from = from;
+      this.to = to;
+      int result = 1;
+      for (int i = from; i < to; i++) {
+        result = 31 * result + bytes[i];
+      }
+      this.hash = result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof HeaderKey)) {
+        return false;
+      }
+      HeaderKey other = (HeaderKey) o;
+      return hash == other.hash
+          && to - from == other.to - other.from
+          && rangeEquals(bytes, from, other.bytes, other.from, to - from);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
     }
   }
 }
@@ -16,10 +16,30 @@
  */
 package com.snowflake.kafka.connector.records;
 
+import com.fasterxml.jackson.core.JsonParser;
+import java.io.IOException;
+import java.util.Map;
 import org.apache.kafka.connect.data.SchemaAndValue;
 
 public class SnowflakeJsonConverter extends SnowflakeConverter {
 
+  /**
+   * Converter config which keeps the original bytes of a record instead of parsing them into a
+   * json tree. Records are only validated by a streaming token scan, RECORD_CONTENT is built
+   * straight from the bytes when schematization is disabled. When schematization is enabled, only
+   * the top level fields are tokenized and nested objects and arrays are inserted as their original
+   * json text.
+   */
+  public static final String JSON_PASSTHROUGH_CONFIG = "snowflake.json.passthrough.enabled";
+
+  private boolean passthroughEnabled = false;
+
+  @Override
+  public void configure(final Map<String, ?> configs, final boolean isKey) {
+    Object passthrough = configs.get(JSON_PASSTHROUGH_CONFIG);
+    this.passthroughEnabled = passthrough != null && Boolean.parseBoolean(passthrough.toString());
+  }
+
   /**
    * cast bytes array to Json array
    *
@@ -30,16 +50,51 @@ public class SnowflakeJsonConverter extends SnowflakeConverter {
   @Override
   public SchemaAndValue toConnectData(final String s, final byte[] bytes) {
     if (bytes == null) {
-      return new SchemaAndValue(new SnowflakeJsonSchema(), new SnowflakeRecordContent());
+      return new SchemaAndValue(SnowflakeJsonSchema.INSTANCE, new SnowflakeRecordContent());
     }
     try {
+      if (passthroughEnabled && isUtf8WithoutBom(bytes) && isSingleJsonValue(bytes)) {
+        return new SchemaAndValue(
+            SnowflakeJsonSchema.INSTANCE, SnowflakeRecordContent.ofValidatedJson(bytes));
+      }
       // always return an array of JsonNode because AVRO record may contains
       // multiple records
       return new SchemaAndValue(
-          new SnowflakeJsonSchema(), new SnowflakeRecordContent(mapper.readTree(bytes)));
+          SnowflakeJsonSchema.INSTANCE, new SnowflakeRecordContent(mapper.readTree(bytes)));
     } catch (Exception ex) {
       LOGGER.error("Failed to parse JSON record\n" + ex.toString());
-      return new SchemaAndValue(new SnowflakeJsonSchema(), new SnowflakeRecordContent(bytes));
+      return new SchemaAndValue(SnowflakeJsonSchema.INSTANCE, new SnowflakeRecordContent(bytes));
+    }
+  }
+
+  /**
+   * The original bytes are kept as UTF-8 text, so records with a byte order mark or in UTF-16 or
+   * UTF-32 take the json tree path, which detects their encoding. Json text starts with an ASCII
+   * character, in UTF-16 and UTF-32 one of its first two bytes is zero.
+   *
+   * @param bytes input bytes array
+   * @return true if the bytes start like UTF-8 json text without a byte order mark
+   */
+  private static boolean isUtf8WithoutBom(final byte[] bytes) {
+    // bytes of a byte order mark are negative
+    return bytes.length > 0 && bytes[0] > 0 && (bytes.length == 1 || bytes[1] != 0);
+  }
+
+  /**
+   * Validates the bytes with a streaming token scan, without building a json tree.
+   *
+   * @param bytes input bytes array
+   * @return true if bytes contain exactly one json value. False if there is no value or there are
+   *     trailing tokens, such records take the json tree path to keep its behavior.
+   * @throws IOException if bytes are not a valid json
+   */
+  private boolean isSingleJsonValue(final byte[] bytes) throws IOException {
+    try (JsonParser parser = mapper.getFactory().createParser(bytes)) {
+      if (parser.nextToken() == null) {
+        return false;
+      }
+      parser.skipChildren();
+      return parser.nextToken() == null;
     }
   }
 }
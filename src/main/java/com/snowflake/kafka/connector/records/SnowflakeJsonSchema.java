@@ -26,6 +26,9 @@ public class SnowflakeJsonSchema implements Schema {
   static String NAME = "SNOWFLAKE_JSON_SCHEMA";
   static int VERSION = 1;
 
+  /** The schema has no state, every record content can share this instance. */
+  public static final SnowflakeJsonSchema INSTANCE = new SnowflakeJsonSchema();
+
   @Override
   public Type type() {
     return Type.STRUCT;
@@ -2,14 +2,21 @@ package com.snowflake.kafka.connector.records;
 
 import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.SNOWFLAKE_METADATA_ALL;
 import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.SNOWFLAKE_METADATA_CREATETIME;
+import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.SNOWFLAKE_METADATA_HEADERS_EXCLUDE;
+import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.SNOWFLAKE_METADATA_HEADERS_INCLUDE;
 import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.SNOWFLAKE_METADATA_OFFSET_AND_PARTITION;
 import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.SNOWFLAKE_METADATA_TOPIC;
+import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.SNOWFLAKE_METADATA_TYPED_COLUMNS;
+import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.SNOWFLAKE_METADATA_TYPED_COLUMNS_DEFAULT;
 import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.SNOWFLAKE_STREAMING_METADATA_CONNECTOR_PUSH_TIME;
 import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.SNOWFLAKE_STREAMING_METADATA_CONNECTOR_PUSH_TIME_DEFAULT;
 
 import com.google.common.base.MoreObjects;
 import com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -19,6 +26,8 @@ public class SnowflakeMetadataConfig {
   final boolean topicFlag;
   final boolean offsetAndPartitionFlag;
   final boolean allFlag;
+  final boolean typedColumnsFlag;
+  final HeaderProjection headerProjection;
 
   /** initialize with default config */
   public SnowflakeMetadataConfig() {
@@ -40,6 +49,16 @@ public class SnowflakeMetadataConfig {
         Optional.ofNullable(config.get(SNOWFLAKE_STREAMING_METADATA_CONNECTOR_PUSH_TIME))
             .map(Boolean::parseBoolean)
             .orElse(SNOWFLAKE_STREAMING_METADATA_CONNECTOR_PUSH_TIME_DEFAULT);
+
+    typedColumnsFlag =
+        Optional.ofNullable(config.get(SNOWFLAKE_METADATA_TYPED_COLUMNS))
+            .map(Boolean::parseBoolean)
+            .orElse(SNOWFLAKE_METADATA_TYPED_COLUMNS_DEFAULT);
+
+    headerProjection =
+        HeaderProjection.of(
+            getListProperty(config, SNOWFLAKE_METADATA_HEADERS_INCLUDE),
+            getListProperty(config, SNOWFLAKE_METADATA_HEADERS_EXCLUDE));
   }
 
   private static boolean getMetadataProperty(Map<String, String> config, String property) {
@@ -50,6 +69,11 @@ public class SnowflakeMetadataConfig {
     return Boolean.parseBoolean(value);
   }
 
+  private static List<String> getListProperty(Map<String, String> config, String property) {
+    String value = config.get(property);
+    return value == null ? Collections.emptyList() : Arrays.asList(value.split(","));
+  }
+
   public String toString() {
     return MoreObjects.toStringHelper(this)
         .add("createtimeFlag", createtimeFlag)
@@ -57,6 +81,8 @@ public class SnowflakeMetadataConfig {
         .add("topicFlag", topicFlag)
         .add("offsetAndPartitionFlag", offsetAndPartitionFlag)
         .add("allFlag", allFlag)
+        .add("typedColumnsFlag", typedColumnsFlag)
+        .add("headerProjection", headerProjection)
         .toString();
   }
 }
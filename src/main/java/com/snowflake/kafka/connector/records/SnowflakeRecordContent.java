@@ -1,16 +1,31 @@
 package com.snowflake.kafka.connector.records;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.snowflake.kafka.connector.internal.SnowflakeErrors;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
 import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.Struct;
 
 public class SnowflakeRecordContent {
 
   private static ObjectMapper MAPPER = new ObjectMapper();
   public static int NON_AVRO_SCHEMA = -1;
-  private final JsonNode[] content;
+  private JsonNode[] content;
   private final byte[] brokenData;
+
+  // Original UTF-8 bytes of a record which was validated as a single json value by a streaming
+  // token scan. The json tree is only built from them if someone asks for it, see getData()
+  private final byte[] rawJson;
+
+  // Schematized Snowpipe Streaming row built straight from a Connect struct, the json tree is only
+  // built from the struct if someone asks for it, see getData()
+  private final Map<String, Object> streamingRow;
+  private final ConnectSchemaConverter nativeConverter;
+  private final Struct nativeValue;
   private int schemaID;
   private boolean isBroken;
 
@@ -32,22 +47,46 @@ public class SnowflakeRecordContent {
     content = new JsonNode[1];
     content[0] = MAPPER.createObjectNode();
     brokenData = null;
+    rawJson = null;
+    streamingRow = null;
+    nativeConverter = null;
+    nativeValue = null;
     isNullValueRecord = true;
   }
 
   /**
-   * constructor for native json converter
+   * constructor for native json converter, logical types are converted with the built-in codecs
    *
    * @param schema schema of the object
    * @param data object produced by native avro/json converters
    * @param isStreaming indicates whether this is part of snowpipe streaming
    */
   public SnowflakeRecordContent(Schema schema, Object data, boolean isStreaming) {
+    this(schema, data, isStreaming, LogicalTypeCodecs.BUILT_IN);
+  }
+
+  /**
+   * constructor for native json converter
+   *
+   * @param schema schema of the object
+   * @param data object produced by native avro/json converters
+   * @param isStreaming indicates whether this is part of snowpipe streaming
+   * @param codecs codecs of the logical types
+   */
+  SnowflakeRecordContent(
+      Schema schema, Object data, boolean isStreaming, LogicalTypeCodecs codecs) {
     this.content = new JsonNode[1];
     this.schemaID = NON_AVRO_SCHEMA;
-    this.content[0] = RecordService.convertToJson(schema, data, isStreaming);
+    this.content[0] =
+        schema == null
+            ? RecordService.convertToJson(null, data, isStreaming, codecs)
+            : codecs.converterFor(schema, isStreaming).toJson(data);
     this.isBroken = false;
     this.brokenData = null;
+    this.rawJson = null;
+    this.streamingRow = null;
+    this.nativeConverter = null;
+    this.nativeValue = null;
   }
 
   /**
@@ -61,6 +100,10 @@ public class SnowflakeRecordContent {
     this.isBroken = false;
     this.schemaID = NON_AVRO_SCHEMA;
     this.brokenData = null;
+    this.rawJson = null;
+    this.streamingRow = null;
+    this.nativeConverter = null;
+    this.nativeValue = null;
   }
 
   /**
@@ -73,6 +116,10 @@ public class SnowflakeRecordContent {
     this.isBroken = false;
     this.schemaID = NON_AVRO_SCHEMA;
     this.brokenData = null;
+    this.rawJson = null;
+    this.streamingRow = null;
+    this.nativeConverter = null;
+    this.nativeValue = null;
   }
 
   /**
@@ -85,6 +132,87 @@ public class SnowflakeRecordContent {
     this.isBroken = true;
     this.schemaID = NON_AVRO_SCHEMA;
     this.content = null;
+    this.rawJson = null;
+    this.streamingRow = null;
+    this.nativeConverter = null;
+    this.nativeValue = null;
+  }
+
+  /**
+   * constructor for json converter in passthrough mode
+   *
+   * @param rawJson original UTF-8 bytes of a validated json value
+   * @param schemaID schema id
+   */
+  private SnowflakeRecordContent(byte[] rawJson, int schemaID) {
+    this.rawJson = rawJson;
+    this.content = null;
+    this.isBroken = false;
+    this.schemaID = schemaID;
+    this.brokenData = null;
+    this.streamingRow = null;
+    this.nativeConverter = null;
+    this.nativeValue = null;
+  }
+
+  /**
+   * constructor for native converters when the schematized row is built straight from the struct
+   *
+   * @param nativeConverter compiled converter of the struct schema
+   * @param nativeValue struct produced by native avro/json converters
+   * @param streamingRow schematized Snowpipe Streaming row of the struct
+   */
+  private SnowflakeRecordContent(
+      ConnectSchemaConverter nativeConverter,
+      Struct nativeValue,
+      Map<String, Object> streamingRow) {
+    this.nativeConverter = nativeConverter;
+    this.nativeValue = nativeValue;
+    this.streamingRow = streamingRow;
+    this.content = null;
+    this.isBroken = false;
+    this.schemaID = NON_AVRO_SCHEMA;
+    this.brokenData = null;
+    this.rawJson = null;
+  }
+
+  /**
+   * Creates a record content which keeps the original bytes of the record.
+   *
+   * @param rawJson UTF-8 bytes without a byte order mark which have already been validated to
+   *     contain exactly one json value
+   * @return record content whose json tree is built lazily
+   */
+  static SnowflakeRecordContent ofValidatedJson(byte[] rawJson) {
+    return new SnowflakeRecordContent(rawJson, NON_AVRO_SCHEMA);
+  }
+
+  /**
+   * Creates a record content for a value produced by native avro/json converters which is going to
+   * be inserted into a schematized table. Struct values are converted straight into the row with a
+   * converter compiled once per schema, see {@link RecordService#acceptsSchematizedRows()}. Any
+   * other value is converted to json as in {@link #SnowflakeRecordContent(Schema, Object,
+   * boolean)}.
+   *
+   * @param schema schema of the object
+   * @param data object produced by native avro/json converters
+   * @param codecs codecs of the logical types
+   * @return record content of the value
+   */
+  public static SnowflakeRecordContent ofSchematizedNativeValue(
+      Schema schema, Object data, LogicalTypeCodecs codecs) {
+    if (schema != null && data instanceof Struct) {
+      ConnectSchemaConverter converter = codecs.converterFor(schema, true);
+      if (converter.supportsStreamingRow()) {
+        Struct struct = (Struct) data;
+        try {
+          return new SnowflakeRecordContent(converter, struct, converter.toStreamingRow(struct));
+        } catch (JsonProcessingException e) {
+          throw SnowflakeErrors.ERROR_5015.getException(e);
+        }
+      }
+    }
+    return new SnowflakeRecordContent(schema, data, true, codecs);
   }
 
   /**
@@ -118,11 +246,64 @@ public class SnowflakeRecordContent {
   }
 
   public JsonNode[] getData() {
+    return getDataNodes().clone();
+  }
+
+  /**
+   * Same as {@link #getData()} without the defensive copy, the returned array must not be modified.
+   *
+   * @return json nodes of the record
+   */
+  JsonNode[] getDataNodes() {
     if (isBroken) {
       throw SnowflakeErrors.ERROR_5012.getException();
     }
+    if (content == null && rawJson != null) {
+      try {
+        content = new JsonNode[] {MAPPER.readTree(rawJson)};
+      } catch (IOException e) {
+        throw SnowflakeErrors.ERROR_0010.getException(e.getMessage());
+      }
+    }
+    if (content == null && nativeConverter != null) {
+      content = new JsonNode[] {nativeConverter.toJson(nativeValue)};
+    }
     assert content != null;
-    return content.clone();
+    return content;
+  }
+
+  /** @return true if the schematized row was built straight from a struct */
+  boolean hasStreamingRow() {
+    return streamingRow != null;
+  }
+
+  /** @return schematized Snowpipe Streaming row, null if it wasn't built from a struct */
+  Map<String, Object> getStreamingRow() {
+    return streamingRow;
+  }
+
+  /** @return true if the original bytes of the record are available, see {@link #getRawJson()} */
+  boolean hasRawJson() {
+    return rawJson != null;
+  }
+
+  /**
+   * Returns the original json text of the record without building a json tree. Only available for
+   * records created by {@link #ofValidatedJson(byte[])}.
+   *
+   * @return json text of the record, null if the original bytes are not available
+   */
+  String getRawJson() {
+    return rawJson == null ? null : new String(rawJson, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Returns the original bytes of the record without copying them, they must not be modified.
+   *
+   * @return UTF-8 bytes of the record, null if the original bytes are not available
+   */
+  byte[] getRawJsonBytes() {
+    return rawJson;
   }
 
   /**
@@ -3,11 +3,14 @@ package com.snowflake.kafka.connector.records;
 import static com.snowflake.kafka.connector.Utils.TABLE_COLUMN_CONTENT;
 import static com.snowflake.kafka.connector.Utils.TABLE_COLUMN_METADATA;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.snowflake.kafka.connector.Utils;
 import com.snowflake.kafka.connector.internal.SnowflakeErrors;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -20,20 +23,98 @@ class SnowflakeTableStreamingRecordMapper extends StreamingRecordMapper {
 
   @Override
   public Map<String, Object> processSnowflakeRecord(
-      RecordService.SnowflakeTableRow row, boolean includeAllMetadata)
+      RecordService.SnowflakeTableRow row, boolean includeAllMetadata, int expectedColumns)
       throws JsonProcessingException {
-    final Map<String, Object> streamingIngestRow = new HashMap<>();
-    for (JsonNode node : row.getContent().getData()) {
+    final Map<String, Object> streamingIngestRow = newRow(expectedColumns);
+    if (!schematizationEnabled && row.getContent().hasRawJson()) {
+      // the original bytes were already validated by the converter, no need to build a json tree
+      streamingIngestRow.put(TABLE_COLUMN_CONTENT, row.getContent().getRawJson());
+    } else if (schematizationEnabled && row.getContent().hasStreamingRow()) {
+      // the row was already built from a struct by a compiled converter
+      streamingIngestRow.putAll(row.getContent().getStreamingRow());
+    } else if (schematizationEnabled && row.getContent().hasRawJson()) {
+      putRawJsonColumns(row, streamingIngestRow);
+    } else {
+      putContent(row, streamingIngestRow);
+    }
+    if (includeAllMetadata) {
+      String metadata = row.getSerializedMetadata();
+      streamingIngestRow.put(
+          TABLE_COLUMN_METADATA,
+          metadata != null ? metadata : mapper.writeValueAsString(row.getMetadata()));
+    }
+    return streamingIngestRow;
+  }
+
+  @Override
+  boolean acceptsSerializedMetadata() {
+    return true;
+  }
+
+  @Override
+  boolean acceptsTypedMetadataColumns() {
+    return true;
+  }
+
+  @Override
+  boolean acceptsSchematizedRows() {
+    return schematizationEnabled;
+  }
+
+  private void putContent(
+      RecordService.SnowflakeTableRow row, Map<String, Object> streamingIngestRow)
+      throws JsonProcessingException {
+    for (JsonNode node : row.getContent().getDataNodes()) {
       if (schematizationEnabled) {
         streamingIngestRow.putAll(getMapFromJsonNodeForStreamingIngest(node));
       } else {
         streamingIngestRow.put(TABLE_COLUMN_CONTENT, mapper.writeValueAsString(node));
       }
     }
-    if (includeAllMetadata) {
-      streamingIngestRow.put(TABLE_COLUMN_METADATA, mapper.writeValueAsString(row.getMetadata()));
+  }
+
+  /**
+   * Maps the top level fields of the original json bytes to columns without building a json tree.
+   * Nested objects and arrays are copied as they are in the original bytes, scalars are converted
+   * the same way as in {@link #getMapFromJsonNodeForStreamingIngest(JsonNode)}. Falls back to the
+   * json tree if the record is not a json object.
+   */
+  private void putRawJsonColumns(
+      RecordService.SnowflakeTableRow row, Map<String, Object> streamingIngestRow)
+      throws JsonProcessingException {
+    // UTF-8 without a byte order mark, see SnowflakeRecordContent#ofValidatedJson, so the byte
+    // offsets reported by the parser are offsets in the original bytes
+    byte[] rawJson = row.getContent().getRawJsonBytes();
+    try (JsonParser parser = mapper.getFactory().createParser(rawJson)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT
+          || parser.currentTokenLocation().getByteOffset() < 0) {
+        putContent(row, streamingIngestRow);
+        return;
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String columnName = parser.currentName();
+        JsonToken token = parser.nextToken();
+        String columnValue;
+        if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+          int start = (int) parser.currentTokenLocation().getByteOffset();
+          parser.skipChildren();
+          int end = (int) parser.currentLocation().getByteOffset();
+          columnValue = new String(rawJson, start, end - start, StandardCharsets.UTF_8);
+        } else if (token == JsonToken.VALUE_STRING) {
+          columnValue = parser.getText();
+        } else if (token == JsonToken.VALUE_NULL) {
+          columnValue = null;
+        } else {
+          // numbers and booleans keep the textual form of their json node
+          columnValue = getTextualValue(mapper.readTree(parser));
+        }
+        streamingIngestRow.put(quoteColumnName(columnName), columnValue);
+      }
+    } catch (JsonProcessingException e) {
+      throw e;
+    } catch (IOException e) {
+      throw SnowflakeErrors.ERROR_0010.getException(e.getMessage());
     }
-    return streamingIngestRow;
   }
 
   private Map<String, Object> getMapFromJsonNodeForStreamingIngest(JsonNode node)
@@ -52,7 +133,7 @@ class SnowflakeTableStreamingRecordMapper extends StreamingRecordMapper {
       Object columnValue = getTextualValue(columnNode);
       // while the value is always dumped into a string, the Streaming Ingest SDK
       // will transform the value according to its type in the table
-      streamingIngestRow.put(Utils.quoteNameIfNeeded(columnName), columnValue);
+      streamingIngestRow.put(quoteColumnName(columnName), columnValue);
     }
     // Thrown an exception if the input JsonNode is not in the expected format
     if (streamingIngestRow.isEmpty()) {
@@ -6,35 +6,110 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.DoubleNode;
 import com.fasterxml.jackson.databind.node.FloatNode;
 import com.fasterxml.jackson.databind.node.NumericNode;
+import com.google.common.collect.Maps;
+import com.snowflake.kafka.connector.Utils;
 import com.snowflake.kafka.connector.records.RecordService.SnowflakeTableRow;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 abstract class StreamingRecordMapper {
+  // column names repeat for every record of a table, the limit only guards against records with
+  // unique field names
+  static final int MAX_CACHED_COLUMN_NAMES = 10000;
 
   protected final ObjectMapper mapper;
   protected final boolean schematizationEnabled;
 
+  private final Map<String, String> quotedColumnNames = new ConcurrentHashMap<>();
+
   public StreamingRecordMapper(ObjectMapper mapper, boolean schematizationEnabled) {
     this.mapper = mapper;
     this.schematizationEnabled = schematizationEnabled;
   }
 
+  Map<String, Object> processSnowflakeRecord(SnowflakeTableRow row, boolean includeAllMetadata)
+      throws JsonProcessingException {
+    return processSnowflakeRecord(row, includeAllMetadata, 0);
+  }
+
+  /**
+   * @param row content and metadata of a record
+   * @param includeAllMetadata true if RECORD_METADATA is written
+   * @param expectedColumns expected number of columns, e.g. the width of the previous row of a
+   *     batch, 0 if unknown
+   * @return column names to column values of the row
+   */
   abstract Map<String, Object> processSnowflakeRecord(
-      SnowflakeTableRow row, boolean includeAllMetadata) throws JsonProcessingException;
+      SnowflakeTableRow row, boolean includeAllMetadata, int expectedColumns)
+      throws JsonProcessingException;
+
+  /** @return map for the columns of a row, sized for the expected number of columns */
+  static Map<String, Object> newRow(int expectedColumns) {
+    return expectedColumns > 0
+        ? Maps.newHashMapWithExpectedSize(expectedColumns)
+        : new HashMap<String, Object>();
+  }
+
+  /**
+   * @return true if the mapper can take RECORD_METADATA already written as json text, see {@link
+   *     SnowflakeTableRow#getSerializedMetadata()}
+   */
+  boolean acceptsSerializedMetadata() {
+    return false;
+  }
+
+  /**
+   * @return true if the mapper can write metadata into typed columns, see {@link
+   *     RecordService#writesTypedMetadataColumns()}
+   */
+  boolean acceptsTypedMetadataColumns() {
+    return false;
+  }
+
+  /**
+   * @return true if the mapper takes schematized rows built straight from a struct, see {@link
+   *     SnowflakeRecordContent#ofSchematizedNativeValue}
+   */
+  boolean acceptsSchematizedRows() {
+    return false;
+  }
+
+  /**
+   * Same as {@link Utils#quoteNameIfNeeded(String)}, cached per name.
+   *
+   * @param name top level field name of a record
+   * @return column name of the field
+   */
+  protected String quoteColumnName(String name) {
+    String quoted = quotedColumnNames.get(name);
+    if (quoted == null) {
+      quoted = Utils.quoteNameIfNeeded(name);
+      if (quotedColumnNames.size() < MAX_CACHED_COLUMN_NAMES) {
+        quotedColumnNames.put(name, quoted);
+      }
+    }
+    return quoted;
+  }
 
   protected String getTextualValue(JsonNode valueNode) throws JsonProcessingException {
+    return getTextualValue(mapper, valueNode);
+  }
+
+  static String getTextualValue(ObjectMapper mapper, JsonNode valueNode)
+      throws JsonProcessingException {
     String value;
     if (valueNode.isTextual()) {
       value = valueNode.textValue();
     } else if (valueNode.isNull()) {
       value = null;
     } else {
-      value = writeValueAsStringOrNanOrInfinity(valueNode);
+      value = writeValueAsStringOrNanOrInfinity(mapper, valueNode);
     }
     return value;
   }
 
-  protected String writeValueAsStringOrNanOrInfinity(JsonNode columnNode)
+  private static String writeValueAsStringOrNanOrInfinity(ObjectMapper mapper, JsonNode columnNode)
       throws JsonProcessingException {
     if (columnNode instanceof NumericNode && ((NumericNode) columnNode).isNaN()) {
       // DoubleNode::isNaN() and FloatNode::isNaN() will return true on both infinite values,
@@ -0,0 +1,143 @@
+package com.snowflake.kafka.connector.records;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.time.temporal.Temporal;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.header.Header;
+import org.apache.kafka.connect.sink.SinkRecord;
+
+/**
+ * Size in bytes of the rows built for the insertRows API, counted the way the data is encoded in
+ * Snowflake: column names and text as UTF-8, numbers, booleans and timestamps by the width of
+ * their binary form.
+ *
+ * <p>Rows are sized when their records are buffered, right after they are built by {@link
+ * RecordService} while their strings are still hot.
+ */
+public final class StreamingRowSize {
+  private static final int BOOLEAN_BYTES = 1;
+  private static final int NUMBER_BYTES = 8;
+  private static final int DECIMAL_BYTES = 16;
+  private static final int TIMESTAMP_BYTES = 12;
+
+  private StreamingRowSize() {}
+
+  /**
+   * @param row column names to column values of a converted row
+   * @return size of the column names and values of the row in bytes
+   */
+  public static long of(Map<String, Object> row) {
+    long sizeInBytes = 0L;
+    for (Map.Entry<String, Object> column : row.entrySet()) {
+      sizeInBytes += utf8Length(column.getKey()) + valueSize(column.getValue());
+    }
+    return sizeInBytes;
+  }
+
+  /**
+   * Size of the data a buffer retains for a kafka record until its row is inserted, counted the
+   * same way as the values of a row.
+   *
+   * @param record record as received from Kafka
+   * @return size of the topic, key, value and headers of the record in bytes
+   */
+  public static long ofRecord(SinkRecord record) {
+    long sizeInBytes =
+        valueSize(record.topic()) + valueSize(record.key()) + valueSize(record.value());
+    for (Header header : record.headers()) {
+      sizeInBytes += valueSize(header.key()) + valueSize(header.value());
+    }
+    return sizeInBytes;
+  }
+
+  private static long valueSize(Object value) {
+    if (value == null) {
+      return 0L;
+    }
+    if (value instanceof CharSequence) {
+      return utf8Length((CharSequence) value);
+    }
+    if (value instanceof Boolean) {
+      return BOOLEAN_BYTES;
+    }
+    if (value instanceof BigDecimal || value instanceof BigInteger) {
+      return DECIMAL_BYTES;
+    }
+    if (value instanceof Number) {
+      return NUMBER_BYTES;
+    }
+    if (value instanceof Temporal || value instanceof Date) {
+      return TIMESTAMP_BYTES;
+    }
+    if (value instanceof byte[]) {
+      return ((byte[]) value).length;
+    }
+    if (value instanceof ByteBuffer) {
+      return ((ByteBuffer) value).remaining();
+    }
+    if (value instanceof Struct) {
+      // values of records with a connect schema
+      Struct struct = (Struct) value;
+      long sizeInBytes = 0L;
+      for (Field field : struct.schema().fields()) {
+        sizeInBytes += valueSize(struct.get(field));
+      }
+      return sizeInBytes;
+    }
+    if (value instanceof Map) {
+      // nested objects of iceberg rows
+      long sizeInBytes = 0L;
+      for (Map.Entry<?, ?> field : ((Map<?, ?>) value).entrySet()) {
+        sizeInBytes += valueSize(field.getKey()) + valueSize(field.getValue());
+      }
+      return sizeInBytes;
+    }
+    if (value instanceof Collection) {
+      long sizeInBytes = 0L;
+      for (Object element : (Collection<?>) value) {
+        sizeInBytes += valueSize(element);
+      }
+      return sizeInBytes;
+    }
+    return utf8Length(value.toString());
+  }
+
+  /**
+   * Same as the length of {@code text.getBytes(StandardCharsets.UTF_8)} without encoding the text.
+   * Unpaired surrogates count as the single {@code '?'} they are replaced with.
+   *
+   * @param text text to measure
+   * @return number of bytes of the UTF-8 encoding of the text
+   */
+  public static long utf8Length(CharSequence text) {
+    final int length = text.length();
+    long sizeInBytes = length;
+    int i = 0;
+    // ascii only text is the common case, its size is its length
+    while (i < length && text.charAt(i) < 0x80) {
+      i++;
+    }
+    while (i < length) {
+      char c = text.charAt(i);
+      if (c >= 0x80 && c < 0x800) {
+        sizeInBytes += 1;
+      } else if (Character.isHighSurrogate(c)
+          && i + 1 < length
+          && Character.isLowSurrogate(text.charAt(i + 1))) {
+        // 4 bytes for the pair of chars
+        sizeInBytes += 2;
+        i++;
+      } else if (c >= 0x800 && !Character.isSurrogate(c)) {
+        sizeInBytes += 2;
+      }
+      i++;
+    }
+    return sizeInBytes;
+  }
+}
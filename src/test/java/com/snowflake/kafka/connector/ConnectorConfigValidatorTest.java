@@ -585,6 +585,28 @@ public class ConnectorConfigValidatorTest {
         .hasMessageContaining(BUFFER_COUNT_RECORDS);
   }
 
+  @Test
+  public void testStreamingMultiplexedChannel_singleTask() {
+    Map<String, String> config = SnowflakeSinkConnectorConfigBuilder.streamingConfig().build();
+    config.put(SNOWPIPE_STREAMING_MULTIPLEXED_CHANNEL_PARTITIONS_PER_CHANNEL, "4");
+    config.put(TASKS_MAX, "1");
+    connectorConfigValidator.validateConfig(config);
+  }
+
+  @Test
+  public void testStreamingMultiplexedChannel_severalTasks() {
+    Map<String, String> config = SnowflakeSinkConnectorConfigBuilder.streamingConfig().build();
+    config.put(SNOWPIPE_STREAMING_MULTIPLEXED_CHANNEL_PARTITIONS_PER_CHANNEL, "4");
+    config.put(TASKS_MAX, "3");
+    assertThatThrownBy(() -> connectorConfigValidator.validateConfig(config))
+        .isInstanceOf(SnowflakeKafkaConnectorException.class)
+        .hasMessageContaining(SNOWPIPE_STREAMING_MULTIPLEXED_CHANNEL_PARTITIONS_PER_CHANNEL);
+
+    // a channel per partition works with any number of tasks
+    config.put(SNOWPIPE_STREAMING_MULTIPLEXED_CHANNEL_PARTITIONS_PER_CHANNEL, "1");
+    connectorConfigValidator.validateConfig(config);
+  }
+
   @Test
   public void testValidKeyAndValueConvertersForStreamingSnowpipe() {
     Map<String, String> config = getConfig();
@@ -0,0 +1,222 @@
+package com.snowflake.kafka.connector.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.codahale.metrics.MetricRegistry;
+import com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig;
+import com.snowflake.kafka.connector.internal.metrics.MetricsUtil;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.connect.sink.SinkTaskContext;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class BufferMemoryManagerTest {
+
+  private static final TopicPartition PARTITION_0 = new TopicPartition("topic", 0);
+  private static final TopicPartition PARTITION_1 = new TopicPartition("topic", 1);
+  private static final TopicPartition PARTITION_2 = new TopicPartition("topic", 2);
+
+  // high watermark 800 bytes, low watermark 500 bytes
+  private final BufferMemoryManager manager = new BufferMemoryManager(1000, 80, 50);
+
+  private final List<TopicPartition> flushed = new ArrayList<>();
+
+  @Test
+  void relieve_flushesLargestBuffersOfTheTask() {
+    BufferMemoryManager.TaskMemory task = manager.newTask();
+    TestBuffer small = new TestBuffer(task, PARTITION_0).add(100);
+    TestBuffer large = new TestBuffer(task, PARTITION_1).add(400);
+    new TestBuffer(task, PARTITION_2).add(250);
+
+    // below the high watermark nothing is flushed
+    task.relieve(null);
+    assertTrue(flushed.isEmpty());
+
+    small.add(100);
+    task.relieve(null);
+
+    // 850 reserved, flushing the 400 bytes buffer brings them down to the low watermark
+    assertEquals(Collections.singletonList(PARTITION_1), flushed);
+    assertEquals(450, manager.getReservedBytes());
+
+    large.add(500);
+    task.relieve(null);
+    assertEquals(Arrays.asList(PARTITION_1, PARTITION_1), flushed);
+    assertEquals(450, manager.getReservedBytes());
+  }
+
+  @Test
+  void relieve_largestBufferOfAnotherTaskIsFlushedByItsTask() {
+    BufferMemoryManager.TaskMemory task = manager.newTask();
+    BufferMemoryManager.TaskMemory otherTask = manager.newTask();
+    new TestBuffer(task, PARTITION_0).add(300);
+    new TestBuffer(otherTask, PARTITION_1).add(600);
+
+    task.relieve(null);
+    assertTrue(flushed.isEmpty());
+
+    otherTask.relieve(null);
+    assertEquals(Collections.singletonList(PARTITION_1), flushed);
+    assertEquals(300, manager.getReservedBytes());
+  }
+
+  @Test
+  void relieve_pausesPartitionsUntilBelowLowWatermark() {
+    SinkTaskContext sinkTaskContext = mock(SinkTaskContext.class);
+    BufferMemoryManager.TaskMemory task = manager.newTask();
+    // a flushed buffer stays reserved until its insert is done
+    BufferMemoryManager.PartitionMemory inFlight = task.register(PARTITION_0, () -> {});
+    task.register(PARTITION_1, () -> {});
+    inFlight.reserve(1000);
+    inFlight.handOver(1000);
+
+    task.relieve(sinkTaskContext);
+    ArgumentCaptor<TopicPartition> paused = ArgumentCaptor.forClass(TopicPartition.class);
+    verify(sinkTaskContext).pause(paused.capture());
+    assertEquals(
+        new HashSet<>(Arrays.asList(PARTITION_0, PARTITION_1)),
+        new HashSet<>(paused.getAllValues()));
+    assertEquals(2, manager.getPausedPartitionCount());
+
+    inFlight.release(400);
+    task.relieve(sinkTaskContext);
+    verify(sinkTaskContext, never()).resume(any());
+
+    inFlight.release(100);
+    task.relieve(sinkTaskContext);
+    ArgumentCaptor<TopicPartition> resumed = ArgumentCaptor.forClass(TopicPartition.class);
+    verify(sinkTaskContext).resume(resumed.capture());
+    assertEquals(
+        new HashSet<>(Arrays.asList(PARTITION_0, PARTITION_1)),
+        new HashSet<>(resumed.getAllValues()));
+    assertEquals(0, manager.getPausedPartitionCount());
+  }
+
+  @Test
+  void relieve_pausesPartitionsRegisteredWhilePaused() {
+    SinkTaskContext sinkTaskContext = mock(SinkTaskContext.class);
+    BufferMemoryManager.TaskMemory task = manager.newTask();
+    BufferMemoryManager.PartitionMemory inFlight = task.register(PARTITION_0, () -> {});
+    inFlight.reserve(1000);
+    inFlight.handOver(1000);
+    task.relieve(sinkTaskContext);
+    verify(sinkTaskContext).pause(PARTITION_0);
+
+    // assigned while the task is paused
+    task.register(PARTITION_1, () -> {});
+    task.relieve(sinkTaskContext);
+    verify(sinkTaskContext).pause(PARTITION_1);
+    assertEquals(2, manager.getPausedPartitionCount());
+
+    // registering a paused partition again does not pause it twice
+    task.register(PARTITION_0, () -> {});
+    task.relieve(sinkTaskContext);
+    verify(sinkTaskContext, times(2)).pause(any());
+
+    inFlight.release(1000);
+    task.relieve(sinkTaskContext);
+    ArgumentCaptor<TopicPartition> resumed = ArgumentCaptor.forClass(TopicPartition.class);
+    verify(sinkTaskContext).resume(resumed.capture());
+    assertEquals(
+        new HashSet<>(Arrays.asList(PARTITION_0, PARTITION_1)),
+        new HashSet<>(resumed.getAllValues()));
+    assertEquals(0, manager.getPausedPartitionCount());
+  }
+
+  @Test
+  void getInstance_rejectsConflictingBudget() {
+    Map<String, String> config = new HashMap<>();
+    config.put(SnowflakeSinkConnectorConfig.BUFFER_MEMORY_BUDGET_BYTES, "123456");
+    BufferMemoryManager instance = BufferMemoryManager.getInstance(config);
+    assertSame(instance, BufferMemoryManager.getInstance(config));
+
+    config.put(SnowflakeSinkConnectorConfig.BUFFER_MEMORY_BUDGET_BYTES, "654321");
+    SnowflakeKafkaConnectorException exception =
+        assertThrows(
+            SnowflakeKafkaConnectorException.class, () -> BufferMemoryManager.getInstance(config));
+    assertTrue(exception.checkErrorCode(SnowflakeErrors.ERROR_0034));
+  }
+
+  @Test
+  void unregister_releasesBufferedBytes() {
+    BufferMemoryManager.TaskMemory task = manager.newTask();
+    BufferMemoryManager.PartitionMemory closed = task.register(PARTITION_0, () -> {});
+    closed.reserve(300);
+    closed.handOver(100);
+
+    closed.unregister();
+    // the handed over buffer is still in flight
+    assertEquals(100, manager.getReservedBytes());
+    closed.release(100);
+    assertEquals(0, manager.getReservedBytes());
+
+    // registering a partition again replaces its previous buffer
+    BufferMemoryManager.PartitionMemory replaced = task.register(PARTITION_1, () -> {});
+    replaced.reserve(200);
+    task.register(PARTITION_1, () -> {}).reserve(50);
+    assertEquals(50, manager.getReservedBytes());
+    replaced.unregister();
+    assertEquals(50, manager.getReservedBytes());
+  }
+
+  @Test
+  void registerMetrics_reportsState() {
+    MetricRegistry metricRegistry = new MetricRegistry();
+    manager.registerMetrics(metricRegistry);
+    new TestBuffer(manager.newTask(), PARTITION_0).add(123);
+
+    assertEquals(1000L, gauge(metricRegistry, MetricsUtil.BUFFER_MEMORY_BUDGET_BYTES));
+    assertEquals(123L, gauge(metricRegistry, MetricsUtil.BUFFER_MEMORY_RESERVED_BYTES));
+    assertEquals(0, gauge(metricRegistry, MetricsUtil.BUFFER_MEMORY_PAUSED_PARTITIONS));
+    assertEquals(0L, gauge(metricRegistry, MetricsUtil.BUFFER_MEMORY_FORCED_FLUSH_COUNT));
+  }
+
+  private static Object gauge(MetricRegistry metricRegistry, String name) {
+    return metricRegistry
+        .getGauges()
+        .get(
+            MetricsUtil.constructMetricName(
+                MetricsUtil.BUFFER_MEMORY_METRICS_NAME, MetricsUtil.BUFFER_MEMORY_SUB_DOMAIN, name))
+        .getValue();
+  }
+
+  /** Buffer which is flushed synchronously, like the buffers of the sink services. */
+  private class TestBuffer {
+    private final TopicPartition topicPartition;
+    private final BufferMemoryManager.PartitionMemory partitionMemory;
+    private long bufferedBytes;
+
+    private TestBuffer(BufferMemoryManager.TaskMemory task, TopicPartition topicPartition) {
+      this.topicPartition = topicPartition;
+      this.partitionMemory = task.register(topicPartition, this::flush);
+    }
+
+    private TestBuffer add(long bytes) {
+      bufferedBytes += bytes;
+      partitionMemory.reserve(bytes);
+      return this;
+    }
+
+    private void flush() {
+      flushed.add(topicPartition);
+      partitionMemory.handOver(bufferedBytes);
+      partitionMemory.release(bufferedBytes);
+      bufferedBytes = 0;
+    }
+  }
+}
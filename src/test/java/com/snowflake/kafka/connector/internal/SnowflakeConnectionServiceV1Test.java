@@ -1,5 +1,12 @@
 package com.snowflake.kafka.connector.internal;
 
+import static com.snowflake.kafka.connector.Utils.TABLE_COLUMN_METADATA_CONNECTOR_PUSH_TIME;
+import static com.snowflake.kafka.connector.Utils.TABLE_COLUMN_METADATA_CREATETIME;
+import static com.snowflake.kafka.connector.Utils.TABLE_COLUMN_METADATA_KEY;
+import static com.snowflake.kafka.connector.Utils.TABLE_COLUMN_METADATA_LOGAPPENDTIME;
+import static com.snowflake.kafka.connector.Utils.TABLE_COLUMN_METADATA_OFFSET;
+import static com.snowflake.kafka.connector.Utils.TABLE_COLUMN_METADATA_PARTITION;
+import static com.snowflake.kafka.connector.Utils.TABLE_COLUMN_METADATA_TOPIC;
 import static com.snowflake.kafka.connector.internal.SnowflakeConnectionServiceV1.FormattingUtils.formatName;
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.anyString;
@@ -8,6 +15,8 @@ import static org.mockito.Mockito.when;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.snowflake.kafka.connector.internal.streaming.ChannelMigrateOffsetTokenResponseDTO;
+import java.util.Arrays;
+import java.util.Collections;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
@@ -49,4 +58,33 @@ public class SnowflakeConnectionServiceV1Test {
   void testFormatNames(String inputName, String expectedName) {
     assertThat(formatName(inputName)).isEqualTo(expectedName);
   }
+
+  @Test
+  void testTypedMetadataColumnDefinitions() {
+    assertThat(SnowflakeConnectionServiceV1.typedMetadataColumnDefinitions(Collections.emptyList()))
+        .startsWith(TABLE_COLUMN_METADATA_TOPIC + " varchar, ")
+        .contains(TABLE_COLUMN_METADATA_OFFSET + " number(19, 0)");
+
+    String missing =
+        SnowflakeConnectionServiceV1.typedMetadataColumnDefinitions(
+            Arrays.asList("RECORD_METADATA", TABLE_COLUMN_METADATA_TOPIC));
+    assertThat(missing)
+        .doesNotContain(TABLE_COLUMN_METADATA_TOPIC + " ")
+        .contains(TABLE_COLUMN_METADATA_OFFSET);
+  }
+
+  @Test
+  void testTypedMetadataColumnDefinitions_allColumnsPresent() {
+    assertThat(
+            SnowflakeConnectionServiceV1.typedMetadataColumnDefinitions(
+                Arrays.asList(
+                    TABLE_COLUMN_METADATA_TOPIC,
+                    TABLE_COLUMN_METADATA_PARTITION,
+                    TABLE_COLUMN_METADATA_OFFSET,
+                    TABLE_COLUMN_METADATA_CREATETIME,
+                    TABLE_COLUMN_METADATA_LOGAPPENDTIME,
+                    TABLE_COLUMN_METADATA_KEY,
+                    TABLE_COLUMN_METADATA_CONNECTOR_PUSH_TIME)))
+        .isEmpty();
+  }
 }
@@ -0,0 +1,72 @@
+package com.snowflake.kafka.connector.internal.streaming;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class AdaptiveBufferThresholdTest {
+
+  private static final long MAX_BYTES = 5_000_000;
+  private static final long MAX_RECORDS = 5_000;
+  private static final long MIN_BYTES = 1_000;
+  private static final long MIN_RECORDS = 10;
+  private static final long TARGET_LATENCY_MS = 100;
+
+  private final AdaptiveBufferThreshold threshold =
+      new AdaptiveBufferThreshold(
+          10, MAX_BYTES, MAX_RECORDS, MIN_BYTES, MIN_RECORDS, TARGET_LATENCY_MS, 0);
+
+  @Test
+  void startsWithConfiguredThresholds() {
+    assertEquals(MAX_RECORDS, threshold.getRecordCountThreshold());
+    assertEquals(MAX_BYTES, threshold.getByteSizeThreshold());
+  }
+
+  @Test
+  void onBufferCut_choosesRecordsArrivingWithinTargetLatency() {
+    // 10000 records and 2MB per second
+    threshold.onBufferCut(10_000, 2_000_000, 1_000);
+
+    assertEquals(1_000, threshold.getRecordCountThreshold());
+    assertEquals(200_000, threshold.getByteSizeThreshold());
+    assertTrue(threshold.shouldFlushOnBufferRecordCount(1_000));
+    assertFalse(threshold.shouldFlushOnBufferRecordCount(999));
+    assertTrue(threshold.shouldFlushOnBufferByteSize(200_000));
+    assertFalse(threshold.shouldFlushOnBufferByteSize(199_999));
+  }
+
+  @Test
+  void onBufferCut_staysWithinBounds() {
+    threshold.onBufferCut(1, 100, 10_000);
+    assertEquals(MIN_RECORDS, threshold.getRecordCountThreshold());
+    assertEquals(MIN_BYTES, threshold.getByteSizeThreshold());
+
+    AdaptiveBufferThreshold hot =
+        new AdaptiveBufferThreshold(
+            10, MAX_BYTES, MAX_RECORDS, MIN_BYTES, MIN_RECORDS, TARGET_LATENCY_MS, 0);
+    hot.onBufferCut(1_000_000, 100_000_000, 1_000);
+    assertEquals(MAX_RECORDS, hot.getRecordCountThreshold());
+    assertEquals(MAX_BYTES, hot.getByteSizeThreshold());
+  }
+
+  @Test
+  void onBufferCut_buffersRecordsArrivingWithinSlowInserts() {
+    threshold.onInsert(500);
+    threshold.onBufferCut(10_000, 2_000_000, 1_000);
+
+    assertEquals(5_000, threshold.getRecordCountThreshold());
+    assertEquals(1_000_000, threshold.getByteSizeThreshold());
+  }
+
+  @Test
+  void onBufferCut_smoothsArrivalRate() {
+    threshold.onBufferCut(10_000, 2_000_000, 1_000);
+    // no records during the next second
+    threshold.onBufferCut(0, 0, 2_000);
+
+    assertEquals(700, threshold.getRecordCountThreshold());
+    assertEquals(140_000, threshold.getByteSizeThreshold());
+  }
+}
@@ -3,8 +3,10 @@ package com.snowflake.kafka.connector.internal.streaming;
 import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.ERRORS_DEAD_LETTER_QUEUE_TOPIC_NAME_CONFIG;
 import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.ERRORS_LOG_ENABLE_CONFIG;
 import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.ERRORS_TOLERANCE_CONFIG;
+import static org.awaitility.Awaitility.await;
 
 import com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig;
+import com.snowflake.kafka.connector.Utils;
 import com.snowflake.kafka.connector.dlq.InMemoryKafkaRecordErrorReporter;
 import com.snowflake.kafka.connector.dlq.KafkaRecordErrorReporter;
 import com.snowflake.kafka.connector.internal.BufferThreshold;
@@ -13,17 +15,23 @@ import com.snowflake.kafka.connector.internal.TestUtils;
 import com.snowflake.kafka.connector.internal.streaming.schemaevolution.InsertErrorMapper;
 import com.snowflake.kafka.connector.internal.streaming.schemaevolution.SchemaEvolutionService;
 import com.snowflake.kafka.connector.internal.telemetry.SnowflakeTelemetryService;
+import com.snowflake.kafka.connector.records.RecordService;
 import com.snowflake.kafka.connector.records.RecordServiceFactory;
+import com.snowflake.kafka.connector.records.SnowflakeMetadataConfig;
+import com.snowflake.kafka.connector.records.StreamingRowSize;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import net.snowflake.ingest.streaming.InsertValidationResponse;
 import net.snowflake.ingest.streaming.OpenChannelRequest;
 import net.snowflake.ingest.streaming.SnowflakeStreamingIngestChannel;
 import net.snowflake.ingest.streaming.SnowflakeStreamingIngestClient;
 import net.snowflake.ingest.utils.ErrorCode;
+import net.snowflake.ingest.utils.Pair;
 import net.snowflake.ingest.utils.SFException;
 import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.connect.errors.DataException;
@@ -340,4 +348,290 @@ public class BufferedTopicPartitionChannelTest {
 
     assert kafkaRecordErrorReporter.getReportedRecords().size() == 1;
   }
+
+  /* Records are converted once on insert and the converted rows are returned on flush. */
+  @Test
+  public void testStreamingBuffer_ConvertOnInsert_ConvertsRecordOnce() throws Exception {
+    Map<String, String> sfConnectorConfigWithConvertOnInsert = new HashMap<>(sfConnectorConfig);
+    sfConnectorConfigWithConvertOnInsert.put(
+        SnowflakeSinkConnectorConfig.SNOWPIPE_STREAMING_BUFFER_CONVERT_ON_INSERT, "true");
+    RecordService recordService =
+        Mockito.spy(RecordServiceFactory.createRecordService(false, this.enableSchematization));
+
+    BufferedTopicPartitionChannel topicPartitionChannel =
+        new BufferedTopicPartitionChannel(
+            mockStreamingClient,
+            topicPartition,
+            TEST_CHANNEL_NAME,
+            TEST_TABLE_NAME,
+            false,
+            streamingBufferThreshold,
+            sfConnectorConfigWithConvertOnInsert,
+            mockKafkaRecordErrorReporter,
+            mockSinkTaskContext,
+            mockSnowflakeConnectionService,
+            recordService,
+            mockTelemetryService,
+            false,
+            null,
+            schemaEvolutionService,
+            new InsertErrorMapper());
+
+    List<SinkRecord> records = TestUtils.createJsonStringSinkRecords(0, 2, TOPIC, PARTITION);
+
+    BufferedTopicPartitionChannel.StreamingBuffer streamingBuffer =
+        topicPartitionChannel.new StreamingBuffer();
+    streamingBuffer.insert(records.get(0));
+    streamingBuffer.insert(records.get(1));
+
+    assert streamingBuffer.getBufferSizeBytes()
+        > StreamingRowSize.ofRecord(records.get(0)) + StreamingRowSize.ofRecord(records.get(1));
+
+    Pair<List<Map<String, Object>>, List<SinkRecord>> data = streamingBuffer.getData();
+    assert data.getKey().size() == 2;
+    assert data.getValue().size() == 2;
+    assert data.getValue().get(1).kafkaOffset() == 1;
+
+    Mockito.verify(recordService, Mockito.times(2))
+        .getProcessedRecordForStreamingIngest(ArgumentMatchers.any(SinkRecord.class));
+    Mockito.verifyNoMoreInteractions(mockKafkaRecordErrorReporter);
+  }
+
+  @Test
+  public void testStreamingBuffer_TypedMetadataColumns_EstimatesRowSize() throws Exception {
+    Map<String, String> sfConnectorConfigWithTypedColumns = new HashMap<>(sfConnectorConfig);
+    sfConnectorConfigWithTypedColumns.put(
+        SnowflakeSinkConnectorConfig.SNOWPIPE_STREAMING_BUFFER_CONVERT_ON_INSERT, "true");
+    sfConnectorConfigWithTypedColumns.put(
+        SnowflakeSinkConnectorConfig.SNOWFLAKE_METADATA_TYPED_COLUMNS, "true");
+    RecordService recordService =
+        RecordServiceFactory.createRecordService(false, this.enableSchematization);
+    recordService.setMetadataConfig(
+        new SnowflakeMetadataConfig(sfConnectorConfigWithTypedColumns));
+    assert recordService.writesTypedMetadataColumns();
+
+    BufferedTopicPartitionChannel topicPartitionChannel =
+        new BufferedTopicPartitionChannel(
+            mockStreamingClient,
+            topicPartition,
+            TEST_CHANNEL_NAME,
+            TEST_TABLE_NAME,
+            false,
+            streamingBufferThreshold,
+            sfConnectorConfigWithTypedColumns,
+            mockKafkaRecordErrorReporter,
+            mockSinkTaskContext,
+            mockSnowflakeConnectionService,
+            recordService,
+            mockTelemetryService,
+            false,
+            null,
+            schemaEvolutionService,
+            new InsertErrorMapper());
+
+    List<SinkRecord> records = TestUtils.createJsonStringSinkRecords(0, 1, TOPIC, PARTITION);
+
+    // offset, partition and timestamps are not strings
+    BufferedTopicPartitionChannel.StreamingBuffer streamingBuffer =
+        topicPartitionChannel.new StreamingBuffer();
+    streamingBuffer.insert(records.get(0));
+
+    assert streamingBuffer.getBufferSizeBytes() > StreamingRowSize.ofRecord(records.get(0));
+    Pair<List<Map<String, Object>>, List<SinkRecord>> data = streamingBuffer.getData();
+    assert data.getKey().size() == 1;
+    assert data.getKey().get(0).get(Utils.TABLE_COLUMN_METADATA_OFFSET).equals(0L);
+    Mockito.verifyNoMoreInteractions(mockKafkaRecordErrorReporter);
+  }
+
+  /* The size counted on insert is the size of the rows converted on flush and of the records. */
+  @Test
+  public void testStreamingBuffer_SizeMatchesInsertedRowsAndRetainedRecords() throws Exception {
+    BufferedTopicPartitionChannel topicPartitionChannel =
+        new BufferedTopicPartitionChannel(
+            mockStreamingClient,
+            topicPartition,
+            TEST_CHANNEL_NAME,
+            TEST_TABLE_NAME,
+            streamingBufferThreshold,
+            sfConnectorConfig,
+            mockKafkaRecordErrorReporter,
+            mockSinkTaskContext,
+            mockSnowflakeConnectionService,
+            mockTelemetryService,
+            schemaEvolutionService,
+            new InsertErrorMapper());
+
+    List<SinkRecord> records = TestUtils.createJsonStringSinkRecords(0, 2, TOPIC, PARTITION);
+
+    BufferedTopicPartitionChannel.StreamingBuffer streamingBuffer =
+        topicPartitionChannel.new StreamingBuffer();
+    streamingBuffer.insert(records.get(0));
+    streamingBuffer.insert(records.get(1));
+
+    Pair<List<Map<String, Object>>, List<SinkRecord>> data = streamingBuffer.getData();
+    long rowsSizeInBytes = 0L;
+    for (Map<String, Object> row : data.getKey()) {
+      rowsSizeInBytes += StreamingRowSize.of(row);
+    }
+    assert streamingBuffer.getBufferSizeBytes()
+        == rowsSizeInBytes
+            + StreamingRowSize.ofRecord(records.get(0))
+            + StreamingRowSize.ofRecord(records.get(1));
+  }
+
+  /* A flush in the background reopens the channel, buffers cut before the reopen are skipped and
+  the offset in kafka is reset on the next call from the task thread. */
+  @Test
+  public void testBufferFlusher_ReopenSkipsStaleBuffersAndResetsOffset() throws Exception {
+    SnowflakeStreamingIngestChannel reopenedChannel =
+        Mockito.mock(SnowflakeStreamingIngestChannel.class);
+    Mockito.when(reopenedChannel.getFullyQualifiedName()).thenReturn(TEST_CHANNEL_NAME);
+    Mockito.when(reopenedChannel.getLatestCommittedOffsetToken()).thenReturn("9");
+    Mockito.when(mockStreamingClient.openChannel(ArgumentMatchers.any(OpenChannelRequest.class)))
+        .thenReturn(mockStreamingChannel, reopenedChannel);
+
+    CountDownLatch insertStarted = new CountDownLatch(1);
+    CountDownLatch releaseInsert = new CountDownLatch(1);
+    Mockito.when(
+            mockStreamingChannel.insertRows(
+                ArgumentMatchers.any(Iterable.class),
+                ArgumentMatchers.any(String.class),
+                ArgumentMatchers.any(String.class)))
+        .thenAnswer(
+            invocation -> {
+              insertStarted.countDown();
+              releaseInsert.await();
+              throw SF_EXCEPTION;
+            });
+
+    StreamingBufferFlusher bufferFlusher = new StreamingBufferFlusher(1, 2);
+    try {
+      BufferedTopicPartitionChannel topicPartitionChannel =
+          new BufferedTopicPartitionChannel(
+              mockStreamingClient,
+              topicPartition,
+              TEST_CHANNEL_NAME,
+              TEST_TABLE_NAME,
+              false,
+              streamingBufferThreshold,
+              sfConnectorConfig,
+              mockKafkaRecordErrorReporter,
+              mockSinkTaskContext,
+              mockSnowflakeConnectionService,
+              RecordServiceFactory.createRecordService(false, enableSchematization),
+              mockTelemetryService,
+              false,
+              null,
+              schemaEvolutionService,
+              new InsertErrorMapper(),
+              bufferFlusher,
+              null);
+
+      List<SinkRecord> records = TestUtils.createJsonStringSinkRecords(10, 2, TOPIC, PARTITION);
+
+      // the first buffer fails in the background while the second one is cut
+      topicPartitionChannel.insertRecord(records.get(0), true);
+      assert insertStarted.await(5, TimeUnit.SECONDS);
+      topicPartitionChannel.insertRecord(records.get(1), false);
+      releaseInsert.countDown();
+
+      await()
+          .atMost(5, TimeUnit.SECONDS)
+          .until(() -> topicPartitionChannel.getChannel() == reopenedChannel);
+      // the task context is only used by the task thread
+      Mockito.verify(mockSinkTaskContext, Mockito.never())
+          .offset(ArgumentMatchers.any(TopicPartition.class), ArgumentMatchers.anyLong());
+
+      topicPartitionChannel.insertBufferedRecordsIfFlushTimeThresholdReached();
+      Mockito.verify(mockSinkTaskContext).offset(topicPartition, 10L);
+      assert topicPartitionChannel.getProcessedOffset() == 9L;
+
+      topicPartitionChannel.closeChannelAsync().get(5, TimeUnit.SECONDS);
+      Mockito.verify(mockStreamingChannel, Mockito.times(1))
+          .insertRows(
+              ArgumentMatchers.any(Iterable.class),
+              ArgumentMatchers.any(String.class),
+              ArgumentMatchers.any(String.class));
+      Mockito.verify(reopenedChannel, Mockito.never())
+          .insertRows(
+              ArgumentMatchers.any(Iterable.class),
+              ArgumentMatchers.any(String.class),
+              ArgumentMatchers.any(String.class));
+    } finally {
+      bufferFlusher.close();
+    }
+  }
+
+  /* The task thread reopens the channel while a flush in the background fails on the same channel,
+  the flush uses the reopened channel instead of opening it again. */
+  @Test
+  public void testBufferFlusher_ConcurrentFallbacksReopenChannelOnce() throws Exception {
+    SnowflakeStreamingIngestChannel reopenedChannel =
+        Mockito.mock(SnowflakeStreamingIngestChannel.class);
+    Mockito.when(reopenedChannel.getFullyQualifiedName()).thenReturn(TEST_CHANNEL_NAME);
+    Mockito.when(reopenedChannel.getLatestCommittedOffsetToken()).thenReturn("9");
+    Mockito.when(mockStreamingClient.openChannel(ArgumentMatchers.any(OpenChannelRequest.class)))
+        .thenReturn(
+            mockStreamingChannel,
+            reopenedChannel,
+            Mockito.mock(SnowflakeStreamingIngestChannel.class));
+    Mockito.when(mockStreamingChannel.getLatestCommittedOffsetToken())
+        .thenReturn(null)
+        .thenThrow(SF_EXCEPTION);
+
+    CountDownLatch insertStarted = new CountDownLatch(1);
+    CountDownLatch releaseInsert = new CountDownLatch(1);
+    Mockito.when(
+            mockStreamingChannel.insertRows(
+                ArgumentMatchers.any(Iterable.class),
+                ArgumentMatchers.any(String.class),
+                ArgumentMatchers.any(String.class)))
+        .thenAnswer(
+            invocation -> {
+              insertStarted.countDown();
+              releaseInsert.await();
+              throw SF_EXCEPTION;
+            });
+
+    StreamingBufferFlusher bufferFlusher = new StreamingBufferFlusher(1, 2);
+    try {
+      BufferedTopicPartitionChannel topicPartitionChannel =
+          new BufferedTopicPartitionChannel(
+              mockStreamingClient,
+              topicPartition,
+              TEST_CHANNEL_NAME,
+              TEST_TABLE_NAME,
+              false,
+              streamingBufferThreshold,
+              sfConnectorConfig,
+              mockKafkaRecordErrorReporter,
+              mockSinkTaskContext,
+              mockSnowflakeConnectionService,
+              RecordServiceFactory.createRecordService(false, enableSchematization),
+              mockTelemetryService,
+              false,
+              null,
+              schemaEvolutionService,
+              new InsertErrorMapper(),
+              bufferFlusher,
+              null);
+
+      List<SinkRecord> records = TestUtils.createJsonStringSinkRecords(10, 1, TOPIC, PARTITION);
+      topicPartitionChannel.insertRecord(records.get(0), true);
+      assert insertStarted.await(5, TimeUnit.SECONDS);
+
+      // the task thread finds the channel invalidated and reopens it
+      assert topicPartitionChannel.fetchOffsetTokenWithRetry() == 9L;
+      assert topicPartitionChannel.getChannel() == reopenedChannel;
+
+      releaseInsert.countDown();
+      topicPartitionChannel.closeChannelAsync().get(5, TimeUnit.SECONDS);
+
+      Mockito.verify(mockStreamingClient, Mockito.times(2))
+          .openChannel(ArgumentMatchers.any(OpenChannelRequest.class));
+      assert topicPartitionChannel.getChannel() == reopenedChannel;
+    } finally {
+      bufferFlusher.close();
+    }
+  }
 }
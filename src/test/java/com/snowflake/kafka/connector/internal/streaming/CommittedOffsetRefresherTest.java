@@ -0,0 +1,93 @@
+package com.snowflake.kafka.connector.internal.streaming;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.snowflake.kafka.connector.internal.streaming.channel.TopicPartitionChannel;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import net.snowflake.ingest.streaming.SnowflakeStreamingIngestChannel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class CommittedOffsetRefresherTest {
+
+  private final TopicPartitionChannel channel0 = mockChannel("channel_0");
+  private final TopicPartitionChannel channel1 = mockChannel("channel_1");
+  private final TopicPartitionChannel channel2 = mockChannel("channel_2");
+
+  private final List<Collection<TopicPartitionChannel>> fetches = new ArrayList<>();
+  private final Map<String, String> committedOffsetTokens = new HashMap<>();
+
+  // refreshed by the test only
+  private final CommittedOffsetRefresher refresher =
+      new CommittedOffsetRefresher(
+          Duration.ofHours(1),
+          () -> Arrays.asList(channel0, channel1, channel2),
+          channels -> {
+            fetches.add(channels);
+            return committedOffsetTokens;
+          });
+
+  @AfterEach
+  void closeRefresher() {
+    refresher.close();
+  }
+
+  @Test
+  void refresh_fetchesAllChannelsTogether() {
+    committedOffsetTokens.put("channel_0", "10");
+    committedOffsetTokens.put("channel_1", null);
+
+    refresher.refresh();
+
+    assertEquals(1, fetches.size());
+    assertEquals(3, fetches.get(0).size());
+    verify(channel0).refreshOffsetPersistedInSnowflake(eq("10"), anyLong());
+    verify(channel1).refreshOffsetPersistedInSnowflake(isNull(), anyLong());
+    // channels missing from the response keep their previous offset
+    verify(channel2, never()).refreshOffsetPersistedInSnowflake(any(), anyLong());
+  }
+
+  @Test
+  void refresh_failureIsNotThrown() {
+    CommittedOffsetRefresher failingRefresher =
+        new CommittedOffsetRefresher(
+            Duration.ofHours(1),
+            () -> Arrays.asList(channel0, channel1),
+            channels -> {
+              throw new IllegalStateException("client is closed");
+            });
+    try {
+      failingRefresher.refresh();
+      verify(channel0, never()).refreshOffsetPersistedInSnowflake(any(), anyLong());
+    } finally {
+      failingRefresher.close();
+    }
+  }
+
+  @Test
+  void getMaxAgeNanos_isTwoIntervals() {
+    assertEquals(Duration.ofHours(2).toNanos(), refresher.getMaxAgeNanos());
+  }
+
+  private static TopicPartitionChannel mockChannel(String name) {
+    SnowflakeStreamingIngestChannel streamingChannel = mock(SnowflakeStreamingIngestChannel.class);
+    when(streamingChannel.getFullyQualifiedName()).thenReturn(name);
+    TopicPartitionChannel channel = mock(TopicPartitionChannel.class);
+    when(channel.getChannel()).thenReturn(streamingChannel);
+    return channel;
+  }
+}
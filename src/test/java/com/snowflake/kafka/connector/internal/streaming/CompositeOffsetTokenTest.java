@@ -0,0 +1,46 @@
+package com.snowflake.kafka.connector.internal.streaming;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.kafka.connect.errors.ConnectException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class CompositeOffsetTokenTest {
+
+  @Test
+  void encode_ordersPartitionsAndLeavesOutNegativeOffsets() {
+    Map<Integer, Long> offsets = new HashMap<>();
+    offsets.put(11, 57L);
+    offsets.put(3, 1200L);
+    offsets.put(7, -1L);
+
+    assertEquals("3:1200,11:57", CompositeOffsetToken.encode(offsets));
+  }
+
+  @Test
+  void decode_returnsEncodedOffsets() {
+    Map<Integer, Long> offsets = new HashMap<>();
+    offsets.put(0, 0L);
+    offsets.put(5, Long.MAX_VALUE);
+
+    assertEquals(offsets, CompositeOffsetToken.decode(CompositeOffsetToken.encode(offsets)));
+  }
+
+  @Test
+  void decode_returnsNoOffsetsWithoutToken() {
+    assertTrue(CompositeOffsetToken.decode(null).isEmpty());
+    assertTrue(CompositeOffsetToken.decode("").isEmpty());
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"1200", "0:1,2", "0:a", ":1", "0:1;2:3"})
+  void decode_rejectsInvalidToken(String offsetToken) {
+    assertThrows(ConnectException.class, () -> CompositeOffsetToken.decode(offsetToken));
+  }
+}
@@ -0,0 +1,92 @@
+package com.snowflake.kafka.connector.internal.streaming;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.snowflake.kafka.connector.internal.streaming.channel.TopicPartitionChannel;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class FlushSchedulerTest {
+
+  private final FlushScheduler scheduler = new FlushScheduler();
+  private final Map<String, TopicPartitionChannel> partitionsToChannel = new HashMap<>();
+
+  @Test
+  void flushDue_flushesOnlyChannelsWhichAreDue() {
+    TopicPartitionChannel due = channel("due", 100L);
+    TopicPartitionChannel notDue = channel("notDue", 200L);
+
+    scheduler.flushDue(partitionsToChannel, 150L);
+
+    verify(due).insertBufferedRecordsIfFlushTimeThresholdReached();
+    verify(notDue, never()).insertBufferedRecordsIfFlushTimeThresholdReached();
+    assertEquals(2, scheduler.size());
+  }
+
+  @Test
+  void flushDue_reschedulesChannelAtItsNextFlushTime() {
+    TopicPartitionChannel channel = channel("channel", 100L);
+    // the flush moves the flush time forward
+    when(channel.getNextTimeBasedFlushMs()).thenReturn(100L, 100L, 1100L);
+
+    scheduler.flushDue(partitionsToChannel, 150L);
+    scheduler.flushDue(partitionsToChannel, 1000L);
+    verify(channel, times(1)).insertBufferedRecordsIfFlushTimeThresholdReached();
+
+    scheduler.flushDue(partitionsToChannel, 1100L);
+    verify(channel, times(2)).insertBufferedRecordsIfFlushTimeThresholdReached();
+  }
+
+  @Test
+  void flushDue_skipsChannelWhoseFlushTimeMovedForward() {
+    TopicPartitionChannel channel = channel("channel", 100L);
+    // flushed in the meantime because the buffer was full
+    when(channel.getNextTimeBasedFlushMs()).thenReturn(500L);
+
+    scheduler.flushDue(partitionsToChannel, 150L);
+    verify(channel, never()).insertBufferedRecordsIfFlushTimeThresholdReached();
+
+    scheduler.flushDue(partitionsToChannel, 500L);
+    verify(channel).insertBufferedRecordsIfFlushTimeThresholdReached();
+  }
+
+  @Test
+  void flushDue_dropsRemovedAndReplacedChannels() {
+    TopicPartitionChannel removed = channel("removed", 100L);
+    TopicPartitionChannel replaced = channel("replaced", 100L);
+    partitionsToChannel.remove("removed");
+    partitionsToChannel.put("replaced", mock(TopicPartitionChannel.class));
+
+    scheduler.flushDue(partitionsToChannel, 150L);
+
+    verify(removed, never()).insertBufferedRecordsIfFlushTimeThresholdReached();
+    verify(replaced, never()).insertBufferedRecordsIfFlushTimeThresholdReached();
+    assertEquals(0, scheduler.size());
+  }
+
+  @Test
+  void schedule_ignoresChannelsWithoutBufferAndScheduledChannels() {
+    TopicPartitionChannel channel = channel("channel", 100L);
+    scheduler.schedule("channel", channel);
+
+    TopicPartitionChannel direct = mock(TopicPartitionChannel.class);
+    when(direct.getNextTimeBasedFlushMs()).thenReturn(Long.MAX_VALUE);
+    scheduler.schedule("direct", direct);
+
+    assertEquals(1, scheduler.size());
+  }
+
+  private TopicPartitionChannel channel(String key, long flushTimeMs) {
+    TopicPartitionChannel channel = mock(TopicPartitionChannel.class);
+    when(channel.getNextTimeBasedFlushMs()).thenReturn(flushTimeMs);
+    partitionsToChannel.put(key, channel);
+    scheduler.schedule(key, channel);
+    return channel;
+  }
+}
@@ -0,0 +1,176 @@
+package com.snowflake.kafka.connector.internal.streaming;
+
+import static com.snowflake.kafka.connector.internal.streaming.channel.TopicPartitionChannel.NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.snowflake.kafka.connector.dlq.KafkaRecordErrorReporter;
+import com.snowflake.kafka.connector.internal.SnowflakeConnectionService;
+import com.snowflake.kafka.connector.internal.SnowflakeErrors;
+import com.snowflake.kafka.connector.internal.SnowflakeKafkaConnectorException;
+import com.snowflake.kafka.connector.internal.TestUtils;
+import com.snowflake.kafka.connector.internal.telemetry.SnowflakeTelemetryService;
+import com.snowflake.kafka.connector.records.RecordServiceFactory;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import net.snowflake.ingest.streaming.InsertValidationResponse;
+import net.snowflake.ingest.streaming.OpenChannelRequest;
+import net.snowflake.ingest.streaming.SnowflakeStreamingIngestChannel;
+import net.snowflake.ingest.streaming.SnowflakeStreamingIngestClient;
+import net.snowflake.ingest.utils.ErrorCode;
+import net.snowflake.ingest.utils.SFException;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.connect.sink.SinkTaskContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MultiplexedTopicPartitionChannelTest {
+
+  private static final String TOPIC = "TEST";
+  private static final String TABLE = "TEST_TABLE";
+
+  private final SnowflakeStreamingIngestClient client = mock(SnowflakeStreamingIngestClient.class);
+  private final SnowflakeStreamingIngestChannel streamingChannel =
+      mock(SnowflakeStreamingIngestChannel.class);
+  private final SinkTaskContext sinkTaskContext = mock(SinkTaskContext.class);
+  private final Map<String, String> config = TestUtils.getConfig();
+
+  private MultiplexedChannel sharedChannel;
+
+  @BeforeEach
+  void setUp() {
+    when(client.openChannel(any(OpenChannelRequest.class))).thenReturn(streamingChannel);
+    when(streamingChannel.getLatestCommittedOffsetToken()).thenReturn("0:10");
+    when(streamingChannel.insertRows(anyList(), anyString()))
+        .thenReturn(new InsertValidationResponse());
+    when(streamingChannel.close()).thenReturn(CompletableFuture.completedFuture(null));
+    sharedChannel = new MultiplexedChannel(client, TOPIC + "_0-3", TABLE, config);
+  }
+
+  @Test
+  void partitionsOfGroupShareOneChannel() {
+    MultiplexedTopicPartitionChannel partition0 = createChannel(0);
+    MultiplexedTopicPartitionChannel partition1 = createChannel(1);
+
+    verify(client, times(1)).openChannel(any(OpenChannelRequest.class));
+    assertEquals(11, partition0.getOffsetToResetInKafkaOnOpen());
+    assertEquals(
+        NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE, partition1.getOffsetToResetInKafkaOnOpen());
+  }
+
+  @Test
+  void insertRecords_writesOffsetsOfAllPartitionsIntoToken() {
+    MultiplexedTopicPartitionChannel partition0 = createChannel(0);
+    MultiplexedTopicPartitionChannel partition1 = createChannel(1);
+
+    partition1.insertRecords(TestUtils.createNativeJsonSinkRecords(5, 2, TOPIC, 1), true);
+    verify(streamingChannel).insertRows(anyList(), eq("0:10,1:6"));
+
+    // offsets already committed are skipped
+    partition0.insertRecords(TestUtils.createNativeJsonSinkRecords(10, 2, TOPIC, 0), true);
+    verify(streamingChannel).insertRows(anyList(), eq("0:11,1:6"));
+    assertEquals(11, partition0.getProcessedOffset());
+
+    assertEquals(12, partition0.getOffsetSafeToCommitToKafka("0:11,1:6"));
+    assertEquals(7, partition1.getOffsetSafeToCommitToKafka("0:11,1:6"));
+    assertEquals(
+        NO_OFFSET_TOKEN_REGISTERED_IN_SNOWFLAKE, partition1.getOffsetSafeToCommitToKafka("0:11"));
+  }
+
+  @Test
+  void insertRecords_invalidChannelResetsOffsetsOfAllPartitions() {
+    MultiplexedTopicPartitionChannel partition0 = createChannel(0);
+    MultiplexedTopicPartitionChannel partition1 = createChannel(1);
+    partition1.insertRecords(TestUtils.createNativeJsonSinkRecords(5, 2, TOPIC, 1), true);
+
+    when(streamingChannel.insertRows(anyList(), eq("0:12,1:6")))
+        .thenThrow(new SFException(ErrorCode.INVALID_CHANNEL, "INVALID_CHANNEL"));
+    when(streamingChannel.getLatestCommittedOffsetToken()).thenReturn("0:9,1:4");
+    partition0.insertRecords(TestUtils.createNativeJsonSinkRecords(11, 2, TOPIC, 0), true);
+
+    verify(client, times(2)).openChannel(any(OpenChannelRequest.class));
+    verify(sinkTaskContext).offset(new TopicPartition(TOPIC, 0), 10);
+    verify(sinkTaskContext).offset(new TopicPartition(TOPIC, 1), 5);
+    assertEquals(9, partition0.getProcessedOffset());
+    assertEquals(4, partition1.getProcessedOffset());
+
+    // the rest of the batch is skipped, kafka sends the records again
+    partition1.insertRecords(TestUtils.createNativeJsonSinkRecords(7, 1, TOPIC, 1), false);
+    verify(streamingChannel, never()).insertRows(anyList(), eq("0:9,1:7"));
+    partition1.insertRecords(TestUtils.createNativeJsonSinkRecords(5, 1, TOPIC, 1), true);
+    verify(streamingChannel).insertRows(anyList(), eq("0:9,1:5"));
+  }
+
+  @Test
+  void closeChannelAsync_closesSharedChannelWithLastPartition() {
+    MultiplexedTopicPartitionChannel partition0 = createChannel(0);
+    MultiplexedTopicPartitionChannel partition1 = createChannel(1);
+
+    partition0.closeChannelAsync().join();
+    assertTrue(partition0.isChannelClosed());
+    assertFalse(partition1.isChannelClosed());
+    verify(streamingChannel, never()).close();
+
+    partition1.insertRecords(TestUtils.createNativeJsonSinkRecords(0, 1, TOPIC, 1), true);
+    verify(streamingChannel).insertRows(anyList(), eq("0:10,1:0"));
+
+    partition1.closeChannelAsync().join();
+    verify(streamingChannel).close();
+  }
+
+  @Test
+  void insertRecords_keepsOffsetsOfDetachedAndForeignPartitionsInToken() {
+    // partition 2 of the group is not attached in this task
+    when(streamingChannel.getLatestCommittedOffsetToken()).thenReturn("0:10,2:7");
+    MultiplexedTopicPartitionChannel partition0 = createChannel(0);
+    MultiplexedTopicPartitionChannel partition1 = createChannel(1);
+    partition0.insertRecords(TestUtils.createNativeJsonSinkRecords(11, 2, TOPIC, 0), true);
+    verify(streamingChannel).insertRows(anyList(), eq("0:12,2:7"));
+
+    partition0.closeChannelAsync().join();
+    partition1.insertRecords(TestUtils.createNativeJsonSinkRecords(0, 1, TOPIC, 1), true);
+
+    verify(streamingChannel).insertRows(anyList(), eq("0:12,1:0,2:7"));
+  }
+
+  @Test
+  void reopen_failsWhenAnotherTaskWroteOffsetsOfTheGroup() {
+    when(streamingChannel.getLatestCommittedOffsetToken()).thenReturn("0:10,2:7");
+    createChannel(0);
+
+    // another task owning partition 2 inserted into the channel
+    when(streamingChannel.getLatestCommittedOffsetToken()).thenReturn("0:10,2:9");
+    SnowflakeKafkaConnectorException exception =
+        assertThrows(SnowflakeKafkaConnectorException.class, () -> sharedChannel.reopen());
+    assertTrue(exception.checkErrorCode(SnowflakeErrors.ERROR_5027));
+
+    // a partition of this task can not be attached either
+    assertThrows(SnowflakeKafkaConnectorException.class, () -> sharedChannel.attach(1, o -> {}));
+  }
+
+  private MultiplexedTopicPartitionChannel createChannel(int partition) {
+    return new MultiplexedTopicPartitionChannel(
+        sharedChannel,
+        new TopicPartition(TOPIC, partition),
+        SnowflakeSinkServiceV2.partitionChannelKey(TOPIC, partition),
+        config,
+        mock(KafkaRecordErrorReporter.class),
+        sinkTaskContext,
+        mock(SnowflakeConnectionService.class),
+        RecordServiceFactory.createRecordService(false, false),
+        mock(SnowflakeTelemetryService.class),
+        false,
+        null);
+  }
+}
@@ -0,0 +1,85 @@
+package com.snowflake.kafka.connector.internal.streaming;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.snowflake.kafka.connector.internal.TestUtils;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.junit.jupiter.api.Test;
+
+class ReplayLogTest {
+
+  private final ReplayLog replayLog = new ReplayLog(3, -1);
+
+  @Test
+  void getBatchAfter_returnsRowsAfterCommittedOffset() {
+    append(0, 3);
+
+    assertTrue(replayLog.canReplayAfter(-1));
+    assertEquals(Collections.emptyList(), offsets(replayLog.getBatchAfter(2)));
+    assertEquals(Arrays.asList(1L, 2L), offsets(replayLog.getBatchAfter(0)));
+  }
+
+  @Test
+  void append_dropsOldestRowsAboveMaxRecords() {
+    append(0, 5);
+
+    assertEquals(3, replayLog.size());
+    assertFalse(replayLog.canReplayAfter(0));
+    assertTrue(replayLog.canReplayAfter(1));
+    assertEquals(Arrays.asList(2L, 3L, 4L), offsets(replayLog.getBatchAfter(1)));
+  }
+
+  @Test
+  void truncate_dropsCommittedRows() {
+    append(0, 3);
+
+    replayLog.truncate(1);
+
+    assertEquals(1, replayLog.size());
+    // committed rows can't be replayed anymore
+    assertFalse(replayLog.canReplayAfter(0));
+    assertTrue(replayLog.canReplayAfter(1));
+  }
+
+  @Test
+  void remove_dropsRejectedRow() {
+    List<SinkRecord> records = append(0, 3);
+
+    replayLog.remove(records.get(1));
+
+    assertEquals(Arrays.asList(0L, 2L), offsets(replayLog.getBatchAfter(-1)));
+  }
+
+  @Test
+  void reset_dropsAllRows() {
+    append(0, 3);
+
+    replayLog.reset(9);
+
+    assertEquals(0, replayLog.size());
+    assertFalse(replayLog.canReplayAfter(8));
+    assertTrue(replayLog.canReplayAfter(9));
+  }
+
+  private List<SinkRecord> append(long startOffset, long noOfRecords) {
+    List<SinkRecord> records =
+        TestUtils.createNativeJsonSinkRecords(startOffset, noOfRecords, "topic", 0);
+    List<Map<String, Object>> rows =
+        records.stream()
+            .map(record -> Collections.<String, Object>singletonMap("offset", record.kafkaOffset()))
+            .collect(Collectors.toList());
+    replayLog.append(rows, records);
+    return records;
+  }
+
+  private static List<Long> offsets(ReplayLog.Batch batch) {
+    return batch.getRecords().stream().map(SinkRecord::kafkaOffset).collect(Collectors.toList());
+  }
+}
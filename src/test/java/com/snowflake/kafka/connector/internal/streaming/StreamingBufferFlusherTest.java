@@ -0,0 +1,149 @@
+package com.snowflake.kafka.connector.internal.streaming;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class StreamingBufferFlusherTest {
+
+  private final StreamingBufferFlusher flusher = new StreamingBufferFlusher(4, 2);
+
+  @AfterEach
+  void tearDown() {
+    flusher.close();
+  }
+
+  @Test
+  void flushesOfChannelRunInSubmissionOrder() throws Exception {
+    StreamingBufferFlusher.ChannelFlushQueue queue = flusher.newChannelQueue("channel");
+    List<Integer> flushed = Collections.synchronizedList(new ArrayList<>());
+
+    for (int i = 0; i < 20; i++) {
+      int buffer = i;
+      queue.submit(() -> flushed.add(buffer));
+    }
+    queue.flushesDone().get(5, TimeUnit.SECONDS);
+
+    List<Integer> expected = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      expected.add(i);
+    }
+    assertEquals(expected, flushed);
+  }
+
+  @Test
+  void submitBlocksWhileMaxFlushesInFlight() throws Exception {
+    StreamingBufferFlusher.ChannelFlushQueue queue = flusher.newChannelQueue("channel");
+    CountDownLatch release = new CountDownLatch(1);
+    Runnable blocked =
+        () -> {
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        };
+    queue.submit(blocked);
+    queue.submit(blocked);
+
+    AtomicBoolean thirdSubmitted = new AtomicBoolean();
+    Thread putThread =
+        new Thread(
+            () -> {
+              queue.submit(() -> {});
+              thirdSubmitted.set(true);
+            });
+    putThread.start();
+    putThread.join(200);
+    assertFalse(thirdSubmitted.get());
+
+    release.countDown();
+    putThread.join(5000);
+    assertTrue(thirdSubmitted.get());
+    queue.flushesDone().get(5, TimeUnit.SECONDS);
+  }
+
+  @Test
+  void failureSkipsLaterFlushesAndIsRethrown() throws Exception {
+    StreamingBufferFlusher.ChannelFlushQueue queue = flusher.newChannelQueue("channel");
+    StreamingBufferFlusher.ChannelFlushQueue otherQueue = flusher.newChannelQueue("other");
+    RuntimeException failure = new RuntimeException("insertRows failed");
+    List<String> flushed = Collections.synchronizedList(new ArrayList<>());
+
+    queue.submit(() -> flushed.add("first"));
+    queue.submit(
+        () -> {
+          throw failure;
+        });
+    queue.submit(() -> flushed.add("after failure"));
+    otherQueue.submit(() -> flushed.add("other channel"));
+    queue.flushesDone().get(5, TimeUnit.SECONDS);
+    otherQueue.flushesDone().get(5, TimeUnit.SECONDS);
+
+    // flushes of other channels are independent and may run in any order
+    assertEquals(new HashSet<>(Arrays.asList("first", "other channel")), new HashSet<>(flushed));
+    assertSame(failure, assertThrows(RuntimeException.class, queue::throwIfFailed));
+    assertSame(failure, assertThrows(RuntimeException.class, () -> queue.submit(() -> {})));
+    otherQueue.throwIfFailed();
+  }
+
+  @Test
+  void errorOfFlushIsRethrownAsFailure() throws Exception {
+    StreamingBufferFlusher.ChannelFlushQueue queue = flusher.newChannelQueue("channel");
+    Error error = new OutOfMemoryError("flush");
+
+    queue.submit(
+        () -> {
+          throw error;
+        });
+    queue.flushesDone().get(5, TimeUnit.SECONDS);
+
+    assertSame(error, assertThrows(IllegalStateException.class, queue::throwIfFailed).getCause());
+  }
+
+  @Test
+  void rejectedFlushFailsQueue() throws Exception {
+    StreamingBufferFlusher.ChannelFlushQueue queue = flusher.newChannelQueue("channel");
+    flusher.close();
+
+    queue.submit(() -> {});
+    queue.flushesDone().get(5, TimeUnit.SECONDS);
+
+    assertEquals(
+        "Buffer flusher is closed",
+        assertThrows(IllegalStateException.class, queue::throwIfFailed).getMessage());
+  }
+
+  @Test
+  void flushesDoneCompletesAfterRunningFlush() throws Exception {
+    StreamingBufferFlusher.ChannelFlushQueue queue = flusher.newChannelQueue("channel");
+    CountDownLatch release = new CountDownLatch(1);
+    queue.submit(
+        () -> {
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        });
+
+    assertThrows(
+        TimeoutException.class, () -> queue.flushesDone().get(100, TimeUnit.MILLISECONDS));
+    release.countDown();
+    queue.flushesDone().get(5, TimeUnit.SECONDS);
+  }
+}
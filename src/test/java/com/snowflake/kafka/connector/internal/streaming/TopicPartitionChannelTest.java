@@ -41,6 +41,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import net.snowflake.ingest.streaming.InsertValidationResponse;
 import net.snowflake.ingest.streaming.OpenChannelRequest;
 import net.snowflake.ingest.streaming.SnowflakeStreamingIngestChannel;
@@ -196,6 +197,195 @@ public class TopicPartitionChannelTest {
     Assert.assertEquals(100L, topicPartitionChannel.fetchOffsetTokenWithRetry());
   }
 
+  @Test
+  public void testGetOffsetSafeToCommitToKafka_prefetchedOffsetToken() {
+    Mockito.when(mockStreamingChannel.getLatestCommittedOffsetToken()).thenReturn(null);
+
+    TopicPartitionChannel topicPartitionChannel =
+        createTopicPartitionChannel(
+            mockStreamingClient,
+            topicPartition,
+            TEST_CHANNEL_NAME,
+            TEST_TABLE_NAME,
+            streamingBufferThreshold,
+            sfConnectorConfig,
+            mockKafkaRecordErrorReporter,
+            mockSinkTaskContext,
+            mockSnowflakeConnectionService,
+            mockTelemetryService,
+            this.schemaEvolutionService);
+
+    Assert.assertEquals(101L, topicPartitionChannel.getOffsetSafeToCommitToKafka("100"));
+    Assert.assertEquals(-1L, topicPartitionChannel.getOffsetSafeToCommitToKafka(null));
+
+    // the token is only fetched once when the channel is opened
+    Mockito.verify(mockStreamingChannel, Mockito.times(1)).getLatestCommittedOffsetToken();
+  }
+
+  @Test
+  public void testGetRefreshedOffsetSafeToCommitToKafka() {
+    Mockito.when(mockStreamingChannel.getLatestCommittedOffsetToken()).thenReturn(null);
+
+    TopicPartitionChannel topicPartitionChannel =
+        createTopicPartitionChannel(
+            mockStreamingClient,
+            topicPartition,
+            TEST_CHANNEL_NAME,
+            TEST_TABLE_NAME,
+            streamingBufferThreshold,
+            sfConnectorConfig,
+            mockKafkaRecordErrorReporter,
+            mockSinkTaskContext,
+            mockSnowflakeConnectionService,
+            mockTelemetryService,
+            this.schemaEvolutionService);
+    long maxAgeNanos = TimeUnit.SECONDS.toNanos(10);
+
+    // never refreshed
+    Assert.assertFalse(
+        topicPartitionChannel.getRefreshedOffsetSafeToCommitToKafka(maxAgeNanos).isPresent());
+
+    topicPartitionChannel.refreshOffsetPersistedInSnowflake("100", System.nanoTime());
+    Assert.assertEquals(100L, topicPartitionChannel.getOffsetPersistedInSnowflake());
+    Assert.assertEquals(
+        101L, topicPartitionChannel.getRefreshedOffsetSafeToCommitToKafka(maxAgeNanos).getAsLong());
+
+    // outdated
+    topicPartitionChannel.refreshOffsetPersistedInSnowflake(
+        "200", System.nanoTime() - TimeUnit.SECONDS.toNanos(60));
+    Assert.assertFalse(
+        topicPartitionChannel.getRefreshedOffsetSafeToCommitToKafka(maxAgeNanos).isPresent());
+
+    // only fetched when the channel was opened
+    Mockito.verify(mockStreamingChannel, Mockito.times(1)).getLatestCommittedOffsetToken();
+  }
+
+  @Test
+  public void testGetOffsetToResetInKafkaOnOpen() {
+    Mockito.when(mockStreamingChannel.getLatestCommittedOffsetToken()).thenReturn("100");
+
+    TopicPartitionChannel topicPartitionChannel =
+        createTopicPartitionChannel(
+            mockStreamingClient,
+            topicPartition,
+            TEST_CHANNEL_NAME,
+            TEST_TABLE_NAME,
+            streamingBufferThreshold,
+            sfConnectorConfig,
+            mockKafkaRecordErrorReporter,
+            mockSinkTaskContext,
+            mockSnowflakeConnectionService,
+            mockTelemetryService,
+            this.schemaEvolutionService);
+    topicPartitionChannel.refreshOffsetPersistedInSnowflake("200", System.nanoTime());
+
+    Assert.assertEquals(101L, topicPartitionChannel.getOffsetToResetInKafkaOnOpen());
+    // the offset is reset by the caller, together with the offsets of the other opened channels
+    Mockito.verify(mockSinkTaskContext, Mockito.never())
+        .offset(ArgumentMatchers.any(TopicPartition.class), ArgumentMatchers.anyLong());
+  }
+
+  @Test
+  public void testParkAndTryReuse() {
+    Mockito.when(mockStreamingChannel.getLatestCommittedOffsetToken()).thenReturn("100");
+    Mockito.when(mockStreamingChannel.isValid()).thenReturn(true);
+
+    TopicPartitionChannel topicPartitionChannel =
+        createTopicPartitionChannel(
+            mockStreamingClient,
+            topicPartition,
+            TEST_CHANNEL_NAME,
+            TEST_TABLE_NAME,
+            streamingBufferThreshold,
+            sfConnectorConfig,
+            mockKafkaRecordErrorReporter,
+            mockSinkTaskContext,
+            mockSnowflakeConnectionService,
+            mockTelemetryService,
+            this.schemaEvolutionService);
+    topicPartitionChannel.park().join();
+
+    // offsets were committed after the ones processed by the channel
+    Assert.assertFalse(topicPartitionChannel.tryReuse("120"));
+
+    Assert.assertTrue(topicPartitionChannel.tryReuse("100"));
+    Assert.assertEquals(101L, topicPartitionChannel.getOffsetToResetInKafkaOnOpen());
+
+    Mockito.when(mockStreamingChannel.isValid()).thenReturn(false);
+    Assert.assertFalse(topicPartitionChannel.tryReuse("100"));
+  }
+
+  @Test
+  public void testReplayUncommittedRowsAfterChannelInvalidation() {
+    if (useDoubleBuffer) {
+      // rows are only replayed by the channel without buffer
+      return;
+    }
+    Mockito.when(mockStreamingChannel.getLatestCommittedOffsetToken())
+        .thenReturn(null)
+        .thenReturn("1");
+    Mockito.when(
+            mockStreamingChannel.insertRows(
+                ArgumentMatchers.any(Iterable.class),
+                ArgumentMatchers.any(String.class),
+                ArgumentMatchers.any(String.class)))
+        .thenReturn(new InsertValidationResponse());
+    Mockito.when(
+            mockStreamingChannel.insertRows(
+                ArgumentMatchers.any(Iterable.class),
+                ArgumentMatchers.eq("3"),
+                ArgumentMatchers.eq("4")))
+        .thenThrow(SF_EXCEPTION);
+    sfConnectorConfig.put(
+        SnowflakeSinkConnectorConfig.SNOWPIPE_STREAMING_REPLAY_LOG_MAX_RECORDS, "3");
+
+    TopicPartitionChannel topicPartitionChannel =
+        createTopicPartitionChannel(
+            mockStreamingClient,
+            topicPartition,
+            TEST_CHANNEL_NAME,
+            TEST_TABLE_NAME,
+            streamingBufferThreshold,
+            sfConnectorConfig,
+            mockKafkaRecordErrorReporter,
+            mockSinkTaskContext,
+            mockSnowflakeConnectionService,
+            mockTelemetryService,
+            this.schemaEvolutionService);
+    topicPartitionChannel.insertRecords(
+        TestUtils.createNativeJsonSinkRecords(0, 3, TOPIC, PARTITION), true);
+    topicPartitionChannel.insertRecords(
+        TestUtils.createNativeJsonSinkRecords(3, 2, TOPIC, PARTITION), true);
+
+    // rows 2 to 4 are not committed, they are inserted again into the reopened channel
+    Mockito.verify(mockStreamingClient, Mockito.times(2))
+        .openChannel(ArgumentMatchers.any(OpenChannelRequest.class));
+    Mockito.verify(mockStreamingChannel)
+        .insertRows(
+            ArgumentMatchers.any(Iterable.class),
+            ArgumentMatchers.eq("2"),
+            ArgumentMatchers.eq("4"));
+    Mockito.verify(mockSinkTaskContext, Mockito.never())
+        .offset(ArgumentMatchers.any(TopicPartition.class), ArgumentMatchers.anyLong());
+    Assert.assertEquals(4L, topicPartitionChannel.getProcessedOffset());
+
+    // rows 3 to 5 are dropped to keep 3 rows, the offset in kafka is reset instead
+    Mockito.when(mockStreamingChannel.getLatestCommittedOffsetToken()).thenReturn("2");
+    Assert.assertEquals(3L, topicPartitionChannel.getOffsetSafeToCommitToKafka());
+    topicPartitionChannel.insertRecords(
+        TestUtils.createNativeJsonSinkRecords(5, 2, TOPIC, PARTITION), true);
+    Mockito.when(
+            mockStreamingChannel.insertRows(
+                ArgumentMatchers.any(Iterable.class),
+                ArgumentMatchers.eq("7"),
+                ArgumentMatchers.eq("8")))
+        .thenThrow(SF_EXCEPTION);
+    topicPartitionChannel.insertRecords(
+        TestUtils.createNativeJsonSinkRecords(7, 2, TOPIC, PARTITION), true);
+    Mockito.verify(mockSinkTaskContext).offset(topicPartition, 3L);
+    Assert.assertEquals(2L, topicPartitionChannel.getProcessedOffset());
+  }
+
   // TODO:: Fix this test
   @Test
   public void testFirstRecordForChannel() {
@@ -918,6 +1108,58 @@ public class TopicPartitionChannelTest {
     }
   }
 
+  /* Contiguous records are sent with one insertRows call, errors are mapped back to the records. */
+  @Test
+  public void testInsertRecords_singleInsertRowsCallWithErrorsMappedToRecords() {
+    if (useDoubleBuffer) {
+      return;
+    }
+    InsertValidationResponse validationResponse = new InsertValidationResponse();
+    InsertValidationResponse.InsertError insertError =
+        new InsertValidationResponse.InsertError("CONTENT", 1);
+    insertError.setException(SF_EXCEPTION);
+    validationResponse.addError(insertError);
+    Mockito.when(mockStreamingChannel.insertRows(anyIterable(), anyString(), anyString()))
+        .thenReturn(validationResponse);
+    Mockito.when(mockStreamingChannel.getLatestCommittedOffsetToken()).thenReturn(null);
+
+    Map<String, String> sfConnectorConfigWithErrors = new HashMap<>(sfConnectorConfig);
+    sfConnectorConfigWithErrors.put(
+        ERRORS_TOLERANCE_CONFIG, SnowflakeSinkConnectorConfig.ErrorTolerance.ALL.toString());
+    sfConnectorConfigWithErrors.put(ERRORS_DEAD_LETTER_QUEUE_TOPIC_NAME_CONFIG, "test_DLQ");
+    InMemoryKafkaRecordErrorReporter kafkaRecordErrorReporter =
+        new InMemoryKafkaRecordErrorReporter();
+
+    TopicPartitionChannel topicPartitionChannel =
+        createTopicPartitionChannel(
+            mockStreamingClient,
+            topicPartition,
+            TEST_CHANNEL_NAME,
+            TEST_TABLE_NAME,
+            streamingBufferThreshold,
+            sfConnectorConfigWithErrors,
+            kafkaRecordErrorReporter,
+            mockSinkTaskContext,
+            mockSnowflakeConnectionService,
+            mockTelemetryService,
+            this.schemaEvolutionService);
+
+    List<SinkRecord> records = TestUtils.createJsonStringSinkRecords(0, 3, TOPIC, PARTITION);
+    topicPartitionChannel.insertRecords(records, true);
+
+    Mockito.verify(mockStreamingChannel, Mockito.times(1))
+        .insertRows(anyIterable(), eq("0"), eq("2"));
+    Mockito.verify(mockStreamingChannel, Mockito.never()).insertRow(anyMap(), anyString());
+    Assert.assertEquals(1, kafkaRecordErrorReporter.getReportedRecords().size());
+    Assert.assertEquals(
+        1, kafkaRecordErrorReporter.getReportedRecords().get(0).getRecord().kafkaOffset());
+
+    // records already sent are skipped
+    topicPartitionChannel.insertRecords(records.subList(1, 3), false);
+    Mockito.verify(mockStreamingChannel, Mockito.times(1))
+        .insertRows(anyIterable(), anyString(), anyString());
+  }
+
   // --------------- TEST THRESHOLDS ---------------
   @Test
   public void testBufferBytesThreshold() throws Exception {
@@ -939,7 +1181,7 @@ public class TopicPartitionChannelTest {
 
     final long bufferFlushTimeSeconds = 5L;
     StreamingBufferThreshold bufferThreshold =
-        new StreamingBufferThreshold(bufferFlushTimeSeconds, 800 /* < 1KB */, 10000000L);
+        new StreamingBufferThreshold(bufferFlushTimeSeconds, 700 /* < 1KB */, 10000000L);
 
     TopicPartitionChannel topicPartitionChannel =
         createTopicPartitionChannel(
@@ -956,7 +1198,8 @@ public class TopicPartitionChannelTest {
             this.schemaEvolutionService);
 
     // Sending 5 records will trigger a buffer bytes based threshold after 4 records have been
-    // added. Size of each record after serialization to Json is 260 Bytes
+    // added. Size of each row after serialization to Json is 167 Bytes, and 22 Bytes of each
+    // record are retained in the buffer
     List<SinkRecord> records = createNativeJsonSinkRecords(0, 5, "test", 0);
 
     for (int idx = 0; idx < records.size(); idx++) {
@@ -1003,7 +1246,7 @@ public class TopicPartitionChannelTest {
 
     final long bufferFlushTimeSeconds = 5L;
     StreamingBufferThreshold bufferThreshold =
-        new StreamingBufferThreshold(bufferFlushTimeSeconds, 10_000 /* < 10 KB */, 10000000L);
+        new StreamingBufferThreshold(bufferFlushTimeSeconds, 6_000 /* < 10 KB */, 10000000L);
 
     TopicPartitionChannel topicPartitionChannel =
         createTopicPartitionChannel(
@@ -1020,7 +1263,8 @@ public class TopicPartitionChannelTest {
             this.schemaEvolutionService);
 
     // Sending 3 records will trigger a buffer bytes based threshold after 2 records have been
-    // added. Size of each record after serialization to Json is ~6 KBytes
+    // added. Size of each row after serialization to Json is ~3 KBytes, and ~1 KByte of each
+    // record is retained in the buffer
     List<SinkRecord> records = createBigAvroRecords(0, 3, "test", 0);
 
     for (int idx = 0; idx < records.size(); idx++) {
@@ -0,0 +1,122 @@
+package com.snowflake.kafka.connector.internal.streaming;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.snowflake.kafka.connector.internal.streaming.channel.TopicPartitionChannel;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.Test;
+
+class WarmChannelCacheTest {
+
+  private long nanoTime = 0L;
+
+  private final WarmChannelCache cache =
+      new WarmChannelCache(2, Duration.ofSeconds(10), () -> nanoTime);
+
+  @Test
+  void take_returnsParkedChannelOnce() {
+    TopicPartitionChannel channel = mockChannel();
+    cache.park("topic_0", channel);
+
+    assertSame(channel, cache.take("topic_0"));
+    assertNull(cache.take("topic_0"));
+    assertNull(cache.take("topic_1"));
+    verify(channel, never()).closeChannelAsync();
+  }
+
+  @Test
+  void take_closesExpiredChannel() {
+    TopicPartitionChannel channel = mockChannel();
+    cache.park("topic_0", channel);
+    nanoTime += Duration.ofSeconds(10).toNanos();
+
+    assertNull(cache.take("topic_0"));
+    verify(channel).closeChannelAsync();
+  }
+
+  @Test
+  void take_waitsForPendingCloseOfTheChannel() throws Exception {
+    TopicPartitionChannel channel = mock(TopicPartitionChannel.class);
+    CompletableFuture<Void> closing = new CompletableFuture<>();
+    when(channel.closeChannelAsync()).thenReturn(closing);
+    cache.park("topic_0", channel);
+    nanoTime += Duration.ofSeconds(10).toNanos();
+    cache.closeExpired();
+
+    // the caller opens the channel again once take returns
+    CompletableFuture<TopicPartitionChannel> taken =
+        CompletableFuture.supplyAsync(() -> cache.take("topic_0"));
+    assertThrows(TimeoutException.class, () -> taken.get(100, TimeUnit.MILLISECONDS));
+
+    closing.complete(null);
+    assertNull(taken.get(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void park_closesFirstParkedChannelAboveMaxSize() {
+    TopicPartitionChannel first = mockChannel();
+    TopicPartitionChannel second = mockChannel();
+    TopicPartitionChannel third = mockChannel();
+    cache.park("topic_0", first);
+    cache.park("topic_1", second);
+    // parking a partition again replaces its channel and makes it the last parked one
+    TopicPartitionChannel firstAgain = mockChannel();
+    cache.park("topic_0", firstAgain);
+    verify(first).closeChannelAsync();
+
+    cache.park("topic_2", third);
+
+    assertEquals(2, cache.size());
+    verify(second).closeChannelAsync();
+    assertSame(firstAgain, cache.take("topic_0"));
+    assertSame(third, cache.take("topic_2"));
+  }
+
+  @Test
+  void closeExpired_closesChannelsParkedForLongerThanGracePeriod() {
+    TopicPartitionChannel expired = mockChannel();
+    TopicPartitionChannel parkedLater = mockChannel();
+    cache.park("topic_0", expired);
+    nanoTime += Duration.ofSeconds(5).toNanos();
+    cache.park("topic_1", parkedLater);
+    nanoTime += Duration.ofSeconds(5).toNanos();
+
+    cache.closeExpired();
+
+    verify(expired).closeChannelAsync();
+    verify(parkedLater, never()).closeChannelAsync();
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  void closeAll_closesAllChannelsEvenIfOneFails() {
+    TopicPartitionChannel failing = mockChannel();
+    CompletableFuture<Void> failure = new CompletableFuture<>();
+    failure.completeExceptionally(new IllegalStateException("closing failed"));
+    when(failing.closeChannelAsync()).thenReturn(failure);
+    TopicPartitionChannel other = mockChannel();
+    cache.park("topic_0", failing);
+    cache.park("topic_1", other);
+
+    cache.closeAll().join();
+
+    verify(other).closeChannelAsync();
+    assertEquals(0, cache.size());
+  }
+
+  private static TopicPartitionChannel mockChannel() {
+    TopicPartitionChannel channel = mock(TopicPartitionChannel.class);
+    when(channel.closeChannelAsync()).thenReturn(CompletableFuture.completedFuture(null));
+    return channel;
+  }
+}
@@ -0,0 +1,108 @@
+package com.snowflake.kafka.connector.records;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.util.Utf8;
+import org.junit.jupiter.api.Test;
+
+class AvroJsonTreeBuilderTest {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  @Test
+  void toJsonNode_sameAsParsingToString() throws IOException {
+    Schema nested = SchemaBuilder.record("nested").fields().requiredString("name").endRecord();
+    Schema fixed = SchemaBuilder.fixed("fixed").size(3);
+    Schema decimal = LogicalTypes.decimal(20, 4).addToSchema(Schema.create(Schema.Type.BYTES));
+    Schema schema =
+        SchemaBuilder.record("test")
+            .fields()
+            .requiredInt("int")
+            .requiredLong("smallLong")
+            .requiredLong("long")
+            .requiredFloat("float")
+            .requiredFloat("floatNaN")
+            .requiredDouble("double")
+            .requiredDouble("doubleInfinity")
+            .requiredBoolean("boolean")
+            .requiredString("string")
+            .requiredBytes("bytes")
+            .name("fixed")
+            .type(fixed)
+            .noDefault()
+            .name("decimal")
+            .type(decimal)
+            .noDefault()
+            .name("smallDecimal")
+            .type(decimal)
+            .noDefault()
+            .name("enum")
+            .type()
+            .enumeration("enum")
+            .symbols("A", "B")
+            .noDefault()
+            .name("array")
+            .type()
+            .array()
+            .items(nested)
+            .noDefault()
+            .name("map")
+            .type()
+            .map()
+            .values()
+            .longType()
+            .noDefault()
+            .optionalString("optional")
+            .endRecord();
+
+    Map<Utf8, Long> map = new LinkedHashMap<>();
+    map.put(new Utf8("b"), 1L);
+    map.put(new Utf8("a\"quoted\""), Long.MIN_VALUE);
+
+    GenericRecord record = new GenericData.Record(schema);
+    record.put("int", -5);
+    record.put("smallLong", 12L);
+    record.put("long", Long.MAX_VALUE);
+    record.put("float", 1 / 3f);
+    record.put("floatNaN", Float.NaN);
+    record.put("double", 1e-10);
+    record.put("doubleInfinity", Double.NEGATIVE_INFINITY);
+    record.put("boolean", true);
+    record.put("string", new Utf8("line\nbreak / \\ é"));
+    record.put("bytes", ByteBuffer.wrap(new byte[] {0, 1, (byte) 0xe9, 0x7f, 'a'}));
+    record.put("fixed", new GenericData.Fixed(fixed, new byte[] {1, -2, 3}));
+    record.put("decimal", new BigDecimal("1234.1234"));
+    record.put("smallDecimal", new BigDecimal("1E+3"));
+    record.put("enum", new GenericData.EnumSymbol(schema.getField("enum").schema(), "B"));
+    record.put(
+        "array",
+        new GenericData.Array<>(
+            schema.getField("array").schema(),
+            Arrays.asList(nestedRecord(nested, "first"), nestedRecord(nested, "second"))));
+    record.put("map", map);
+    record.put("optional", null);
+
+    assertEquals(MAPPER.readTree(record.toString()), AvroJsonTreeBuilder.toJsonNode(record));
+    assertEquals(
+        MAPPER.writeValueAsString(MAPPER.readTree(record.toString())),
+        MAPPER.writeValueAsString(AvroJsonTreeBuilder.toJsonNode(record)));
+  }
+
+  private static GenericRecord nestedRecord(Schema schema, String name) {
+    GenericRecord record = new GenericData.Record(schema);
+    record.put("name", name);
+    return record;
+  }
+}
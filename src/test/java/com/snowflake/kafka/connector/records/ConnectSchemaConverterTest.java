@@ -0,0 +1,164 @@
+package com.snowflake.kafka.connector.records;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+import com.snowflake.kafka.connector.internal.SnowflakeKafkaConnectorException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Map;
+import org.apache.kafka.connect.data.Decimal;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.data.Time;
+import org.apache.kafka.connect.data.Timestamp;
+import org.junit.jupiter.api.Test;
+
+class ConnectSchemaConverterTest {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private static final Schema NESTED_SCHEMA =
+      SchemaBuilder.struct()
+          .field("inner", Schema.STRING_SCHEMA)
+          .field("numbers", SchemaBuilder.array(Schema.INT32_SCHEMA).build())
+          .build();
+
+  private static final Schema SCHEMA =
+      SchemaBuilder.struct()
+          .field("int8", Schema.INT8_SCHEMA)
+          .field("int16", Schema.INT16_SCHEMA)
+          .field("int32", Schema.INT32_SCHEMA)
+          .field("int64", Schema.INT64_SCHEMA)
+          .field("float32", Schema.FLOAT32_SCHEMA)
+          .field("float64", Schema.FLOAT64_SCHEMA)
+          .field("nan", Schema.FLOAT64_SCHEMA)
+          .field("boolean", Schema.BOOLEAN_SCHEMA)
+          .field("string", Schema.STRING_SCHEMA)
+          .field("bytes", Schema.BYTES_SCHEMA)
+          .field("byteBuffer", Schema.BYTES_SCHEMA)
+          .field("decimal", Decimal.schema(4))
+          .field("bigDecimal", Decimal.schema(0))
+          .field("date", org.apache.kafka.connect.data.Date.SCHEMA)
+          .field("time", Time.SCHEMA)
+          .field("timestamp", Timestamp.SCHEMA)
+          .field("optional", Schema.OPTIONAL_STRING_SCHEMA)
+          .field("withDefault", SchemaBuilder.int32().defaultValue(7).build())
+          .field("stringMap", SchemaBuilder.map(Schema.STRING_SCHEMA, Schema.INT64_SCHEMA).build())
+          .field("intMap", SchemaBuilder.map(Schema.INT32_SCHEMA, Schema.STRING_SCHEMA).build())
+          .field("nested", NESTED_SCHEMA)
+          .field("MixedCase", Schema.STRING_SCHEMA)
+          .build();
+
+  @Test
+  void toJson_sameAsConvertToJson() {
+    Struct struct = createStruct();
+
+    for (boolean isStreaming : new boolean[] {true, false}) {
+      assertEquals(
+          RecordService.convertToJson(SCHEMA, struct, isStreaming),
+          LogicalTypeCodecs.BUILT_IN.converterFor(SCHEMA, isStreaming).toJson(struct));
+    }
+  }
+
+  @Test
+  void toStreamingRow_sameAsMappingJson() throws JsonProcessingException {
+    Struct struct = createStruct();
+    ConnectSchemaConverter converter = LogicalTypeCodecs.BUILT_IN.converterFor(SCHEMA, true);
+    assertTrue(converter.supportsStreamingRow());
+
+    SnowflakeTableStreamingRecordMapper mapper =
+        new SnowflakeTableStreamingRecordMapper(MAPPER, true);
+    Map<String, Object> expected =
+        mapper.processSnowflakeRecord(
+            new RecordService.SnowflakeTableRow(
+                new SnowflakeRecordContent(SCHEMA, struct, true), MAPPER.createObjectNode()),
+            false);
+
+    assertEquals(expected, converter.toStreamingRow(struct));
+    assertEquals(
+        expected,
+        mapper.processSnowflakeRecord(
+            new RecordService.SnowflakeTableRow(
+                SnowflakeRecordContent.ofSchematizedNativeValue(
+                    SCHEMA, struct, LogicalTypeCodecs.BUILT_IN),
+                MAPPER.createObjectNode()),
+            false));
+  }
+
+  @Test
+  void ofSchematizedNativeValue_buildsJsonLazily() throws JsonProcessingException {
+    Struct struct = createStruct();
+    SnowflakeRecordContent content =
+        SnowflakeRecordContent.ofSchematizedNativeValue(SCHEMA, struct, LogicalTypeCodecs.BUILT_IN);
+
+    assertTrue(content.hasStreamingRow());
+    assertEquals(RecordService.convertToJson(SCHEMA, struct, true), content.getData()[0]);
+
+    // values other than structs are converted to json right away
+    content =
+        SnowflakeRecordContent.ofSchematizedNativeValue(
+            Schema.STRING_SCHEMA, "text", LogicalTypeCodecs.BUILT_IN);
+    assertFalse(content.hasStreamingRow());
+    assertEquals("text", content.getData()[0].textValue());
+  }
+
+  @Test
+  void converterFor_cachesBySchemaIdentity() {
+    assertSame(
+        LogicalTypeCodecs.BUILT_IN.converterFor(SCHEMA, true),
+        LogicalTypeCodecs.BUILT_IN.converterFor(SCHEMA, true));
+  }
+
+  @Test
+  void toJson_invalidValues() {
+    Struct missingRequired = new Struct(SCHEMA);
+    assertThrows(
+        SnowflakeKafkaConnectorException.class,
+        () -> LogicalTypeCodecs.BUILT_IN.converterFor(SCHEMA, true).toJson(missingRequired));
+
+    assertThrows(
+        SnowflakeKafkaConnectorException.class,
+        () -> LogicalTypeCodecs.BUILT_IN.converterFor(Schema.INT32_SCHEMA, true).toJson("text"));
+
+    Struct otherSchema = new Struct(NESTED_SCHEMA);
+    assertThrows(
+        SnowflakeKafkaConnectorException.class,
+        () -> LogicalTypeCodecs.BUILT_IN.converterFor(SCHEMA, true).toJson(otherSchema));
+  }
+
+  private static Struct createStruct() {
+    return new Struct(SCHEMA)
+        .put("int8", (byte) -24)
+        .put("int16", (short) 128)
+        .put("int32", Integer.MAX_VALUE)
+        .put("int64", Long.MAX_VALUE)
+        .put("float32", 1 / 3f)
+        .put("float64", 1 / 3d)
+        .put("nan", Double.NaN)
+        .put("boolean", true)
+        .put("string", "test \"quoted\"")
+        .put("bytes", new byte[] {1, 2, 3})
+        .put("byteBuffer", ByteBuffer.wrap(new byte[] {4, 5}).asReadOnlyBuffer())
+        .put("decimal", new BigDecimal("1234.1234"))
+        .put("bigDecimal", new BigDecimal("999999999999999999999999999999999999999"))
+        .put("date", new Date(1577836800000L))
+        .put("time", new Date(54321L))
+        .put("timestamp", new Date(1577836800123L))
+        .put("stringMap", ImmutableMap.of("a", 1L, "b", 2L))
+        .put("intMap", ImmutableMap.of(1, "one"))
+        .put(
+            "nested",
+            new Struct(NESTED_SCHEMA).put("inner", "value").put("numbers", Arrays.asList(1, 2, 3)))
+        .put("MixedCase", "mixed");
+  }
+}
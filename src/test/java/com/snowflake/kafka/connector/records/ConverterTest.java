@@ -21,6 +21,7 @@ import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -28,6 +29,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.snowflake.kafka.connector.Utils;
 import com.snowflake.kafka.connector.internal.SnowflakeKafkaConnectorException;
 import com.snowflake.kafka.connector.mock.MockSchemaRegistryClient;
 import io.confluent.connect.avro.AvroConverter;
@@ -38,6 +40,7 @@ import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.net.URL;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
@@ -112,6 +115,94 @@ public class ConverterTest {
     assertEquals("{}", content.getData()[0].toString());
   }
 
+  @Test
+  public void testJsonConverterPassthrough() throws JsonProcessingException {
+    SnowflakeConverter converter = new SnowflakeJsonConverter();
+    converter.configure(
+        Collections.singletonMap(SnowflakeJsonConverter.JSON_PASSTHROUGH_CONFIG, "true"), false);
+
+    String json = "{\"str\": \"test\", \"num\": 123}";
+    SchemaAndValue sv = converter.toConnectData("test", json.getBytes(StandardCharsets.UTF_8));
+    SnowflakeRecordContent content = assertInstanceOf(SnowflakeRecordContent.class, sv.value());
+
+    assertFalse(content.isBroken());
+    assertTrue(content.hasRawJson());
+    assertEquals(json, content.getRawJson());
+    assertEquals(mapper.readTree(json), content.getData()[0]);
+
+    // record content is taken from the original bytes when schematization is off
+    RecordService.SnowflakeTableRow row =
+        new RecordService.SnowflakeTableRow(content, mapper.createObjectNode());
+    Map<String, Object> streamingRow =
+        new SnowflakeTableStreamingRecordMapper(mapper, false).processSnowflakeRecord(row, false);
+    assertEquals(json, streamingRow.get(Utils.TABLE_COLUMN_CONTENT));
+
+    // with schematization only the top level is tokenized, nested values keep their original text
+    String nested =
+        "{\"str\": \"test\", \"num\": 1.5e3, \"bool\": true, \"nil\": null,"
+            + " \"MixedCase\": 1, \"obj\": {\"a\": [1, {\"b\": \"\\u00e9\"}]}, \"arr\": [ 1 ,2 ]}";
+    content =
+        assertInstanceOf(
+            SnowflakeRecordContent.class,
+            converter.toConnectData("test", nested.getBytes(StandardCharsets.UTF_8)).value());
+    row = new RecordService.SnowflakeTableRow(content, mapper.createObjectNode());
+    streamingRow =
+        new SnowflakeTableStreamingRecordMapper(mapper, true).processSnowflakeRecord(row, false);
+    assertEquals("test", streamingRow.get("\"STR\""));
+    assertEquals("1500.0", streamingRow.get("\"NUM\""));
+    assertEquals("true", streamingRow.get("\"BOOL\""));
+    assertTrue(streamingRow.containsKey("\"NIL\""));
+    assertNull(streamingRow.get("\"NIL\""));
+    assertEquals("1", streamingRow.get("\"MIXEDCASE\""));
+    assertEquals("{\"a\": [1, {\"b\": \"\\u00e9\"}]}", streamingRow.get("\"OBJ\""));
+    assertEquals("[ 1 ,2 ]", streamingRow.get("\"ARR\""));
+    assertEquals(7, streamingRow.size());
+    assertEquals(
+        mapper.readTree(streamingRow.get("\"OBJ\"").toString()), content.getData()[0].get("obj"));
+
+    // invalid json is still reported as broken
+    byte[] broken = "{\"str\": ".getBytes(StandardCharsets.UTF_8);
+    content =
+        assertInstanceOf(
+            SnowflakeRecordContent.class, converter.toConnectData("test", broken).value());
+    assertTrue(content.isBroken());
+    assertArrayEquals(broken, content.getBrokenData());
+  }
+
+  @Test
+  public void testJsonConverterPassthroughFallsBackToParsingOtherEncodings() throws IOException {
+    SnowflakeConverter converter = new SnowflakeJsonConverter();
+    converter.configure(
+        Collections.singletonMap(SnowflakeJsonConverter.JSON_PASSTHROUGH_CONFIG, "true"), false);
+
+    String json = "{\"str\": \"t\u00e9st\", \"num\": 123}";
+    byte[] utf8 = json.getBytes(StandardCharsets.UTF_8);
+    byte[] utf8WithBom = new byte[utf8.length + 3];
+    utf8WithBom[0] = (byte) 0xEF;
+    utf8WithBom[1] = (byte) 0xBB;
+    utf8WithBom[2] = (byte) 0xBF;
+    System.arraycopy(utf8, 0, utf8WithBom, 3, utf8.length);
+
+    List<byte[]> encodings = new ArrayList<>();
+    encodings.add(utf8WithBom);
+    // with a byte order mark
+    encodings.add(json.getBytes(StandardCharsets.UTF_16));
+    encodings.add(json.getBytes(StandardCharsets.UTF_16LE));
+    encodings.add(json.getBytes(StandardCharsets.UTF_16BE));
+    encodings.add(json.getBytes(Charset.forName("UTF-32LE")));
+    encodings.add(json.getBytes(Charset.forName("UTF-32BE")));
+    encodings.add((" " + json).getBytes(StandardCharsets.UTF_16LE));
+
+    for (byte[] bytes : encodings) {
+      SnowflakeRecordContent content =
+          assertInstanceOf(
+              SnowflakeRecordContent.class, converter.toConnectData("test", bytes).value());
+      assertFalse(content.isBroken());
+      assertFalse(content.hasRawJson());
+      assertEquals(mapper.readTree(json), content.getData()[0]);
+    }
+  }
+
   @Test
   public void testAvroConverter() throws IOException {
     // todo: test schema registry
@@ -0,0 +1,76 @@
+package com.snowflake.kafka.connector.records;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.header.ConnectHeaders;
+import org.apache.kafka.connect.header.Header;
+import org.junit.jupiter.api.Test;
+
+class HeaderProjectionTest {
+
+  @Test
+  void noPatterns_includesEveryHeader() {
+    HeaderProjection projection =
+        HeaderProjection.of(Collections.emptyList(), Arrays.asList(" ", ""));
+
+    assertTrue(projection.includes("any"));
+    assertTrue(projection.includes(""));
+  }
+
+  @Test
+  void globs_matchWholeKey() {
+    HeaderProjection projection =
+        HeaderProjection.of(
+            Arrays.asList("trace.*", " app-?", "a.b"), Collections.singletonList("trace.span*"));
+
+    assertTrue(projection.includes("trace."));
+    assertTrue(projection.includes("trace.id"));
+    assertTrue(projection.includes("app-1"));
+    assertTrue(projection.includes("a.b"));
+    // regex characters are literals
+    assertFalse(projection.includes("axb"));
+    assertFalse(projection.includes("app-12"));
+    assertFalse(projection.includes("x-trace.id"));
+    // exclude takes precedence
+    assertFalse(projection.includes("trace.spanId"));
+  }
+
+  @Test
+  void converterFor_cachedPerKey() {
+    HeaderProjection projection =
+        HeaderProjection.of(Collections.emptyList(), Collections.singletonList("skip*"));
+    ConnectHeaders headers = new ConnectHeaders();
+    headers.addString("key", "a").addString("key", "b").addString("skipped", "c");
+    headers.addInt("int", 1).addInt("int", 2).add("untyped", null, null);
+
+    Header first = headers.lastWithName("key");
+    HeaderProjection.HeaderConverter converter = projection.converterFor(first);
+    assertNotNull(converter);
+    for (Iterator<Header> it = headers.headers("key"); it.hasNext(); ) {
+      assertSame(converter, projection.converterFor(it.next()));
+    }
+    assertNull(projection.converterFor(headers.lastWithName("skipped")));
+
+    for (Header header : headers) {
+      if (projection.includes(header.key())) {
+        assertEquals(
+            RecordService.convertToJson(header.schema(), header.value(), false),
+            projection.converterFor(header).toJson(header, LogicalTypeCodecs.BUILT_IN));
+      }
+    }
+    // a header of another schema with an already seen key
+    Header string = new ConnectHeaders().add("int", "1", Schema.STRING_SCHEMA).lastWithName("int");
+    assertEquals(
+        "1",
+        projection.converterFor(string).toJson(string, LogicalTypeCodecs.BUILT_IN).textValue());
+  }
+}
@@ -4,11 +4,16 @@ import static com.snowflake.kafka.connector.streaming.iceberg.sql.PrimitiveJsonR
 import static org.assertj.core.api.Assertions.assertThat;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.snowflake.kafka.connector.Utils;
 import com.snowflake.kafka.connector.records.RecordService.SnowflakeTableRow;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.stream.Stream;
@@ -150,6 +155,58 @@ class IcebergTableStreamingRecordMapperTest {
     assertThat(result).isEqualTo(expected);
   }
 
+  @Test
+  void shouldMapWideNestedRecordSameAsConvertValue() throws JsonProcessingException {
+    // Given
+    ObjectNode content = objectMapper.createObjectNode();
+    for (int i = 0; i < 200; i++) {
+      ObjectNode nested = content.putObject("field" + i);
+      for (int depth = 0; depth < 20; depth++) {
+        nested.put("int", depth);
+        nested.put("long", Long.MAX_VALUE - depth);
+        nested.put("short", (short) depth);
+        nested.put("float", depth + 0.5f);
+        nested.put("double", depth + 0.25);
+        nested.put("decimal", new BigDecimal("12345678901234567890.1234567890"));
+        nested.put("bigInteger", new BigInteger("123456789012345678901234567890"));
+        nested.put("nan", Double.NaN);
+        nested.put("text", "value" + depth);
+        nested.put("bool", depth % 2 == 0);
+        nested.putNull("null");
+        ArrayNode array = nested.putArray("array");
+        array.add(depth).add("text").addNull().addObject().put("x", depth);
+        nested = nested.putObject("nested");
+      }
+    }
+    SnowflakeTableRow row =
+        new SnowflakeTableRow(
+            new SnowflakeRecordContent(content), objectMapper.readTree(fullMetadataJsonExample));
+    Map<String, Object> contentMap =
+        objectMapper.convertValue(content, new TypeReference<Map<String, Object>>() {});
+
+    // When
+    IcebergTableStreamingRecordMapper mapper =
+        new IcebergTableStreamingRecordMapper(objectMapper, false);
+    IcebergTableStreamingRecordMapper mapperSchematization =
+        new IcebergTableStreamingRecordMapper(objectMapper, true);
+    Map<String, Object> result = mapper.processSnowflakeRecord(row, true);
+    Map<String, Object> resultSchematized = mapperSchematization.processSnowflakeRecord(row, true);
+
+    // Then
+    Map<String, Object> expectedSchematized = new HashMap<>();
+    contentMap.forEach(
+        (key, value) -> expectedSchematized.put(Utils.quoteNameIfNeeded(key), value));
+    expectedSchematized.put(Utils.TABLE_COLUMN_METADATA, fullMetadataJsonAsMap);
+    assertThat(result)
+        .isEqualTo(
+            ImmutableMap.of(
+                Utils.TABLE_COLUMN_CONTENT,
+                contentMap,
+                Utils.TABLE_COLUMN_METADATA,
+                fullMetadataJsonAsMap));
+    assertThat(resultSchematized).isEqualTo(expectedSchematized);
+  }
+
   private static Stream<Arguments> prepareSchematizationData() throws JsonProcessingException {
     return Stream.of(
         Arguments.of(
@@ -275,6 +332,14 @@ class IcebergTableStreamingRecordMapperTest {
             "Metadata with headers with nested null keys",
             buildRow("{}", "{\"headers\": {\"key\": {\"key2\": null }}}"),
             ImmutableMap.of("headers", ImmutableMap.of("key", "{\"key2\":null}"))),
+        Arguments.of(
+            "Metadata with headers field in the key",
+            buildRow("{}", "{\"key\": {\"headers\": {\"a\": 1}}, \"headers\": {\"h\": 2}}"),
+            ImmutableMap.of(
+                "key",
+                ImmutableMap.of("headers", ImmutableMap.of("a", 1)),
+                "headers",
+                ImmutableMap.of("h", "2"))),
         Arguments.of(
             "Metadata with null field value",
             buildRow("{}", "{\"offset\": null}"),
@@ -0,0 +1,177 @@
+package com.snowflake.kafka.connector.records;
+
+import static com.snowflake.kafka.connector.records.RecordService.ISO_DATE_TIME_FORMAT;
+import static com.snowflake.kafka.connector.records.RecordService.TIME_FORMAT;
+import static com.snowflake.kafka.connector.records.RecordService.TIME_FORMAT_STREAMING;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.snowflake.kafka.connector.internal.SnowflakeKafkaConnectorException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Date;
+import org.apache.kafka.connect.data.Decimal;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.data.Time;
+import org.apache.kafka.connect.data.Timestamp;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class LogicalTypeCodecsTest {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final long MILLIS_PER_DAY = 24 * 60 * 60 * 1000L;
+
+  @Test
+  void date_interleavedDays() {
+    Schema schema = org.apache.kafka.connect.data.Date.SCHEMA;
+    LogicalTypeCodec codec = LogicalTypeCodecs.BUILT_IN.forSchema(schema);
+    // two date columns on days far apart, and days sharing a slot of the formatted days
+    long[] days = {18262L, 0L, 18262L + 256L, 18262L, -365L, 0L};
+    for (long day : days) {
+      Date date = new Date(day * MILLIS_PER_DAY);
+      assertEquals(ISO_DATE_TIME_FORMAT.get().format(date), codec.toColumn(schema, date));
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(
+      longs = {
+        0L,
+        1577836800000L,
+        1577836800123L,
+        -1L,
+        // 1600-01-01, first day of the fast path
+        -11676096000000L,
+        // before the Gregorian cutover and after year 9999, formatted with SimpleDateFormat
+        -12219292800000L - MILLIS_PER_DAY,
+        253402300800000L + 12345L,
+        Long.MIN_VALUE,
+        Long.MAX_VALUE
+      })
+  void date_sameAsSimpleDateFormat(long millis) throws JsonProcessingException {
+    Date date = new Date(millis);
+    String expected = ISO_DATE_TIME_FORMAT.get().format(date);
+    Schema schema = org.apache.kafka.connect.data.Date.SCHEMA;
+
+    for (boolean isStreaming : new boolean[] {true, false}) {
+      assertEquals(expected, RecordService.convertToJson(schema, date, isStreaming).textValue());
+    }
+    assertEquals(expected, LogicalTypeCodecs.BUILT_IN.forSchema(schema).toColumn(schema, date));
+  }
+
+  @ParameterizedTest
+  @ValueSource(
+      longs = {0L, 1L, 54321L, 3723004L, MILLIS_PER_DAY - 1, -1L, MILLIS_PER_DAY, 1000000000000L})
+  void time_sameAsSimpleDateFormat(long millis) throws JsonProcessingException {
+    Date time = new Date(millis);
+
+    assertEquals(
+        TIME_FORMAT.get().format(time),
+        RecordService.convertToJson(Time.SCHEMA, time, false).textValue());
+    assertEquals(
+        TIME_FORMAT_STREAMING.get().format(time),
+        RecordService.convertToJson(Time.SCHEMA, time, true).textValue());
+    assertEquals(
+        TIME_FORMAT_STREAMING.get().format(time),
+        LogicalTypeCodecs.BUILT_IN.forSchema(Time.SCHEMA).toColumn(Time.SCHEMA, time));
+  }
+
+  @Test
+  void toColumn_sameAsTextualValueOfJson() throws JsonProcessingException {
+    Schema decimal = Decimal.schema(2);
+    for (BigDecimal value :
+        new BigDecimal[] {
+          new BigDecimal("1234.50"),
+          new BigDecimal("0.00"),
+          new BigDecimal("1E+3"),
+          new BigDecimal("-12345678901234567890123456789012345678901234567890.12")
+        }) {
+      assertColumnSameAsJson(decimal, value);
+    }
+    assertColumnSameAsJson(Timestamp.SCHEMA, new Date(1577836800123L));
+    assertColumnSameAsJson(org.apache.kafka.connect.data.Date.SCHEMA, new Date(1577836800000L));
+  }
+
+  @Test
+  void forSchema_matchesNameAndType() {
+    assertNull(LogicalTypeCodecs.BUILT_IN.forSchema(null));
+    assertNull(LogicalTypeCodecs.BUILT_IN.forSchema(Schema.INT32_SCHEMA));
+    // the name of a logical type on another type keeps the generic handling
+    assertNull(
+        LogicalTypeCodecs.BUILT_IN.forSchema(
+            SchemaBuilder.string().name(org.apache.kafka.connect.data.Date.LOGICAL_NAME).build()));
+  }
+
+  @Test
+  void fromClassNames_customCodec() throws JsonProcessingException {
+    Schema days = SchemaBuilder.int32().name(EpochDaysCodec.LOGICAL_NAME).build();
+    Schema schema = SchemaBuilder.struct().field("day", days).build();
+    Struct struct = new Struct(schema).put("day", 18262);
+
+    LogicalTypeCodecs codecs =
+        LogicalTypeCodecs.fromClassNames(" , " + EpochDaysCodec.class.getName());
+
+    assertEquals("2020-01-01", RecordService.convertToJson(days, 18262, true, codecs).textValue());
+    assertEquals(
+        "2020-01-01", codecs.converterFor(schema, true).toJson(struct).get("day").textValue());
+    assertEquals(
+        "2020-01-01", codecs.converterFor(schema, true).toStreamingRow(struct).get("\"DAY\""));
+    // built-in codecs are still there
+    assertEquals(
+        RecordService.convertToJson(Time.SCHEMA, new Date(0), true),
+        RecordService.convertToJson(Time.SCHEMA, new Date(0), true, codecs));
+
+    // other connectors don't see the codec
+    assertEquals(18262, RecordService.convertToJson(days, 18262, true).intValue());
+    assertEquals(
+        18262,
+        LogicalTypeCodecs.BUILT_IN.converterFor(schema, true).toJson(struct).get("day").intValue());
+
+    assertSame(LogicalTypeCodecs.BUILT_IN, LogicalTypeCodecs.fromClassNames(null));
+    assertSame(LogicalTypeCodecs.BUILT_IN, LogicalTypeCodecs.fromClassNames(" "));
+    assertThrows(
+        SnowflakeKafkaConnectorException.class,
+        () -> LogicalTypeCodecs.fromClassNames("com.example.MissingCodec"));
+    assertThrows(
+        SnowflakeKafkaConnectorException.class,
+        () -> LogicalTypeCodecs.fromClassNames(String.class.getName()));
+  }
+
+  private static void assertColumnSameAsJson(Schema schema, Object value)
+      throws JsonProcessingException {
+    JsonNode json = RecordService.convertToJson(schema, value, true);
+    assertEquals(
+        StreamingRecordMapper.getTextualValue(MAPPER, json),
+        LogicalTypeCodecs.BUILT_IN.forSchema(schema).toColumn(schema, value));
+  }
+
+  /** Days since the epoch, written as ISO dates. */
+  public static class EpochDaysCodec implements LogicalTypeCodec {
+    static final String LOGICAL_NAME = "com.snowflake.test.EpochDays";
+
+    @Override
+    public String logicalName() {
+      return LOGICAL_NAME;
+    }
+
+    @Override
+    public Schema.Type schemaType() {
+      return Schema.Type.INT32;
+    }
+
+    @Override
+    public JsonNode toJson(Schema schema, Object value, boolean isStreaming) {
+      return JsonNodeFactory.instance.textNode(LocalDate.ofEpochDay((Integer) value).toString());
+    }
+  }
+}
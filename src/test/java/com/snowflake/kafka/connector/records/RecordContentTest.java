@@ -2,6 +2,8 @@ package com.snowflake.kafka.connector.records;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -214,6 +216,33 @@ public class RecordContentTest {
     assertEquals(expected, RecordService.convertToJson(schema, buffer, false).toString());
   }
 
+  @Test
+  public void recordService_convertNativeRecord() {
+    RecordService service = RecordServiceFactory.createRecordService(false, false);
+    SinkRecord record =
+        new SinkRecord(
+            TOPIC, PARTITION, Schema.STRING_SCHEMA, "key", Schema.INT32_SCHEMA, 123, 10L);
+
+    // key and value are converted into a single new record which shares the json schema
+    SinkRecord converted = service.convertNativeRecord(record, true);
+    assertSame(SnowflakeJsonSchema.INSTANCE, converted.keySchema());
+    assertSame(SnowflakeJsonSchema.INSTANCE, converted.valueSchema());
+    assertEquals("\"key\"", ((SnowflakeRecordContent) converted.key()).getData()[0].toString());
+    assertEquals("123", ((SnowflakeRecordContent) converted.value()).getData()[0].toString());
+    assertEquals(record.kafkaOffset(), converted.kafkaOffset());
+    assertSame(record.headers(), converted.headers());
+
+    // records of snowflake converters are not copied
+    assertSame(converted, service.convertNativeRecord(converted, true));
+
+    // content which can't be converted is carried as broken content
+    SinkRecord invalid =
+        new SinkRecord(TOPIC, PARTITION, null, null, Schema.INT32_SCHEMA, "not a number", 11L);
+    converted = service.convertNativeRecord(invalid, true);
+    assertNull(converted.key());
+    assertTrue(((SnowflakeRecordContent) converted.value()).isBroken());
+  }
+
   @Test
   public void testSchematizationStringField() throws JsonProcessingException {
     RecordService service = RecordServiceFactory.createRecordService(false, true);
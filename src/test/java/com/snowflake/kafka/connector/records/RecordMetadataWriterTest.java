@@ -0,0 +1,186 @@
+package com.snowflake.kafka.connector.records;
+
+import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.SNOWFLAKE_METADATA_CREATETIME;
+import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.SNOWFLAKE_METADATA_HEADERS_EXCLUDE;
+import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.SNOWFLAKE_METADATA_HEADERS_INCLUDE;
+import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.SNOWFLAKE_METADATA_OFFSET_AND_PARTITION;
+import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.SNOWFLAKE_METADATA_TOPIC;
+import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.SNOWFLAKE_STREAMING_METADATA_CONNECTOR_PUSH_TIME;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+import com.snowflake.kafka.connector.Utils;
+import com.snowflake.kafka.connector.builder.SinkRecordBuilder;
+import com.snowflake.kafka.connector.internal.SnowflakeKafkaConnectorException;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.apache.kafka.common.record.TimestampType;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.header.ConnectHeaders;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class RecordMetadataWriterTest {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final Instant PUSH_TIME = Instant.ofEpochMilli(1700000000123L);
+
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("records")
+  void shouldWriteSameMetadataAsObjectNode(
+      String description, SinkRecord record, Map<String, String> metadataConfig)
+      throws JsonProcessingException {
+    RecordService service = RecordServiceFactory.createRecordService(false, false);
+    SnowflakeMetadataConfig config = new SnowflakeMetadataConfig(metadataConfig);
+    service.setMetadataConfig(config);
+    SnowflakeRecordContent content = (SnowflakeRecordContent) record.value();
+
+    String expected = MAPPER.writeValueAsString(service.createMetadata(record, content, PUSH_TIME));
+
+    // the writer reuses its buffer, so every call has to produce the full output again
+    RecordMetadataWriter writer = new RecordMetadataWriter(service, MAPPER);
+    assertEquals(expected, writer.write(record, content, config, PUSH_TIME));
+    assertEquals(expected, writer.write(record, content, config, PUSH_TIME));
+  }
+
+  static Stream<Arguments> records() throws JsonProcessingException {
+    SnowflakeRecordContent content = jsonContent("{\"name\":\"value\"}");
+    SnowflakeRecordContent avroContent =
+        new SnowflakeRecordContent(MAPPER.readTree("{\"name\":1}"), 7);
+
+    ConnectHeaders headers = new ConnectHeaders();
+    headers.addString("string", "text \"with\" quotes");
+    headers.addInt("int", 42);
+    headers.addDecimal("decimal", new BigDecimal("1234.1234"));
+    headers.addBytes("bytes", new byte[] {1, 2, 3});
+    headers.addString("string", "duplicated key");
+    Schema structSchema = SchemaBuilder.struct().field("f", Schema.STRING_SCHEMA).build();
+    headers.addStruct("struct", new Struct(structSchema).put("f", "nested"));
+
+    return Stream.of(
+        arguments("string key", builder(content).build(), Collections.emptyMap()),
+        arguments(
+            "create time",
+            builder(content).withTimestamp(123L, TimestampType.CREATE_TIME).build(),
+            Collections.emptyMap()),
+        arguments(
+            "log append time",
+            builder(content).withTimestamp(123L, TimestampType.LOG_APPEND_TIME).build(),
+            Collections.emptyMap()),
+        arguments(
+            "json key",
+            builder(content)
+                .withKeySchema(new SnowflakeJsonSchema())
+                .withKey(jsonContent("{\"id\":[1,2,{\"a\":null}]}"))
+                .build(),
+            Collections.emptyMap()),
+        arguments(
+            "avro key and value with schema ids",
+            builder(avroContent)
+                .withKeySchema(new SnowflakeJsonSchema())
+                .withKey(new SnowflakeRecordContent(MAPPER.readTree("\"k\""), 3))
+                .build(),
+            Collections.emptyMap()),
+        arguments(
+            "null key and null topic",
+            new SinkRecord(null, 1, null, null, new SnowflakeJsonSchema(), content, 5),
+            Collections.emptyMap()),
+        arguments(
+            "escaped string key",
+            builder(content).withKey("line\nbreak é ☃ \\").build(),
+            Collections.emptyMap()),
+        arguments("headers", headersRecord(content, headers), Collections.emptyMap()),
+        arguments(
+            "projected headers",
+            headersRecord(content, headers),
+            ImmutableMap.of(
+                SNOWFLAKE_METADATA_HEADERS_INCLUDE, "str*,int,bytes",
+                SNOWFLAKE_METADATA_HEADERS_EXCLUDE, "struct")),
+        arguments(
+            "all headers excluded",
+            headersRecord(content, headers),
+            ImmutableMap.of(SNOWFLAKE_METADATA_HEADERS_EXCLUDE, "*")),
+        arguments(
+            "all flags disabled",
+            builder(content).withTimestamp(123L, TimestampType.CREATE_TIME).build(),
+            ImmutableMap.of(
+                SNOWFLAKE_METADATA_TOPIC, "false",
+                SNOWFLAKE_METADATA_OFFSET_AND_PARTITION, "false",
+                SNOWFLAKE_METADATA_CREATETIME, "false",
+                SNOWFLAKE_STREAMING_METADATA_CONNECTOR_PUSH_TIME, "false")));
+  }
+
+  private static SinkRecord headersRecord(SnowflakeRecordContent content, ConnectHeaders headers) {
+    return new SinkRecord(
+        "topic",
+        0,
+        Schema.STRING_SCHEMA,
+        "key",
+        new SnowflakeJsonSchema(),
+        content,
+        10,
+        5L,
+        TimestampType.CREATE_TIME,
+        headers);
+  }
+
+  @Test
+  void shouldRecoverAfterFailedWrite() throws JsonProcessingException {
+    RecordService service = RecordServiceFactory.createRecordService(false, false);
+    SnowflakeMetadataConfig config = new SnowflakeMetadataConfig();
+    RecordMetadataWriter writer = new RecordMetadataWriter(service, MAPPER);
+    SnowflakeRecordContent content = jsonContent("{}");
+
+    SinkRecord invalidKey = builder(content).withKeySchema(Schema.INT32_SCHEMA).withKey(1).build();
+    assertThrows(
+        SnowflakeKafkaConnectorException.class,
+        () -> writer.write(invalidKey, content, config, PUSH_TIME));
+
+    SinkRecord record = builder(content).build();
+    assertEquals(
+        MAPPER.writeValueAsString(service.createMetadata(record, content, PUSH_TIME)),
+        writer.write(record, content, config, PUSH_TIME));
+  }
+
+  @Test
+  void streamingIngest_writesSerializedMetadata() throws JsonProcessingException {
+    RecordService service =
+        new RecordService(
+            Clock.fixed(PUSH_TIME, ZoneOffset.UTC),
+            new SnowflakeTableStreamingRecordMapper(MAPPER, false),
+            MAPPER);
+    SnowflakeRecordContent content = jsonContent("{\"name\":\"value\"}");
+    SinkRecord record = builder(content).withTimestamp(1L, TimestampType.CREATE_TIME).build();
+
+    Map<String, Object> row = service.getProcessedRecordForStreamingIngest(record);
+
+    assertEquals(
+        MAPPER.writeValueAsString(service.createMetadata(record, content, PUSH_TIME)),
+        row.get(Utils.TABLE_COLUMN_METADATA));
+  }
+
+  private static SinkRecordBuilder builder(SnowflakeRecordContent content) {
+    return SinkRecordBuilder.forTopicPartition("topic", 3)
+        .withValueSchema(new SnowflakeJsonSchema())
+        .withValue(content)
+        .withOffset(42);
+  }
+
+  private static SnowflakeRecordContent jsonContent(String json) throws JsonProcessingException {
+    return new SnowflakeRecordContent(MAPPER.readTree(json));
+  }
+}
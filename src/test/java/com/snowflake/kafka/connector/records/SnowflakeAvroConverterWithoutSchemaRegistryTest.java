@@ -0,0 +1,180 @@
+package com.snowflake.kafka.connector.records;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.snowflake.kafka.connector.internal.metrics.MetricsUtil;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.stream.Stream;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.file.CodecFactory;
+import org.apache.avro.file.DataFileConstants;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class SnowflakeAvroConverterWithoutSchemaRegistryTest {
+
+  static Stream<CodecFactory> codecs() {
+    return Stream.of(CodecFactory.nullCodec(), CodecFactory.deflateCodec(6));
+  }
+
+  @ParameterizedTest
+  @MethodSource("codecs")
+  void toConnectData_reusesEmbeddedSchema(CodecFactory codec) throws IOException {
+    Schema schema =
+        SchemaBuilder.record("cached_" + codec.toString().replace('-', '_'))
+            .fields()
+            .requiredString("name")
+            .requiredInt("age")
+            .endRecord();
+    SnowflakeAvroConverterWithoutSchemaRegistry converter =
+        new SnowflakeAvroConverterWithoutSchemaRegistry();
+
+    long hits = SnowflakeAvroConverterWithoutSchemaRegistry.getHeaderCacheHitCount();
+    long misses = SnowflakeAvroConverterWithoutSchemaRegistry.getHeaderCacheMissCount();
+
+    // every container has its own sync marker, the embedded schema is still found in the cache
+    for (int i = 0; i < 3; i++) {
+      byte[] container = writeContainer(schema, codec, "foo", "bar");
+      SnowflakeRecordContent content =
+          assertInstanceOf(
+              SnowflakeRecordContent.class, converter.toConnectData("test", container).value());
+      JsonNode[] data = content.getData();
+      assertEquals(2, data.length);
+      assertEquals("{\"name\":\"foo\",\"age\":30}", data[0].toString());
+      assertEquals("{\"name\":\"bar\",\"age\":30}", data[1].toString());
+    }
+
+    assertEquals(1, SnowflakeAvroConverterWithoutSchemaRegistry.getHeaderCacheMissCount() - misses);
+    assertEquals(2, SnowflakeAvroConverterWithoutSchemaRegistry.getHeaderCacheHitCount() - hits);
+  }
+
+  @Test
+  void toConnectData_otherCodec_notCounted() throws IOException {
+    Schema schema =
+        SchemaBuilder.record("bzip2")
+            .fields()
+            .requiredString("name")
+            .requiredInt("age")
+            .endRecord();
+    SnowflakeAvroConverterWithoutSchemaRegistry converter =
+        new SnowflakeAvroConverterWithoutSchemaRegistry();
+
+    long hits = SnowflakeAvroConverterWithoutSchemaRegistry.getHeaderCacheHitCount();
+    long misses = SnowflakeAvroConverterWithoutSchemaRegistry.getHeaderCacheMissCount();
+
+    // blocks of the codec are read by DataFileReader, which parses the header of every message
+    for (int i = 0; i < 2; i++) {
+      byte[] container = writeContainer(schema, CodecFactory.bzip2Codec(), "foo");
+      SnowflakeRecordContent content =
+          assertInstanceOf(
+              SnowflakeRecordContent.class, converter.toConnectData("test", container).value());
+      assertEquals("{\"name\":\"foo\",\"age\":30}", content.getData()[0].toString());
+    }
+
+    assertEquals(2, SnowflakeAvroConverterWithoutSchemaRegistry.getHeaderCacheMissCount() - misses);
+    assertEquals(0, SnowflakeAvroConverterWithoutSchemaRegistry.getHeaderCacheHitCount() - hits);
+  }
+
+  @ParameterizedTest
+  @MethodSource("codecs")
+  void toConnectData_invalidContainer_brokenRecord(CodecFactory codec) throws IOException {
+    Schema schema =
+        SchemaBuilder.record("broken_" + codec.toString().replace('-', '_'))
+            .fields()
+            .requiredString("name")
+            .requiredInt("age")
+            .endRecord();
+    SnowflakeAvroConverterWithoutSchemaRegistry converter =
+        new SnowflakeAvroConverterWithoutSchemaRegistry();
+    byte[] container = writeContainer(schema, codec, "foo");
+    // corrupt the sync marker after the data block
+    container[container.length - 1]++;
+
+    Object value = converter.toConnectData("test", container).value();
+    SnowflakeRecordContent content = assertInstanceOf(SnowflakeRecordContent.class, value);
+    assertTrue(content.isBroken());
+    assertArrayEquals(container, content.getBrokenData());
+  }
+
+  @Test
+  void registerMetrics_reportsHeaderCacheCounters() {
+    MetricRegistry metricRegistry = new MetricRegistry();
+    SnowflakeAvroConverterWithoutSchemaRegistry.registerMetrics(metricRegistry);
+
+    assertEquals(
+        SnowflakeAvroConverterWithoutSchemaRegistry.getHeaderCacheHitCount(),
+        gauge(metricRegistry, MetricsUtil.CACHE_HIT_COUNT));
+    assertEquals(
+        SnowflakeAvroConverterWithoutSchemaRegistry.getHeaderCacheMissCount(),
+        gauge(metricRegistry, MetricsUtil.CACHE_MISS_COUNT));
+  }
+
+  @Test
+  void enableJmxMetrics_reportsOncePerWorker() {
+    // called by every task enabling JMX
+    SnowflakeAvroConverterWithoutSchemaRegistry.enableJmxMetrics();
+    assertDoesNotThrow(SnowflakeAvroConverterWithoutSchemaRegistry::enableJmxMetrics);
+  }
+
+  @Test
+  void findHeaderEnd_invalidHeader() throws IOException {
+    Schema schema = SchemaBuilder.record("header").fields().requiredString("name").endRecord();
+    byte[] container = writeContainer(schema, CodecFactory.nullCodec(), "foo");
+
+    int headerEnd = SnowflakeAvroConverterWithoutSchemaRegistry.findHeaderEnd(container);
+    // the header is followed by the sync marker, then the first data block
+    assertTrue(headerEnd > DataFileConstants.MAGIC.length);
+    assertTrue(container.length - headerEnd > DataFileConstants.SYNC_SIZE);
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> SnowflakeAvroConverterWithoutSchemaRegistry.findHeaderEnd(new byte[] {1, 2, 3, 4}));
+    byte[] truncated = new byte[headerEnd - 1];
+    System.arraycopy(container, 0, truncated, 0, truncated.length);
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> SnowflakeAvroConverterWithoutSchemaRegistry.findHeaderEnd(truncated));
+  }
+
+  private static byte[] writeContainer(Schema schema, CodecFactory codec, String... names)
+      throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (DataFileWriter<GenericRecord> writer =
+        new DataFileWriter<>(new GenericDatumWriter<GenericRecord>(schema))) {
+      writer.setCodec(codec);
+      writer.create(schema, out);
+      for (String name : names) {
+        GenericRecord record = new GenericData.Record(schema);
+        record.put("name", name);
+        record.put("age", 30);
+        writer.append(record);
+      }
+    }
+    return out.toByteArray();
+  }
+
+  private static Object gauge(MetricRegistry metricRegistry, String name) {
+    return metricRegistry
+        .getGauges()
+        .get(
+            MetricsUtil.constructMetricName(
+                MetricsUtil.CONVERTERS_METRICS_NAME,
+                MetricsUtil.AVRO_HEADER_CACHE_SUB_DOMAIN,
+                name))
+        .getValue();
+  }
+}
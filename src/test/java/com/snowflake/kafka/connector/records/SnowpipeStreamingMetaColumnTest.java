@@ -1,11 +1,15 @@
 package com.snowflake.kafka.connector.records;
 
+import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.SNOWFLAKE_METADATA_TYPED_COLUMNS;
 import static com.snowflake.kafka.connector.SnowflakeSinkConnectorConfig.SNOWFLAKE_STREAMING_METADATA_CONNECTOR_PUSH_TIME;
 import static com.snowflake.kafka.connector.records.RecordService.CONNECTOR_PUSH_TIME;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -15,11 +19,18 @@ import com.snowflake.kafka.connector.Utils;
 import com.snowflake.kafka.connector.builder.SinkRecordBuilder;
 import java.time.Clock;
 import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.ZoneOffset;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.Optional;
 import javax.annotation.Nullable;
+import org.apache.kafka.common.record.TimestampType;
+import org.apache.kafka.connect.data.Schema;
 import org.apache.kafka.connect.data.SchemaAndValue;
+import org.apache.kafka.connect.errors.DataException;
+import org.apache.kafka.connect.header.ConnectHeaders;
 import org.apache.kafka.connect.sink.SinkRecord;
 import org.junit.jupiter.api.Test;
 
@@ -86,6 +97,166 @@ class SnowpipeStreamingMetaColumnTest extends AbstractMetaColumnTest {
     assertFalse(metadata.has(CONNECTOR_PUSH_TIME));
   }
 
+  @Test
+  void typedColumns_whenEnabled_writesMetadataIntoColumns() throws JsonProcessingException {
+    // given
+    SchemaAndValue input = getJsonInputData();
+    SinkRecord record =
+        SinkRecordBuilder.forTopicPartition(topic, partition)
+            .withValueSchema(input.schema())
+            .withValue(input.value())
+            .withKeySchema(Schema.STRING_SCHEMA)
+            .withKey("key")
+            .withOffset(42)
+            .withTimestamp(1700000000123L, TimestampType.CREATE_TIME)
+            .build();
+
+    Instant fixedNow = Instant.ofEpochMilli(1700000000456L);
+    ObjectMapper mapper = new ObjectMapper();
+    RecordService service =
+        new RecordService(
+            Clock.fixed(fixedNow, ZoneOffset.UTC),
+            new SnowflakeTableStreamingRecordMapper(mapper, false),
+            mapper);
+    service.setMetadataConfig(
+        new SnowflakeMetadataConfig(ImmutableMap.of(SNOWFLAKE_METADATA_TYPED_COLUMNS, "true")));
+
+    // when
+    Map<String, Object> recordData = service.getProcessedRecordForStreamingIngest(record);
+
+    // then
+    assertTrue(service.writesTypedMetadataColumns());
+    assertEquals(topic, recordData.get(Utils.TABLE_COLUMN_METADATA_TOPIC));
+    assertEquals(partition, recordData.get(Utils.TABLE_COLUMN_METADATA_PARTITION));
+    assertEquals(42L, recordData.get(Utils.TABLE_COLUMN_METADATA_OFFSET));
+    assertEquals("key", recordData.get(Utils.TABLE_COLUMN_METADATA_KEY));
+    assertEquals(
+        LocalDateTime.of(2023, 11, 14, 22, 13, 20, 123_000_000),
+        recordData.get(Utils.TABLE_COLUMN_METADATA_CREATETIME));
+    assertEquals(
+        LocalDateTime.of(2023, 11, 14, 22, 13, 20, 456_000_000),
+        recordData.get(Utils.TABLE_COLUMN_METADATA_CONNECTOR_PUSH_TIME));
+    assertNull(getMetadataNode(recordData));
+    assertNotNull(recordData.get(Utils.TABLE_COLUMN_CONTENT));
+  }
+
+  @Test
+  void typedColumns_whenEnabled_keepsHeadersInMetadata() throws JsonProcessingException {
+    // given
+    SchemaAndValue input = getJsonInputData();
+    ConnectHeaders headers = new ConnectHeaders();
+    headers.addString("header", "value");
+    SinkRecord record =
+        new SinkRecord(
+            topic,
+            partition,
+            null,
+            null,
+            input.schema(),
+            input.value(),
+            0,
+            null,
+            TimestampType.NO_TIMESTAMP_TYPE,
+            headers);
+
+    RecordService service = RecordServiceFactory.createRecordService(false, true);
+    service.setMetadataConfig(
+        new SnowflakeMetadataConfig(ImmutableMap.of(SNOWFLAKE_METADATA_TYPED_COLUMNS, "true")));
+
+    // when
+    Map<String, Object> recordData = service.getProcessedRecordForStreamingIngest(record);
+    JsonNode metadata = getMetadataNode(recordData);
+
+    // then
+    assertNotNull(metadata);
+    assertEquals(1, metadata.size());
+    assertEquals("value", metadata.get(RecordService.HEADERS).get("header").asText());
+    assertFalse(recordData.containsKey(Utils.TABLE_COLUMN_METADATA_CREATETIME));
+    assertFalse(recordData.containsKey(Utils.TABLE_COLUMN_METADATA_KEY));
+  }
+
+  @Test
+  void convertBatch_sharesConnectorTimestampAndReportsBrokenRecords()
+      throws JsonProcessingException {
+    // given
+    SchemaAndValue input = getJsonInputData();
+    SinkRecord first =
+        SinkRecordBuilder.forTopicPartition(topic, partition)
+            .withValueSchema(input.schema())
+            .withValue(input.value())
+            .withOffset(0)
+            .build();
+    SinkRecord broken =
+        SinkRecordBuilder.forTopicPartition(topic, partition)
+            .withValue(new SnowflakeRecordContent(new byte[] {1, 2, 3}))
+            .withOffset(1)
+            .build();
+    SinkRecord last =
+        SinkRecordBuilder.forTopicPartition(topic, partition)
+            .withValueSchema(input.schema())
+            .withValue(input.value())
+            .withOffset(2)
+            .build();
+
+    TickingClock clock = new TickingClock();
+    ObjectMapper mapper = new ObjectMapper();
+    RecordService service =
+        new RecordService(clock, new SnowflakeTableStreamingRecordMapper(mapper, false), mapper);
+
+    // when
+    RecordService.ConvertedBatch batch = service.convertBatch(Arrays.asList(first, broken, last));
+
+    // then
+    assertEquals(3, batch.size());
+    assertEquals(1, clock.calls);
+    assertSame(broken, batch.getRecord(1));
+    assertNull(batch.getRow(1));
+    assertInstanceOf(DataException.class, batch.getFailure(1));
+    assertNull(batch.getFailure(0));
+    assertNull(batch.getFailure(2));
+    assertEquals(
+        getMetadataNode(batch.getRow(0)).get(CONNECTOR_PUSH_TIME),
+        getMetadataNode(batch.getRow(2)).get(CONNECTOR_PUSH_TIME));
+
+    // same rows as converting the records one by one
+    Map<String, Object> expected =
+        service.getProcessedRecordForStreamingIngest(service.convertNativeRecord(last, true));
+    Map<String, Object> actual = batch.getRow(2);
+    assertEquals(expected.keySet(), actual.keySet());
+    expected.remove(Utils.TABLE_COLUMN_METADATA);
+    actual.remove(Utils.TABLE_COLUMN_METADATA);
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  void typedColumns_forIcebergTables_ignored() {
+    RecordService service = RecordServiceFactory.createRecordService(true, true);
+    service.setMetadataConfig(
+        new SnowflakeMetadataConfig(ImmutableMap.of(SNOWFLAKE_METADATA_TYPED_COLUMNS, "true")));
+
+    assertFalse(service.writesTypedMetadataColumns());
+  }
+
+  /** Clock which moves a millisecond forward on every read. */
+  private static class TickingClock extends Clock {
+    private int calls;
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Instant instant() {
+      return Instant.ofEpochMilli(1700000000000L + calls++);
+    }
+  }
+
   private @Nullable JsonNode getMetadataNode(Map<String, Object> processedRecord) {
     return Optional.ofNullable(processedRecord.get(Utils.TABLE_COLUMN_METADATA))
         .map(metadata -> assertInstanceOf(String.class, metadata))
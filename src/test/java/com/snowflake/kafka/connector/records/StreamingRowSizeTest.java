@@ -0,0 +1,73 @@
+package com.snowflake.kafka.connector.records;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class StreamingRowSizeTest {
+
+  @ParameterizedTest
+  @ValueSource(
+      strings = {
+        "",
+        "{\"name\":\"value\"}",
+        "\u017C\u00F3\u0142\u0107",
+        "\u20AC and \u2713",
+        "emoji \uD83D\uDE00 pair",
+        "unpaired \uD83D surrogate",
+        "\uDE00"
+      })
+  void utf8Length_isSizeOfEncodedText(String text) {
+    assertEquals(text.getBytes(StandardCharsets.UTF_8).length, StreamingRowSize.utf8Length(text));
+  }
+
+  @Test
+  void of_countsColumnNamesAndValues() {
+    Map<String, Object> row = new HashMap<>();
+    row.put("RECORD_CONTENT", "{\"a\":\"\u0105\"}");
+    row.put("OFFSET", 42L);
+    row.put("PARTITION", 1);
+    row.put("FLAG", true);
+    row.put("CREATE_TIME", LocalDateTime.of(2024, 1, 1, 0, 0));
+    row.put("EMPTY", null);
+
+    assertEquals(
+        (14 + 10) + (6 + 8) + (9 + 8) + (4 + 1) + (11 + 12) + 5, StreamingRowSize.of(row));
+  }
+
+  @Test
+  void of_countsNestedValues() {
+    Map<String, Object> nested = new HashMap<>();
+    nested.put("key", "\u00FC");
+    nested.put("values", Arrays.asList("a", "bc", null));
+    Map<String, Object> row = Collections.singletonMap("CONTENT", nested);
+
+    assertEquals(7 + (3 + 2) + (6 + 3), StreamingRowSize.of(row));
+  }
+
+  @Test
+  void ofRecord_countsTopicKeyValueAndHeaders() {
+    Schema schema =
+        SchemaBuilder.struct()
+            .field("name", Schema.STRING_SCHEMA)
+            .field("id", Schema.INT64_SCHEMA)
+            .build();
+    Struct value = new Struct(schema).put("name", "ab").put("id", 1L);
+    SinkRecord record = new SinkRecord("topic", 0, Schema.STRING_SCHEMA, "k", schema, value, 0);
+    record.headers().addString("h", "\u00FC");
+
+    assertEquals(5 + 1 + (2 + 8) + (1 + 2), StreamingRowSize.ofRecord(record));
+  }
+}